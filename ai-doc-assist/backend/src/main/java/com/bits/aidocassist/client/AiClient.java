@@ -0,0 +1,23 @@
+package com.bits.aidocassist.client;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Chat-Completions-Client der Analyse-Services. Implementierungen:
+ * {@link ChatCompletionClient} (blockierend, RestTemplate) und
+ * {@link AsyncChatCompletionClient} (nicht-blockierend, JDK HttpClient; ai.client.mode=async).
+ */
+public interface AiClient {
+
+    /**
+     * Blockierender Aufruf; HTTP-Fehler werden als RestClientException weitergereicht
+     */
+    ChatCompletionResponse complete(ChatCompletionRequest request, String type);
+
+    /**
+     * Asynchroner Aufruf; Fehler schließen das Future mit einer RestClientException ab
+     */
+    CompletableFuture<ChatCompletionResponse> completeAsync(ChatCompletionRequest request, String type);
+
+    boolean isAvailable();
+}
@@ -0,0 +1,176 @@
+package com.bits.aidocassist.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.UnknownHttpStatusCodeException;
+
+import com.bits.aidocassist.service.HedgingPolicy;
+
+/**
+ * Nicht-blockierender Chat-Completions-Client auf Basis des JDK-HttpClient (ai.client.mode=async).
+ * Beliebig viele laufende LLM-Aufrufe teilen sich wenige Threads: Requests werden asynchron gesendet,
+ * Antworten im ai-http-Pool dekodiert. URL, API-Key und Routen-Metriken kommen vom {@link ChatCompletionClient}.
+ */
+@Primary
+@Component
+@ConditionalOnProperty(name = "ai.client.mode", havingValue = "async")
+public class AsyncChatCompletionClient implements AiClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncChatCompletionClient.class);
+
+    @Value("${ai.client.async.connect-timeout-ms:5000}")
+    private long connectTimeoutMs;
+
+    @Value("${ai.client.async.request-timeout-ms:60000}")
+    private long requestTimeoutMs;
+
+    @Autowired
+    private ChatCompletionClient blockingClient;
+
+    @Autowired
+    private ChatCompletionCodec codec;
+
+    @Autowired
+    private HedgingPolicy hedgingPolicy;
+
+    @Autowired
+    @Qualifier("aiHttpExecutor")
+    private Executor httpExecutor;
+
+    private HttpClient httpClient;
+
+    @PostConstruct
+    void init() {
+        httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+            .executor(httpExecutor)
+            .build();
+        logger.info("⚡ Nicht-blockierender LLM-Client aktiv (JDK HttpClient)");
+    }
+
+    /**
+     * Blockierender Adapter für bestehende Aufrufer
+     */
+    @Override
+    public ChatCompletionResponse complete(ChatCompletionRequest request, String type) {
+        try {
+            return completeAsync(request, type).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<ChatCompletionResponse> completeAsync(ChatCompletionRequest request, String type) {
+        ChatCompletionClient.RouteStats stats = blockingClient.routeStats(type, request.model());
+        long start = System.currentTimeMillis();
+
+        HttpRequest httpRequest;
+        try {
+            httpRequest = HttpRequest.newBuilder(URI.create(blockingClient.resolveUrl()))
+                .timeout(Duration.ofMillis(requestTimeoutMs))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + blockingClient.bearerToken())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(codec.toBytes(request)))
+                .build();
+        } catch (IOException e) {
+            stats.recordFailure(0);
+            return CompletableFuture.failedFuture(new RestClientException("Request konnte nicht serialisiert werden", e));
+        }
+
+        return hedgingPolicy.executeAsync(type, () -> send(httpRequest))
+            .whenComplete((response, error) -> {
+                long latencyMs = System.currentTimeMillis() - start;
+                if (error != null) {
+                    stats.recordFailure(latencyMs);
+                } else {
+                    stats.record(latencyMs, response != null ? response.usage() : ChatUsage.EMPTY);
+                }
+            });
+    }
+
+    /**
+     * Ein Versuch (Primär oder Hedge). Der Hedge bricht den Verlierer über das dekodierende Future ab;
+     * erst cancel auf dem sendAsync-Future beendet den HTTP-Austausch wirklich.
+     */
+    private CompletableFuture<ChatCompletionResponse> send(HttpRequest httpRequest) {
+        CompletableFuture<HttpResponse<byte[]>> exchange =
+            httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray());
+        CompletableFuture<ChatCompletionResponse> response = exchange.handle(this::decode);
+        response.whenComplete((ignored, error) -> {
+            if (error instanceof CancellationException) {
+                exchange.cancel(true);
+            }
+        });
+        return response;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return blockingClient.isAvailable();
+    }
+
+    /**
+     * Body liegt bereits vollständig vor - Dekodieren blockiert nicht; Fehler wie beim RestTemplate
+     */
+    private ChatCompletionResponse decode(HttpResponse<byte[]> httpResponse, Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof CancellationException) {
+                // Abgebrochener Austausch (Hedge-Verlierer, Knoten-Timeout) ist kein I/O-Fehler
+                throw (CancellationException) cause;
+            }
+            throw new ResourceAccessException("I/O error on POST request: " + cause.getMessage(),
+                cause instanceof IOException ? (IOException) cause : new IOException(cause));
+        }
+        int status = httpResponse.statusCode();
+        if (status >= 400) {
+            throw httpError(status, httpResponse.body());
+        }
+        try {
+            return codec.readResponse(new ByteArrayInputStream(httpResponse.body()));
+        } catch (IOException e) {
+            throw new RestClientException("Antwort konnte nicht gelesen werden: " + e.getMessage(), e);
+        }
+    }
+
+    private static RestClientException httpError(int status, byte[] body) {
+        HttpStatus httpStatus = HttpStatus.resolve(status);
+        if (httpStatus == null) {
+            return new UnknownHttpStatusCodeException(status, "", null, body, StandardCharsets.UTF_8);
+        }
+        if (httpStatus.is4xxClientError()) {
+            return HttpClientErrorException.create(httpStatus, httpStatus.getReasonPhrase(), null, body, StandardCharsets.UTF_8);
+        }
+        return HttpServerErrorException.create(httpStatus, httpStatus.getReasonPhrase(), null, body, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,176 @@
+package com.bits.aidocassist.client;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import com.bits.aidocassist.demo.MockLlmServer;
+import com.bits.aidocassist.service.HedgingPolicy;
+import com.bits.aidocassist.util.LatencyWindow;
+
+/**
+ * Gemeinsamer HTTP-Client für Chat Completions: typisierte Requests, Streaming-Codec,
+ * Hedging, Mock-Umleitung sowie Latenz und Token-Verbrauch je Route (Aufruf-Typ + Modell).
+ * Blockierende Implementierung; URL, API-Key und Routen-Metriken nutzt auch {@link AsyncChatCompletionClient}.
+ */
+@Component
+public class ChatCompletionClient implements AiClient {
+
+    @Value("${openai.api.key:}")
+    private String apiKey;
+
+    @Value("${openai.api.url:https://api.openai.com/v1/chat/completions}")
+    private String apiUrl;
+
+    @Autowired
+    private ChatCompletionCodec codec;
+
+    @Autowired
+    private HedgingPolicy hedgingPolicy;
+
+    // Lokaler Mock-Server (demo.mock.ai=true) ersetzt die OpenAI-URL
+    @Autowired
+    private ObjectProvider<MockLlmServer> mockLlmServer;
+
+    // Verbindung des gerade erzeugten Requests, damit ein Hedge-Verlierer per disconnect() abbrechen kann
+    private static final ThreadLocal<HttpURLConnection> OPENED_CONNECTION = new ThreadLocal<>();
+
+    private final RestTemplate restTemplate = new RestTemplate(new SimpleClientHttpRequestFactory() {
+        @Override
+        protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+            super.prepareConnection(connection, httpMethod);
+            OPENED_CONNECTION.set(connection);
+        }
+    });
+
+    private final Map<String, RouteStats> routeStats = new ConcurrentHashMap<>();
+
+    /**
+     * Führt einen Chat-Completions-Aufruf aus; HTTP-Fehler werden als RestClientException weitergereicht
+     */
+    @Override
+    public ChatCompletionResponse complete(ChatCompletionRequest request, String type) {
+        RouteStats stats = routeStats(type, request.model());
+        long start = System.currentTimeMillis();
+        try {
+            ChatCompletionResponse response = hedgingPolicy.execute(type, attempt -> restTemplate.execute(
+                resolveUrl(),
+                HttpMethod.POST,
+                httpRequest -> {
+                    // cancel(true) unterbricht den Socket-Read nicht, disconnect() schon
+                    HttpURLConnection connection = OPENED_CONNECTION.get();
+                    OPENED_CONNECTION.remove();
+                    if (connection != null) {
+                        attempt.onAbort(connection::disconnect);
+                    }
+                    httpRequest.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                    httpRequest.getHeaders().setBearerAuth(bearerToken());
+                    httpRequest.getBody().write(codec.toBytes(request));
+                },
+                httpResponse -> codec.readResponse(httpResponse.getBody())));
+
+            stats.record(System.currentTimeMillis() - start, response != null ? response.usage() : ChatUsage.EMPTY);
+            return response;
+        } catch (RuntimeException e) {
+            stats.recordFailure(System.currentTimeMillis() - start);
+            throw e;
+        }
+    }
+
+    /**
+     * Blockierender Adapter: der Aufruf läuft im aufrufenden Thread, das Future ist danach bereits abgeschlossen
+     */
+    @Override
+    public CompletableFuture<ChatCompletionResponse> completeAsync(ChatCompletionRequest request, String type) {
+        try {
+            return CompletableFuture.completedFuture(complete(request, type));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return isApiKeyConfigured() || mockLlmServer.getIfAvailable() != null;
+    }
+
+    private boolean isApiKeyConfigured() {
+        return apiKey != null && !apiKey.isBlank();
+    }
+
+    String bearerToken() {
+        return isApiKeyConfigured() ? apiKey : "mock";
+    }
+
+    RouteStats routeStats(String type, String model) {
+        return routeStats.computeIfAbsent(type + " -> " + model, key -> new RouteStats());
+    }
+
+    String resolveUrl() {
+        MockLlmServer mock = mockLlmServer.getIfAvailable();
+        return mock != null ? mock.getChatCompletionsUrl() : apiUrl;
+    }
+
+    /**
+     * Latenz und Token-Verbrauch je Route ("aufruf-typ -> modell", sortiert)
+     */
+    public Map<String, RouteStats> getRouteStats() {
+        return new TreeMap<>(routeStats);
+    }
+
+    public static class RouteStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder promptTokens = new LongAdder();
+        private final LongAdder completionTokens = new LongAdder();
+        private final LongAdder totalTokens = new LongAdder();
+        private final LongAdder totalLatencyMs = new LongAdder();
+        private final LatencyWindow latencyWindow = new LatencyWindow(200);
+
+        void record(long latencyMs, ChatUsage usage) {
+            calls.increment();
+            totalLatencyMs.add(latencyMs);
+            latencyWindow.record(latencyMs);
+            promptTokens.add(usage.promptTokens());
+            completionTokens.add(usage.completionTokens());
+            totalTokens.add(usage.totalTokens());
+        }
+
+        void recordFailure(long latencyMs) {
+            calls.increment();
+            failures.increment();
+            totalLatencyMs.add(latencyMs);
+        }
+
+        public long getCalls() { return calls.sum(); }
+        public long getFailures() { return failures.sum(); }
+        public long getPromptTokens() { return promptTokens.sum(); }
+        public long getCompletionTokens() { return completionTokens.sum(); }
+        public long getTotalTokens() { return totalTokens.sum(); }
+        public long getP50LatencyMs() { return latencyWindow.percentile(50); }
+        public long getP95LatencyMs() { return latencyWindow.percentile(95); }
+
+        public double getAvgLatencyMs() {
+            long count = calls.sum();
+            return count == 0 ? 0.0 : (double) totalLatencyMs.sum() / count;
+        }
+
+        public double getAvgTotalTokens() {
+            long successful = calls.sum() - failures.sum();
+            return successful <= 0 ? 0.0 : (double) totalTokens.sum() / successful;
+        }
+    }
+}
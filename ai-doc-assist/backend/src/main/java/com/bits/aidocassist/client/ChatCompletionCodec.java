@@ -0,0 +1,267 @@
+package com.bits.aidocassist.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Streaming-Codec für Chat-Completions: schreibt Requests direkt per JsonGenerator und liest
+ * aus der Antwort nur Modell, ersten Choice-Inhalt und Usage - ohne den Baum zu materialisieren.
+ */
+@Component
+public class ChatCompletionCodec {
+
+    private final JsonFactory jsonFactory;
+
+    @Autowired
+    public ChatCompletionCodec(ObjectMapper objectMapper) {
+        // JsonFactory des gemeinsamen ObjectMappers (thread-safe, wiederverwendbare Puffer)
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    // ========================================
+    // REQUEST
+    // ========================================
+
+    public byte[] toBytes(ChatCompletionRequest request) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(estimateSize(request));
+        try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            writeRequest(request, generator);
+        }
+        return out.toByteArray();
+    }
+
+    public void writeRequest(ChatCompletionRequest request, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("model", request.model());
+
+        generator.writeArrayFieldStart("messages");
+        for (ChatMessage message : request.messages()) {
+            generator.writeStartObject();
+            generator.writeStringField("role", message.role());
+            generator.writeStringField("content", message.content());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+
+        if (request.maxTokens() != null) {
+            generator.writeNumberField("max_tokens", request.maxTokens());
+        }
+        writeOptional(generator, "temperature", request.temperature());
+        writeOptional(generator, "top_p", request.topP());
+        writeOptional(generator, "frequency_penalty", request.frequencyPenalty());
+        writeOptional(generator, "presence_penalty", request.presencePenalty());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Liest einen Request (z.B. "body" einer Batch-Zeile); der Parser steht auf START_OBJECT
+     */
+    public ChatCompletionRequest readRequest(JsonParser parser) throws IOException {
+        expect(parser, JsonToken.START_OBJECT);
+
+        String model = null;
+        List<ChatMessage> messages = new ArrayList<>();
+        Integer maxTokens = null;
+        Double temperature = null;
+        Double topP = null;
+        Double frequencyPenalty = null;
+        Double presencePenalty = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "model":
+                    model = parser.getValueAsString();
+                    break;
+                case "messages":
+                    expect(parser, JsonToken.START_ARRAY);
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        messages.add(readMessage(parser));
+                    }
+                    break;
+                case "max_tokens":
+                    maxTokens = value == JsonToken.VALUE_NULL ? null : parser.getIntValue();
+                    break;
+                case "temperature":
+                    temperature = readDouble(parser, value);
+                    break;
+                case "top_p":
+                    topP = readDouble(parser, value);
+                    break;
+                case "frequency_penalty":
+                    frequencyPenalty = readDouble(parser, value);
+                    break;
+                case "presence_penalty":
+                    presencePenalty = readDouble(parser, value);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return new ChatCompletionRequest(model, messages, maxTokens, temperature, topP,
+            frequencyPenalty, presencePenalty);
+    }
+
+    // ========================================
+    // RESPONSE
+    // ========================================
+
+    public ChatCompletionResponse readResponse(InputStream in) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            parser.nextToken();
+            return readResponse(parser);
+        }
+    }
+
+    /**
+     * Liest eine Antwort; der Parser steht auf START_OBJECT. Alles außer model, choices[0] und usage wird übersprungen.
+     */
+    public ChatCompletionResponse readResponse(JsonParser parser) throws IOException {
+        expect(parser, JsonToken.START_OBJECT);
+
+        String model = null;
+        String content = null;
+        String finishReason = null;
+        ChatUsage usage = ChatUsage.EMPTY;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "model":
+                    model = parser.getValueAsString();
+                    break;
+                case "choices":
+                    expect(parser, JsonToken.START_ARRAY);
+                    boolean first = true;
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        if (first && parser.currentToken() == JsonToken.START_OBJECT) {
+                            String[] choice = readChoice(parser);
+                            content = choice[0];
+                            finishReason = choice[1];
+                            first = false;
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    break;
+                case "usage":
+                    usage = readUsage(parser);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return new ChatCompletionResponse(model, content, finishReason, usage);
+    }
+
+    // [content, finish_reason]
+    private String[] readChoice(JsonParser parser) throws IOException {
+        String[] choice = new String[2];
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("message".equals(field) && value == JsonToken.START_OBJECT) {
+                choice[0] = readMessage(parser).content();
+            } else if ("finish_reason".equals(field)) {
+                choice[1] = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return choice;
+    }
+
+    private ChatMessage readMessage(JsonParser parser) throws IOException {
+        String role = null;
+        String content = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("role".equals(field)) {
+                role = parser.getValueAsString();
+            } else if ("content".equals(field)) {
+                content = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new ChatMessage(role, content);
+    }
+
+    private ChatUsage readUsage(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return ChatUsage.EMPTY;
+        }
+        int promptTokens = 0;
+        int completionTokens = 0;
+        int totalTokens = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "prompt_tokens":
+                    promptTokens = parser.getValueAsInt();
+                    break;
+                case "completion_tokens":
+                    completionTokens = parser.getValueAsInt();
+                    break;
+                case "total_tokens":
+                    totalTokens = parser.getValueAsInt();
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return new ChatUsage(promptTokens, completionTokens,
+            totalTokens > 0 ? totalTokens : promptTokens + completionTokens);
+    }
+
+    // ========================================
+    // HILFSMETHODEN
+    // ========================================
+
+    public JsonFactory getJsonFactory() {
+        return jsonFactory;
+    }
+
+    private void writeOptional(JsonGenerator generator, String field, Double value) throws IOException {
+        if (value != null) {
+            generator.writeNumberField(field, value);
+        }
+    }
+
+    private Double readDouble(JsonParser parser, JsonToken value) throws IOException {
+        return value == JsonToken.VALUE_NULL ? null : parser.getDoubleValue();
+    }
+
+    private void expect(JsonParser parser, JsonToken expected) throws IOException {
+        if (parser.currentToken() != expected) {
+            throw new JsonParseException(parser, "Erwartet " + expected + ", gefunden " + parser.currentToken());
+        }
+    }
+
+    private int estimateSize(ChatCompletionRequest request) {
+        int size = 256;
+        for (ChatMessage message : request.messages()) {
+            size += message.content() != null ? message.content().length() + 32 : 32;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,31 @@
+package com.bits.aidocassist.client;
+
+import java.util.List;
+
+/**
+ * Typisierter Chat-Completions-Request
+ */
+public record ChatCompletionRequest(
+        String model,
+        List<ChatMessage> messages,
+        Integer maxTokens,
+        Double temperature,
+        Double topP,
+        Double frequencyPenalty,
+        Double presencePenalty) {
+
+    /**
+     * Standard-Request der Analyse-Services: System-Prompt + User-Prompt mit den bisherigen Sampling-Werten
+     */
+    public static ChatCompletionRequest of(String model, String systemPrompt, String userPrompt,
+                                           int maxTokens, double temperature) {
+        return new ChatCompletionRequest(model,
+            List.of(ChatMessage.system(systemPrompt), ChatMessage.user(userPrompt)),
+            maxTokens, temperature, 0.95, 0.2, 0.1);
+    }
+
+    public ChatCompletionRequest withModel(String otherModel) {
+        return new ChatCompletionRequest(otherModel, messages, maxTokens, temperature, topP,
+            frequencyPenalty, presencePenalty);
+    }
+}
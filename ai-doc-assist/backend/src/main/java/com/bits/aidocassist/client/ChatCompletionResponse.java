@@ -0,0 +1,7 @@
+package com.bits.aidocassist.client;
+
+/**
+ * Relevanter Ausschnitt einer Chat-Completions-Antwort: Inhalt der ersten Choice und Token-Verbrauch
+ */
+public record ChatCompletionResponse(String model, String content, String finishReason, ChatUsage usage) {
+}
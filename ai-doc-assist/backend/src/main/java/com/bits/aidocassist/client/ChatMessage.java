@@ -0,0 +1,15 @@
+package com.bits.aidocassist.client;
+
+/**
+ * Einzelne Chat-Nachricht (system / user / assistant)
+ */
+public record ChatMessage(String role, String content) {
+
+    public static ChatMessage system(String content) {
+        return new ChatMessage("system", content);
+    }
+
+    public static ChatMessage user(String content) {
+        return new ChatMessage("user", content);
+    }
+}
@@ -0,0 +1,9 @@
+package com.bits.aidocassist.client;
+
+/**
+ * Token-Verbrauch eines Chat-Aufrufs (Feld "usage" der Antwort)
+ */
+public record ChatUsage(int promptTokens, int completionTokens, int totalTokens) {
+
+    public static final ChatUsage EMPTY = new ChatUsage(0, 0, 0);
+}
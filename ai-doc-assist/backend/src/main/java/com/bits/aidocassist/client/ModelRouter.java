@@ -0,0 +1,128 @@
+package com.bits.aidocassist.client;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wählt das Modell je Aufgabe, Eingabegröße und Komplexität.
+ * Kleine Klassifizierungs-Prompts laufen auf dem günstigen Tier, lange Zusammenfassungen
+ * und Empfehlungen auf dem großen. Regeln kommen aus ai.routing.* (Format "aufgabe:tier,...").
+ */
+@Component
+public class ModelRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelRouter.class);
+
+    public static final String TIER_SMALL = "small";
+    public static final String TIER_DEFAULT = "default";
+    public static final String TIER_LARGE = "large";
+
+    // Reihenfolge für Hoch-/Herabstufung
+    private static final List<String> TIER_ORDER = List.of(TIER_SMALL, TIER_DEFAULT, TIER_LARGE);
+
+    @Value("${ai.routing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${openai.api.model:gpt-3.5-turbo}")
+    private String defaultModel;
+
+    @Value("${ai.routing.tiers:small:gpt-4o-mini,large:gpt-4o}")
+    private String tiersConfig;
+
+    @Value("${ai.routing.rules:classification:small,sentiment:small,keywords:small,summarization:large,recommendations:large}")
+    private String rulesConfig;
+
+    @Value("${ai.routing.upgrade-above-tokens:3000}")
+    private int upgradeAboveTokens;
+
+    @Value("${ai.routing.downgrade-below-tokens:250}")
+    private int downgradeBelowTokens;
+
+    private final Map<String, String> tierModels = new LinkedHashMap<>();
+    private final Map<String, String> taskTiers = new LinkedHashMap<>();
+
+    @PostConstruct
+    void init() {
+        tierModels.put(TIER_DEFAULT, defaultModel);
+        tierModels.putAll(parsePairs(tiersConfig));
+
+        for (Map.Entry<String, String> rule : parsePairs(rulesConfig).entrySet()) {
+            if (!TIER_ORDER.contains(rule.getValue())) {
+                throw new IllegalStateException("Unbekannter Tier '" + rule.getValue() + "' in ai.routing.rules");
+            }
+            taskTiers.put(rule.getKey(), rule.getValue());
+        }
+
+        logger.info("🧭 Model-Routing {}: Tiers {}, Regeln {}", enabled ? "aktiv" : "aus", tierModels, taskTiers);
+    }
+
+    public String selectModel(String task, String prompt) {
+        return selectModel(task, prompt, null);
+    }
+
+    /**
+     * Modell für eine Aufgabe; sehr große Eingaben oder hohe Komplexität stufen eine Stufe hoch,
+     * sehr kleine eine Stufe herunter
+     */
+    public String selectModel(String task, String prompt, String complexity) {
+        return tierModels.get(selectTier(task, prompt, complexity));
+    }
+
+    public String selectTier(String task, String prompt, String complexity) {
+        if (!enabled) {
+            return TIER_DEFAULT;
+        }
+
+        int index = TIER_ORDER.indexOf(taskTiers.getOrDefault(task, TIER_DEFAULT));
+        int inputTokens = prompt != null ? prompt.length() / 4 : 0;
+
+        if (inputTokens > upgradeAboveTokens || isHighComplexity(complexity)) {
+            index++;
+        } else if (inputTokens < downgradeBelowTokens) {
+            index--;
+        }
+
+        // Nur konfigurierte Tiers verwenden (ohne Modell -> Richtung "default" ausweichen)
+        index = Math.max(0, Math.min(index, TIER_ORDER.size() - 1));
+        String tier = TIER_ORDER.get(index);
+        return tierModels.containsKey(tier) ? tier : TIER_DEFAULT;
+    }
+
+    private boolean isHighComplexity(String complexity) {
+        if (complexity == null) {
+            return false;
+        }
+        String normalized = complexity.toLowerCase(Locale.ROOT);
+        return normalized.contains("experte") || normalized.contains("hoch") || normalized.contains("high");
+    }
+
+    private Map<String, String> parsePairs(String config) {
+        Map<String, String> pairs = new LinkedHashMap<>();
+        if (config == null || config.isBlank()) {
+            return pairs;
+        }
+        for (String entry : config.split(",")) {
+            int separator = entry.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalStateException("Ungültiger Routing-Eintrag: '" + entry.trim() + "'");
+            }
+            pairs.put(entry.substring(0, separator).trim(), entry.substring(separator + 1).trim());
+        }
+        return pairs;
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public Map<String, String> getTierModels() { return Map.copyOf(tierModels); }
+    public Map<String, String> getTaskTiers() { return Map.copyOf(taskTiers); }
+    public int getUpgradeAboveTokens() { return upgradeAboveTokens; }
+    public int getDowngradeBelowTokens() { return downgradeBelowTokens; }
+}
@@ -0,0 +1,126 @@
+package com.bits.aidocassist.config;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.bits.aidocassist.util.InstrumentedExecutor;
+import com.bits.aidocassist.util.VirtualThreads;
+
+/**
+ * Getrennte, begrenzte Thread-Pools statt ForkJoinPool.commonPool():
+ * blockierende LLM-Aufrufe (I/O) und Extraktion/Preprocessing (CPU) konkurrieren nicht mehr
+ * um dieselben Threads. Verschachtelte Aufgaben (Map-Phase, Hedges) haben eigene Pools,
+ * damit wartende Eltern-Aufgaben ihre Kinder nicht blockieren.
+ * Optional laufen die blockierenden LLM-Aufrufe und die Tomcat-Handler auf virtuellen Threads (Java 21+).
+ */
+@Configuration
+public class ExecutorConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorConfig.class);
+
+    @Value("${ai.executor.virtual-threads.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    // Obergrenze gleichzeitiger Aufgaben je Pool im Virtual-Thread-Modus (schützt das LLM-Rate-Limit)
+    @Value("${ai.executor.virtual-threads.max-concurrency:1000}")
+    private int virtualMaxConcurrency;
+
+    /** LLM-Aufrufe je Facette (Upload, Batch) */
+    @Bean(destroyMethod = "shutdownNow")
+    public InstrumentedExecutor aiIoExecutor(
+            @Value("${ai.executor.io.threads:32}") int threads,
+            @Value("${ai.executor.io.queue-capacity:256}") int queueCapacity,
+            @Value("${ai.executor.io.rejection:caller-runs}") String rejection) {
+        InstrumentedExecutor.RejectionPolicy policy = InstrumentedExecutor.parsePolicy(rejection);
+        return virtualThreadExecutor("ai-io", policy)
+            .orElseGet(() -> new InstrumentedExecutor("ai-io", threads, queueCapacity, policy));
+    }
+
+    /** Text-Extraktion und Preprocessing, Größe = CPU-Kerne */
+    @Bean(destroyMethod = "shutdownNow")
+    public InstrumentedExecutor cpuExecutor(
+            @Value("${ai.executor.cpu.threads:0}") int threads,
+            @Value("${ai.executor.cpu.queue-capacity:128}") int queueCapacity,
+            @Value("${ai.executor.cpu.rejection:caller-runs}") String rejection) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new InstrumentedExecutor("cpu", size, queueCapacity, InstrumentedExecutor.parsePolicy(rejection));
+    }
+
+    /** Map-/Reduce-Aufrufe der Long-Document-Zusammenfassung */
+    @Bean(destroyMethod = "shutdownNow")
+    public InstrumentedExecutor aiMapExecutor(
+            @Value("${ai.summary.map-concurrency:4}") int threads,
+            @Value("${ai.executor.map.queue-capacity:512}") int queueCapacity) {
+        return new InstrumentedExecutor("ai-summary-map", threads, queueCapacity,
+            InstrumentedExecutor.RejectionPolicy.CALLER_RUNS);
+    }
+
+    /** Primär- und Hedge-Aufrufe; ohne Queue - bei Vollauslastung läuft der Aufruf im Aufrufer-Thread */
+    @Bean(destroyMethod = "shutdownNow")
+    public InstrumentedExecutor aiHedgeExecutor(@Value("${ai.hedging.max-threads:32}") int threads) {
+        return virtualThreadExecutor("ai-hedge", InstrumentedExecutor.RejectionPolicy.CALLER_RUNS)
+            .orElseGet(() -> new InstrumentedExecutor("ai-hedge", threads, 0, InstrumentedExecutor.RejectionPolicy.CALLER_RUNS));
+    }
+
+    /** Callbacks des nicht-blockierenden LLM-Clients (ai.client.mode=async): Antworten dekodieren, Ergebnisse verketten */
+    @Bean(destroyMethod = "shutdownNow")
+    public InstrumentedExecutor aiHttpExecutor(
+            @Value("${ai.client.async.threads:4}") int threads,
+            @Value("${ai.client.async.queue-capacity:4096}") int queueCapacity) {
+        return new InstrumentedExecutor("ai-http", threads, queueCapacity, InstrumentedExecutor.RejectionPolicy.CALLER_RUNS);
+    }
+
+    /** Lokaler Batch-Provider: ein Batch nach dem anderen, begrenzte Warteschlange */
+    @Bean(destroyMethod = "shutdownNow")
+    public InstrumentedExecutor batchExecutor(@Value("${ai.batch.max-queued:16}") int queueCapacity) {
+        return new InstrumentedExecutor("local-batch", 1, queueCapacity, InstrumentedExecutor.RejectionPolicy.ABORT);
+    }
+
+    /** Worker der asynchronen Analyse-Jobs; die Warteschlange selbst liegt in der DB (AnalysisJobService) */
+    @Bean(destroyMethod = "shutdownNow")
+    public InstrumentedExecutor jobExecutor(@Value("${ai.jobs.workers:4}") int workers) {
+        return new InstrumentedExecutor("analysis-jobs", workers, workers, InstrumentedExecutor.RejectionPolicy.ABORT);
+    }
+
+    /**
+     * Tomcat-Request-Handler auf virtuellen Threads: ein blockierter Upload bindet keinen Plattform-Thread
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadTomcatCustomizer(
+            @Value("${ai.executor.virtual-threads.tomcat:false}") boolean tomcatVirtualThreads) {
+        return protocolHandler -> {
+            if (!virtualThreadsEnabled || !tomcatVirtualThreads) {
+                return;
+            }
+            VirtualThreads.newPerTaskExecutor().ifPresent(executor -> {
+                protocolHandler.setExecutor(executor);
+                logger.info("🧵 Tomcat-Handler laufen auf virtuellen Threads");
+            });
+        };
+    }
+
+    /**
+     * Pool mit virtuellen Threads ohne Queue, falls aktiviert und von der Laufzeit unterstützt
+     */
+    private Optional<InstrumentedExecutor> virtualThreadExecutor(String name, InstrumentedExecutor.RejectionPolicy policy) {
+        if (!virtualThreadsEnabled) {
+            return Optional.empty();
+        }
+        Optional<ThreadFactory> threadFactory = VirtualThreads.threadFactory(name + "-virtual");
+        if (threadFactory.isEmpty()) {
+            logger.warn("⚠️ Virtuelle Threads für '{}' angefordert, aber von Java {} nicht unterstützt - verwende Plattform-Threads",
+                name, Runtime.version().feature());
+            return Optional.empty();
+        }
+        logger.info("🧵 Executor '{}' nutzt virtuelle Threads (max. {} gleichzeitig)", name, virtualMaxConcurrency);
+        return Optional.of(new InstrumentedExecutor(name, virtualMaxConcurrency, 0, policy, threadFactory.get(), true));
+    }
+}
@@ -1,25 +1,36 @@
 package com.bits.aidocassist.controller;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
 import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -29,21 +40,39 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.bits.aidocassist.extraction.DocumentFormat;
+import com.bits.aidocassist.extraction.ExtractedText;
+import com.bits.aidocassist.extraction.ExtractionOptions;
+import com.bits.aidocassist.extraction.ExtractorRegistry;
 import com.bits.aidocassist.model.AnalysisFeedback;
+import com.bits.aidocassist.model.AnalysisJob;
+import com.bits.aidocassist.model.BatchImportJob;
 import com.bits.aidocassist.model.Document;
 import com.bits.aidocassist.service.AiService;
+import com.bits.aidocassist.service.AnalysisJobService;
+import com.bits.aidocassist.service.AnalysisOrchestrator;
+import com.bits.aidocassist.service.AnalysisProgressService;
+import com.bits.aidocassist.service.BatchImportService;
 import com.bits.aidocassist.service.DocumentService;
+import com.bits.aidocassist.service.FacetMemoService;
+import com.bits.aidocassist.service.SegmentSummaryService;
 import com.bits.aidocassist.service.FeedbackService;
+import com.bits.aidocassist.service.LaneScheduler;
+import com.bits.aidocassist.service.NearDuplicateService;
 import com.bits.aidocassist.service.TextPreprocessingService;
-import com.bits.aidocassist.util.PdfProcessor;
+import com.bits.aidocassist.service.UploadDedupeService;
+import com.bits.aidocassist.util.Deadline;
+import com.bits.aidocassist.util.HashUtils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
@@ -71,29 +100,81 @@ public class DocumentController {
     @Autowired
     private ObjectMapper objectMapper;
     
+    @Autowired
+    private BatchImportService batchImportService;
+    
+    @Autowired
+    private AnalysisOrchestrator analysisOrchestrator;
+    
+    @Autowired
+    private AnalysisJobService analysisJobService;
+    
+    @Autowired
+    private AnalysisProgressService progressService;
+    
+    @Autowired
+    private FacetMemoService facetMemoService;
+    
+    @Autowired
+    private SegmentSummaryService segmentSummaryService;
+    
+    @Autowired
+    @Qualifier("aiIoExecutor")
+    private Executor aiIoExecutor;
+    
+    @Autowired
+    @Qualifier("cpuExecutor")
+    private Executor cpuExecutor;
+    
+    @Autowired
+    private NearDuplicateService nearDuplicateService;
+
+    @Autowired
+    private ExtractorRegistry extractorRegistry;
+
+    @Autowired
+    private UploadDedupeService uploadDedupeService;
+    
     @Value("${spring.servlet.multipart.max-file-size:10MB}")
     private String maxFileSize;
     
-    // Unterstützte Dateiformate
-    private static final Set<String> SUPPORTED_FORMATS = Set.of(
-        "application/pdf",
-        "text/plain",
-        "application/msword",
-        "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
-        "text/csv",
-        "application/json",
-        "text/markdown"
-    );
-
+    // Extraktions-Budget (PDF): Prompt-Auszug nur so lang, wie die angeforderten Facetten lesen
+    @Value("${ai.extraction.budget.enabled:true}")
+    private boolean budgetExtraction;
+    
+    @Value("${ai.extraction.budget.factor:1.5}")
+    private double budgetFactor;
+    
+    @Value("${ai.extraction.budget.min-chars:4000}")
+    private int budgetMinChars;
+    
+    @Value("${ai.batch.max-files:1000}")
+    private int maxOfflineBatchFiles;
+    
+    // Deadline je Analyse-Anfrage (Header X-Analysis-Deadline-Ms, sonst Default; 0 = ohne Frist)
+    @Value("${ai.deadline.default-ms:60000}")
+    private long defaultDeadlineMs;
+    
+    @Value("${ai.deadline.max-ms:300000}")
+    private long maxDeadlineMs;
+    
+    // Vor Ablauf der Deadline reservierte Zeit für das Speichern
+    @Value("${ai.deadline.persist-reserve-ms:300}")
+    private long persistReserveMs;
+    
+    public static final String DEADLINE_HEADER = "X-Analysis-Deadline-Ms";
+    
     /**
      * OPTIMIERT: Einzeldokument-Upload mit umfassender Analyse
      */
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<AnalysisResponse> createDocument(
             @RequestParam("file") MultipartFile file,
-            @RequestParam(value = "analysisOptions", required = false) String analysisOptionsJson) {
+            @RequestParam(value = "analysisOptions", required = false) String analysisOptionsJson,
+            @RequestHeader(value = DEADLINE_HEADER, required = false) Long deadlineMs) {
         
         logger.info("📄 Dokument-Upload gestartet: {}", file.getOriginalFilename());
+        Deadline deadline = resolveDeadline(deadlineMs);
         
         try {
             // Validierung
@@ -105,9 +186,28 @@ public class DocumentController {
             
             // Parse Analyse-Optionen
             AnalysisOptions options = parseAnalysisOptions(analysisOptionsJson);
+            Document previousRevision = null;
+            if (options.revisionOf != null) {
+                previousRevision = documentService.getDocumentById(options.revisionOf);
+                if (previousRevision == null) {
+                    return ResponseEntity.badRequest()
+                        .body(new AnalysisResponse(null, "Vorgänger-Revision " + options.revisionOf + " nicht gefunden", null));
+                }
+            }
             
-            // Text-Extraktion mit Format-Erkennung
-            String rawContent = extractTextFromFile(file);
+            // Exaktes Duplikat (gleiche Rohdatei) -> vorhandene Analyse ohne Extraktion und KI-Aufrufe
+            String contentHash = uploadDedupeService.contentHash(file);
+            if (previousRevision == null && !options.forceFresh) {
+                Optional<Document> exactDuplicate = 
+                    uploadDedupeService.findReusable(contentHash, requestedFacets(options));
+                if (exactDuplicate.isPresent()) {
+                    return ResponseEntity.ok(exactDuplicateResponse(exactDuplicate.get(), contentHash, options));
+                }
+            }
+            
+            // Text-Extraktion mit Format-Erkennung; Prompt-Auszug (PDF) nur so lang, wie die Facetten lesen
+            ExtractedText extraction = extractTextFromFile(file, extractionBudget(options));
+            String rawContent = extraction.getText();
             
             // Preprocessing für bessere Analyse-Qualität
             String processedContent = preprocessingService.preprocessText(rawContent);
@@ -119,22 +219,6 @@ public class DocumentController {
             logger.info("📊 Text-Preprocessing abgeschlossen: {} Zeichen -> {} Zeichen, Sprache: {}", 
                 rawContent.length(), processedContent.length(), preprocessResult.detectedLanguage);
             
-            // Parallele AI-Analyse für bessere Performance
-            CompletableFuture<String> summaryFuture = CompletableFuture.supplyAsync(() -> 
-                options.generateSummary ? aiService.summarizeText(processedContent) : null
-            );
-            
-            CompletableFuture<String> keywordsFuture = CompletableFuture.supplyAsync(() -> 
-                options.extractKeywords ? aiService.extractKeywords(processedContent) : null
-            );
-            
-            CompletableFuture<String> componentsFuture = CompletableFuture.supplyAsync(() -> 
-                options.suggestComponents ? aiService.suggestComponents(processedContent) : null
-            );
-            
-            // Warte auf alle Analysen
-            CompletableFuture.allOf(summaryFuture, keywordsFuture, componentsFuture).join();
-            
             // Document-Objekt erstellen
             Document document = new Document();
             document.setFilename(file.getOriginalFilename());
@@ -142,11 +226,30 @@ public class DocumentController {
             document.setTitle(extractTitle(file.getOriginalFilename(), processedContent));
             document.setContent(processedContent);
             document.setUploadDate(new Date());
+            document.setSimHash(nearDuplicateService.fingerprint(processedContent));
+            document.setContentHash(contentHash);
             
-            // AI-Analyse-Ergebnisse setzen
-            document.setSummary(summaryFuture.get());
-            document.setKeywords(keywordsFuture.get());
-            document.setSuggestedComponents(componentsFuture.get());
+            // Explizite Revision: nur geänderte Segmente neu zusammenfassen
+            SegmentSummaryService.RevisionDiff revision = previousRevision != null
+                ? linkRevision(document, previousRevision) : null;
+            
+            // Beinahe-Duplikat (z.B. überarbeitete Revision) -> vorhandene Analyse anbieten/übernehmen
+            Optional<NearDuplicateService.Match> nearDuplicate = 
+                nearDuplicateService.findNearDuplicate(document.getSimHash(), aiService.getPromptVersion());
+            boolean reused = revision == null && nearDuplicate.isPresent()
+                && nearDuplicateService.shouldReuse(options.reuseAnalysis);
+            AnalysisOrchestrator.AnalysisResult analysis = null;
+            
+            if (reused) {
+                copyAnalysis(nearDuplicate.get().getDocument(), document, options);
+                logger.info("♻️ Analyse von Dokument {} übernommen (SimHash-Distanz {})", 
+                    nearDuplicate.get().getDocument().getId(), nearDuplicate.get().getDistance());
+            } else {
+                // Parallele AI-Analyse über den Analyse-DAG
+                analysis = runAnalysis(promptContent(extraction, processedContent), options, deadline,
+                    LaneScheduler.Lane.INTERACTIVE);
+                applyFacets(document, analysis);
+            }
             
             // Erweiterte Metadaten
             document.setDocumentType(detectDocumentType(processedContent));
@@ -157,11 +260,35 @@ public class DocumentController {
             Document savedDocument = documentService.saveDocument(document);
             
             // Response mit zusätzlichen Metadaten
-            AnalysisResponse response = new AnalysisResponse(
-                savedDocument,
-                "Analyse erfolgreich abgeschlossen",
-                buildAnalysisMetadata(preprocessResult, savedDocument)
-            );
+            Map<String, Object> metadata = buildAnalysisMetadata(preprocessResult, savedDocument);
+            if (analysis != null) {
+                metadata.put("analysisNodes", analysis.getReports());
+            }
+            if (revision != null) {
+                metadata.put("revision", revision);
+            }
+            if (extraction.hasPageStats()) {
+                metadata.put("extraction", extraction.pageStats());
+            }
+            String message = "Analyse erfolgreich abgeschlossen";
+            if (revision != null && revision.getSegments() > 0) {
+                message = "Revision analysiert (" + revision.getChangedSegments() + " von " 
+                    + revision.getSegments() + " Segmenten neu zusammengefasst)";
+            } else if (revision == null && nearDuplicate.isPresent()) {
+                Long duplicateId = nearDuplicate.get().getDocument().getId();
+                metadata.put("nearDuplicateOf", duplicateId);
+                metadata.put("nearDuplicateDistance", nearDuplicate.get().getDistance());
+                metadata.put("analysisReused", reused);
+                message = reused
+                    ? "Analyse von Dokument " + duplicateId + " wiederverwendet (Beinahe-Duplikat)"
+                    : "Analyse abgeschlossen - Dokument ähnelt Dokument " + duplicateId
+                        + " (analysisOptions.reuseAnalysis=true übernimmt dessen Analyse)";
+            }
+            AnalysisResponse response = new AnalysisResponse(savedDocument, message, metadata);
+            if (analysis != null) {
+                reportDegradedFacets(response, analysis, deadline);
+                completePendingFacets(savedDocument.getId(), analysis);
+            }
             
             logger.info("✅ Dokument erfolgreich analysiert und gespeichert: ID={}", savedDocument.getId());
             
@@ -180,9 +307,11 @@ public class DocumentController {
     @PostMapping("/batch")
     public ResponseEntity<BatchAnalysisResponse> processBatch(
             @RequestParam("files") MultipartFile[] files,
-            @RequestParam(value = "analysisOptions", required = false) String analysisOptionsJson) {
+            @RequestParam(value = "analysisOptions", required = false) String analysisOptionsJson,
+            @RequestHeader(value = DEADLINE_HEADER, required = false) Long deadlineMs) {
         
         logger.info("📦 Batch-Upload gestartet: {} Dateien", files.length);
+        Deadline deadline = resolveDeadline(deadlineMs);
         
         if (files.length > 10) {
             return ResponseEntity.badRequest()
@@ -191,19 +320,35 @@ public class DocumentController {
         
         AnalysisOptions options = parseAnalysisOptions(analysisOptionsJson);
         List<Document> processedDocuments = new ArrayList<>();
-        List<String> errors = new ArrayList<>();
+        List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        Map<String, List<String>> degradedFacets = new ConcurrentHashMap<>();
         
-        // Parallele Verarbeitung für bessere Performance
+        // Zwei Stufen: Extraktion/Preprocessing auf dem CPU-Pool, KI-Aufrufe auf dem I/O-Pool
+        // Exakte Duplikate (Hash der Rohdatei) überspringen beide Stufen
         List<CompletableFuture<Document>> futures = Arrays.stream(files)
-            .map(file -> CompletableFuture.supplyAsync(() -> {
-                try {
-                    return processFile(file, options);
-                } catch (Exception e) {
-                    logger.error("Fehler bei Datei {}: {}", file.getOriginalFilename(), e.getMessage());
-                    errors.add(file.getOriginalFilename() + ": " + e.getMessage());
+            .map(file -> CompletableFuture
+                .supplyAsync(() -> hashUpload(file), cpuExecutor)
+                .thenCompose(contentHash -> {
+                    Optional<Document> exactDuplicate = options.revisionOf == null && !options.forceFresh
+                        ? uploadDedupeService.findReusable(contentHash, requestedFacets(options))
+                        : Optional.empty();
+                    if (exactDuplicate.isPresent()) {
+                        return CompletableFuture.completedFuture(exactDuplicate.get());
+                    }
+                    return CompletableFuture
+                        .supplyAsync(() -> prepareFile(file, extractionBudget(options)), cpuExecutor)
+                        .thenCompose(prepared -> {
+                            prepared.document.setContentHash(contentHash);
+                            return analyzeFile(prepared.document, prepared.promptContent, options, deadline,
+                                LaneScheduler.Lane.BULK, degradedFacets, null);
+                        });
+                })
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    logger.error("Fehler bei Datei {}: {}", file.getOriginalFilename(), cause.getMessage());
+                    errors.add(file.getOriginalFilename() + ": " + cause.getMessage());
                     return null;
-                }
-            }))
+                }))
             .collect(Collectors.toList());
         
         // Warte auf alle Verarbeitungen
@@ -227,6 +372,7 @@ public class DocumentController {
             processedDocuments.size(),
             files.length
         );
+        response.setDegradedFacets(degradedFacets);
         
         logger.info("✅ Batch-Verarbeitung abgeschlossen: {}/{} erfolgreich", 
             processedDocuments.size(), files.length);
@@ -234,13 +380,267 @@ public class DocumentController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * NEU: Offline-Batch-Import über die Batch API (für nächtliche Massen-Importe)
+     */
+    @PostMapping("/batch/offline")
+    public ResponseEntity<OfflineBatchResponse> submitOfflineBatch(
+            @RequestParam("files") MultipartFile[] files,
+            @RequestParam(value = "analysisOptions", required = false) String analysisOptionsJson) {
+        
+        logger.info("🌙 Offline-Batch gestartet: {} Dateien", files.length);
+        
+        if (files.length > maxOfflineBatchFiles) {
+            return ResponseEntity.badRequest()
+                .body(new OfflineBatchResponse(null, 
+                    "Maximal " + maxOfflineBatchFiles + " Dateien pro Offline-Batch erlaubt", List.of()));
+        }
+        
+        AnalysisOptions options = parseAnalysisOptions(analysisOptionsJson);
+        Set<String> facets = requestedFacets(options);
+        
+        List<Document> documents = new ArrayList<>();
+        List<Document> reusedDocuments = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        
+        // Extraktion und Preprocessing sofort, KI-Analyse später über den Batch
+        for (MultipartFile file : files) {
+            try {
+                ValidationResult validation = validateFile(file);
+                if (!validation.isValid()) {
+                    errors.add(file.getOriginalFilename() + ": " + validation.getErrorMessage());
+                    continue;
+                }
+                
+                // Hash vor der Extraktion; exakte Duplikate brauchen keinen Platz im Batch
+                String contentHash = uploadDedupeService.contentHash(file);
+                Optional<Document> exactDuplicate = options.revisionOf == null && !options.forceFresh
+                    ? uploadDedupeService.findReusable(contentHash, facets)
+                    : Optional.empty();
+                if (exactDuplicate.isPresent()) {
+                    reusedDocuments.add(exactDuplicate.get());
+                    continue;
+                }
+                
+                String rawContent = extractTextFromFile(file, 0).getText();
+                String processedContent = preprocessingService.preprocessText(rawContent);
+                TextPreprocessingService.PreprocessingResult preprocessResult = 
+                    preprocessingService.getPreprocessingResult(rawContent, processedContent);
+                
+                Document document = new Document();
+                document.setFilename(file.getOriginalFilename());
+                document.setFileType(file.getContentType());
+                document.setTitle(extractTitle(file.getOriginalFilename(), processedContent));
+                document.setContent(processedContent);
+                document.setContentHash(contentHash);
+                document.setUploadDate(new Date());
+                document.setDocumentType(detectDocumentType(processedContent));
+                document.setComplexityLevel(calculateComplexity(preprocessResult));
+                document.setQualityScore(calculateQualityScore(preprocessResult));
+                
+                documents.add(documentService.saveDocument(document));
+            } catch (Exception e) {
+                logger.error("Fehler bei Datei {}: {}", file.getOriginalFilename(), e.getMessage());
+                errors.add(file.getOriginalFilename() + ": " + e.getMessage());
+            }
+        }
+        
+        if (documents.isEmpty() && !reusedDocuments.isEmpty() && !facets.isEmpty()) {
+            OfflineBatchResponse response = new OfflineBatchResponse(null, 
+                "Alle Dateien bereits analysiert - kein Batch nötig", errors);
+            response.setReusedDocuments(reusedDocuments);
+            return ResponseEntity.ok(response);
+        }
+        if (documents.isEmpty() || facets.isEmpty()) {
+            return ResponseEntity.badRequest()
+                .body(new OfflineBatchResponse(null, "Keine Dokumente oder Facetten für den Batch", errors));
+        }
+        
+        try {
+            BatchImportJob job = batchImportService.submitImport(documents, facets);
+            OfflineBatchResponse response = new OfflineBatchResponse(job, "Offline-Batch eingereicht", errors);
+            response.setReusedDocuments(reusedDocuments);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (Exception e) {
+            logger.error("❌ Offline-Batch konnte nicht eingereicht werden: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new OfflineBatchResponse(null, "Batch-Einreichung fehlgeschlagen: " + e.getMessage(), errors));
+        }
+    }
+
+    /**
+     * NEU: Status eines Offline-Batch-Imports
+     */
+    @GetMapping("/batch/offline/{jobId}")
+    public ResponseEntity<BatchImportJob> getOfflineBatch(@PathVariable String jobId) {
+        BatchImportJob job = batchImportService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    // ========================================
+    // ASYNCHRONE ANALYSE-JOBS
+    // ========================================
+
+    @PostConstruct
+    void registerJobProcessor() {
+        analysisJobService.registerProcessor(this::processJob);
+    }
+
+    /**
+     * NEU: Upload annehmen und im Hintergrund analysieren (202 + Job-ID, 429 bei voller Queue)
+     */
+    @PostMapping(value = "/jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<AnalysisJobResponse> submitJob(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "analysisOptions", required = false) String analysisOptionsJson) throws IOException {
+        
+        ValidationResult validation = validateFile(file);
+        if (!validation.isValid()) {
+            return ResponseEntity.badRequest()
+                .body(new AnalysisJobResponse(null, validation.getErrorMessage()));
+        }
+        
+        Optional<AnalysisJob> job = analysisJobService.submit(
+            file.getBytes(), file.getOriginalFilename(), file.getContentType(), analysisOptionsJson);
+        if (job.isEmpty()) {
+            long retryAfter = analysisJobService.estimateRetryAfterSeconds();
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                .body(new AnalysisJobResponse(null, "Analyse-Queue voll - bitte in " + retryAfter + "s erneut versuchen"));
+        }
+        
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+            .location(URI.create("/api/documents/jobs/" + job.get().getId()))
+            .body(jobResponse(job.get(), "Analyse-Job angenommen"));
+    }
+
+    /**
+     * NEU: Status und Ergebnis eines Analyse-Jobs
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<AnalysisJobResponse> getJob(@PathVariable Long jobId) {
+        return analysisJobService.getJob(jobId)
+            .map(job -> ResponseEntity.ok(jobResponse(job, null)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * NEU: Fortschritt eines Analyse-Jobs als Server-Sent Events
+     * (queued, started, extracted, preprocessed, facet je fertiger Facette bzw. reused bei exaktem Duplikat,
+     * completed/failed)
+     */
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamJobEvents(@PathVariable Long jobId) {
+        Optional<AnalysisJob> job = analysisJobService.getJob(jobId);
+        if (job.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        // Verlauf nicht mehr im Speicher (Neustart, abgelaufen) -> Endstatus aus der DB
+        AnalysisJob.Status status = job.get().getStatus();
+        if (!progressService.isTracked(jobId)
+                && (status == AnalysisJob.Status.COMPLETED || status == AnalysisJob.Status.FAILED)) {
+            analysisJobService.publishFinished(job.get(), null);
+        }
+        return ResponseEntity.ok(progressService.subscribe(jobId));
+    }
+
+    /**
+     * Worker-Seite eines Jobs: gleiche Stufen wie der Batch-Upload, ohne Deadline, mit Fortschritts-Events
+     */
+    private Long processJob(AnalysisJob job) throws IOException {
+        Long jobId = job.getId();
+        AnalysisOptions options = parseAnalysisOptions(job.getAnalysisOptions());
+        
+        // Exaktes Duplikat -> Job endet mit dem vorhandenen Dokument, ohne Extraktion und KI-Aufrufe
+        String contentHash = HashUtils.sha256Hex(job.getPayload());
+        if (options.revisionOf == null && !options.forceFresh) {
+            Optional<Document> exactDuplicate = uploadDedupeService.findReusable(contentHash, requestedFacets(options));
+            if (exactDuplicate.isPresent()) {
+                Map<String, Object> reused = new LinkedHashMap<>();
+                reused.put("exactDuplicateOf", exactDuplicate.get().getId());
+                reused.put("reusedFacets", new ArrayList<>(requestedFacets(options)));
+                progressService.publish(jobId, AnalysisProgressService.EVENT_REUSED, reused);
+                return exactDuplicate.get().getId();
+            }
+        }
+        
+        long start = System.currentTimeMillis();
+        ExtractedText extraction = extractText(job.getFilename(), job.getFileType(), 
+            new ByteArrayResource(job.getPayload()), extractionBudget(options));
+        String rawContent = extraction.getText();
+        Map<String, Object> extracted = new LinkedHashMap<>();
+        extracted.put("characters", rawContent.length());
+        if (extraction.hasPageStats()) {
+            extracted.putAll(extraction.pageStats());
+        }
+        extracted.put("durationMs", System.currentTimeMillis() - start);
+        progressService.publish(jobId, AnalysisProgressService.EVENT_EXTRACTED, extracted);
+        
+        String processedContent = preprocessingService.preprocessText(rawContent);
+        TextPreprocessingService.PreprocessingResult preprocessResult = 
+            preprocessingService.getPreprocessingResult(rawContent, processedContent);
+        Map<String, Object> preprocessed = new LinkedHashMap<>();
+        preprocessed.put("originalLength", preprocessResult.originalLength);
+        preprocessed.put("processedLength", preprocessResult.processedLength);
+        preprocessed.put("detectedLanguage", preprocessResult.detectedLanguage);
+        preprocessed.put("estimatedTokens", preprocessingService.estimateTokens(processedContent));
+        progressService.publish(jobId, AnalysisProgressService.EVENT_PREPROCESSED, preprocessed);
+        
+        // Lokale Klassifizierung wie beim Einzel-Upload
+        Document document = buildDocument(job.getFilename(), job.getFileType(), processedContent);
+        document.setContentHash(contentHash);
+        document.setTitle(extractTitle(job.getFilename(), processedContent));
+        document.setDocumentType(detectDocumentType(processedContent));
+        document.setComplexityLevel(calculateComplexity(preprocessResult));
+        document.setQualityScore(calculateQualityScore(preprocessResult));
+        Map<String, Object> classification = new LinkedHashMap<>();
+        classification.put("documentType", document.getDocumentType());
+        classification.put("complexityLevel", document.getComplexityLevel());
+        publishFacet(jobId, "classification", AnalysisOrchestrator.NodeStatus.OK.name(), 0, null, classification);
+        
+        return analyzeFile(document, promptContent(extraction, processedContent), options, Deadline.none(),
+                LaneScheduler.Lane.BACKGROUND, new ConcurrentHashMap<>(),
+                (facet, report, value) -> publishFacet(jobId, facet, report.getStatus().name(),
+                    report.getDurationMs(), report.getError(), value))
+            .join().getId();
+    }
+
+    private void publishFacet(Long jobId, String facet, String status, long durationMs, String error, Object value) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("facet", facet);
+        data.put("status", status);
+        data.put("durationMs", durationMs);
+        if (error != null) {
+            data.put("error", error);
+        }
+        data.put("value", value);
+        progressService.publish(jobId, AnalysisProgressService.EVENT_FACET, data);
+    }
+
+    private AnalysisJobResponse jobResponse(AnalysisJob job, String message) {
+        AnalysisJobResponse response = new AnalysisJobResponse(job, message);
+        if (job.getStatus() == AnalysisJob.Status.QUEUED) {
+            response.setQueuePosition(analysisJobService.getQueuePosition(job));
+        }
+        if (job.getDocumentId() != null) {
+            response.setDocument(documentService.getDocumentById(job.getDocumentId()));
+        }
+        return response;
+    }
+
     /**
      * OPTIMIERT: Direkte Text-Analyse ohne Datei-Upload
      */
     @PostMapping("/analyze-text")
-    public ResponseEntity<AnalysisResponse> analyzeText(@RequestBody @Valid TextAnalysisRequest request) {
+    public ResponseEntity<AnalysisResponse> analyzeText(
+            @RequestBody @Valid TextAnalysisRequest request,
+            @RequestHeader(value = DEADLINE_HEADER, required = false) Long deadlineMs) {
         
         logger.info("📝 Direkt-Text-Analyse gestartet: {} Zeichen", request.getText().length());
+        Deadline deadline = resolveDeadline(deadlineMs);
         
         try {
             // Text-Preprocessing
@@ -252,20 +652,14 @@ public class DocumentController {
             AnalysisOptions options = request.getOptions() != null ? 
                 request.getOptions() : AnalysisOptions.defaultOptions();
             
-            String summary = options.generateSummary ? 
-                aiService.summarizeText(processedText) : null;
-            String keywords = options.extractKeywords ? 
-                aiService.extractKeywords(processedText) : null;
-            String components = options.suggestComponents ? 
-                aiService.suggestComponents(processedText) : null;
+            AnalysisOrchestrator.AnalysisResult analysis = runAnalysis(processedText, options, deadline, LaneScheduler.Lane.INTERACTIVE);
             
             // Document erstellen
             Document document = new Document();
             document.setTitle(request.getTitle() != null ? request.getTitle() : "Direkt-Analyse");
             document.setContent(processedText);
-            document.setSummary(summary);
-            document.setKeywords(keywords);
-            document.setSuggestedComponents(components);
+            applyFacets(document, analysis);
+            document.setPromptVersion(aiService.getPromptVersion());
             document.setUploadDate(new Date());
             document.setDocumentType(detectDocumentType(processedText));
             document.setComplexityLevel(calculateComplexity(preprocessResult));
@@ -277,11 +671,19 @@ public class DocumentController {
                 logger.info("💾 Dokument gespeichert mit ID: {}", document.getId());
             }
             
+            Map<String, Object> metadata = buildAnalysisMetadata(preprocessResult, document);
+            metadata.put("analysisNodes", analysis.getReports());
             AnalysisResponse response = new AnalysisResponse(
                 document,
                 "Text-Analyse erfolgreich",
-                buildAnalysisMetadata(preprocessResult, document)
+                metadata
             );
+            reportDegradedFacets(response, analysis, deadline);
+            if (document.getId() != null) {
+                completePendingFacets(document.getId(), analysis);
+            } else {
+                response.setPendingFacets(List.of());
+            }
             
             return ResponseEntity.ok(response);
             
@@ -376,9 +778,12 @@ public class DocumentController {
     @PostMapping("/{id}/reanalyze")
     public ResponseEntity<AnalysisResponse> reanalyzeDocument(
             @PathVariable Long id,
-            @RequestParam(value = "options", required = false) String optionsJson) {
+            @RequestParam(value = "options", required = false) String optionsJson,
+            @RequestParam(value = "force", defaultValue = "false") boolean force,
+            @RequestHeader(value = DEADLINE_HEADER, required = false) Long deadlineMs) {
         
         logger.info("🔄 Re-Analyse für Dokument ID: {}", id);
+        Deadline deadline = resolveDeadline(deadlineMs);
         
         Document document = documentService.getDocumentById(id);
         if (document == null) {
@@ -391,28 +796,42 @@ public class DocumentController {
             // Nutze vorhandenen Content für neue Analyse
             String content = document.getContent();
             
-            // Neue AI-Analyse
-            if (options.generateSummary) {
-                document.setSummary(aiService.summarizeText(content));
-            }
-            if (options.extractKeywords) {
-                document.setKeywords(aiService.extractKeywords(content));
+            // Facetten mit unverändertem Inhalt, Prompt-Template und Modell nicht erneut berechnen
+            List<String> reused = force ? List.of()
+                : facetMemoService.findReusable(document, requestedFacets(options));
+            options.generateSummary &= !reused.contains(AiService.FACET_SUMMARY);
+            options.extractKeywords &= !reused.contains(AiService.FACET_KEYWORDS);
+            options.suggestComponents &= !reused.contains(AiService.FACET_COMPONENTS);
+            if (!reused.isEmpty()) {
+                logger.info("♻️ Re-Analyse Dokument {}: {} unverändert, übersprungen", id, reused);
             }
-            if (options.suggestComponents) {
-                document.setSuggestedComponents(aiService.suggestComponents(content));
+            if (options.generateSummary && !force) {
+                // Gespeicherte Segment-Zusammenfassungen (auch nach Neustart) weiterverwenden
+                segmentSummaryService.prime(document);
             }
             
+            // Neue AI-Analyse (nur angeforderte Facetten werden überschrieben)
+            AnalysisOrchestrator.AnalysisResult analysis = runAnalysis(content, options, deadline, LaneScheduler.Lane.BULK);
+            applyFacets(document, analysis);
+            
             // Aktualisiere Metadaten
             document.setUploadDate(new Date());
             
             // Speichere Änderungen
             Document updatedDocument = documentService.saveDocument(document);
             
+            Map<String, Object> metadata = new HashMap<>();
+            metadata.put("analysisNodes", analysis.getReports());
+            metadata.put("facetProvenance", facetMemoService.read(updatedDocument));
             AnalysisResponse response = new AnalysisResponse(
                 updatedDocument,
-                "Dokument erfolgreich neu analysiert",
-                null
+                reused.isEmpty() ? "Dokument erfolgreich neu analysiert"
+                    : "Dokument neu analysiert (unverändert übernommen: " + String.join(", ", reused) + ")",
+                metadata
             );
+            response.setReusedFacets(reused);
+            reportDegradedFacets(response, analysis, deadline);
+            completePendingFacets(updatedDocument.getId(), analysis);
             
             logger.info("✅ Re-Analyse abgeschlossen für ID: {}", id);
             
@@ -494,11 +913,20 @@ public class DocumentController {
             return result;
         }
         
-        // Prüfe Dateityp
-        String contentType = file.getContentType();
-        if (contentType == null || !SUPPORTED_FORMATS.contains(contentType)) {
+        // Prüfe Dateityp am Inhalt (Magic Bytes), nicht am Content-Type des Clients
+        DocumentFormat format;
+        try {
+            format = extractorRegistry.detect(file.getOriginalFilename(), file.getContentType(), file);
+        } catch (IOException e) {
+            result.setValid(false);
+            result.setErrorMessage("Datei nicht lesbar: " + e.getMessage());
+            return result;
+        }
+        if (!extractorRegistry.isSupported(format)) {
             result.setValid(false);
-            result.setErrorMessage("Dateityp nicht unterstützt. Erlaubt: PDF, TXT, DOC, DOCX, CSV, JSON, MD");
+            result.setErrorMessage(format == DocumentFormat.LEGACY_OFFICE
+                ? "Office 97-2003 (DOC, XLS, PPT) wird nicht unterstützt, bitte als DOCX/XLSX/PPTX speichern"
+                : "Dateityp nicht unterstützt. Erlaubt: " + extractorRegistry.supportedFormats());
             return result;
         }
         
@@ -509,65 +937,262 @@ public class DocumentController {
     /**
      * Extrahiert Text aus verschiedenen Dateiformaten
      */
-    private String extractTextFromFile(MultipartFile file) throws IOException {
-        String contentType = file.getContentType();
-        String filename = file.getOriginalFilename();
-        
+    private ExtractedText extractTextFromFile(MultipartFile file, int maxChars) throws IOException {
+        return extractText(file.getOriginalFilename(), file.getContentType(), file, maxChars);
+    }
+
+    /**
+     * Extraktion aus beliebiger Quelle (Upload oder gespeicherter Job-Inhalt) über die ExtractorRegistry;
+     * bei PDFs begrenzt maxChars > 0 den Prompt-Auszug, der Text selbst ist immer vollständig
+     */
+    private ExtractedText extractText(String filename, String contentType, InputStreamSource source, int maxChars)
+            throws IOException {
         logger.debug("Extrahiere Text aus {}, Typ: {}", filename, contentType);
-        
-        if (contentType.equals("application/pdf")) {
-            Path tempFile = Files.createTempFile("upload", ".pdf");
-            file.transferTo(tempFile.toFile());
-            String content = PdfProcessor.extractTextFromPdf(tempFile.toFile());
-            Files.deleteIfExists(tempFile);
-            return content;
-            
-        } else if (contentType.equals("text/plain") || 
-                   contentType.equals("text/csv") || 
-                   contentType.equals("text/markdown")) {
-            return new String(file.getBytes(), "UTF-8");
-            
-        } else if (contentType.equals("application/json")) {
-            String json = new String(file.getBytes(), "UTF-8");
-            // JSON formatieren für bessere Lesbarkeit
-            Object jsonObject = objectMapper.readValue(json, Object.class);
-            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(jsonObject);
-            
-        } else if (contentType.contains("word")) {
-            // TODO: Apache POI Integration für Word-Dokumente
-            return "Word-Dokument-Extraktion noch nicht implementiert";
-            
-        } else {
-            // Fallback: Als Text interpretieren
-            return new String(file.getBytes(), "UTF-8");
+        ExtractedText extraction = extractorRegistry.extract(filename, contentType, source,
+            ExtractionOptions.promptBudget(maxChars));
+        if (extraction.isPromptTruncated()) {
+            logger.info("📄 {}: Prompt-Auszug aus {} von {} Seiten (Budget {} Zeichen, {} Seiten Boilerplate/leer)",
+                filename, extraction.getPromptPages(), extraction.getPageCount(), maxChars, extraction.getSkippedPages());
         }
+        return extraction;
     }
 
     /**
-     * Verarbeitet eine einzelne Datei
+     * Zeichen-Budget des Prompt-Auszugs: so viel, wie die angeforderten Facetten lesen (mit Reserve fürs
+     * Preprocessing); 0 = ganzer Text, z.B. für die Map-Reduce-Zusammenfassung
      */
-    private Document processFile(MultipartFile file, AnalysisOptions options) throws IOException {
-        String content = extractTextFromFile(file);
-        String processedContent = preprocessingService.preprocessText(content);
-        
+    private int extractionBudget(AnalysisOptions options) {
+        if (!budgetExtraction) {
+            return 0;
+        }
+        int budget = budgetMinChars;
+        for (String facet : requestedFacets(options)) {
+            int facetChars = aiService.facetInputChars(facet);
+            if (facetChars <= 0) {
+                return 0;
+            }
+            budget = Math.max(budget, (int) Math.ceil(facetChars * budgetFactor));
+        }
+        return budget;
+    }
+
+    private String hashUpload(MultipartFile file) {
+        try {
+            return uploadDedupeService.contentHash(file);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Antwort für eine bereits analysierte, identische Datei: vorhandenes Dokument, keine neue Zeile
+     */
+    private AnalysisResponse exactDuplicateResponse(Document existing, String contentHash, AnalysisOptions options) {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("exactDuplicateOf", existing.getId());
+        metadata.put("contentHash", contentHash);
+        metadata.put("analysisReused", true);
+        AnalysisResponse response = new AnalysisResponse(existing,
+            "Identische Datei bereits analysiert - Analyse von Dokument " + existing.getId()
+                + " wiederverwendet (analysisOptions.forceFresh=true analysiert neu)", metadata);
+        response.setReusedFacets(new ArrayList<>(requestedFacets(options)));
+        return response;
+    }
+
+    /**
+     * CPU-Stufe der Batch-Verarbeitung: Extraktion, Preprocessing, Fingerprint
+     */
+    private PreparedUpload prepareFile(MultipartFile file, int maxChars) {
+        ExtractedText extraction;
+        try {
+            extraction = extractTextFromFile(file, maxChars);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+        String processedContent = preprocessingService.preprocessText(extraction.getText());
+        Document document = buildDocument(file.getOriginalFilename(), file.getContentType(), processedContent);
+        return new PreparedUpload(document, promptContent(extraction, processedContent));
+    }
+
+    /**
+     * KI-Eingabe: Prompt-Auszug der Extraktion; gespeichert und gehasht wird immer der vollständige Text
+     */
+    private String promptContent(ExtractedText extraction, String processedContent) {
+        return extraction.getPromptText().equals(extraction.getText())
+            ? processedContent
+            : preprocessingService.preprocessText(extraction.getPromptText());
+    }
+
+    private static final class PreparedUpload {
+        private final Document document;
+        private final String promptContent;
+
+        PreparedUpload(Document document, String promptContent) {
+            this.document = document;
+            this.promptContent = promptContent;
+        }
+    }
+
+    private Document buildDocument(String filename, String contentType, String processedContent) {
         Document document = new Document();
-        document.setFilename(file.getOriginalFilename());
-        document.setFileType(file.getContentType());
+        document.setFilename(filename);
+        document.setFileType(contentType);
         document.setContent(processedContent);
         document.setUploadDate(new Date());
+        document.setSimHash(nearDuplicateService.fingerprint(processedContent));
+        return document;
+    }
+
+    /**
+     * I/O-Stufe der Batch-Verarbeitung: Wiederverwendung oder KI-Analyse, Speichern
+     */
+    private CompletableFuture<Document> analyzeFile(Document document, String promptContent, AnalysisOptions options,
+                                                    Deadline deadline, LaneScheduler.Lane lane,
+                                                    Map<String, List<String>> degradedFacets,
+                                                    AnalysisOrchestrator.NodeListener listener) {
+        Document previousRevision = options.revisionOf != null ? documentService.getDocumentById(options.revisionOf) : null;
+        if (previousRevision != null) {
+            linkRevision(document, previousRevision);
+        } else if (options.revisionOf != null) {
+            logger.warn("Vorgänger-Revision {} für {} nicht gefunden - vollständige Analyse", 
+                options.revisionOf, document.getFilename());
+        }
+        
+        Optional<NearDuplicateService.Match> nearDuplicate = 
+            nearDuplicateService.findNearDuplicate(document.getSimHash(), aiService.getPromptVersion());
+        if (previousRevision == null && nearDuplicate.isPresent() 
+                && nearDuplicateService.shouldReuse(options.reuseAnalysis)) {
+            copyAnalysis(nearDuplicate.get().getDocument(), document, options);
+            return CompletableFuture.completedFuture(documentService.saveDocument(document));
+        }
         
-        // AI-Analyse
+        // AI-Analyse (Facetten parallel statt nacheinander), Speichern auf dem I/O-Pool
+        return analysisOrchestrator.run(facetPlan(promptContent, options).lane(lane).onNodeDone(listener),
+                deadline.minus(persistReserveMs))
+            .thenApplyAsync(analysis -> {
+                applyFacets(document, analysis);
+                Document saved = documentService.saveDocument(document);
+                if (!analysis.getDegraded().isEmpty()) {
+                    degradedFacets.put(document.getFilename(), analysis.getDegraded());
+                }
+                completePendingFacets(saved.getId(), analysis);
+                return saved;
+            }, aiIoExecutor);
+    }
+
+    // ========================================
+    // DEADLINE / TEILERGEBNISSE
+    // ========================================
+
+    private Deadline resolveDeadline(Long requestedMs) {
+        long budgetMs = requestedMs != null && requestedMs > 0 ? Math.min(requestedMs, maxDeadlineMs) : defaultDeadlineMs;
+        return budgetMs > 0 ? Deadline.after(budgetMs) : Deadline.none();
+    }
+
+    /**
+     * Facetten-DAG mit der Deadline der Anfrage; ein Rest der Frist bleibt für das Speichern reserviert
+     */
+    private AnalysisOrchestrator.AnalysisResult runAnalysis(String processedText, AnalysisOptions options, Deadline deadline,
+                                                            LaneScheduler.Lane lane) {
+        return analysisOrchestrator.run(facetPlan(processedText, options).lane(lane), deadline.minus(persistReserveMs)).join();
+    }
+
+    private void reportDegradedFacets(AnalysisResponse response, AnalysisOrchestrator.AnalysisResult analysis,
+                                      Deadline deadline) {
+        List<String> degraded = analysis.getDegraded();
+        response.setDegradedFacets(degraded);
+        response.setPendingFacets(new ArrayList<>(analysis.getPending().keySet()));
+        if (deadline.isBounded()) {
+            Map<String, Object> metadata = response.getMetadata() != null
+                ? new HashMap<>(response.getMetadata()) : new HashMap<>();
+            metadata.put("deadlineMs", deadline.getBudgetMs());
+            response.setMetadata(metadata);
+        }
+        if (!degraded.isEmpty()) {
+            response.setMessage(response.getMessage() + " (Teilergebnis - lokaler Fallback für: "
+                + String.join(", ", degraded) + ")");
+        }
+    }
+
+    /**
+     * Nach der Deadline fertig gewordene Facetten ersetzen später den gespeicherten Fallback
+     */
+    private void completePendingFacets(Long documentId, AnalysisOrchestrator.AnalysisResult analysis) {
+        analysis.getPending().forEach((facet, future) -> future.thenAcceptAsync(value -> {
+            if (value instanceof String) {
+                documentService.applyLateFacet(documentId, facet, (String) value);
+            }
+        }, aiIoExecutor));
+    }
+
+    private AnalysisOrchestrator.AnalysisPlan facetPlan(String processedText, AnalysisOptions options) {
+        return analysisOrchestrator.facetPlan(processedText,
+            options.generateSummary, options.extractKeywords, options.suggestComponents);
+    }
+
+    /**
+     * Übernimmt die Ergebnisse der ausgeführten Facetten-Knoten
+     */
+    private void applyFacets(Document document, AnalysisOrchestrator.AnalysisResult analysis) {
+        if (analysis.has(AiService.FACET_SUMMARY)) {
+            document.setSummary(analysis.get(AiService.FACET_SUMMARY));
+        }
+        if (analysis.has(AiService.FACET_KEYWORDS)) {
+            document.setKeywords(analysis.get(AiService.FACET_KEYWORDS));
+        }
+        if (analysis.has(AiService.FACET_COMPONENTS)) {
+            document.setSuggestedComponents(analysis.get(AiService.FACET_COMPONENTS));
+        }
+        // Herkunft nur für reguläre KI-Ergebnisse merken, Fallbacks werden beim nächsten Mal neu berechnet
+        analysis.getReports().forEach((facet, report) -> {
+            if (report.getStatus() == AnalysisOrchestrator.NodeStatus.OK) {
+                facetMemoService.record(document, facet);
+            } else {
+                facetMemoService.forget(document, facet);
+            }
+        });
+        AnalysisOrchestrator.NodeReport summaryReport = analysis.getReports().get(AiService.FACET_SUMMARY);
+        if (summaryReport != null && summaryReport.getStatus() == AnalysisOrchestrator.NodeStatus.OK) {
+            segmentSummaryService.capture(document);
+        }
+        document.setPromptVersion(aiService.getPromptVersion());
+    }
+
+    /**
+     * Verknüpft den Upload mit seiner Vorgänger-Revision und stellt deren Segment-Zusammenfassungen bereit
+     */
+    private SegmentSummaryService.RevisionDiff linkRevision(Document document, Document previous) {
+        document.setRevisionOf(previous.getId());
+        return segmentSummaryService.prepareRevision(previous, document.getContent());
+    }
+
+    private static Set<String> requestedFacets(AnalysisOptions options) {
+        Set<String> facets = new LinkedHashSet<>();
+        if (options.generateSummary) facets.add(AiService.FACET_SUMMARY);
+        if (options.extractKeywords) facets.add(AiService.FACET_KEYWORDS);
+        if (options.suggestComponents) facets.add(AiService.FACET_COMPONENTS);
+        return facets;
+    }
+
+    /**
+     * Übernimmt die KI-Ergebnisse eines Beinahe-Duplikats (nur angeforderte Facetten)
+     */
+    private void copyAnalysis(Document source, Document target, AnalysisOptions options) {
         if (options.generateSummary) {
-            document.setSummary(aiService.summarizeText(processedContent));
+            target.setSummary(source.getSummary());
         }
         if (options.extractKeywords) {
-            document.setKeywords(aiService.extractKeywords(processedContent));
+            target.setKeywords(source.getKeywords());
         }
         if (options.suggestComponents) {
-            document.setSuggestedComponents(aiService.suggestComponents(processedContent));
+            target.setSuggestedComponents(source.getSuggestedComponents());
         }
-        
-        return documentService.saveDocument(document);
+        target.setRecommendations(source.getRecommendations());
+        target.setSentiment(source.getSentiment());
+        target.setTone(source.getTone());
+        target.setPromptVersion(source.getPromptVersion());
+        // Ergebnisse stammen aus anderem Inhalt - beim Re-Analyse nicht wiederverwenden
+        requestedFacets(options).forEach(facet -> facetMemoService.forget(target, facet));
     }
 
     /**
@@ -784,6 +1409,12 @@ public class DocumentController {
         private boolean performSentimentAnalysis = false;
         private boolean detectLanguage = true;
         private boolean calculateMetrics = true;
+        // null = Server-Einstellung (ai.dedup.mode), true/false = Beinahe-Duplikat-Analyse (nicht) übernehmen
+        private Boolean reuseAnalysis;
+        // ID der Vorgänger-Revision: unveränderte Segmente übernehmen deren Teilzusammenfassungen
+        private Long revisionOf;
+        // true = exakte Duplikate (gleicher Datei-Hash) trotzdem neu analysieren
+        private boolean forceFresh = false;
         
         public static AnalysisOptions defaultOptions() {
             return new AnalysisOptions();
@@ -825,6 +1456,21 @@ public class DocumentController {
         public void setCalculateMetrics(boolean calculateMetrics) { 
             this.calculateMetrics = calculateMetrics; 
         }
+        
+        public Boolean getReuseAnalysis() { return reuseAnalysis; }
+        public void setReuseAnalysis(Boolean reuseAnalysis) { 
+            this.reuseAnalysis = reuseAnalysis; 
+        }
+        
+        public Long getRevisionOf() { return revisionOf; }
+        public void setRevisionOf(Long revisionOf) { 
+            this.revisionOf = revisionOf; 
+        }
+        
+        public boolean isForceFresh() { return forceFresh; }
+        public void setForceFresh(boolean forceFresh) { 
+            this.forceFresh = forceFresh; 
+        }
     }
 
     /**
@@ -876,6 +1522,9 @@ public class DocumentController {
         private Map<String, Object> metadata;
         private Long processingTimeMs;
         private Date timestamp;
+        private List<String> degradedFacets = List.of();
+        private List<String> pendingFacets = List.of();
+        private List<String> reusedFacets = List.of();
         
         public AnalysisResponse(Document document, String message, Map<String, Object> metadata) {
             this.document = document;
@@ -894,6 +1543,18 @@ public class DocumentController {
         public Map<String, Object> getMetadata() { return metadata; }
         public void setMetadata(Map<String, Object> metadata) { this.metadata = metadata; }
         
+        // Facetten mit Fallback statt KI-Ergebnis (Deadline, Timeout, Fehler)
+        public List<String> getDegradedFacets() { return degradedFacets; }
+        public void setDegradedFacets(List<String> degradedFacets) { this.degradedFacets = degradedFacets; }
+        
+        // Facetten, deren KI-Ergebnis im Hintergrund nachgetragen wird
+        public List<String> getPendingFacets() { return pendingFacets; }
+        public void setPendingFacets(List<String> pendingFacets) { this.pendingFacets = pendingFacets; }
+        
+        // Re-Analyse: Facetten mit unveränderten Eingaben, nicht neu berechnet
+        public List<String> getReusedFacets() { return reusedFacets; }
+        public void setReusedFacets(List<String> reusedFacets) { this.reusedFacets = reusedFacets; }
+        
         public Long getProcessingTimeMs() { return processingTimeMs; }
         public void setProcessingTimeMs(Long processingTimeMs) { 
             this.processingTimeMs = processingTimeMs; 
@@ -912,6 +1573,7 @@ public class DocumentController {
         private int successCount;
         private int totalCount;
         private List<String> errors;
+        private Map<String, List<String>> degradedFacets = Map.of();
         private Map<String, Object> statistics;
         
         public BatchAnalysisResponse(List<Document> documents, String message, 
@@ -961,12 +1623,65 @@ public class DocumentController {
         public List<String> getErrors() { return errors; }
         public void setErrors(List<String> errors) { this.errors = errors; }
         
+        // Dateiname -> Facetten mit Fallback statt KI-Ergebnis
+        public Map<String, List<String>> getDegradedFacets() { return degradedFacets; }
+        public void setDegradedFacets(Map<String, List<String>> degradedFacets) { this.degradedFacets = degradedFacets; }
+        
         public Map<String, Object> getStatistics() { return statistics; }
         public void setStatistics(Map<String, Object> statistics) { 
             this.statistics = statistics; 
         }
     }
 
+    /**
+     * Analyse-Job Response
+     */
+    public static class AnalysisJobResponse {
+        private AnalysisJob job;
+        private String message;
+        private Long queuePosition;
+        private Document document;
+        
+        public AnalysisJobResponse(AnalysisJob job, String message) {
+            this.job = job;
+            this.message = message;
+        }
+        
+        public AnalysisJob getJob() { return job; }
+        public String getMessage() { return message; }
+        
+        // Jobs vor diesem Job (nur im Status QUEUED)
+        public Long getQueuePosition() { return queuePosition; }
+        public void setQueuePosition(Long queuePosition) { this.queuePosition = queuePosition; }
+        
+        public Document getDocument() { return document; }
+        public void setDocument(Document document) { this.document = document; }
+    }
+
+    /**
+     * Offline-Batch Response
+     */
+    public static class OfflineBatchResponse {
+        private BatchImportJob job;
+        private String message;
+        private List<String> errors;
+        // Exakte Duplikate mit gültiger Analyse, nicht Teil des Batches
+        private List<Document> reusedDocuments = new ArrayList<>();
+        
+        public OfflineBatchResponse(BatchImportJob job, String message, List<String> errors) {
+            this.job = job;
+            this.message = message;
+            this.errors = errors;
+        }
+        
+        // Getters
+        public BatchImportJob getJob() { return job; }
+        public String getMessage() { return message; }
+        public List<String> getErrors() { return errors; }
+        public List<Document> getReusedDocuments() { return reusedDocuments; }
+        public void setReusedDocuments(List<Document> reusedDocuments) { this.reusedDocuments = reusedDocuments; }
+    }
+
     /**
      * Echtzeit Analyse Response
      */
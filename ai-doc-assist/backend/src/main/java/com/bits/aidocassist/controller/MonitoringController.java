@@ -0,0 +1,130 @@
+package com.bits.aidocassist.controller;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.bits.aidocassist.client.ChatCompletionClient;
+import com.bits.aidocassist.client.ModelRouter;
+import com.bits.aidocassist.extraction.ExtractorRegistry;
+import com.bits.aidocassist.service.HedgingPolicy;
+import com.bits.aidocassist.service.LaneScheduler;
+import com.bits.aidocassist.util.InstrumentedExecutor;
+
+/**
+ * Betriebs-Metriken der KI-Pipeline
+ */
+@RestController
+@RequestMapping("/api/monitoring")
+public class MonitoringController {
+
+    @Autowired
+    private HedgingPolicy hedgingPolicy;
+
+    @Autowired
+    private ChatCompletionClient chatClient;
+
+    @Autowired
+    private ModelRouter modelRouter;
+
+    @Autowired
+    private List<InstrumentedExecutor> executors;
+
+    @Autowired
+    private LaneScheduler laneScheduler;
+
+    @Autowired
+    private ExtractorRegistry extractorRegistry;
+
+    @GetMapping("/hedging")
+    public ResponseEntity<HedgingPolicy.HedgingStats> getHedgingStats() {
+        return ResponseEntity.ok(hedgingPolicy.getStats());
+    }
+
+    @GetMapping("/routing")
+    public ResponseEntity<RoutingOverview> getRouting() {
+        return ResponseEntity.ok(new RoutingOverview(modelRouter, chatClient.getRouteStats()));
+    }
+
+    /**
+     * Auslastung der Thread-Pools (Queue-Tiefe, aktive Threads, Wartezeiten, Ablehnungen)
+     */
+    @GetMapping("/executors")
+    public ResponseEntity<List<InstrumentedExecutor.ExecutorStats>> getExecutorStats() {
+        return ResponseEntity.ok(executors.stream()
+            .map(InstrumentedExecutor::getStats)
+            .collect(Collectors.toList()));
+    }
+
+    /**
+     * Priority-Lanes: Gewicht, Queue, Warte- und Laufzeiten je Lane
+     */
+    @GetMapping("/lanes")
+    public ResponseEntity<List<LaneScheduler.LaneStats>> getLaneStats() {
+        return ResponseEntity.ok(laneScheduler.getStats());
+    }
+
+    /**
+     * Text-Extraktion je Extractor: Aufrufe, Fehler, Bytes rein, Zeichen raus, Dauer
+     */
+    @GetMapping("/extractors")
+    public ResponseEntity<Map<String, ExtractorRegistry.ExtractorStats>> getExtractorStats() {
+        return ResponseEntity.ok(extractorRegistry.getStats());
+    }
+
+    /**
+     * Lane-Gewicht zur Laufzeit ändern, z.B. {"weight": 2}
+     */
+    @PutMapping("/lanes/{lane}")
+    public ResponseEntity<LaneScheduler.LaneStats> updateLane(@PathVariable String lane, @RequestBody LaneUpdate update) {
+        LaneScheduler.Lane target;
+        try {
+            target = LaneScheduler.parseLane(lane);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+        if (update.getWeight() == null || update.getWeight() < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        laneScheduler.setWeight(target, update.getWeight());
+        return ResponseEntity.ok(laneScheduler.getStats(target));
+    }
+
+    public static class LaneUpdate {
+        private Integer weight;
+
+        public Integer getWeight() { return weight; }
+        public void setWeight(Integer weight) { this.weight = weight; }
+    }
+
+    /**
+     * Routing-Konfiguration und Metriken je Route
+     */
+    public static class RoutingOverview {
+        private final boolean enabled;
+        private final Map<String, String> tierModels;
+        private final Map<String, String> taskTiers;
+        private final Map<String, ChatCompletionClient.RouteStats> routes;
+
+        RoutingOverview(ModelRouter router, Map<String, ChatCompletionClient.RouteStats> routes) {
+            this.enabled = router.isEnabled();
+            this.tierModels = router.getTierModels();
+            this.taskTiers = router.getTaskTiers();
+            this.routes = routes;
+        }
+
+        public boolean isEnabled() { return enabled; }
+        public Map<String, String> getTierModels() { return tierModels; }
+        public Map<String, String> getTaskTiers() { return taskTiers; }
+        public Map<String, ChatCompletionClient.RouteStats> getRoutes() { return routes; }
+    }
+}
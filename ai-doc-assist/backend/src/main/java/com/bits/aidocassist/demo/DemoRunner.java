@@ -21,6 +21,9 @@ public class DemoRunner implements CommandLineRunner {
     @Value("${openai.api.key:}")
     private String openAiApiKey;
 
+    @Value("${demo.mock.ai:false}")
+    private boolean mockAi;
+
     @Override
     public void run(String... args) throws Exception {
         // Kurzer Demo-Text für Kompatibilität
@@ -28,7 +31,9 @@ public class DemoRunner implements CommandLineRunner {
 
         try {
             // OpenAI Status prüfen
-            if (openAiApiKey != null && !openAiApiKey.trim().isEmpty()) {
+            if (mockAi) {
+                System.out.println("🎭 Mock-LLM aktiv (demo.mock.ai) - keine echten OpenAI-Aufrufe");
+            } else if (openAiApiKey != null && !openAiApiKey.trim().isEmpty()) {
                 System.out.println("🤖 OpenAI API Key konfiguriert - verwende GPT-4.0-turbo");
             } else {
                 System.out.println("⚠️  Kein OpenAI API Key gefunden - verwende Fallback-Methoden");
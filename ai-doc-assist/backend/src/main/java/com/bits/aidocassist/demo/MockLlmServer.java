@@ -0,0 +1,405 @@
+package com.bits.aidocassist.demo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Lokaler Chat-Completions-Stub für Lasttests ohne echte OpenAI-Kosten.
+ * Liefert deterministische Antworten je Prompt-Typ; Latenz, 429/5xx-Fehler und Streaming sind konfigurierbar.
+ */
+@Component
+@ConditionalOnProperty(name = "demo.mock.ai", havingValue = "true")
+public class MockLlmServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(MockLlmServer.class);
+
+    public static final String CHAT_COMPLETIONS_PATH = "/v1/chat/completions";
+
+    // 99. Perzentil der Standardnormalverteilung (für Log-Normal-Latenzen)
+    private static final double Z_99 = 2.326;
+
+    private static final Pattern WORD_PATTERN = Pattern.compile("\\b[A-ZÄÖÜ][A-Za-zÄÖÜäöüß0-9+#.-]{2,}\\b");
+
+    private static final Set<String> PROMPT_MARKERS = Set.of("TECH", "TERM", "LINK", "TEXT", "JSON", "FORMAT");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final int port;
+    private final long medianLatencyMs;
+    private final long p99LatencyMs;
+    private final double errorRate429;
+    private final double errorRate5xx;
+    private final int streamChunkChars;
+    private final long streamChunkDelayMs;
+    private final Random random;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong injected429 = new AtomicLong();
+    private final AtomicLong injected5xx = new AtomicLong();
+
+    public MockLlmServer(
+            @Value("${demo.mock.ai.port:8089}") int port,
+            @Value("${demo.mock.ai.latency.median-ms:400}") long medianLatencyMs,
+            @Value("${demo.mock.ai.latency.p99-ms:2500}") long p99LatencyMs,
+            @Value("${demo.mock.ai.error-rate-429:0.0}") double errorRate429,
+            @Value("${demo.mock.ai.error-rate-5xx:0.0}") double errorRate5xx,
+            @Value("${demo.mock.ai.stream.chunk-chars:24}") int streamChunkChars,
+            @Value("${demo.mock.ai.stream.chunk-delay-ms:20}") long streamChunkDelayMs,
+            @Value("${demo.mock.ai.seed:42}") long seed) {
+        this.port = port;
+        this.medianLatencyMs = medianLatencyMs;
+        this.p99LatencyMs = Math.max(p99LatencyMs, medianLatencyMs);
+        this.errorRate429 = errorRate429;
+        this.errorRate5xx = errorRate5xx;
+        this.streamChunkChars = Math.max(1, streamChunkChars);
+        this.streamChunkDelayMs = streamChunkDelayMs;
+        this.random = new Random(seed);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        AtomicInteger threadCounter = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "mock-llm-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Großer Backlog, damit Lasttests mit vielen gleichzeitigen Verbindungen nicht am Accept scheitern
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        server.createContext(CHAT_COMPLETIONS_PATH, this::handleChatCompletion);
+        server.setExecutor(executor);
+        server.start();
+
+        logger.info("🎭 Mock-LLM-Server gestartet: {} (Median {}ms, p99 {}ms, 429: {}, 5xx: {})",
+            getChatCompletionsUrl(), medianLatencyMs, p99LatencyMs, errorRate429, errorRate5xx);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public String getChatCompletionsUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + CHAT_COMPLETIONS_PATH;
+    }
+
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("requests", requestCount.get());
+        stats.put("injected429", injected429.get());
+        stats.put("injected5xx", injected5xx.get());
+        return stats;
+    }
+
+    // ========================================
+    // REQUEST-HANDLING
+    // ========================================
+
+    private void handleChatCompletion(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requestCount.incrementAndGet();
+
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendJson(exchange, 405, errorBody("Method not allowed", "invalid_request_error"));
+                return;
+            }
+
+            Map<String, Object> request;
+            try (InputStream body = exchange.getRequestBody()) {
+                request = objectMapper.readValue(body, new TypeReference<Map<String, Object>>() { });
+            }
+
+            sleepQuietly(sampleLatencyMs());
+
+            double roll = nextDouble();
+            if (roll < errorRate429) {
+                injected429.incrementAndGet();
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                sendJson(exchange, 429, errorBody("Rate limit reached (mock)", "rate_limit_exceeded"));
+                return;
+            }
+            if (roll < errorRate429 + errorRate5xx) {
+                injected5xx.incrementAndGet();
+                int status = new int[] { 500, 502, 503 }[(int) (requestCount.get() % 3)];
+                sendJson(exchange, status, errorBody("Upstream error (mock)", "server_error"));
+                return;
+            }
+
+            String prompt = lastUserMessage(request);
+            String model = String.valueOf(request.getOrDefault("model", "mock-model"));
+            String content = generateContent(prompt);
+
+            if (Boolean.TRUE.equals(request.get("stream"))) {
+                streamResponse(exchange, model, content);
+            } else {
+                sendJson(exchange, 200, completionBody(model, prompt, content));
+            }
+        }
+    }
+
+    private String lastUserMessage(Map<String, Object> request) {
+        String prompt = "";
+        Object messages = request.get("messages");
+        if (messages instanceof List) {
+            for (Object entry : (List<?>) messages) {
+                Map<?, ?> message = (Map<?, ?>) entry;
+                if ("user".equals(message.get("role")) && message.get("content") != null) {
+                    prompt = message.get("content").toString();
+                }
+            }
+        }
+        return prompt;
+    }
+
+    private Map<String, Object> completionBody(String model, String prompt, String content) {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("role", "assistant");
+        message.put("content", content);
+
+        Map<String, Object> choice = new LinkedHashMap<>();
+        choice.put("index", 0);
+        choice.put("message", message);
+        choice.put("finish_reason", "stop");
+
+        int promptTokens = estimateTokens(prompt);
+        int completionTokens = estimateTokens(content);
+        Map<String, Object> usage = new LinkedHashMap<>();
+        usage.put("prompt_tokens", promptTokens);
+        usage.put("completion_tokens", completionTokens);
+        usage.put("total_tokens", promptTokens + completionTokens);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("id", "chatcmpl-mock-" + Integer.toHexString(prompt.hashCode()));
+        body.put("object", "chat.completion");
+        body.put("created", System.currentTimeMillis() / 1000);
+        body.put("model", model);
+        body.put("choices", List.of(choice));
+        body.put("usage", usage);
+        return body;
+    }
+
+    private void streamResponse(HttpExchange exchange, String model, String content) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+
+        String id = "chatcmpl-mock-" + Integer.toHexString(content.hashCode());
+        OutputStream out = exchange.getResponseBody();
+        for (int i = 0; i < content.length(); i += streamChunkChars) {
+            String piece = content.substring(i, Math.min(content.length(), i + streamChunkChars));
+            Map<String, Object> chunk = new LinkedHashMap<>();
+            chunk.put("id", id);
+            chunk.put("object", "chat.completion.chunk");
+            chunk.put("model", model);
+            chunk.put("choices", List.of(Map.of("index", 0, "delta", Map.of("content", piece))));
+
+            out.write(("data: " + objectMapper.writeValueAsString(chunk) + "\n\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            sleepQuietly(streamChunkDelayMs);
+        }
+        out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private Map<String, Object> errorBody(String message, String type) {
+        return Map.of("error", Map.of("message", message, "type", type));
+    }
+
+    // ========================================
+    // DETERMINISTISCHE ANTWORTEN JE PROMPT-TYP
+    // ========================================
+
+    private String generateContent(String prompt) throws IOException {
+        List<String> terms = extractTerms(prompt);
+
+        if (prompt.contains("\"hauptkeywords\"")) {
+            Map<String, Object> keywords = new LinkedHashMap<>();
+            keywords.put("hauptkeywords", pick(terms, 0, 5));
+            keywords.put("technische_begriffe", pick(terms, 5, 4));
+            keywords.put("konzepte", pick(terms, 9, 3));
+            return objectMapper.writeValueAsString(keywords);
+        }
+        if (prompt.contains("JSON-OUTPUT")) {
+            Map<String, Object> keywords = new LinkedHashMap<>();
+            keywords.put("projekt", pick(terms, 0, 2));
+            keywords.put("technologien", Map.of(
+                "frontend", pick(terms, 2, 2),
+                "backend", pick(terms, 4, 2),
+                "datenbank", pick(terms, 6, 1),
+                "devops", pick(terms, 7, 2)));
+            keywords.put("konzepte", pick(terms, 9, 3));
+            keywords.put("priorität_hoch", pick(terms, 0, 5));
+            return objectMapper.writeValueAsString(keywords);
+        }
+        if (prompt.contains("Klassifiziere")) {
+            Map<String, Object> classification = new LinkedHashMap<>();
+            classification.put("typ", "Technische Dokumentation");
+            classification.put("fachbereich", "Software");
+            classification.put("komplexität", terms.size() > 10 ? "Fortgeschritten" : "Einsteiger");
+            classification.put("hauptthemen", pick(terms, 0, 3));
+            classification.put("zielgruppe", "Entwickler");
+            classification.put("confidence", 0.9);
+            return objectMapper.writeValueAsString(classification);
+        }
+        if (prompt.contains("Sentiment")) {
+            Map<String, Object> sentiment = new LinkedHashMap<>();
+            sentiment.put("sentiment", "neutral");
+            sentiment.put("score", 0.1);
+            sentiment.put("ton", "technisch");
+            sentiment.put("emotionen", List.of("sachlich"));
+            sentiment.put("professionalität", "hoch");
+            return objectMapper.writeValueAsString(sentiment);
+        }
+        if (prompt.contains("EMPFEHLUNGS-STRUKTUR")) {
+            Map<String, Object> empfehlung = new LinkedHashMap<>();
+            empfehlung.put("kategorie", "Performance");
+            empfehlung.put("priorität", "HOCH");
+            empfehlung.put("empfehlung", "Caching für " + first(terms) + " einführen");
+            empfehlung.put("begründung", "Reduziert wiederholte Berechnungen");
+            empfehlung.put("tools", List.of("Redis", "Caffeine"));
+
+            Map<String, Object> recommendation = new LinkedHashMap<>();
+            recommendation.put("empfehlungen", List.of(empfehlung));
+            recommendation.put("nächsteSchritte", List.of("1. Lasttest aufsetzen", "2. Caching evaluieren"));
+            return objectMapper.writeValueAsString(recommendation);
+        }
+        if (prompt.contains("ERGÄNZENDE")) {
+            return "Monitoring: Prometheus, Grafana\n"
+                + "Caching: Redis\n"
+                + "Security: OWASP Dependency-Check, Keycloak\n"
+                + "Testing: Testcontainers\n"
+                + "DevTools: SonarQube, Renovate";
+        }
+        if (prompt.contains("TEILZUSAMMENFASSUNG") || prompt.contains("VERDICHTETE ZUSAMMENFASSUNG")) {
+            return "- Abschnitt behandelt " + String.join(", ", pick(terms, 0, 3)) + ".";
+        }
+
+        return "**Projektziel:** Analyse von " + first(terms) + ".\n\n"
+            + "**Technologien:** " + String.join(", ", pick(terms, 1, 4)) + "\n\n"
+            + "**Hauptfunktionen:**\n"
+            + "- " + first(pick(terms, 5, 1)) + "\n"
+            + "- " + first(pick(terms, 6, 1)) + "\n"
+            + "- " + first(pick(terms, 7, 1)) + "\n\n"
+            + "**Besonderheit:** Deterministische Mock-Antwort.";
+    }
+
+    /**
+     * Häufigste großgeschriebene Begriffe des Prompts (stabil sortiert)
+     */
+    private List<String> extractTerms(String prompt) {
+        Map<String, Integer> frequency = new HashMap<>();
+        Matcher matcher = WORD_PATTERN.matcher(prompt);
+        while (matcher.find()) {
+            String term = matcher.group();
+            // Prompt-Anweisungen (z.B. "ANFORDERUNGEN") und Preprocessing-Marker ([TECH:...]) überspringen
+            if (PROMPT_MARKERS.contains(term) || (term.length() > 4 && term.equals(term.toUpperCase()))) {
+                continue;
+            }
+            frequency.merge(term, 1, Integer::sum);
+        }
+
+        List<String> terms = new ArrayList<>(frequency.keySet());
+        terms.sort((a, b) -> {
+            int byCount = frequency.get(b) - frequency.get(a);
+            return byCount != 0 ? byCount : a.compareTo(b);
+        });
+        return terms;
+    }
+
+    private List<String> pick(List<String> terms, int from, int count) {
+        List<String> picked = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            picked.add(terms.isEmpty() ? "Dokument" : terms.get((from + i) % terms.size()));
+        }
+        return picked;
+    }
+
+    private String first(List<String> terms) {
+        return terms.isEmpty() ? "Dokument" : terms.get(0);
+    }
+
+    private int estimateTokens(String text) {
+        return (text.length() + 3) / 4;
+    }
+
+    // ========================================
+    // LATENZ-VERTEILUNG
+    // ========================================
+
+    /**
+     * Log-Normal-verteilte Latenz mit konfiguriertem Median und p99
+     */
+    private long sampleLatencyMs() {
+        if (medianLatencyMs <= 0) {
+            return 0;
+        }
+        double sigma = Math.log((double) p99LatencyMs / medianLatencyMs) / Z_99;
+        double gaussian;
+        synchronized (random) {
+            gaussian = random.nextGaussian();
+        }
+        return Math.round(medianLatencyMs * Math.exp(sigma * gaussian));
+    }
+
+    private double nextDouble() {
+        synchronized (random) {
+            return random.nextDouble();
+        }
+    }
+
+    private void sleepQuietly(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.bits.aidocassist.extraction;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Erkannte Dateiformate mit kanonischem Content-Type und Dateiendungen
+ */
+public enum DocumentFormat {
+    PDF("application/pdf", "pdf"),
+    DOCX("application/vnd.openxmlformats-officedocument.wordprocessingml.document", "docx", "docm"),
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx", "xlsm"),
+    PPTX("application/vnd.openxmlformats-officedocument.presentationml.presentation", "pptx", "pptm"),
+    JSON("application/json", "json"),
+    CSV("text/csv", "csv"),
+    MARKDOWN("text/markdown", "md", "markdown"),
+    TEXT("text/plain", "txt", "log"),
+    // Word/Excel/PowerPoint 97-2003 (OLE2): erkannt, aber ohne Extractor
+    LEGACY_OFFICE("application/msword", "doc", "xls", "ppt"),
+    UNKNOWN("application/octet-stream");
+
+    private final String contentType;
+    private final List<String> extensions;
+
+    DocumentFormat(String contentType, String... extensions) {
+        this.contentType = contentType;
+        this.extensions = List.of(extensions);
+    }
+
+    public String getContentType() { return contentType; }
+    public List<String> getExtensions() { return extensions; }
+
+    public boolean isOoxml() {
+        return this == DOCX || this == XLSX || this == PPTX;
+    }
+
+    public boolean isText() {
+        return this == JSON || this == CSV || this == MARKDOWN || this == TEXT;
+    }
+
+    static Optional<DocumentFormat> byExtension(String filename) {
+        if (filename == null || filename.lastIndexOf('.') < 0) {
+            return Optional.empty();
+        }
+        String extension = filename.substring(filename.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        return Arrays.stream(values()).filter(format -> format.extensions.contains(extension)).findFirst();
+    }
+
+    static Optional<DocumentFormat> byContentType(String contentType) {
+        if (contentType == null) {
+            return Optional.empty();
+        }
+        String type = contentType.split(";")[0].trim().toLowerCase(Locale.ROOT);
+        if (type.equals("application/vnd.ms-excel") || type.equals("application/vnd.ms-powerpoint")) {
+            return Optional.of(LEGACY_OFFICE);
+        }
+        return Arrays.stream(values())
+            .filter(format -> format != UNKNOWN && format.contentType.equals(type))
+            .findFirst();
+    }
+}
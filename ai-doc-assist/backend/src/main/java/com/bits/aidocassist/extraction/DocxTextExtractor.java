@@ -0,0 +1,31 @@
+package com.bits.aidocassist.extraction;
+
+import java.io.IOException;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Component;
+
+import com.bits.aidocassist.util.DocxProcessor;
+
+/**
+ * DOCX über DocxProcessor (StAX, Überschriften als Markdown)
+ */
+@Component
+public class DocxTextExtractor implements TextExtractor {
+
+    @Autowired
+    private DocxProcessor processor;
+
+    @Override
+    public Set<DocumentFormat> formats() {
+        return Set.of(DocumentFormat.DOCX);
+    }
+
+    @Override
+    public ExtractedText extract(InputStreamSource source, DocumentFormat format, ExtractionOptions options)
+            throws IOException {
+        return ExtractedText.of(processor.extractText(source), format);
+    }
+}
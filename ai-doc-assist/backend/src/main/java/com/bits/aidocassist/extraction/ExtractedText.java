@@ -0,0 +1,58 @@
+package com.bits.aidocassist.extraction;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ergebnis einer Extraktion: vollständiger Text für Speicherung und Fingerprints, Prompt-Auszug für die
+ * KI-Facetten (ohne Budget identisch). Seiten-Statistik nur bei seitenbasierten Formaten (sonst -1).
+ */
+public class ExtractedText {
+    private final String text;
+    private final String promptText;
+    private final DocumentFormat format;
+    private final int pageCount;
+    private final int promptPages;
+    private final int skippedPages;
+
+    public ExtractedText(String text, String promptText, DocumentFormat format, int pageCount, int promptPages,
+                         int skippedPages) {
+        this.text = text;
+        this.promptText = promptText;
+        this.format = format;
+        this.pageCount = pageCount;
+        this.promptPages = promptPages;
+        this.skippedPages = skippedPages;
+    }
+
+    public static ExtractedText of(String text, DocumentFormat format) {
+        return new ExtractedText(text, text, format, -1, -1, 0);
+    }
+
+    public String getText() { return text; }
+    public String getPromptText() { return promptText; }
+    public DocumentFormat getFormat() { return format; }
+    public int getPageCount() { return pageCount; }
+    public int getPromptPages() { return promptPages; }
+    public int getSkippedPages() { return skippedPages; }
+
+    /**
+     * Prompt-Auszug enthält nicht alle Seiten (Extraktions-Budget); der gespeicherte Text ist immer vollständig
+     */
+    public boolean isPromptTruncated() {
+        return promptPages >= 0 && promptPages < pageCount;
+    }
+
+    public boolean hasPageStats() {
+        return promptPages >= 0;
+    }
+
+    public Map<String, Object> pageStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pages", pageCount);
+        stats.put("promptPages", promptPages);
+        stats.put("skippedPages", skippedPages);
+        stats.put("promptTruncated", isPromptTruncated());
+        return stats;
+    }
+}
@@ -0,0 +1,23 @@
+package com.bits.aidocassist.extraction;
+
+/**
+ * Wünsche des Aufrufers an eine Extraktion; Extractors ignorieren, was für ihr Format keine Rolle spielt
+ */
+public class ExtractionOptions {
+    // Zeichen-Budget des Prompt-Auszugs; 0 = ganzer Text
+    private final int maxChars;
+    // PDF: Text nach Position auf der Seite statt in Content-Stream-Reihenfolge (mehrspaltige Layouts)
+    private final boolean sortByPosition;
+
+    public ExtractionOptions(int maxChars, boolean sortByPosition) {
+        this.maxChars = maxChars;
+        this.sortByPosition = sortByPosition;
+    }
+
+    public static ExtractionOptions promptBudget(int maxChars) {
+        return new ExtractionOptions(maxChars, false);
+    }
+
+    public int getMaxChars() { return maxChars; }
+    public boolean isSortByPosition() { return sortByPosition; }
+}
@@ -0,0 +1,165 @@
+package com.bits.aidocassist.extraction;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.bits.aidocassist.util.LatencyWindow;
+
+/**
+ * Einziger Einstieg für die Text-Extraktion: erkennt das Format am Inhalt, wählt den Extractor und
+ * misst je Extractor Aufrufe, Bytes, Zeichen und Dauer
+ */
+@Component
+public class ExtractorRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExtractorRegistry.class);
+
+    @Autowired
+    private List<TextExtractor> extractors;
+
+    private final Map<DocumentFormat, TextExtractor> byFormat = new EnumMap<>(DocumentFormat.class);
+    private final Map<String, ExtractorStats> stats = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        for (TextExtractor extractor : extractors) {
+            for (DocumentFormat format : extractor.formats()) {
+                TextExtractor previous = byFormat.putIfAbsent(format, extractor);
+                if (previous != null) {
+                    throw new IllegalStateException("Format " + format + " doppelt belegt: "
+                        + previous.name() + ", " + extractor.name());
+                }
+            }
+            stats.put(extractor.name(), new ExtractorStats());
+        }
+        logger.info("🧩 Text-Extractors: {}", byFormat.entrySet().stream()
+            .map(entry -> entry.getKey() + "=" + entry.getValue().name())
+            .collect(Collectors.joining(", ")));
+    }
+
+    public DocumentFormat detect(String filename, String contentType, InputStreamSource source) throws IOException {
+        return FormatDetector.detect(filename, contentType, source);
+    }
+
+    public boolean isSupported(DocumentFormat format) {
+        return byFormat.containsKey(format);
+    }
+
+    /**
+     * Für die Fehlermeldung bei abgelehnten Uploads, z.B. "PDF, DOCX, ..."
+     */
+    public String supportedFormats() {
+        return byFormat.keySet().stream().map(Enum::name).collect(Collectors.joining(", "));
+    }
+
+    public ExtractedText extract(String filename, String contentType, InputStreamSource source,
+                                 ExtractionOptions options) throws IOException {
+        DocumentFormat format = detect(filename, contentType, source);
+        TextExtractor extractor = byFormat.get(format);
+        if (extractor == null) {
+            throw new UnsupportedFormatException(format, format == DocumentFormat.LEGACY_OFFICE
+                ? "Office 97-2003 wird nicht unterstützt, bitte als DOCX/XLSX/PPTX speichern"
+                : "Dateiformat nicht erkannt: " + filename);
+        }
+        if (contentType != null && DocumentFormat.byContentType(contentType).filter(declared -> declared != format)
+                .isPresent()) {
+            logger.info("🔎 {}: als {} erkannt, Client meldet {}", filename, format, contentType);
+        }
+
+        ExtractorStats extractorStats = stats.get(extractor.name());
+        long start = System.nanoTime();
+        try {
+            ExtractedText text = extractor.extract(source, format, options);
+            extractorStats.record(System.nanoTime() - start, sizeOf(source), text.getText().length());
+            return text;
+        } catch (IOException | RuntimeException e) {
+            extractorStats.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    private static long sizeOf(InputStreamSource source) {
+        if (source instanceof MultipartFile) {
+            return ((MultipartFile) source).getSize();
+        }
+        if (source instanceof ByteArrayResource) {
+            return ((ByteArrayResource) source).contentLength();
+        }
+        if (source instanceof Resource) {
+            try {
+                return ((Resource) source).contentLength();
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Metriken je Extractor (sortiert nach Name)
+     */
+    public Map<String, ExtractorStats> getStats() {
+        return new TreeMap<>(stats);
+    }
+
+    public static class ExtractorStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder bytesIn = new LongAdder();
+        private final LongAdder charsOut = new LongAdder();
+        private final LongAdder totalMs = new LongAdder();
+        private final LatencyWindow latencyWindow = new LatencyWindow(200);
+
+        void record(long nanos, long bytes, long chars) {
+            long ms = nanos / 1_000_000;
+            calls.increment();
+            bytesIn.add(bytes);
+            charsOut.add(chars);
+            totalMs.add(ms);
+            latencyWindow.record(ms);
+        }
+
+        void recordFailure(long nanos) {
+            calls.increment();
+            failures.increment();
+            totalMs.add(nanos / 1_000_000);
+        }
+
+        public long getCalls() { return calls.sum(); }
+        public long getFailures() { return failures.sum(); }
+        public long getBytesIn() { return bytesIn.sum(); }
+        public long getCharsOut() { return charsOut.sum(); }
+        public long getP50Ms() { return latencyWindow.percentile(50); }
+        public long getP95Ms() { return latencyWindow.percentile(95); }
+
+        public double getAvgMs() {
+            long count = calls.sum();
+            return count == 0 ? 0.0 : (double) totalMs.sum() / count;
+        }
+
+        /**
+         * Durchsatz in MB/s (Gesamtzeit inkl. fehlgeschlagener Aufrufe)
+         */
+        public double getMbPerSecond() {
+            long ms = totalMs.sum();
+            return ms == 0 ? 0.0 : bytesIn.sum() / 1_048_576.0 / (ms / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.bits.aidocassist.extraction;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.springframework.core.io.InputStreamSource;
+
+/**
+ * Formaterkennung über Magic Bytes; Dateiendung und Content-Type des Clients entscheiden nur, wo der
+ * Inhalt mehrdeutig ist (Text-Varianten, ZIP-Container ohne eindeutige Endung)
+ */
+public final class FormatDetector {
+
+    static final int HEAD_BYTES = 8192;
+
+    private static final byte[] PDF_MAGIC = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ZIP_MAGIC = {0x50, 0x4B, 0x03, 0x04};
+    private static final byte[] OLE2_MAGIC = {(byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0,
+                                              (byte) 0xA1, (byte) 0xB1, 0x1A, (byte) 0xE1};
+    // PDF-Header darf laut Spezifikation innerhalb der ersten 1024 Bytes stehen
+    private static final int PDF_HEADER_WINDOW = 1024;
+    private static final int MAX_ZIP_ENTRIES = 200;
+
+    private FormatDetector() {
+    }
+
+    public static DocumentFormat detect(String filename, String contentType, InputStreamSource source)
+            throws IOException {
+        byte[] head;
+        try (InputStream in = source.getInputStream()) {
+            head = in.readNBytes(HEAD_BYTES);
+        }
+        DocumentFormat format = detect(filename, contentType, head);
+        if (format == DocumentFormat.UNKNOWN && startsWith(head, ZIP_MAGIC)) {
+            return scanZip(source);
+        }
+        return format;
+    }
+
+    /**
+     * Erkennung aus den ersten Bytes; UNKNOWN bei ZIP ohne Hinweis oder Binärdaten
+     */
+    static DocumentFormat detect(String filename, String contentType, byte[] head) {
+        Optional<DocumentFormat> hint = DocumentFormat.byExtension(filename)
+            .or(() -> DocumentFormat.byContentType(contentType));
+
+        if (indexOf(head, PDF_MAGIC, PDF_HEADER_WINDOW) >= 0) {
+            return DocumentFormat.PDF;
+        }
+        if (startsWith(head, OLE2_MAGIC)) {
+            return DocumentFormat.LEGACY_OFFICE;
+        }
+        if (startsWith(head, ZIP_MAGIC)) {
+            return hint.filter(DocumentFormat::isOoxml)
+                .or(() -> DocumentFormat.byContentType(contentType).filter(DocumentFormat::isOoxml))
+                .orElse(DocumentFormat.UNKNOWN);
+        }
+        if (head.length == 0 || isBinary(head)) {
+            return DocumentFormat.UNKNOWN;
+        }
+        Optional<DocumentFormat> textHint = hint.filter(DocumentFormat::isText)
+            .or(() -> DocumentFormat.byContentType(contentType).filter(DocumentFormat::isText));
+        if (textHint.isPresent()) {
+            return textHint.get();
+        }
+        String start = new String(head, 0, Math.min(head.length, 64), StandardCharsets.UTF_8)
+            .replace("\uFEFF", "").trim();
+        return start.startsWith("{") || start.startsWith("[") ? DocumentFormat.JSON : DocumentFormat.TEXT;
+    }
+
+    /**
+     * OOXML-Typ am ersten Eintrag unter word/, xl/ oder ppt/ erkennen
+     */
+    private static DocumentFormat scanZip(InputStreamSource source) throws IOException {
+        try (ZipInputStream zip = new ZipInputStream(source.getInputStream())) {
+            ZipEntry entry;
+            for (int i = 0; i < MAX_ZIP_ENTRIES && (entry = zip.getNextEntry()) != null; i++) {
+                String name = entry.getName();
+                if (name.startsWith("word/")) {
+                    return DocumentFormat.DOCX;
+                } else if (name.startsWith("xl/")) {
+                    return DocumentFormat.XLSX;
+                } else if (name.startsWith("ppt/")) {
+                    return DocumentFormat.PPTX;
+                }
+            }
+        } catch (IOException e) {
+            // Beschädigtes Archiv: bleibt unbekannt
+        }
+        return DocumentFormat.UNKNOWN;
+    }
+
+    /**
+     * NUL-Bytes kommen in UTF-8/ASCII-Text praktisch nicht vor
+     */
+    private static boolean isBinary(byte[] head) {
+        for (byte b : head) {
+            if (b == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean startsWith(byte[] data, byte[] prefix) {
+        return indexOf(data, prefix, 1) == 0;
+    }
+
+    private static int indexOf(byte[] data, byte[] pattern, int window) {
+        int last = Math.min(window - 1, data.length - pattern.length);
+        outer:
+        for (int i = 0; i <= last; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
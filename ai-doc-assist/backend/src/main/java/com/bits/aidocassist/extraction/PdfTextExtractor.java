@@ -0,0 +1,34 @@
+package com.bits.aidocassist.extraction;
+
+import java.io.IOException;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Component;
+
+import com.bits.aidocassist.util.PdfProcessor;
+
+/**
+ * PDF über PdfProcessor; das Budget begrenzt nur den Prompt-Auszug
+ */
+@Component
+public class PdfTextExtractor implements TextExtractor {
+
+    @Autowired
+    private PdfProcessor pdfProcessor;
+
+    @Override
+    public Set<DocumentFormat> formats() {
+        return Set.of(DocumentFormat.PDF);
+    }
+
+    @Override
+    public ExtractedText extract(InputStreamSource source, DocumentFormat format, ExtractionOptions options)
+            throws IOException {
+        PdfProcessor.PdfText pdf = pdfProcessor.extractText(source, options.isSortByPosition(),
+            options.getMaxChars());
+        return new ExtractedText(pdf.getText(), pdf.getPromptText(), format, pdf.getPageCount(),
+            pdf.getPromptPages(), pdf.getSkippedPages());
+    }
+}
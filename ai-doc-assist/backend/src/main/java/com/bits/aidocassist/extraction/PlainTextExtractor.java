@@ -0,0 +1,50 @@
+package com.bits.aidocassist.extraction;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Text-Formate (UTF-8): TXT, CSV und Markdown unverändert, JSON formatiert für bessere Lesbarkeit
+ */
+@Component
+public class PlainTextExtractor implements TextExtractor {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public Set<DocumentFormat> formats() {
+        return Set.of(DocumentFormat.TEXT, DocumentFormat.CSV, DocumentFormat.MARKDOWN, DocumentFormat.JSON);
+    }
+
+    @Override
+    public ExtractedText extract(InputStreamSource source, DocumentFormat format, ExtractionOptions options)
+            throws IOException {
+        try (InputStream in = source.getInputStream()) {
+            if (format == DocumentFormat.JSON) {
+                Object json = objectMapper.readValue(in, Object.class);
+                return ExtractedText.of(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(json), format);
+            }
+            // Direkt dekodieren, ohne Zwischenkopie als byte[]
+            StringBuilder text = new StringBuilder();
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                char[] buffer = new char[8192];
+                int read;
+                while ((read = reader.read(buffer)) != -1) {
+                    text.append(buffer, 0, read);
+                }
+            }
+            return ExtractedText.of(text.toString(), format);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.bits.aidocassist.extraction;
+
+import java.io.IOException;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Component;
+
+import com.bits.aidocassist.util.PptxProcessor;
+
+/**
+ * PPTX über PptxProcessor (Folientext in Präsentationsreihenfolge)
+ */
+@Component
+public class PptxTextExtractor implements TextExtractor {
+
+    @Autowired
+    private PptxProcessor processor;
+
+    @Override
+    public Set<DocumentFormat> formats() {
+        return Set.of(DocumentFormat.PPTX);
+    }
+
+    @Override
+    public ExtractedText extract(InputStreamSource source, DocumentFormat format, ExtractionOptions options)
+            throws IOException {
+        return ExtractedText.of(processor.extractText(source), format);
+    }
+}
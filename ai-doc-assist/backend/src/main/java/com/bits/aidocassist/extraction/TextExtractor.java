@@ -0,0 +1,25 @@
+package com.bits.aidocassist.extraction;
+
+import java.io.IOException;
+import java.util.Set;
+
+import org.springframework.core.io.InputStreamSource;
+
+/**
+ * Extractor für ein oder mehrere Dateiformate. Implementierungen sind Spring-Beans und werden von der
+ * ExtractorRegistry eingesammelt; die Quelle liefert bei Bedarf mehrere Streams (z.B. Formaterkennung,
+ * mmap bei Dateien), gelesen wird trotzdem streamend.
+ */
+public interface TextExtractor {
+
+    Set<DocumentFormat> formats();
+
+    /**
+     * getText() ist immer vollständig; das Budget in den Options begrenzt nur den Prompt-Auszug
+     */
+    ExtractedText extract(InputStreamSource source, DocumentFormat format, ExtractionOptions options) throws IOException;
+
+    default String name() {
+        return getClass().getSimpleName();
+    }
+}
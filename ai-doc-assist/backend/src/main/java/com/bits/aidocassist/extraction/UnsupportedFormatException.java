@@ -0,0 +1,20 @@
+package com.bits.aidocassist.extraction;
+
+import java.io.IOException;
+
+/**
+ * Kein Extractor für das erkannte Format
+ */
+public class UnsupportedFormatException extends IOException {
+
+    private final DocumentFormat format;
+
+    public UnsupportedFormatException(DocumentFormat format, String message) {
+        super(message);
+        this.format = format;
+    }
+
+    public DocumentFormat getFormat() {
+        return format;
+    }
+}
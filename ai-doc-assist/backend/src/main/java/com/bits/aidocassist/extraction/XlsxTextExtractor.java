@@ -0,0 +1,31 @@
+package com.bits.aidocassist.extraction;
+
+import java.io.IOException;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Component;
+
+import com.bits.aidocassist.util.XlsxProcessor;
+
+/**
+ * XLSX über XlsxProcessor (Event-Modell, Spaltenprofil für große Blätter)
+ */
+@Component
+public class XlsxTextExtractor implements TextExtractor {
+
+    @Autowired
+    private XlsxProcessor processor;
+
+    @Override
+    public Set<DocumentFormat> formats() {
+        return Set.of(DocumentFormat.XLSX);
+    }
+
+    @Override
+    public ExtractedText extract(InputStreamSource source, DocumentFormat format, ExtractionOptions options)
+            throws IOException {
+        return ExtractedText.of(processor.extractText(source), format);
+    }
+}
@@ -0,0 +1,196 @@
+package com.bits.aidocassist.model;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Asynchroner Analyse-Auftrag (POST /api/documents/jobs). Die Upload-Datei liegt bis zur
+ * Verarbeitung in der Tabelle, damit ein Neustart keine angenommenen Aufträge verliert.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_analysis_job_status", columnList = "status, id"))
+public class AnalysisJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private Status status = Status.QUEUED;
+
+    @Column(length = 255)
+    private String filename;
+
+    @Column(length = 100)
+    private String fileType;
+
+    // Upload-Inhalt; nach Abschluss gelöscht
+    @JsonIgnore
+    @Lob
+    private byte[] payload;
+
+    @Column(columnDefinition = "TEXT")
+    private String analysisOptions;
+
+    // Ergebnis-Dokument nach erfolgreicher Verarbeitung
+    @Column
+    private Long documentId;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    @Column
+    private int attempts;
+
+    // Instanz, die den Job gerade bearbeitet (ai.jobs.instance-id)
+    @Column(length = 100)
+    private String owner;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createdAt = new Date();
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date startedAt;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date finishedAt;
+
+    // Heartbeat der bearbeitenden Instanz; bleibt er länger als ai.jobs.lease-timeout-ms aus, gilt der Job als verwaist
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date leaseRenewedAt;
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+
+    public String getFileType() {
+        return fileType;
+    }
+
+    public void setFileType(String fileType) {
+        this.fileType = fileType;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+
+    public String getAnalysisOptions() {
+        return analysisOptions;
+    }
+
+    public void setAnalysisOptions(String analysisOptions) {
+        this.analysisOptions = analysisOptions;
+    }
+
+    public Long getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(Long documentId) {
+        this.documentId = documentId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Date getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Date startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Date getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Date finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public Date getLeaseRenewedAt() {
+        return leaseRenewedAt;
+    }
+
+    public void setLeaseRenewedAt(Date leaseRenewedAt) {
+        this.leaseRenewedAt = leaseRenewedAt;
+    }
+}
@@ -0,0 +1,177 @@
+package com.bits.aidocassist.model;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.CollectionTable;
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.OrderColumn;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+/**
+ * Offline-Batch-Import (POST /api/documents/batch/offline). Liegt in der Tabelle, damit offene Batches
+ * einen Neustart überstehen und weiter gepollt werden; abgeschlossene Einträge räumt BatchImportService ab.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_batch_import_job_status", columnList = "status"))
+public class BatchImportJob {
+
+    public enum Status {
+        SUBMITTED,
+        COMPLETED,
+        FAILED
+    }
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(length = 50)
+    private String provider;
+
+    @Column(length = 255)
+    private String providerBatchId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private Status status = Status.SUBMITTED;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "batch_import_job_facet", joinColumns = @JoinColumn(name = "job_id"))
+    @Column(name = "facet", length = 50)
+    private Set<String> facets = new LinkedHashSet<>();
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "batch_import_job_document", joinColumns = @JoinColumn(name = "job_id"))
+    @OrderColumn(name = "position")
+    @Column(name = "document_id")
+    private List<Long> documentIds = new ArrayList<>();
+
+    @Column
+    private int requestCount;
+
+    @Column
+    private int completedRequests;
+
+    @Column
+    private int failedRequests;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createdAt = new Date();
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date completedAt;
+
+    @Column(columnDefinition = "TEXT")
+    private String message;
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public void setProvider(String provider) {
+        this.provider = provider;
+    }
+
+    public String getProviderBatchId() {
+        return providerBatchId;
+    }
+
+    public void setProviderBatchId(String providerBatchId) {
+        this.providerBatchId = providerBatchId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Set<String> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Set<String> facets) {
+        this.facets = facets;
+    }
+
+    public List<Long> getDocumentIds() {
+        return documentIds;
+    }
+
+    public void setDocumentIds(List<Long> documentIds) {
+        this.documentIds = documentIds;
+    }
+
+    public int getRequestCount() {
+        return requestCount;
+    }
+
+    public void setRequestCount(int requestCount) {
+        this.requestCount = requestCount;
+    }
+
+    public int getCompletedRequests() {
+        return completedRequests;
+    }
+
+    public void setCompletedRequests(int completedRequests) {
+        this.completedRequests = completedRequests;
+    }
+
+    public int getFailedRequests() {
+        return failedRequests;
+    }
+
+    public void setFailedRequests(int failedRequests) {
+        this.failedRequests = failedRequests;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Date getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Date completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -7,10 +7,15 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 @Entity
+@Table(indexes = @Index(name = "idx_document_content_hash", columnList = "contentHash"))
 public class Document {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -59,6 +64,32 @@ public class Document {
     @Column(length = 100)
     private String complexityLevel;
 
+    // Version der Prompt-Templates, mit denen die KI-Felder erzeugt wurden
+    @Column(length = 40)
+    private String promptVersion;
+
+    // 64-Bit-SimHash des vorverarbeiteten Inhalts (Beinahe-Duplikat-Erkennung)
+    @Column
+    private Long simHash;
+
+    // SHA-256 der hochgeladenen Rohdatei (exakte Duplikate, UploadDedupeService)
+    @Column(length = 64)
+    private String contentHash;
+
+    // JSON je Facette: Content-Hash, Prompt-Version und Modell des gespeicherten Ergebnisses (FacetMemoService)
+    @JsonIgnore
+    @Column(columnDefinition = "TEXT")
+    private String facetProvenance;
+
+    // Vorgänger-Revision (Upload mit analysisOptions.revisionOf)
+    @Column
+    private Long revisionOf;
+
+    // JSON: Cache-Schlüssel -> Teilzusammenfassung je Segment/Reduce-Gruppe (SegmentSummaryService)
+    @JsonIgnore
+    @Column(columnDefinition = "TEXT")
+    private String segmentSummaries;
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -179,4 +210,52 @@ public class Document {
     public void setComplexityLevel(String complexityLevel) {
         this.complexityLevel = complexityLevel;
     }
+
+    public String getPromptVersion() {
+        return promptVersion;
+    }
+
+    public void setPromptVersion(String promptVersion) {
+        this.promptVersion = promptVersion;
+    }
+
+    public Long getSimHash() {
+        return simHash;
+    }
+
+    public void setSimHash(Long simHash) {
+        this.simHash = simHash;
+    }
+
+    public String getFacetProvenance() {
+        return facetProvenance;
+    }
+
+    public void setFacetProvenance(String facetProvenance) {
+        this.facetProvenance = facetProvenance;
+    }
+
+    public Long getRevisionOf() {
+        return revisionOf;
+    }
+
+    public void setRevisionOf(Long revisionOf) {
+        this.revisionOf = revisionOf;
+    }
+
+    public String getSegmentSummaries() {
+        return segmentSummaries;
+    }
+
+    public void setSegmentSummaries(String segmentSummaries) {
+        this.segmentSummaries = segmentSummaries;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
 }
@@ -0,0 +1,73 @@
+package com.bits.aidocassist.repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bits.aidocassist.model.AnalysisJob;
+
+@Repository
+public interface AnalysisJobRepository extends JpaRepository<AnalysisJob, Long> {
+
+    long countByStatus(AnalysisJob.Status status);
+
+    long countByStatusAndIdLessThan(AnalysisJob.Status status, Long id);
+
+    Optional<AnalysisJob> findFirstByStatusOrderByIdAsc(AnalysisJob.Status status);
+
+    List<AnalysisJob> findByStatus(AnalysisJob.Status status);
+
+    // Auftrag atomar übernehmen: 1 = dieser Worker hat ihn, 0 = ein anderer war schneller
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update AnalysisJob j set j.status = 'RUNNING', j.startedAt = :now, j.leaseRenewedAt = :now, "
+        + "j.attempts = j.attempts + 1, j.owner = :owner where j.id = :id and j.status = 'QUEUED'")
+    int claim(Long id, Date now, String owner);
+
+    // Heartbeat für die Jobs, die diese Instanz gerade bearbeitet
+    @Transactional
+    @Modifying
+    @Query("update AnalysisJob j set j.leaseRenewedAt = :now "
+        + "where j.id in :ids and j.owner = :owner and j.status = 'RUNNING'")
+    int renewLeases(Collection<Long> ids, String owner, Date now);
+
+    // Endstatus nur, solange der Job noch dieser Instanz gehört (sonst hat ihn nach Lease-Ablauf eine andere übernommen)
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update AnalysisJob j set j.status = :status, j.documentId = :documentId, j.error = :error, "
+        + "j.finishedAt = :now, j.payload = null, j.owner = null "
+        + "where j.id = :id and j.owner = :owner and j.status = 'RUNNING'")
+    int finish(Long id, String owner, AnalysisJob.Status status, Long documentId, String error, Date now);
+
+    // Geclaimt, aber nicht gestartet (Pool fährt herunter): zurück in die Queue, Versuch zählt nicht
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update AnalysisJob j set j.status = 'QUEUED', j.owner = null, j.attempts = j.attempts - 1 "
+        + "where j.id = :id and j.owner = :owner and j.status = 'RUNNING'")
+    int unclaim(Long id, String owner);
+
+    // Verwaiste Aufträge wieder einreihen: fremde mit abgelaufenem Lease, mit includeOwn (Neustart) auch eigene
+    @Transactional
+    @Modifying
+    @Query("update AnalysisJob j set j.status = 'QUEUED', j.owner = null "
+        + "where j.status = 'RUNNING' and j.attempts < :maxAttempts and ("
+        + "(:includeOwn = true and j.owner = :owner) or (coalesce(j.leaseRenewedAt, j.startedAt) < :leaseCutoff "
+        + "and (j.owner is null or j.owner <> :owner)))")
+    int requeueOrphaned(String owner, boolean includeOwn, Date leaseCutoff, int maxAttempts);
+
+    // Dieselben Aufträge nach ai.jobs.max-attempts Versuchen endgültig abbrechen (z.B. Job bringt die JVM zum Absturz)
+    @Transactional
+    @Modifying
+    @Query("update AnalysisJob j set j.status = 'FAILED', j.owner = null, j.error = :error, j.finishedAt = :now, "
+        + "j.payload = null where j.status = 'RUNNING' and j.attempts >= :maxAttempts and ("
+        + "(:includeOwn = true and j.owner = :owner) or (coalesce(j.leaseRenewedAt, j.startedAt) < :leaseCutoff "
+        + "and (j.owner is null or j.owner <> :owner)))")
+    int failOrphaned(String owner, boolean includeOwn, Date leaseCutoff, int maxAttempts, String error, Date now);
+}
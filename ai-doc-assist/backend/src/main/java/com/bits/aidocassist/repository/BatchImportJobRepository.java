@@ -0,0 +1,18 @@
+package com.bits.aidocassist.repository;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.bits.aidocassist.model.BatchImportJob;
+
+@Repository
+public interface BatchImportJobRepository extends JpaRepository<BatchImportJob, String> {
+
+    List<BatchImportJob> findByStatus(BatchImportJob.Status status);
+
+    // Abgeschlossene Imports nach Ablauf der Aufbewahrung
+    List<BatchImportJob> findByStatusNotAndCompletedAtBefore(BatchImportJob.Status status, Date cutoff);
+}
@@ -1,9 +1,19 @@
 package com.bits.aidocassist.repository;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import com.bits.aidocassist.model.Document;
 
 @Repository
 public interface DocumentRepository extends JpaRepository<Document, Long> {
+
+    // [id, simHash] aller Dokumente mit Fingerprint (Aufbau des Near-Duplicate-Index)
+    @Query("select d.id, d.simHash from Document d where d.simHash is not null")
+    List<Object[]> findAllSimHashes();
+
+    // Exakte Duplikate einer Upload-Datei, neueste zuerst (Index idx_document_content_hash)
+    List<Document> findByContentHashOrderByIdDesc(String contentHash);
 }
\ No newline at end of file
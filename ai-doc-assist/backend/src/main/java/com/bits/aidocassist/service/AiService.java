@@ -6,138 +6,422 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import com.bits.aidocassist.client.AiClient;
+import com.bits.aidocassist.client.ChatCompletionRequest;
+import com.bits.aidocassist.client.ModelRouter;
+import com.bits.aidocassist.util.CallCancellation;
+import com.bits.aidocassist.util.HashUtils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Service
 public class AiService {
 
-    @Value("${openai.api.key:}")
-    private String openAiApiKey;
+    // Long-Document-Modus (Map-Reduce statt 4.000-Zeichen-Abschnitt)
+    @Value("${ai.summary.long-document.enabled:true}")
+    private boolean longDocumentEnabled;
+
+    @Value("${ai.summary.long-document.threshold-chars:6000}")
+    private int longDocumentThresholdChars;
 
-    @Value("${openai.api.model:gpt-4-turbo-preview}")
-    private String openAiModel;
+    @Value("${ai.summary.chunk-tokens:1500}")
+    private int chunkTokens;
+
+    @Value("${ai.summary.chunk-cache-size:500}")
+    private int chunkCacheSize;
 
     @Autowired
     private TextPreprocessingService preprocessingService;
 
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    
-    // Verwende Chat Completions API statt Legacy Completions
-    private static final String OPENAI_CHAT_URL = "https://api.openai.com/v1/chat/completions";
+    @Autowired
+    private HedgingPolicy hedgingPolicy;
+
+    @Autowired
+    private PromptTemplateRegistry promptTemplates;
+
+    // Chat-Completions-Client: blockierend (Standard) oder nicht-blockierend (ai.client.mode=async)
+    @Autowired
+    private AiClient chatClient;
+
+    @Autowired
+    private ModelRouter modelRouter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
 
     // Qualitäts-Metriken
     private final Map<String, QualityMetrics> qualityMetrics = new HashMap<>();
 
+    // Teil-Zusammenfassungen je Chunk (SHA-256 des Chunks -> Zusammenfassung), LRU-begrenzt
+    private Map<String, String> chunkSummaryCache;
+
+    // Eigener Pool für Map-/Reduce-Aufrufe (ai.summary.map-concurrency), siehe ExecutorConfig
+    @Autowired
+    @Qualifier("aiMapExecutor")
+    private Executor mapExecutor;
+
+    @Value("${ai.summary.map-concurrency:4}")
+    private int mapConcurrency;
+
+    // Laufende Map-/Reduce-Aufrufe; mit dem nicht-blockierenden Client begrenzt der Pool allein nichts
+    private Semaphore mapPermits;
+
+    private static final int MAX_REDUCE_DEPTH = 4;
+
+    private static final String SYSTEM_PROMPT = "Du bist ein Experte für technische Dokumentenanalyse. "
+        + "Antworte präzise, strukturiert und in deutscher Sprache.";
+
+    @PostConstruct
+    void initLongDocumentMode() {
+        mapPermits = new Semaphore(Math.max(1, mapConcurrency));
+        chunkSummaryCache = Collections.synchronizedMap(new LinkedHashMap<String, String>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > chunkCacheSize;
+            }
+        });
+    }
+
     /**
-     * OPTIMIERTE Zusammenfassung mit strukturiertem Output
+     * OPTIMIERTE Zusammenfassung mit strukturiertem Output (blockierender Adapter)
      */
     public String summarizeText(String text) {
+        return summarizeTextAsync(text).join();
+    }
+
+    /**
+     * Zusammenfassung als Future; mit ai.client.mode=async wartet kein Thread auf die LLM-Antwort
+     */
+    public CompletableFuture<String> summarizeTextAsync(String text) {
+        return summarizeTextAsync(text, true);
+    }
+
+    /**
+     * fallbackOnError=false: ein fehlgeschlagener LLM-Aufruf schließt das Future mit dem Fehler ab,
+     * statt den lokalen Fallback zu liefern (der Analyse-DAG setzt ihn dann selbst und meldet FAILED)
+     */
+    public CompletableFuture<String> summarizeTextAsync(String text, boolean fallbackOnError) {
         long startTime = System.currentTimeMillis();
         
         if (text.length() < 100) {
-            return text + " [Text zu kurz für KI-Zusammenfassung]";
+            return CompletableFuture.completedFuture(text + " [Text zu kurz für KI-Zusammenfassung]");
         }
 
         // Text-Preprocessing für bessere Ergebnisse
         String processedText = preprocessingService.preprocessText(text);
         
-        if (openAiApiKey != null && !openAiApiKey.trim().isEmpty()) {
-            try {
-                String prompt = createOptimizedSummarizationPrompt(processedText);
-                String result = callOpenAiChat(prompt, 500, 0.3, "summarization");
-                
+        if (!isAiAvailable()) {
+            return CompletableFuture.completedFuture(getEnhancedFallbackSummary(processedText));
+        }
+
+        CompletableFuture<String> call = longDocumentEnabled && processedText.length() > longDocumentThresholdChars
+            ? summarizeLongDocument(processedText)
+            : callOpenAiChat(createOptimizedSummarizationPrompt(processedText), 500, 0.3, "summarization");
+
+        return call
+            .thenApply(result -> {
                 // Post-Processing für strukturierte Ausgabe
-                result = postProcessSummary(result);
-                
-                recordQualityMetrics("summarization", startTime, true, result.length());
+                String summary = postProcessSummary(result);
+                recordQualityMetrics("summarization", startTime, true, summary.length());
                 System.out.println("✅ OpenAI Zusammenfassung erfolgreich (GPT-4)");
-                return result;
-            } catch (Exception e) {
+                return summary;
+            })
+            .exceptionally(e -> {
                 recordQualityMetrics("summarization", startTime, false, 0);
-                System.err.println("❌ OpenAI Summarization failed: " + e.getMessage());
+                System.err.println("❌ OpenAI Summarization failed: " + causeMessage(e));
+                if (!fallbackOnError) {
+                    throw asCompletionException(e);
+                }
                 return getEnhancedFallbackSummary(processedText);
-            }
-        }
-        return getEnhancedFallbackSummary(processedText);
+            });
     }
 
     /**
-     * OPTIMIERTE Keyword-Extraktion mit Kategorisierung
+     * OPTIMIERTE Keyword-Extraktion mit Kategorisierung (blockierender Adapter)
      */
     public String extractKeywords(String text) {
+        return extractKeywordsAsync(text).join();
+    }
+
+    public CompletableFuture<String> extractKeywordsAsync(String text) {
+        return extractKeywordsAsync(text, true);
+    }
+
+    public CompletableFuture<String> extractKeywordsAsync(String text, boolean fallbackOnError) {
         long startTime = System.currentTimeMillis();
         
         // Text-Preprocessing
         String processedText = preprocessingService.preprocessText(text);
         
-        if (openAiApiKey != null && !openAiApiKey.trim().isEmpty()) {
-            try {
-                String prompt = createOptimizedKeywordPrompt(processedText);
-                String result = callOpenAiChat(prompt, 300, 0.2, "keywords");
-                
+        if (!isAiAvailable()) {
+            return CompletableFuture.completedFuture(fallbackKeywords(processedText));
+        }
+
+        return callOpenAiChat(createOptimizedKeywordPrompt(processedText), 300, 0.2, "keywords")
+            .thenApply(response -> {
                 // JSON-Response parsen und formatieren
-                result = processKeywordResponse(result);
-                
+                String result = processKeywordResponse(response);
                 recordQualityMetrics("keywords", startTime, true, result.length());
                 System.out.println("✅ OpenAI Keywords erfolgreich extrahiert (strukturiert)");
                 return result;
-            } catch (Exception e) {
+            })
+            .exceptionally(e -> {
                 recordQualityMetrics("keywords", startTime, false, 0);
-                System.err.println("❌ OpenAI Keyword extraction failed: " + e.getMessage());
-            }
-        }
-        
+                System.err.println("❌ OpenAI Keyword extraction failed: " + causeMessage(e));
+                if (!fallbackOnError) {
+                    throw asCompletionException(e);
+                }
+                return fallbackKeywords(processedText);
+            });
+    }
+
+    private String fallbackKeywords(String processedText) {
         // Verwende TextPreprocessingService für Fallback
         List<String> keywords = preprocessingService.extractKeywords(processedText, 15);
         return String.join(", ", keywords);
     }
 
     /**
-     * OPTIMIERTE Komponenten-Empfehlungen (kontextbezogen)
+     * OPTIMIERTE Komponenten-Empfehlungen (kontextbezogen, blockierender Adapter)
      */
     public String suggestComponents(String text) {
+        return suggestComponentsAsync(text).join();
+    }
+
+    public CompletableFuture<String> suggestComponentsAsync(String text) {
+        return suggestComponentsAsync(text, true);
+    }
+
+    public CompletableFuture<String> suggestComponentsAsync(String text, boolean fallbackOnError) {
         long startTime = System.currentTimeMillis();
         
         // Text-Preprocessing und Technologie-Erkennung
         String processedText = preprocessingService.preprocessText(text);
         Set<String> detectedTechs = detectExistingTechnologies(processedText);
         
-        if (openAiApiKey != null && !openAiApiKey.trim().isEmpty()) {
-            try {
-                String prompt = createContextAwareComponentPrompt(processedText, detectedTechs);
-                String result = callOpenAiChat(prompt, 400, 0.4, "components");
-                
+        if (!isAiAvailable()) {
+            return CompletableFuture.completedFuture(getContextAwareFallbackComponents(processedText, detectedTechs));
+        }
+
+        return callOpenAiChat(createContextAwareComponentPrompt(processedText, detectedTechs), 400, 0.4, "components")
+            .thenApply(response -> {
                 // Validierung: Keine widersprüchlichen Empfehlungen
-                result = validateComponentSuggestions(result, detectedTechs);
-                
+                String result = validateComponentSuggestions(response, detectedTechs);
                 recordQualityMetrics("components", startTime, true, result.length());
                 System.out.println("✅ OpenAI Komponenten-Empfehlungen (kontextbezogen)");
                 return result;
-            } catch (Exception e) {
+            })
+            .exceptionally(e -> {
                 recordQualityMetrics("components", startTime, false, 0);
-                System.err.println("❌ OpenAI Component suggestion failed: " + e.getMessage());
+                System.err.println("❌ OpenAI Component suggestion failed: " + causeMessage(e));
+                if (!fallbackOnError) {
+                    throw asCompletionException(e);
+                }
+                return getContextAwareFallbackComponents(processedText, detectedTechs);
+            });
+    }
+
+    // ========================================
+    // LONG-DOCUMENT-MODUS (MAP-REDUCE)
+    // ========================================
+
+    /**
+     * Map-Reduce-Zusammenfassung: Segmente parallel zusammenfassen, danach (ggf. rekursiv) verdichten.
+     * Teilergebnisse liegen im Chunk-Cache; bei einer Revision (siehe {@link #primeSegmentSummaries})
+     * werden nur geänderte Segmente und die davon betroffenen Reduce-Gruppen neu berechnet.
+     */
+    private CompletableFuture<String> summarizeLongDocument(String text) {
+        List<String> chunks = preprocessingService.splitIntoSegments(text, chunkTokens);
+        System.out.println("📚 Long-Document-Modus: " + chunks.size() + " Segmente à max. " + chunkTokens + " Tokens");
+
+        // Folgestufen laufen im Antwort-Thread; der Abbruch-Bereich des Knotens muss mitwandern
+        return mapChunks(chunks)
+            .thenCompose(CallCancellation.propagate(partials -> reducePartials(partials, 0)))
+            .thenCompose(CallCancellation.propagate(
+                combined -> callOpenAiChat(createFinalReducePrompt(combined), 500, 0.3, "summarization")));
+    }
+
+    private CompletableFuture<List<String>> mapChunks(List<String> chunks) {
+        return allAsList(chunks.stream()
+            .map(chunk -> onMapExecutor(() -> summarizeChunk(chunk)))
+            .collect(Collectors.toList()));
+    }
+
+    private CompletableFuture<String> summarizeChunk(String chunk) {
+        return cachedPartial(PromptTemplateRegistry.CHUNK_SUMMARY, chunk,
+            () -> callOpenAiChat(createChunkSummaryPrompt(chunk), 300, 0.3, "summarization-map"));
+    }
+
+    /**
+     * Verdichtet Teil-Zusammenfassungen, bis sie in ein Chunk-Budget passen
+     */
+    private CompletableFuture<String> reducePartials(List<String> partials, int depth) {
+        List<String> groups = reduceGroups(partials, depth);
+        if (groups.isEmpty()) {
+            return CompletableFuture.completedFuture(String.join("\n\n", partials));
+        }
+
+        return allAsList(groups.stream()
+                .map(group -> onMapExecutor(() -> cachedPartial(PromptTemplateRegistry.INTERMEDIATE_REDUCE, group,
+                    () -> callOpenAiChat(createIntermediateReducePrompt(group), 400, 0.3, "summarization-reduce"))))
+                .collect(Collectors.toList()))
+            .thenCompose(CallCancellation.propagate(reduced -> reducePartials(reduced, depth + 1)));
+    }
+
+    /**
+     * Gruppen für die nächste Reduce-Stufe; leer, wenn die finale Reduktion den Rest übernimmt
+     */
+    private List<String> reduceGroups(List<String> partials, int depth) {
+        String joined = String.join("\n\n", partials);
+        if (partials.size() <= 1 || depth >= MAX_REDUCE_DEPTH
+                || preprocessingService.estimateTokens(joined) <= chunkTokens) {
+            return List.of();
+        }
+
+        // Inhaltsabhängige Gruppen: unveränderte Teilzusammenfassungen landen wieder in denselben Gruppen
+        List<String> groups = preprocessingService.splitIntoSegments(joined, chunkTokens);
+        // Gruppierung bringt nichts mehr - Rest übernimmt die finale Reduktion
+        return groups.size() >= partials.size() ? List.of() : groups;
+    }
+
+    private CompletableFuture<String> cachedPartial(String template, String input,
+                                                    Supplier<CompletableFuture<String>> call) {
+        String cacheKey = partialCacheKey(template, input);
+        String cached = chunkSummaryCache.get(cacheKey);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return call.get().thenApply(partial -> {
+            chunkSummaryCache.put(cacheKey, partial);
+            return partial;
+        });
+    }
+
+    // Template-Version im Schlüssel: geänderte Prompts erzeugen neue Teilzusammenfassungen
+    private String partialCacheKey(String template, String input) {
+        return promptTemplates.get(template).getKey() + ":" + HashUtils.sha256Hex(input);
+    }
+
+    /**
+     * Wird der Text im Long-Document-Modus zusammengefasst? Dieselbe Vorverarbeitung wie {@link #summarizeTextAsync}
+     */
+    private Optional<String> longDocumentText(String text) {
+        if (!longDocumentEnabled || text == null || text.length() < 100) {
+            return Optional.empty();
+        }
+        String processedText = preprocessingService.preprocessText(text);
+        return processedText.length() > longDocumentThresholdChars ? Optional.of(processedText) : Optional.empty();
+    }
+
+    /**
+     * Cache-Schlüssel der Segmente, in die die Zusammenfassung den Text zerlegt (leer außerhalb des Long-Document-Modus)
+     */
+    public List<String> summarySegmentKeys(String text) {
+        return longDocumentText(text)
+            .map(processedText -> preprocessingService.splitIntoSegments(processedText, chunkTokens).stream()
+                .map(segment -> partialCacheKey(PromptTemplateRegistry.CHUNK_SUMMARY, segment))
+                .collect(Collectors.toList()))
+            .orElse(List.of());
+    }
+
+    /**
+     * Gecachte Teilergebnisse (Segment- und Reduce-Stufen) der letzten Zusammenfassung dieses Texts,
+     * zum Speichern am Dokument
+     */
+    public Map<String, String> cachedSegmentSummaries(String text) {
+        Map<String, String> summaries = new LinkedHashMap<>();
+        Optional<String> processedText = longDocumentText(text);
+        if (processedText.isEmpty()) {
+            return summaries;
+        }
+
+        List<String> partials = new ArrayList<>();
+        for (String segment : preprocessingService.splitIntoSegments(processedText.get(), chunkTokens)) {
+            if (!collectCached(PromptTemplateRegistry.CHUNK_SUMMARY, segment, summaries, partials)) {
+                return summaries;
             }
         }
-        
-        return getContextAwareFallbackComponents(processedText, detectedTechs);
+        // Reduce-Stufen wie in reducePartials nachvollziehen
+        for (int depth = 0; ; depth++) {
+            List<String> groups = reduceGroups(partials, depth);
+            if (groups.isEmpty()) {
+                return summaries;
+            }
+            partials = new ArrayList<>();
+            for (String group : groups) {
+                if (!collectCached(PromptTemplateRegistry.INTERMEDIATE_REDUCE, group, summaries, partials)) {
+                    return summaries;
+                }
+            }
+        }
+    }
+
+    private boolean collectCached(String template, String input, Map<String, String> summaries, List<String> partials) {
+        String cacheKey = partialCacheKey(template, input);
+        String cached = chunkSummaryCache.get(cacheKey);
+        if (cached == null) {
+            return false;
+        }
+        summaries.put(cacheKey, cached);
+        partials.add(cached);
+        return true;
+    }
+
+    /**
+     * Teilergebnisse einer früheren Revision in den Chunk-Cache legen; unveränderte Segmente
+     * kosten bei der nächsten Zusammenfassung dann keinen LLM-Aufruf
+     */
+    public void primeSegmentSummaries(Map<String, String> summaries) {
+        summaries.forEach(chunkSummaryCache::putIfAbsent);
+    }
+
+    /**
+     * Startet einen Aufruf auf dem Map-Pool: beim blockierenden Client läuft er dort, beim nicht-blockierenden
+     * Client sendet der Pool-Thread nur den Request. In beiden Fällen sind höchstens ai.summary.map-concurrency
+     * Aufrufe unterwegs; die Genehmigung wird erst freigegeben, wenn die Antwort da ist.
+     */
+    private CompletableFuture<String> onMapExecutor(Supplier<CompletableFuture<String>> call) {
+        return CompletableFuture.supplyAsync(CallCancellation.propagate(() -> {
+            // Wartet auf einem Map-Pool-Thread (wie der blockierende Client); freigegeben im Antwort-Thread
+            mapPermits.acquireUninterruptibly();
+            CompletableFuture<String> started;
+            try {
+                started = call.get();
+            } catch (RuntimeException e) {
+                mapPermits.release();
+                throw e;
+            }
+            started.whenComplete((result, error) -> mapPermits.release());
+            return started;
+        }), mapExecutor).thenCompose(Function.identity());
+    }
+
+    private static <T> CompletableFuture<List<T>> allAsList(List<CompletableFuture<T>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+            .thenApply(ignored -> futures.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList()));
     }
 
     // ========================================
@@ -146,152 +430,221 @@ public class AiService {
 
     private String createOptimizedSummarizationPrompt(String text) {
         // Text begrenzen aber intelligent (nicht mitten im Satz abschneiden)
-        String inputText = truncateIntelligently(text, 4000);
-        
-        return String.format("""
-            Analysiere das folgende technische Dokument und erstelle eine STRUKTURIERTE Zusammenfassung.
-            
-            ANFORDERUNGEN:
-            1. **Hauptziel**: Beschreibe das Kernziel in 1-2 Sätzen
-            2. **Technologie-Stack**: Liste die wichtigsten verwendeten Technologien
-            3. **Kernfunktionen**: Die 3 wichtigsten Features/Komponenten
-            4. **Besonderheiten**: Was macht dieses Projekt einzigartig?
-            
-            FORMAT DER AUSGABE:
-            **Projektziel:** [Beschreibung]
-            
-            **Technologien:** [Frontend], [Backend], [Datenbank], [DevOps]
-            
-            **Hauptfunktionen:**
-            - [Funktion 1]
-            - [Funktion 2]
-            - [Funktion 3]
-            
-            **Besonderheit:** [Was hebt das Projekt hervor]
-            
-            DOKUMENT:
-            %s
-            
-            ZUSAMMENFASSUNG:
-            """, inputText);
+        return promptTemplates.render(PromptTemplateRegistry.SUMMARY, truncateIntelligently(text, SUMMARY_INPUT_CHARS));
+    }
+
+    private String createChunkSummaryPrompt(String chunk) {
+        return promptTemplates.render(PromptTemplateRegistry.CHUNK_SUMMARY, chunk);
+    }
+
+    private String createIntermediateReducePrompt(String partials) {
+        return promptTemplates.render(PromptTemplateRegistry.INTERMEDIATE_REDUCE, partials);
+    }
+
+    private String createFinalReducePrompt(String partials) {
+        return promptTemplates.render(PromptTemplateRegistry.FINAL_REDUCE, partials);
     }
 
     private String createOptimizedKeywordPrompt(String text) {
-        String inputText = truncateIntelligently(text, 3000);
-        
-        // Bereits erkannte technische Begriffe hervorheben
-        Map<String, Object> textAnalysis = preprocessingService.analyzeTextQuality(text);
-        
-        return String.format("""
-            Extrahiere und kategorisiere die wichtigsten Keywords aus diesem technischen Dokument.
-            
-            AUSGABE ALS JSON:
-            {
-                "projekt": ["Projektname", "Firma"],
-                "technologien": {
-                    "frontend": ["Angular 16", "TypeScript"],
-                    "backend": ["Spring Boot", "Java 17"],
-                    "datenbank": ["PostgreSQL", "Elasticsearch"],
-                    "devops": ["Docker", "Kubernetes", "AWS"]
-                },
-                "konzepte": ["Cloud-Native", "Microservices", "REST API"],
-                "priorität_hoch": ["die 5 wichtigsten Keywords"]
-            }
-            
-            REGELN:
-            - Behalte Versionsnummern bei (z.B. "Angular 16")
-            - Gruppiere nach technischen Kategorien
-            - Mindestens 15-20 Keywords insgesamt
-            
-            TEXT:
-            %s
-            
-            JSON-OUTPUT:
-            """, inputText);
+        return promptTemplates.render(PromptTemplateRegistry.KEYWORDS, truncateIntelligently(text, KEYWORDS_INPUT_CHARS));
     }
 
     private String createContextAwareComponentPrompt(String text, Set<String> existingTechs) {
-        String inputText = truncateIntelligently(text, 3000);
-        String existingTechList = String.join(", ", existingTechs);
-        
-        return String.format("""
-            Als Senior Solutions Architect, analysiere das Projekt und empfehle ERGÄNZENDE Technologien.
-            
-            BEREITS VERWENDETE TECHNOLOGIEN (NICHT ersetzen):
-            %s
-            
-            AUFGABE:
-            Empfehle NUR ERGÄNZENDE Tools und Services die den vorhandenen Stack VERBESSERN:
-            - Performance-Optimierung
-            - Monitoring & Observability  
-            - Security-Erweiterungen
-            - Developer Experience Tools
-            - Testing-Frameworks
-            
-            AUSGABE-FORMAT:
-            Monitoring: [Tool1], [Tool2]
-            Caching: [Tool3]
-            Security: [Tool4], [Tool5]
-            Testing: [Tool6]
-            DevTools: [Tool7], [Tool8]
-            
-            WICHTIG: 
-            - KEINE alternativen Frontend-Frameworks wenn Angular verwendet wird
-            - KEINE alternativen Datenbanken wenn PostgreSQL verwendet wird
-            - Nur ERGÄNZUNGEN zum bestehenden Stack
-            
-            PROJEKT:
-            %s
-            
-            EMPFEHLUNGEN:
-            """, existingTechList, inputText);
+        return promptTemplates.render(PromptTemplateRegistry.COMPONENTS,
+            String.join(", ", existingTechs), truncateIntelligently(text, COMPONENTS_INPUT_CHARS));
     }
 
     // ========================================
     // OPTIMIERTER OPENAI API AUFRUF (Chat Completions)
     // ========================================
 
-    private String callOpenAiChat(String prompt, int maxTokens, double temperature, String type) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(openAiApiKey);
-
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", openAiModel); // Nutze GPT-4 aus Config
-        requestBody.put("messages", Arrays.asList(
-            Map.of("role", "system", "content", 
-                "Du bist ein Experte für technische Dokumentenanalyse. " +
-                "Antworte präzise, strukturiert und in deutscher Sprache."),
-            Map.of("role", "user", "content", prompt)
-        ));
-        requestBody.put("max_tokens", maxTokens);
-        requestBody.put("temperature", temperature);
-        requestBody.put("top_p", 0.95);
-        requestBody.put("frequency_penalty", 0.2);
-        requestBody.put("presence_penalty", 0.1);
-
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
-        
+    private CompletableFuture<String> callOpenAiChat(String prompt, int maxTokens, double temperature, String type) {
         try {
-            System.out.println("🤖 Rufe OpenAI Chat API auf (" + openAiModel + ") für: " + type);
-            ResponseEntity<Map> response = restTemplate.exchange(
-                OPENAI_CHAT_URL, HttpMethod.POST, entity, Map.class);
-            
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                Map<String, Object> body = response.getBody();
-                List<Map<String, Object>> choices = (List<Map<String, Object>>) body.get("choices");
-                if (choices != null && !choices.isEmpty()) {
-                    Map<String, Object> message = (Map<String, Object>) choices.get(0).get("message");
-                    String result = (String) message.get("content");
+            ChatCompletionRequest request = buildChatRequestBody(type, prompt, maxTokens, temperature);
+            System.out.println("🤖 Rufe OpenAI Chat API auf (" + request.model() + ") für: " + type);
+            return chatClient.completeAsync(request, type)
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        System.err.println("❌ OpenAI Chat API Fehler: " + causeMessage(error));
+                    }
+                })
+                .thenApply(response -> {
+                    if (response == null) {
+                        return "API-Aufruf fehlgeschlagen";
+                    }
+                    String result = response.content();
                     return result != null ? result.trim() : "Keine Antwort erhalten";
-                }
+                });
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private ChatCompletionRequest buildChatRequestBody(String task, String prompt, int maxTokens, double temperature) {
+        // Modell je Aufgabe und Eingabegröße (ai.routing.*)
+        return ChatCompletionRequest.of(modelRouter.selectModel(task, prompt), SYSTEM_PROMPT, prompt, maxTokens, temperature);
+    }
+
+    private static CompletionException asCompletionException(Throwable error) {
+        return error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+    }
+
+    private static String causeMessage(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause.getMessage();
+    }
+
+    /**
+     * Aktuelle Prompt-Template-Version (wird am Dokument gespeichert)
+     */
+    public String getPromptVersion() {
+        return promptTemplates.getVersionTag();
+    }
+
+    public boolean isAiAvailable() {
+        return chatClient.isAvailable();
+    }
+
+    // ========================================
+    // FACETTEN-SCHNITTSTELLE (Offline-Batch)
+    // ========================================
+
+    public static final String FACET_SUMMARY = "summary";
+    public static final String FACET_KEYWORDS = "keywords";
+    public static final String FACET_COMPONENTS = "components";
+
+    // Höchstens so viele Zeichen des vorverarbeiteten Texts landen im Prompt der Facette
+    public static final int SUMMARY_INPUT_CHARS = 4000;
+    public static final int KEYWORDS_INPUT_CHARS = 3000;
+    public static final int COMPONENTS_INPUT_CHARS = 3000;
+
+    /**
+     * Zeichen, die eine Facette vom Text liest; 0 = ganzer Text (Map-Reduce-Zusammenfassung)
+     */
+    public int facetInputChars(String facet) {
+        switch (facet) {
+            case FACET_SUMMARY:
+                return longDocumentEnabled ? 0 : SUMMARY_INPUT_CHARS;
+            case FACET_KEYWORDS:
+                return KEYWORDS_INPUT_CHARS;
+            case FACET_COMPONENTS:
+                return COMPONENTS_INPUT_CHARS;
+            default:
+                throw new IllegalArgumentException("Unbekannte Facette: " + facet);
+        }
+    }
+
+    /**
+     * Request-Body einer Facette für die Batch API (gleiche Prompts wie im Echtzeit-Pfad)
+     */
+    public ChatCompletionRequest buildFacetRequestBody(String facet, String processedText) {
+        switch (facet) {
+            case FACET_SUMMARY:
+                return buildChatRequestBody("summarization", createOptimizedSummarizationPrompt(processedText), 500, 0.3);
+            case FACET_KEYWORDS:
+                return buildChatRequestBody("keywords", createOptimizedKeywordPrompt(processedText), 300, 0.2);
+            case FACET_COMPONENTS:
+                return buildChatRequestBody("components",
+                    createContextAwareComponentPrompt(processedText, detectExistingTechnologies(processedText)), 400, 0.4);
+            default:
+                throw new IllegalArgumentException("Unbekannte Facette: " + facet);
+        }
+    }
+
+    /**
+     * Versionen der Prompt-Templates, die eine Facette verwendet (Memoization beim Re-Analyse)
+     */
+    public String facetPromptVersion(String facet) {
+        switch (facet) {
+            case FACET_SUMMARY:
+                // Kurze Texte nutzen SUMMARY, lange den Map-Reduce-Pfad
+                return Stream.of(PromptTemplateRegistry.SUMMARY, PromptTemplateRegistry.CHUNK_SUMMARY,
+                        PromptTemplateRegistry.INTERMEDIATE_REDUCE, PromptTemplateRegistry.FINAL_REDUCE)
+                    .map(id -> promptTemplates.get(id).getKey())
+                    .collect(Collectors.joining(","));
+            case FACET_KEYWORDS:
+                return promptTemplates.get(PromptTemplateRegistry.KEYWORDS).getKey();
+            case FACET_COMPONENTS:
+                return promptTemplates.get(PromptTemplateRegistry.COMPONENTS).getKey();
+            default:
+                throw new IllegalArgumentException("Unbekannte Facette: " + facet);
+        }
+    }
+
+    /**
+     * Modell, das die Facette für diesen Text verwenden würde (lokaler Fallback ohne KI);
+     * lange Zusammenfassungen laufen über die Modelle der Map-Reduce-Stufen
+     */
+    public String facetModel(String facet, String processedText) {
+        if (!isAiAvailable()) {
+            return "local-fallback";
+        }
+        if (FACET_SUMMARY.equals(facet)) {
+            Optional<String> longText = longDocumentText(processedText);
+            if (longText.isPresent()) {
+                return longDocumentModels(longText.get());
             }
-        } catch (Exception e) {
-            System.err.println("❌ OpenAI Chat API Fehler: " + e.getMessage());
-            throw e;
         }
-        
-        return "API-Aufruf fehlgeschlagen";
+        return buildFacetRequestBody(facet, processedText).model();
+    }
+
+    /**
+     * Routen-Modelle von Map-, Reduce- und Final-Stufe. Die Reduce-Eingaben ergeben sich aus den gecachten
+     * Teilergebnissen; fehlen sie, wird die Final-Stufe mit einem vollen Chunk als Eingabe abgeschätzt.
+     */
+    private String longDocumentModels(String text) {
+        Set<String> mapModels = new LinkedHashSet<>();
+        Set<String> reduceModels = new LinkedHashSet<>();
+        List<String> partials = new ArrayList<>();
+        for (String chunk : preprocessingService.splitIntoSegments(text, chunkTokens)) {
+            mapModels.add(modelRouter.selectModel("summarization-map", createChunkSummaryPrompt(chunk)));
+            partials.add(chunkSummaryCache.get(partialCacheKey(PromptTemplateRegistry.CHUNK_SUMMARY, chunk)));
+        }
+
+        // Reduce-Stufen wie in reducePartials nachvollziehen, solange alle Teilergebnisse bekannt sind
+        for (int depth = 0; !partials.contains(null); depth++) {
+            List<String> groups = reduceGroups(partials, depth);
+            if (groups.isEmpty()) {
+                break;
+            }
+            partials = new ArrayList<>();
+            for (String group : groups) {
+                reduceModels.add(modelRouter.selectModel("summarization-reduce", createIntermediateReducePrompt(group)));
+                partials.add(chunkSummaryCache.get(partialCacheKey(PromptTemplateRegistry.INTERMEDIATE_REDUCE, group)));
+            }
+        }
+
+        String finalInput = partials.contains(null) ? "x".repeat(chunkTokens * 4) : String.join("\n\n", partials);
+        String finalModel = modelRouter.selectModel("summarization", createFinalReducePrompt(finalInput));
+        return "map:" + String.join("+", mapModels)
+            + (reduceModels.isEmpty() ? "" : ",reduce:" + String.join("+", reduceModels))
+            + ",final:" + finalModel;
+    }
+
+    public String postProcessFacetResult(String facet, String rawResult, String processedText) {
+        switch (facet) {
+            case FACET_SUMMARY:
+                return postProcessSummary(rawResult);
+            case FACET_KEYWORDS:
+                return processKeywordResponse(rawResult);
+            case FACET_COMPONENTS:
+                return validateComponentSuggestions(rawResult, detectExistingTechnologies(processedText));
+            default:
+                throw new IllegalArgumentException("Unbekannte Facette: " + facet);
+        }
+    }
+
+    public String fallbackFacetResult(String facet, String processedText) {
+        switch (facet) {
+            case FACET_SUMMARY:
+                return getEnhancedFallbackSummary(processedText);
+            case FACET_KEYWORDS:
+                return String.join(", ", preprocessingService.extractKeywords(processedText, 15));
+            case FACET_COMPONENTS:
+                return getContextAwareFallbackComponents(processedText, detectExistingTechnologies(processedText));
+            default:
+                throw new IllegalArgumentException("Unbekannte Facette: " + facet);
+        }
     }
 
     // ========================================
@@ -0,0 +1,302 @@
+package com.bits.aidocassist.service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.bits.aidocassist.model.AnalysisJob;
+import com.bits.aidocassist.repository.AnalysisJobRepository;
+import com.bits.aidocassist.util.LatencyWindow;
+
+/**
+ * Begrenzte, persistente Warteschlange für asynchrone Analyse-Jobs: Aufträge liegen in der Tabelle
+ * analysis_job und werden von einem festen Worker-Pool abgearbeitet. Ist die Queue voll, lehnt
+ * {@link #submit} ab (HTTP 429), statt Threads oder Speicher zu binden.
+ */
+@Service
+public class AnalysisJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisJobService.class);
+
+    /**
+     * Eigentliche Verarbeitung eines Jobs (Extraktion, Analyse, Speichern); liefert die Dokument-ID
+     */
+    @FunctionalInterface
+    public interface JobProcessor {
+        Long process(AnalysisJob job) throws Exception;
+    }
+
+    @Autowired
+    private AnalysisJobRepository jobRepository;
+
+    @Autowired
+    private AnalysisProgressService progressService;
+
+    @Autowired
+    @Qualifier("jobExecutor")
+    private Executor jobExecutor;
+
+    @Value("${ai.jobs.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${ai.jobs.workers:4}")
+    private int workers;
+
+    // Retry-After ohne Laufzeit-Historie
+    @Value("${ai.jobs.retry-after-seconds:30}")
+    private long defaultRetryAfterSeconds;
+
+    // Bleibt der Heartbeat eines RUNNING-Jobs so lange aus, gilt er als verwaist (Instanz ausgefallen)
+    @Value("${ai.jobs.lease-timeout-ms:300000}")
+    private long leaseTimeoutMs;
+
+    // Danach wird ein verwaister Job nicht mehr eingereiht, sondern als FAILED beendet
+    @Value("${ai.jobs.max-attempts:3}")
+    private int maxAttempts;
+
+    // Stabil über Neustarts, damit eine Instanz ihre eigenen abgebrochenen Jobs sofort wieder einreiht
+    @Value("${ai.jobs.instance-id:}")
+    private String instanceId;
+
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    private final LatencyWindow jobDurations = new LatencyWindow(100);
+
+    // Von dieser Instanz gerade bearbeitete Jobs (Heartbeat)
+    private final Set<Long> runningJobs = ConcurrentHashMap.newKeySet();
+
+    private Semaphore freeWorkers;
+
+    private volatile JobProcessor processor;
+
+    @PostConstruct
+    void init() {
+        freeWorkers = new Semaphore(Math.max(1, workers));
+        if (instanceId == null || instanceId.isBlank()) {
+            instanceId = defaultInstanceId();
+        }
+        // Eigene Jobs sind mit dem Neustart abgebrochen; Jobs anderer Instanzen bleiben, solange ihr Lease gilt
+        int requeued = recoverOrphanedJobs(true);
+        if (requeued > 0) {
+            logger.info("📥 {} unterbrochene Analyse-Jobs wieder eingereiht ({})", requeued, instanceId);
+        }
+    }
+
+    /**
+     * Reiht RUNNING-Jobs ausgefallener Instanzen nach Ablauf des Leases wieder ein
+     */
+    @Scheduled(fixedDelayString = "${ai.jobs.lease-check-interval-ms:60000}")
+    public int requeueExpiredLeases() {
+        int requeued = recoverOrphanedJobs(false);
+        if (requeued > 0) {
+            logger.warn("📥 {} Analyse-Jobs mit abgelaufenem Lease wieder eingereiht", requeued);
+            dispatch();
+        }
+        return requeued;
+    }
+
+    /**
+     * Heartbeat: verlängert das Lease der Jobs, die diese Instanz gerade bearbeitet
+     */
+    @Scheduled(fixedDelayString = "${ai.jobs.heartbeat-interval-ms:60000}")
+    public void renewLeases() {
+        if (!runningJobs.isEmpty()) {
+            jobRepository.renewLeases(Set.copyOf(runningJobs), instanceId, new Date());
+        }
+    }
+
+    private int recoverOrphanedJobs(boolean includeOwn) {
+        Date leaseCutoff = leaseCutoff();
+        int failed = jobRepository.failOrphaned(instanceId, includeOwn, leaseCutoff, maxAttempts,
+            "Nach " + maxAttempts + " abgebrochenen Versuchen aufgegeben", new Date());
+        if (failed > 0) {
+            logger.error("❌ {} verwaiste Analyse-Jobs nach {} Versuchen aufgegeben", failed, maxAttempts);
+        }
+        return jobRepository.requeueOrphaned(instanceId, includeOwn, leaseCutoff, maxAttempts);
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Wird vom Controller beim Start gesetzt; vorher bleiben Jobs in der Queue
+     */
+    public void registerProcessor(JobProcessor processor) {
+        this.processor = processor;
+    }
+
+    /**
+     * Reiht einen Upload ein; leer, wenn die Queue voll ist
+     */
+    public synchronized Optional<AnalysisJob> submit(byte[] payload, String filename, String fileType, String analysisOptions) {
+        long queued = jobRepository.countByStatus(AnalysisJob.Status.QUEUED);
+        if (queued >= queueCapacity) {
+            logger.warn("🚦 Analyse-Queue voll ({}/{}), Job für {} abgelehnt", queued, queueCapacity, filename);
+            return Optional.empty();
+        }
+
+        AnalysisJob job = new AnalysisJob();
+        job.setFilename(filename);
+        job.setFileType(fileType);
+        job.setPayload(payload);
+        job.setAnalysisOptions(analysisOptions);
+        AnalysisJob saved = jobRepository.save(job);
+
+        logger.info("📥 Analyse-Job {} eingereiht: {} ({} in der Queue)", saved.getId(), filename, queued + 1);
+        progressService.publish(saved.getId(), AnalysisProgressService.EVENT_QUEUED,
+            Map.of("filename", String.valueOf(filename), "queuePosition", queued));
+        dispatch();
+        return Optional.of(saved);
+    }
+
+    public Optional<AnalysisJob> getJob(Long id) {
+        return jobRepository.findById(id);
+    }
+
+    /**
+     * Anzahl der Jobs, die vor diesem Job an der Reihe sind
+     */
+    public long getQueuePosition(AnalysisJob job) {
+        return jobRepository.countByStatusAndIdLessThan(AnalysisJob.Status.QUEUED, job.getId());
+    }
+
+    /**
+     * Geschätzte Wartezeit bis ein Platz frei wird (Median der letzten Job-Laufzeiten)
+     */
+    public long estimateRetryAfterSeconds() {
+        if (jobDurations.size() == 0) {
+            return defaultRetryAfterSeconds;
+        }
+        long queued = jobRepository.countByStatus(AnalysisJob.Status.QUEUED);
+        long waitMs = jobDurations.percentile(50) * Math.max(1, queued - queueCapacity + 1) / Math.max(1, workers);
+        return Math.max(1, Math.min(3600, (waitMs + 999) / 1000));
+    }
+
+    /**
+     * Verteilt eingereihte Jobs auf freie Worker; zusätzlich nach jedem Submit und Job-Ende
+     */
+    @Scheduled(fixedDelayString = "${ai.jobs.poll-interval-ms:2000}")
+    public synchronized void dispatch() {
+        if (processor == null) {
+            return;
+        }
+        while (freeWorkers.tryAcquire()) {
+            Optional<AnalysisJob> next = claimNext();
+            if (next.isEmpty()) {
+                freeWorkers.release();
+                return;
+            }
+            AnalysisJob job = next.get();
+            try {
+                jobExecutor.execute(() -> runJob(job));
+            } catch (RejectedExecutionException e) {
+                // Pool wird heruntergefahren - Job bleibt für den nächsten Start in der Queue
+                jobRepository.unclaim(job.getId(), instanceId);
+                freeWorkers.release();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Abschluss-Event (completed/failed) aus dem gespeicherten Job-Status
+     */
+    public void publishFinished(AnalysisJob job, Long durationMs) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        if (durationMs != null) {
+            data.put("durationMs", durationMs);
+        }
+        if (job.getStatus() == AnalysisJob.Status.COMPLETED) {
+            data.put("documentId", job.getDocumentId());
+            progressService.publish(job.getId(), AnalysisProgressService.EVENT_COMPLETED, data);
+        } else {
+            data.put("error", String.valueOf(job.getError()));
+            progressService.publish(job.getId(), AnalysisProgressService.EVENT_FAILED, data);
+        }
+    }
+
+    private Optional<AnalysisJob> claimNext() {
+        // Mehrere Instanzen können dieselbe Tabelle lesen; nur wer den Status umsetzt, bekommt den Job
+        for (int attempt = 0; attempt < 3; attempt++) {
+            Optional<AnalysisJob> candidate = jobRepository.findFirstByStatusOrderByIdAsc(AnalysisJob.Status.QUEUED);
+            if (candidate.isEmpty()) {
+                return Optional.empty();
+            }
+            if (jobRepository.claim(candidate.get().getId(), new Date(), instanceId) == 1) {
+                return jobRepository.findById(candidate.get().getId());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void runJob(AnalysisJob job) {
+        long start = System.currentTimeMillis();
+        runningJobs.add(job.getId());
+        progressService.publish(job.getId(), AnalysisProgressService.EVENT_STARTED, Map.of("attempt", job.getAttempts()));
+        try {
+            job.setDocumentId(processor.process(job));
+            job.setStatus(AnalysisJob.Status.COMPLETED);
+            logger.info("✅ Analyse-Job {} abgeschlossen: Dokument {} ({}ms)",
+                job.getId(), job.getDocumentId(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            job.setStatus(AnalysisJob.Status.FAILED);
+            job.setError(cause.getMessage());
+            logger.error("❌ Analyse-Job {} fehlgeschlagen: {}", job.getId(), cause.getMessage());
+        }
+
+        boolean stillOwned;
+        try {
+            job.setPayload(null);
+            job.setFinishedAt(new Date());
+            job.setOwner(null);
+            // Bedingtes Update statt save(): hat nach Lease-Ablauf eine andere Instanz übernommen, bleibt deren Stand
+            stillOwned = jobRepository.finish(job.getId(), instanceId, job.getStatus(), job.getDocumentId(),
+                job.getError(), job.getFinishedAt()) == 1;
+        } finally {
+            runningJobs.remove(job.getId());
+            jobDurations.record(System.currentTimeMillis() - start);
+            freeWorkers.release();
+        }
+        if (stillOwned) {
+            // Erst nach dem Speichern, damit GET /jobs/{id} nach dem Event den Endstatus liefert
+            publishFinished(job, System.currentTimeMillis() - start);
+        } else {
+            logger.warn("⚠️ Analyse-Job {} gehört nicht mehr dieser Instanz - Ergebnis nicht übernommen", job.getId());
+        }
+        dispatch();
+    }
+
+    private Date leaseCutoff() {
+        return new Date(System.currentTimeMillis() - leaseTimeoutMs);
+    }
+
+    private String defaultInstanceId() {
+        try {
+            return InetAddress.getLocalHost().getHostName() + ":" + serverPort;
+        } catch (UnknownHostException e) {
+            return "localhost:" + serverPort;
+        }
+    }
+}
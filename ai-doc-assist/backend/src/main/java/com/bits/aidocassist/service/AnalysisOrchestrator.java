@@ -0,0 +1,375 @@
+package com.bits.aidocassist.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.bits.aidocassist.util.CallCancellation;
+import com.bits.aidocassist.util.Deadline;
+
+/**
+ * Führt Analyse-Facetten als DAG aus: unabhängige Knoten laufen parallel, abhängige starten,
+ * sobald ihre Eingaben vorliegen. Jeder Knoten hat ein Timeout; bei Fehler oder Timeout
+ * liefert er seinen Fallback (oder null), abhängige Knoten laufen trotzdem weiter.
+ * Eine {@link Deadline} der Anfrage begrenzt zusätzlich jede Wartezeit; nach Ablauf werden die
+ * fertigen Ergebnisse geliefert und offene Knoten optional im Hintergrund zu Ende gerechnet.
+ * Abgebrochene Knoten beenden ihren laufenden LLM-Aufruf über {@link CallCancellation} und geben den Lane-Slot frei.
+ */
+@Service
+public class AnalysisOrchestrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisOrchestrator.class);
+
+    public enum NodeStatus {
+        OK,
+        FAILED,
+        TIMED_OUT,
+        DEADLINE_EXCEEDED
+    }
+
+    /**
+     * Wird nach jedem fertigen Knoten aufgerufen (Ergebnis oder Fallback), z.B. für Fortschritts-Events
+     */
+    @FunctionalInterface
+    public interface NodeListener {
+        void nodeDone(String name, NodeReport report, Object value);
+    }
+
+    @Autowired
+    private AiService aiService;
+
+    @Autowired
+    private LaneScheduler laneScheduler;
+
+    @Autowired
+    private TextPreprocessingService preprocessingService;
+
+    @Autowired
+    @Qualifier("aiIoExecutor")
+    private Executor aiIoExecutor;
+
+    @Value("${ai.orchestrator.node-timeout-ms:90000}")
+    private long defaultTimeoutMs;
+
+    // Abweichende Timeouts je Knoten, z.B. summary:120000,classification:20000
+    @Value("${ai.orchestrator.node-timeouts:}")
+    private String nodeTimeoutsConfig;
+
+    // Nach Ablauf der Deadline laufende LLM-Aufrufe fertigstellen (Ergebnis ersetzt später den Fallback)
+    @Value("${ai.deadline.complete-in-background:true}")
+    private boolean completeInBackground;
+
+    private final Map<String, Long> nodeTimeouts = new HashMap<>();
+
+    @PostConstruct
+    void init() {
+        if (nodeTimeoutsConfig == null || nodeTimeoutsConfig.isBlank()) {
+            return;
+        }
+        for (String entry : nodeTimeoutsConfig.split(",")) {
+            int separator = entry.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalStateException("Ungültiger Timeout-Eintrag: '" + entry.trim() + "'");
+            }
+            nodeTimeouts.put(entry.substring(0, separator).trim(), Long.parseLong(entry.substring(separator + 1).trim()));
+        }
+    }
+
+    public AnalysisPlan plan() {
+        return new AnalysisPlan();
+    }
+
+    /**
+     * Standard-Facetten der Upload-/Text-Analyse (summary, keywords, components), alle unabhängig
+     */
+    public AnalysisPlan facetPlan(String text, boolean summary, boolean keywords, boolean components) {
+        AnalysisPlan plan = plan().predictedTokens(preprocessingService.estimateTokens(text));
+        if (summary) {
+            plan.asyncNode(AiService.FACET_SUMMARY, List.of(), inputs -> aiService.summarizeTextAsync(text, false));
+        }
+        if (keywords) {
+            plan.asyncNode(AiService.FACET_KEYWORDS, List.of(), inputs -> aiService.extractKeywordsAsync(text, false));
+        }
+        if (components) {
+            plan.asyncNode(AiService.FACET_COMPONENTS, List.of(), inputs -> aiService.suggestComponentsAsync(text, false));
+        }
+        // Bei Fehler oder Timeout dieselben lokalen Fallbacks wie ohne KI (Status FAILED/TIMED_OUT statt OK)
+        for (String facet : List.of(AiService.FACET_SUMMARY, AiService.FACET_KEYWORDS, AiService.FACET_COMPONENTS)) {
+            if (plan.byName.containsKey(facet)) {
+                plan.fallback(facet, inputs -> aiService.fallbackFacetResult(facet, text));
+            }
+        }
+        return plan;
+    }
+
+    public CompletableFuture<AnalysisResult> run(AnalysisPlan plan) {
+        return run(plan, Deadline.none());
+    }
+
+    /**
+     * Startet alle Knoten; das Future ist fertig, wenn jeder Knoten ein Ergebnis (oder Fallback) hat,
+     * spätestens aber mit Ablauf der Deadline
+     */
+    public CompletableFuture<AnalysisResult> run(AnalysisPlan plan, Deadline deadline) {
+        AnalysisResult result = new AnalysisResult();
+        Map<String, CompletableFuture<Void>> done = new HashMap<>();
+
+        // Knoten sind in Abhängigkeitsreihenfolge deklariert, Vorgänger existieren also immer schon
+        for (Node node : plan.nodes) {
+            CompletableFuture<?>[] inputs = node.dependsOn.stream()
+                .map(done::get)
+                .toArray(CompletableFuture[]::new);
+            done.put(node.name, CompletableFuture.allOf(inputs)
+                .thenCompose(ignored -> start(plan, node, result, deadline)));
+        }
+
+        return CompletableFuture.allOf(done.values().toArray(new CompletableFuture[0]))
+            .thenApply(ignored -> result);
+    }
+
+    private CompletableFuture<Void> start(AnalysisPlan plan, Node node, AnalysisResult result, Deadline deadline) {
+        long timeoutMs = nodeTimeouts.getOrDefault(node.name, defaultTimeoutMs);
+        long remainingMs = deadline.remainingMs();
+        boolean limitedByDeadline = remainingMs < timeoutMs;
+        long startedAt = System.currentTimeMillis();
+
+        if (deadline.isExpired() && !completeInBackground) {
+            // Frist schon vorbei: LLM-Aufruf gar nicht erst starten
+            complete(plan, node.name, result, fallback(node, result),
+                new NodeReport(NodeStatus.DEADLINE_EXCEEDED, 0, "Deadline vor Start abgelaufen"));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Slot der Lane abwarten, dann auf dem I/O-Pool starten: blockierende Knoten laufen dort,
+        // asynchrone senden nur ihren Request. Alle Aufrufe des Knotens hängen an seinem Abbruch-Bereich.
+        CallCancellation cancellation = new CallCancellation();
+        CompletableFuture<Object> task = laneScheduler.submit(plan.lane, plan.predictedTokens,
+            () -> CompletableFuture.supplyAsync(() -> cancellation.call(() -> node.task.apply(result)), aiIoExecutor)
+                .thenCompose(Function.identity()));
+
+        // Timeout auf einer Kopie, damit der eigentliche Aufruf nach Ablauf der Deadline weiterlaufen kann
+        return task.copy()
+            .orTimeout(Math.min(timeoutMs, remainingMs), TimeUnit.MILLISECONDS)
+            .handle((value, error) -> {
+                long durationMs = System.currentTimeMillis() - startedAt;
+                if (error == null) {
+                    complete(plan, node.name, result, value, new NodeReport(NodeStatus.OK, durationMs, null));
+                    return null;
+                }
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                NodeStatus status = !(cause instanceof TimeoutException) ? NodeStatus.FAILED
+                    : limitedByDeadline ? NodeStatus.DEADLINE_EXCEEDED : NodeStatus.TIMED_OUT;
+                logger.warn("⏱️ Analyse-Knoten '{}' {} nach {}ms: {}", node.name,
+                    status == NodeStatus.FAILED ? "fehlgeschlagen" : "abgebrochen", durationMs, cause.getMessage());
+
+                String message = status == NodeStatus.FAILED ? cause.getMessage()
+                    : status == NodeStatus.TIMED_OUT ? "Timeout nach " + timeoutMs + "ms"
+                    : "Deadline von " + deadline.getBudgetMs() + "ms überschritten";
+                if (status == NodeStatus.DEADLINE_EXCEEDED && completeInBackground) {
+                    result.pending.put(node.name, task);
+                } else {
+                    // Beendet den HTTP-Aufruf (disconnect bzw. sendAsync-Abbruch); der Lane-Slot wird sofort frei
+                    cancellation.cancel();
+                    task.cancel(true);
+                }
+                complete(plan, node.name, result, fallback(node, result), new NodeReport(status, durationMs, message));
+                return null;
+            });
+    }
+
+    private void complete(AnalysisPlan plan, String name, AnalysisResult result, Object value, NodeReport report) {
+        result.complete(name, value, report);
+        if (plan.listener == null) {
+            return;
+        }
+        try {
+            plan.listener.nodeDone(name, report, value);
+        } catch (RuntimeException e) {
+            logger.warn("Listener für Analyse-Knoten '{}' fehlgeschlagen: {}", name, e.getMessage());
+        }
+    }
+
+    private Object fallback(Node node, AnalysisResult result) {
+        if (node.fallback == null) {
+            return null;
+        }
+        try {
+            return node.fallback.apply(result);
+        } catch (RuntimeException e) {
+            logger.warn("Fallback für '{}' fehlgeschlagen: {}", node.name, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Knoten eines Analyse-Plans; Abhängigkeiten müssen vorher deklariert sein (damit ist der Graph azyklisch)
+     */
+    public static class AnalysisPlan {
+        private final List<Node> nodes = new ArrayList<>();
+        private final Map<String, Node> byName = new HashMap<>();
+        private LaneScheduler.Lane lane = LaneScheduler.Lane.INTERACTIVE;
+        private long predictedTokens;
+        private NodeListener listener;
+
+        /**
+         * Lane der LLM-Aufrufe dieses Plans (Standard: INTERACTIVE)
+         */
+        public AnalysisPlan lane(LaneScheduler.Lane lane) {
+            this.lane = lane;
+            return this;
+        }
+
+        public AnalysisPlan onNodeDone(NodeListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Geschätzte Größe je Knoten für Shortest-Job-First innerhalb der Lane
+         */
+        public AnalysisPlan predictedTokens(long predictedTokens) {
+            this.predictedTokens = predictedTokens;
+            return this;
+        }
+
+        /**
+         * Blockierender Knoten (läuft auf dem I/O-Pool)
+         */
+        public AnalysisPlan node(String name, List<String> dependsOn, Function<AnalysisResult, ?> task) {
+            return asyncNode(name, dependsOn, inputs -> CompletableFuture.completedFuture(task.apply(inputs)));
+        }
+
+        public AnalysisPlan asyncNode(String name, List<String> dependsOn,
+                                      Function<AnalysisResult, ? extends CompletableFuture<?>> task) {
+            if (byName.containsKey(name)) {
+                throw new IllegalArgumentException("Analyse-Knoten doppelt: " + name);
+            }
+            for (String dependency : dependsOn) {
+                if (!byName.containsKey(dependency)) {
+                    throw new IllegalArgumentException("Unbekannte Abhängigkeit '" + dependency + "' für " + name);
+                }
+            }
+            Node node = new Node(name, List.copyOf(dependsOn),
+                inputs -> task.apply(inputs).thenApply(value -> (Object) value));
+            nodes.add(node);
+            byName.put(name, node);
+            return this;
+        }
+
+        /**
+         * Ergebnis bei Fehler oder Timeout des Knotens
+         */
+        public AnalysisPlan fallback(String name, Function<AnalysisResult, ?> fallback) {
+            Node node = byName.get(name);
+            if (node == null) {
+                throw new IllegalArgumentException("Unbekannter Analyse-Knoten: " + name);
+            }
+            node.fallback = fallback;
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return nodes.isEmpty();
+        }
+    }
+
+    private static final class Node {
+        private final String name;
+        private final List<String> dependsOn;
+        private final Function<AnalysisResult, CompletableFuture<Object>> task;
+        private Function<AnalysisResult, ?> fallback;
+
+        Node(String name, List<String> dependsOn, Function<AnalysisResult, CompletableFuture<Object>> task) {
+            this.name = name;
+            this.dependsOn = dependsOn;
+            this.task = task;
+        }
+    }
+
+    /**
+     * Ergebnisse und Laufzeit-Berichte aller Knoten
+     */
+    public static class AnalysisResult {
+        private final Map<String, Object> values = Collections.synchronizedMap(new HashMap<>());
+        private final Map<String, NodeReport> reports = Collections.synchronizedMap(new LinkedHashMap<>());
+        private final Map<String, CompletableFuture<Object>> pending = new ConcurrentHashMap<>();
+
+        void complete(String name, Object value, NodeReport report) {
+            values.put(name, value);
+            reports.put(name, report);
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T get(String name) {
+            return (T) values.get(name);
+        }
+
+        /**
+         * Knoten war Teil des Plans (Wert kann trotzdem null sein, z.B. nach Timeout ohne Fallback)
+         */
+        public boolean has(String name) {
+            return reports.containsKey(name);
+        }
+
+        /**
+         * Knoten, die nicht regulär fertig wurden (Fallback oder null geliefert)
+         */
+        public List<String> getDegraded() {
+            synchronized (reports) {
+                return reports.entrySet().stream()
+                    .filter(entry -> entry.getValue().getStatus() != NodeStatus.OK)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+            }
+        }
+
+        /**
+         * Nach Ablauf der Deadline im Hintergrund weiterlaufende Knoten
+         */
+        public Map<String, CompletableFuture<Object>> getPending() {
+            return Map.copyOf(pending);
+        }
+
+        public Map<String, NodeReport> getReports() {
+            synchronized (reports) {
+                return new LinkedHashMap<>(reports);
+            }
+        }
+    }
+
+    public static class NodeReport {
+        private final NodeStatus status;
+        private final long durationMs;
+        private final String error;
+
+        NodeReport(NodeStatus status, long durationMs, String error) {
+            this.status = status;
+            this.durationMs = durationMs;
+            this.error = error;
+        }
+
+        public NodeStatus getStatus() { return status; }
+        public long getDurationMs() { return durationMs; }
+        public String getError() { return error; }
+    }
+}
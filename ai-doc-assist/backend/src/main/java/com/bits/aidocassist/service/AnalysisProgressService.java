@@ -0,0 +1,157 @@
+package com.bits.aidocassist.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Fortschritts-Events der Analyse-Jobs als Server-Sent Events (GET /api/documents/jobs/{id}/events).
+ * Events werden je Job gepuffert, damit auch spät verbundene Clients den bisherigen Verlauf erhalten;
+ * nach dem Abschluss bleibt der Verlauf ai.progress.retention-ms lang abrufbar.
+ */
+@Service
+public class AnalysisProgressService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisProgressService.class);
+
+    public static final String EVENT_QUEUED = "queued";
+    public static final String EVENT_STARTED = "started";
+    public static final String EVENT_EXTRACTED = "extracted";
+    // Exaktes Duplikat: vorhandene Analyse übernommen, ohne Extraktion und KI-Aufrufe
+    public static final String EVENT_REUSED = "reused";
+    public static final String EVENT_PREPROCESSED = "preprocessed";
+    public static final String EVENT_FACET = "facet";
+    public static final String EVENT_COMPLETED = "completed";
+    public static final String EVENT_FAILED = "failed";
+
+    @Value("${ai.progress.sse-timeout-ms:300000}")
+    private long sseTimeoutMs;
+
+    @Value("${ai.progress.retention-ms:300000}")
+    private long retentionMs;
+
+    private final Map<Long, JobProgress> progressByJob = new ConcurrentHashMap<>();
+
+    /**
+     * Event an alle verbundenen Clients senden; completed/failed beenden den Stream
+     */
+    public void publish(Long jobId, String event, Map<String, Object> data) {
+        JobProgress progress = progressByJob.computeIfAbsent(jobId, id -> new JobProgress());
+        ProgressEvent progressEvent = new ProgressEvent(event, data);
+        boolean terminal = EVENT_COMPLETED.equals(event) || EVENT_FAILED.equals(event);
+
+        synchronized (progress) {
+            progress.history.add(progressEvent);
+            for (SseEmitter emitter : new ArrayList<>(progress.emitters)) {
+                if (!send(emitter, progressEvent)) {
+                    progress.emitters.remove(emitter);
+                } else if (terminal) {
+                    emitter.complete();
+                }
+            }
+            if (terminal) {
+                progress.emitters.clear();
+                progress.finishedAt = System.currentTimeMillis();
+            }
+        }
+    }
+
+    /**
+     * Neuer Client: bisherigen Verlauf nachsenden, danach live weiter
+     */
+    public SseEmitter subscribe(Long jobId) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        JobProgress progress = progressByJob.computeIfAbsent(jobId, id -> new JobProgress());
+
+        synchronized (progress) {
+            for (ProgressEvent event : progress.history) {
+                if (!send(emitter, event)) {
+                    return emitter;
+                }
+            }
+            if (progress.finishedAt > 0) {
+                emitter.complete();
+                return emitter;
+            }
+            progress.emitters.add(emitter);
+        }
+        emitter.onCompletion(() -> remove(jobId, emitter));
+        emitter.onTimeout(() -> remove(jobId, emitter));
+        return emitter;
+    }
+
+    /**
+     * Wurde für den Job schon ein Event veröffentlicht (seit dem Start dieser Instanz)?
+     */
+    public boolean isTracked(Long jobId) {
+        return progressByJob.containsKey(jobId);
+    }
+
+    private void remove(Long jobId, SseEmitter emitter) {
+        JobProgress progress = progressByJob.get(jobId);
+        if (progress != null) {
+            synchronized (progress) {
+                progress.emitters.remove(emitter);
+            }
+        }
+    }
+
+    private boolean send(SseEmitter emitter, ProgressEvent event) {
+        try {
+            emitter.send(SseEmitter.event().name(event.getEvent()).data(event, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client hat die Verbindung geschlossen
+            logger.debug("SSE-Client getrennt: {}", e.getMessage());
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ai.progress.cleanup-interval-ms:60000}")
+    public void evictFinished() {
+        long now = System.currentTimeMillis();
+        progressByJob.entrySet().removeIf(entry -> {
+            JobProgress progress = entry.getValue();
+            synchronized (progress) {
+                return progress.finishedAt > 0 && now - progress.finishedAt > retentionMs;
+            }
+        });
+    }
+
+    private static final class JobProgress {
+        private final List<ProgressEvent> history = new ArrayList<>();
+        private final List<SseEmitter> emitters = new ArrayList<>();
+        private long finishedAt;
+    }
+
+    /**
+     * Payload eines SSE-Events
+     */
+    public static class ProgressEvent {
+        private final String event;
+        private final Date timestamp = new Date();
+        private final Map<String, Object> data;
+
+        ProgressEvent(String event, Map<String, Object> data) {
+            this.event = event;
+            this.data = data != null ? new LinkedHashMap<>(data) : Map.of();
+        }
+
+        public String getEvent() { return event; }
+        public Date getTimestamp() { return timestamp; }
+        public Map<String, Object> getData() { return data; }
+    }
+}
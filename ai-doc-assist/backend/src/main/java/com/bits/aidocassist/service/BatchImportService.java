@@ -0,0 +1,285 @@
+package com.bits.aidocassist.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.bits.aidocassist.client.ChatCompletionCodec;
+import com.bits.aidocassist.client.ChatCompletionRequest;
+import com.bits.aidocassist.client.ChatCompletionResponse;
+import com.bits.aidocassist.model.BatchImportJob;
+import com.bits.aidocassist.model.Document;
+import com.bits.aidocassist.repository.BatchImportJobRepository;
+import com.bits.aidocassist.repository.DocumentRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Asynchroner Massen-Import: schreibt alle Facetten-Prompts in eine JSONL-Batch-Datei,
+ * reicht sie beim BatchProvider ein, pollt den Status und schreibt die Ergebnisse in die Document-Zeilen zurück.
+ * Der Job-Status liegt in der Datenbank (BatchImportJob), damit offene Batches einen Neustart überstehen.
+ */
+@Service
+public class BatchImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchImportService.class);
+
+    @Autowired
+    private BatchProvider batchProvider;
+
+    @Autowired
+    private AiService aiService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private BatchImportJobRepository batchImportJobRepository;
+
+    @Value("${ai.batch.work-dir:${java.io.tmpdir}/ai-doc-batches}")
+    private String workDir;
+
+    @Autowired
+    private ChatCompletionCodec codec;
+
+    // Abgeschlossene/fehlgeschlagene Jobs bleiben so lange abrufbar
+    @Value("${ai.batch.retention-hours:168}")
+    private long retentionHours;
+
+    @PostConstruct
+    void initWorkDir() throws IOException {
+        Files.createDirectories(Paths.get(workDir));
+    }
+
+    /**
+     * Reicht bereits gespeicherte (vorverarbeitete) Dokumente zur Offline-Analyse ein
+     */
+    public BatchImportJob submitImport(List<Document> documents, Set<String> facets) throws IOException {
+        BatchImportJob job = new BatchImportJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setProvider(batchProvider.getName());
+        job.getFacets().addAll(facets);
+
+        Path requestFile = requestFile(job);
+        int requestCount = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(requestFile, StandardCharsets.UTF_8)) {
+            for (Document document : documents) {
+                job.getDocumentIds().add(document.getId());
+                for (String facet : facets) {
+                    writeRequestLine(writer, customId(document.getId(), facet),
+                        aiService.buildFacetRequestBody(facet, document.getContent()));
+                    requestCount++;
+                }
+            }
+        }
+        job.setRequestCount(requestCount);
+
+        job.setProviderBatchId(batchProvider.submit(requestFile));
+        job.setStatus(BatchImportJob.Status.SUBMITTED);
+        job = batchImportJobRepository.save(job);
+
+        logger.info("📦 Offline-Batch {} eingereicht ({}): {} Dokumente, {} Requests",
+            job.getId(), job.getProvider(), job.getDocumentIds().size(), job.getRequestCount());
+        return job;
+    }
+
+    public BatchImportJob getJob(String jobId) {
+        return batchImportJobRepository.findById(jobId).orElse(null);
+    }
+
+    /**
+     * Pollt offene Batches und überträgt fertige Ergebnisse
+     */
+    @Scheduled(fixedDelayString = "${ai.batch.poll-interval-ms:30000}")
+    public void pollPendingJobs() {
+        for (BatchImportJob job : batchImportJobRepository.findByStatus(BatchImportJob.Status.SUBMITTED)) {
+            try {
+                BatchProvider.BatchState state = batchProvider.getState(job.getProviderBatchId());
+                job.setCompletedRequests(state.getCompleted());
+                job.setFailedRequests(state.getFailed());
+
+                if (state.getStatus() == BatchProvider.Status.COMPLETED) {
+                    Path results = batchProvider.downloadResults(job.getProviderBatchId(), Paths.get(workDir));
+                    applyResults(job, readResults(results));
+                    job.setStatus(BatchImportJob.Status.COMPLETED);
+                    job.setCompletedAt(new Date());
+                    discardFiles(job, results);
+                } else if (state.getStatus() == BatchProvider.Status.FAILED) {
+                    // Dokumente nicht leer lassen - lokale Analyse als Ersatz
+                    applyResults(job, Map.of());
+                    job.setStatus(BatchImportJob.Status.FAILED);
+                    job.setCompletedAt(new Date());
+                    job.setMessage("Batch beim Provider fehlgeschlagen - lokale Fallback-Analyse verwendet");
+                    discardFiles(job, null);
+                }
+                batchImportJobRepository.save(job);
+            } catch (Exception e) {
+                logger.warn("Batch {} konnte nicht abgefragt werden: {}", job.getId(), e.getMessage());
+            }
+        }
+        evictFinishedJobs();
+    }
+
+    /**
+     * Entfernt abgeschlossene Jobs nach Ablauf von ai.batch.retention-hours
+     */
+    public long evictFinishedJobs() {
+        Date cutoff = new Date(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(retentionHours));
+        List<BatchImportJob> evicted = batchImportJobRepository.findByStatusNotAndCompletedAtBefore(
+            BatchImportJob.Status.SUBMITTED, cutoff);
+        if (evicted.isEmpty()) {
+            return 0;
+        }
+        // Normalerweise schon beim Übernehmen gelöscht; hier Reste früherer Läufe
+        evicted.forEach(job -> discardFiles(job, null));
+        batchImportJobRepository.deleteAll(evicted);
+        logger.info("🧹 {} abgeschlossene Offline-Batches entfernt", evicted.size());
+        return evicted.size();
+    }
+
+    /**
+     * Request-Datei (enthält den vollständigen Dokumenttext), Ergebnisdatei und Provider-Zustand entfernen
+     */
+    private void discardFiles(BatchImportJob job, Path results) {
+        try {
+            Files.deleteIfExists(requestFile(job));
+            if (results != null) {
+                Files.deleteIfExists(results);
+            }
+            batchProvider.release(job.getProviderBatchId());
+        } catch (IOException e) {
+            logger.warn("Dateien von Batch {} konnten nicht gelöscht werden: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    private Path requestFile(BatchImportJob job) {
+        return Paths.get(workDir).resolve("batch-" + job.getId() + ".jsonl");
+    }
+
+    /**
+     * Eine Zeile der Batch-Eingabedatei (Format der OpenAI Batch API)
+     */
+    private void writeRequestLine(BufferedWriter writer, String customId, ChatCompletionRequest request) throws IOException {
+        JsonGenerator generator = codec.getJsonFactory().createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.writeStartObject();
+        generator.writeStringField("custom_id", customId);
+        generator.writeStringField("method", "POST");
+        generator.writeStringField("url", "/v1/chat/completions");
+        generator.writeFieldName("body");
+        codec.writeRequest(request, generator);
+        generator.writeEndObject();
+        generator.close();
+        writer.newLine();
+    }
+
+    /**
+     * Liest die Ergebnis-JSONL zeilenweise: custom_id -> Antwort-Inhalt
+     */
+    private Map<String, String> readResults(Path resultFile) throws IOException {
+        Map<String, String> results = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(resultFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try (JsonParser parser = codec.getJsonFactory().createParser(line)) {
+                    readResultLine(parser, results);
+                }
+            }
+        }
+        return results;
+    }
+
+    private void readResultLine(JsonParser parser, Map<String, String> results) throws IOException {
+        String customId = null;
+        ChatCompletionResponse response = null;
+        int statusCode = 0;
+
+        parser.nextToken();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("custom_id".equals(field)) {
+                customId = parser.getValueAsString();
+            } else if ("response".equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String responseField = parser.getCurrentName();
+                    JsonToken responseValue = parser.nextToken();
+                    if ("status_code".equals(responseField)) {
+                        statusCode = parser.getValueAsInt();
+                    } else if ("body".equals(responseField) && responseValue == JsonToken.START_OBJECT) {
+                        response = codec.readResponse(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        if (customId != null && statusCode == 200 && response != null && response.content() != null) {
+            results.put(customId, response.content().trim());
+        }
+    }
+
+    private void applyResults(BatchImportJob job, Map<String, String> results) {
+        for (Long documentId : job.getDocumentIds()) {
+            Document document = documentRepository.findById(documentId).orElse(null);
+            if (document == null) {
+                continue;
+            }
+            String content = document.getContent();
+
+            for (String facet : job.getFacets()) {
+                String raw = results.get(customId(documentId, facet));
+                String value = raw != null
+                    ? aiService.postProcessFacetResult(facet, raw, content)
+                    : aiService.fallbackFacetResult(facet, content);
+
+                switch (facet) {
+                    case AiService.FACET_SUMMARY:
+                        document.setSummary(value);
+                        break;
+                    case AiService.FACET_KEYWORDS:
+                        document.setKeywords(value);
+                        break;
+                    case AiService.FACET_COMPONENTS:
+                        document.setSuggestedComponents(value);
+                        break;
+                }
+            }
+            document.setPromptVersion(aiService.getPromptVersion());
+            documentRepository.save(document);
+        }
+        logger.info("✅ Offline-Batch {} übernommen: {} Ergebnisse für {} Dokumente",
+            job.getId(), results.size(), job.getDocumentIds().size());
+    }
+
+    private String customId(Long documentId, String facet) {
+        return "doc-" + documentId + ":" + facet;
+    }
+}
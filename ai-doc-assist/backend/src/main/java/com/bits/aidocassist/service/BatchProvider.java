@@ -0,0 +1,56 @@
+package com.bits.aidocassist.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Batch-fähiger LLM-Provider: nimmt eine JSONL-Datei mit Chat-Completions-Requests entgegen
+ * und liefert die Ergebnisse asynchron als JSONL (Format der OpenAI Batch API).
+ */
+public interface BatchProvider {
+
+    String getName();
+
+    /**
+     * Reicht eine JSONL-Datei ein und gibt die Batch-ID des Providers zurück
+     */
+    String submit(Path requestFile) throws IOException;
+
+    BatchState getState(String batchId) throws IOException;
+
+    /**
+     * Lädt die Ergebnis-JSONL eines abgeschlossenen Batches nach targetDir
+     */
+    Path downloadResults(String batchId, Path targetDir) throws IOException;
+
+    /**
+     * Gibt providerseitige Zustände frei, sobald die Ergebnisse übernommen oder verworfen sind
+     */
+    default void release(String batchId) throws IOException {
+    }
+
+    enum Status {
+        IN_PROGRESS,
+        COMPLETED,
+        FAILED
+    }
+
+    class BatchState {
+        private final Status status;
+        private final int total;
+        private final int completed;
+        private final int failed;
+
+        public BatchState(Status status, int total, int completed, int failed) {
+            this.status = status;
+            this.total = total;
+            this.completed = completed;
+            this.failed = failed;
+        }
+
+        public Status getStatus() { return status; }
+        public int getTotal() { return total; }
+        public int getCompleted() { return completed; }
+        public int getFailed() { return failed; }
+    }
+}
@@ -5,20 +5,27 @@ import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.PDFTextStripper;
-
+import com.bits.aidocassist.extraction.ExtractionOptions;
+import com.bits.aidocassist.extraction.ExtractorRegistry;
 import com.bits.aidocassist.model.Document;
 import com.bits.aidocassist.repository.DocumentRepository;
+import com.bits.aidocassist.util.Deadline;
 
 @Service
 public class DocumentService {
 
+    private static final Logger logger = LoggerFactory.getLogger(DocumentService.class);
+
     @Autowired
     private DocumentRepository documentRepository;
 
@@ -28,6 +35,40 @@ public class DocumentService {
     @Autowired
     private TextPreprocessingService preprocessingService;
 
+    @Autowired
+    private PromptTemplateRegistry promptTemplates;
+
+    @Autowired
+    private NearDuplicateService nearDuplicateService;
+
+    @Autowired
+    private AnalysisOrchestrator analysisOrchestrator;
+
+    @Autowired
+    private FacetMemoService facetMemoService;
+
+    @Autowired
+    private SegmentSummaryService segmentSummaryService;
+
+    @Autowired
+    private ExtractorRegistry extractorRegistry;
+
+    @Autowired
+    private AiService aiService;
+
+    @Autowired
+    @Qualifier("aiIoExecutor")
+    private Executor aiIoExecutor;
+
+    @Value("${ai.deadline.default-ms:60000}")
+    private long defaultDeadlineMs;
+
+    private static final String NODE_CLASSIFICATION = "classification";
+    private static final String NODE_SUMMARY = "summary";
+    private static final String NODE_KEYWORDS = "keywords";
+    private static final String NODE_RECOMMENDATIONS = "recommendations";
+    private static final String NODE_SENTIMENT = "sentiment";
+
     /**
      * Hauptmethode für Dokumentenverarbeitung
      */
@@ -45,57 +86,132 @@ public class DocumentService {
         document.setContent(processedText);
 
         // Erweiterte Analyse mit mehreren Durchgängen
-        performComprehensiveAnalysis(document, processedText);
+        AnalysisOrchestrator.AnalysisResult analysis = performComprehensiveAnalysis(document, processedText);
 
-        return documentRepository.save(document);
+        Document saved = saveDocument(document);
+        completePendingNodes(saved.getId(), analysis);
+        return saved;
     }
 
     /**
-     * Umfassende Dokumentenanalyse
+     * Umfassende Dokumentenanalyse als DAG: Zusammenfassung und Empfehlungen warten auf die
+     * Klassifizierung, Keywords und Sentiment laufen sofort parallel dazu
      */
-    private void performComprehensiveAnalysis(Document document, String text) {
-        // Basis-Klassifizierung
-        OpenAIService.DocumentClassification classification = openAIService.classifyDocument(text);
+    private AnalysisOrchestrator.AnalysisResult performComprehensiveAnalysis(Document document, String text) {
+        AnalysisOrchestrator.AnalysisPlan plan = analysisOrchestrator.plan()
+            .lane(LaneScheduler.Lane.BACKGROUND)
+            .predictedTokens(preprocessingService.estimateTokens(text))
+            // Basis-Klassifizierung
+            .node(NODE_CLASSIFICATION, List.of(), inputs -> openAIService.classifyDocument(text))
+            .fallback(NODE_CLASSIFICATION, inputs -> new OpenAIService.DocumentClassification())
+            // Intelligente Zusammenfassung basierend auf Dokumenttyp
+            .node(NODE_SUMMARY, List.of(NODE_CLASSIFICATION), inputs -> {
+                OpenAIService.DocumentClassification classification = inputs.get(NODE_CLASSIFICATION);
+                return generateContextualSummary(text, classification.typ, classification.komplexität);
+            })
+            .fallback(NODE_SUMMARY, inputs -> aiService.fallbackFacetResult(AiService.FACET_SUMMARY, text))
+            // Erweiterte Keyword-Extraktion
+            .node(NODE_KEYWORDS, List.of(), inputs -> formatKeywords(openAIService.extractKeywords(text)))
+            .fallback(NODE_KEYWORDS, inputs -> aiService.fallbackFacetResult(AiService.FACET_KEYWORDS, text))
+            // Technische Empfehlungen mit Kontext
+            .node(NODE_RECOMMENDATIONS, List.of(NODE_CLASSIFICATION), inputs -> {
+                OpenAIService.DocumentClassification classification = inputs.get(NODE_CLASSIFICATION);
+                return formatRecommendations(openAIService.generateTechRecommendations(text,
+                    classification.typ, classification.komplexität));
+            })
+            .fallback(NODE_RECOMMENDATIONS, inputs -> fallbackRecommendations(text))
+            // Sentiment-Analyse
+            .node(NODE_SENTIMENT, List.of(), inputs -> openAIService.analyzeSentiment(text))
+            .fallback(NODE_SENTIMENT, inputs -> new OpenAIService.SentimentAnalysis());
+
+        AnalysisOrchestrator.AnalysisResult analysis = analysisOrchestrator.run(plan,
+            defaultDeadlineMs > 0 ? Deadline.after(defaultDeadlineMs) : Deadline.none()).join();
+
+        OpenAIService.DocumentClassification classification = analysis.get(NODE_CLASSIFICATION);
         document.setDocumentType(classification.typ);
         document.setComplexityLevel(classification.komplexität);
+        document.setSummary(analysis.get(NODE_SUMMARY));
+        document.setKeywords(analysis.get(NODE_KEYWORDS));
+        document.setRecommendations(analysis.get(NODE_RECOMMENDATIONS));
 
-        // Intelligente Zusammenfassung basierend auf Dokumenttyp
-        String summary = generateContextualSummary(text, classification.typ);
-        document.setSummary(summary);
-
-        // Erweiterte Keyword-Extraktion
-        Map<String, List<String>> keywords = openAIService.extractKeywords(text);
-        document.setKeywords(formatKeywords(keywords));
-
-        // Technische Empfehlungen mit Kontext
-        OpenAIService.TechRecommendation recommendations = openAIService.generateTechRecommendations(text,
-                classification.typ);
-        document.setRecommendations(formatRecommendations(recommendations));
-
-        // Sentiment-Analyse
-        OpenAIService.SentimentAnalysis sentiment = openAIService.analyzeSentiment(text);
+        OpenAIService.SentimentAnalysis sentiment = analysis.get(NODE_SENTIMENT);
         document.setSentiment(sentiment.sentiment);
         document.setTone(sentiment.ton);
+        document.setPromptVersion(promptTemplates.getVersionTag());
 
         // Qualitäts-Score berechnen
         double qualityScore = calculateQualityScore(document, text);
         document.setQualityScore(qualityScore);
+        return analysis;
+    }
+
+    /**
+     * Nach der Deadline fertig gewordene Knoten ersetzen später den gespeicherten Fallback
+     */
+    private void completePendingNodes(Long documentId, AnalysisOrchestrator.AnalysisResult analysis) {
+        analysis.getPending().forEach((node, future) ->
+            future.thenAcceptAsync(value -> applyLateNode(documentId, node, value), aiIoExecutor));
+    }
+
+    private synchronized void applyLateNode(Long documentId, String node, Object value) {
+        Document document = value == null ? null : documentRepository.findById(documentId).orElse(null);
+        if (document == null) {
+            return;
+        }
+        switch (node) {
+            case NODE_CLASSIFICATION:
+                OpenAIService.DocumentClassification classification = (OpenAIService.DocumentClassification) value;
+                document.setDocumentType(classification.typ);
+                document.setComplexityLevel(classification.komplexität);
+                break;
+            case NODE_SUMMARY:
+                document.setSummary((String) value);
+                break;
+            case NODE_KEYWORDS:
+                document.setKeywords((String) value);
+                break;
+            case NODE_RECOMMENDATIONS:
+                document.setRecommendations((String) value);
+                break;
+            case NODE_SENTIMENT:
+                OpenAIService.SentimentAnalysis sentiment = (OpenAIService.SentimentAnalysis) value;
+                document.setSentiment(sentiment.sentiment);
+                document.setTone(sentiment.ton);
+                break;
+            default:
+                return;
+        }
+        document.setQualityScore(calculateQualityScore(document, document.getContent()));
+        documentRepository.save(document);
+        logger.info("⏳ Analyse-Knoten '{}' für Dokument {} nachgetragen", node, documentId);
+    }
+
+    /**
+     * Lokale Empfehlungen aus den erkannten Technologien, wenn der LLM-Aufruf ausfällt
+     */
+    private String fallbackRecommendations(String text) {
+        return "## Technische Empfehlungen\n\n*Empfohlene Tools:* "
+            + aiService.fallbackFacetResult(AiService.FACET_COMPONENTS, text) + "\n";
     }
 
     /**
      * Kontextbasierte Zusammenfassung
      */
-    private String generateContextualSummary(String text, String documentType) {
+    private String generateContextualSummary(String text, String documentType, String complexity) {
+        if (documentType == null) {
+            // Klassifizierung fehlgeschlagen
+            return openAIService.generateSummary(text, complexity);
+        }
         // Verschiedene Zusammenfassungsstrategien je nach Dokumenttyp
         switch (documentType.toLowerCase()) {
             case "technische dokumentation":
-                return generateTechnicalSummary(text);
+                return generateTechnicalSummary(text, complexity);
             case "anforderungen":
                 return generateRequirementsSummary(text);
             case "code":
                 return generateCodeSummary(text);
             default:
-                return openAIService.generateSummary(text);
+                return openAIService.generateSummary(text, complexity);
         }
     }
 
@@ -114,16 +230,8 @@ public class DocumentService {
     /**
      * Spezialisierte Zusammenfassung für technische Dokumente
      */
-    private String generateTechnicalSummary(String text) {
-        String prompt = """
-                Erstelle eine technische Zusammenfassung mit Fokus auf:
-                1. Verwendete Technologien und Frameworks
-                2. Architektur-Entscheidungen
-                3. Implementierungsdetails
-                4. Performance-Überlegungen
-                5. Sicherheitsaspekte
-                """;
-        return openAIService.generateSummary(text + "\n\n" + prompt);
+    private String generateTechnicalSummary(String text, String complexity) {
+        return openAIService.generateTechnicalSummary(text, complexity);
     }
 
     /**
@@ -314,45 +422,50 @@ public class DocumentService {
     }
 
     /**
-     * Text-Extraktion aus verschiedenen Dateiformaten
+     * Text-Extraktion aus verschiedenen Dateiformaten (Format am Inhalt erkannt, siehe ExtractorRegistry);
+     * PDFs nach Position sortiert, damit mehrspaltige Layouts lesbar bleiben
      */
     private String extractText(MultipartFile file) throws IOException {
-        String contentType = file.getContentType();
-
-        if (contentType.equals("application/pdf")) {
-            return extractPdfText(file);
-        } else if (contentType.equals("text/plain")) {
-            return new String(file.getBytes());
-        } else if (contentType.contains("word")) {
-            return extractWordText(file);
-        } else {
-            throw new UnsupportedOperationException(
-                    "Dateityp nicht unterstützt: " + contentType);
-        }
+        return extractorRegistry.extract(file.getOriginalFilename(), file.getContentType(), file,
+            new ExtractionOptions(0, true)).getText();
     }
 
-    /**
-     * PDF-Text-Extraktion
-     */
-    private String extractPdfText(MultipartFile file) throws IOException {
-        try (PDDocument document = PDDocument.load(file.getInputStream())) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            stripper.setSortByPosition(true);
-            stripper.setStartPage(1);
-            stripper.setEndPage(document.getNumberOfPages());
-            return stripper.getText(document);
+    public Document saveDocument(Document document) {
+        if (document.getSimHash() == null && document.getContent() != null) {
+            document.setSimHash(nearDuplicateService.fingerprint(document.getContent()));
         }
+        Document saved = documentRepository.save(document);
+        nearDuplicateService.index(saved);
+        return saved;
     }
 
     /**
-     * Word-Dokument Text-Extraktion (Placeholder)
+     * Nach Ablauf der Deadline fertig gewordene Facette nachtragen (ersetzt den gespeicherten Fallback)
      */
-    private String extractWordText(MultipartFile file) throws IOException {
-        // Implementierung mit Apache POI hinzufügen
-        return "Word-Extraktion noch zu implementieren";
-    }
-
-    public Document saveDocument(Document document) {
-        return documentRepository.save(document);
+    public synchronized void applyLateFacet(Long documentId, String facet, String value) {
+        if (value == null) {
+            return;
+        }
+        Document document = documentRepository.findById(documentId).orElse(null);
+        if (document == null) {
+            return;
+        }
+        switch (facet) {
+            case AiService.FACET_SUMMARY:
+                document.setSummary(value);
+                segmentSummaryService.capture(document);
+                break;
+            case AiService.FACET_KEYWORDS:
+                document.setKeywords(value);
+                break;
+            case AiService.FACET_COMPONENTS:
+                document.setSuggestedComponents(value);
+                break;
+            default:
+                return;
+        }
+        facetMemoService.record(document, facet);
+        documentRepository.save(document);
+        logger.info("⏳ Facette '{}' für Dokument {} nachgetragen", facet, documentId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,154 @@
+package com.bits.aidocassist.service;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.bits.aidocassist.model.Document;
+import com.bits.aidocassist.util.HashUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Merkt sich je Facette, aus welchen Eingaben das gespeicherte Ergebnis stammt (Content-Hash,
+ * Prompt-Template-Version, Modell). Beim Re-Analyse werden Facetten mit unveränderten Eingaben übersprungen.
+ */
+@Service
+public class FacetMemoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FacetMemoService.class);
+
+    private static final TypeReference<LinkedHashMap<String, FacetProvenance>> PROVENANCE_TYPE = new TypeReference<>() {};
+
+    @Autowired
+    private AiService aiService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Eingaben, mit denen die Facette jetzt laufen würde
+     */
+    public FacetProvenance current(String facet, String content) {
+        return current(facet, content, HashUtils.sha256Hex(content));
+    }
+
+    private FacetProvenance current(String facet, String content, String contentHash) {
+        FacetProvenance provenance = new FacetProvenance();
+        provenance.setContentHash(contentHash);
+        provenance.setPromptVersion(aiService.facetPromptVersion(facet));
+        provenance.setModel(aiService.facetModel(facet, content));
+        return provenance;
+    }
+
+    /**
+     * Angefragte Facetten, deren gespeichertes Ergebnis aus denselben Eingaben stammt
+     */
+    public List<String> findReusable(Document document, Collection<String> facets) {
+        if (document.getContent() == null) {
+            return List.of();
+        }
+        Map<String, FacetProvenance> stored = read(document);
+        String contentHash = HashUtils.sha256Hex(document.getContent());
+        return facets.stream()
+            .filter(facet -> hasValue(document, facet))
+            .filter(facet -> current(facet, document.getContent(), contentHash).sameInputs(stored.get(facet)))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Nach einem regulären KI-Ergebnis die Eingaben am Dokument festhalten
+     */
+    public void record(Document document, String facet) {
+        if (document.getContent() == null) {
+            return;
+        }
+        Map<String, FacetProvenance> stored = read(document);
+        FacetProvenance provenance = current(facet, document.getContent());
+        provenance.setAnalyzedAt(new Date());
+        stored.put(facet, provenance);
+        write(document, stored);
+    }
+
+    /**
+     * Fallback oder übernommenes Ergebnis: nicht wiederverwendbar
+     */
+    public void forget(Document document, String facet) {
+        Map<String, FacetProvenance> stored = read(document);
+        if (stored.remove(facet) != null) {
+            write(document, stored);
+        }
+    }
+
+    public Map<String, FacetProvenance> read(Document document) {
+        if (document.getFacetProvenance() == null || document.getFacetProvenance().isBlank()) {
+            return new LinkedHashMap<>();
+        }
+        try {
+            return objectMapper.readValue(document.getFacetProvenance(), PROVENANCE_TYPE);
+        } catch (JsonProcessingException e) {
+            logger.warn("Facetten-Herkunft von Dokument {} nicht lesbar: {}", document.getId(), e.getMessage());
+            return new LinkedHashMap<>();
+        }
+    }
+
+    private void write(Document document, Map<String, FacetProvenance> provenance) {
+        try {
+            document.setFacetProvenance(provenance.isEmpty() ? null : objectMapper.writeValueAsString(provenance));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Facetten-Herkunft nicht serialisierbar", e);
+        }
+    }
+
+    private static boolean hasValue(Document document, String facet) {
+        switch (facet) {
+            case AiService.FACET_SUMMARY:
+                return document.getSummary() != null;
+            case AiService.FACET_KEYWORDS:
+                return document.getKeywords() != null;
+            case AiService.FACET_COMPONENTS:
+                return document.getSuggestedComponents() != null;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Eingaben eines gespeicherten Facetten-Ergebnisses
+     */
+    public static class FacetProvenance {
+        private String contentHash;
+        private String promptVersion;
+        private String model;
+        private Date analyzedAt;
+
+        boolean sameInputs(FacetProvenance other) {
+            return other != null
+                && Objects.equals(contentHash, other.contentHash)
+                && Objects.equals(promptVersion, other.promptVersion)
+                && Objects.equals(model, other.model);
+        }
+
+        public String getContentHash() { return contentHash; }
+        public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+
+        public String getPromptVersion() { return promptVersion; }
+        public void setPromptVersion(String promptVersion) { this.promptVersion = promptVersion; }
+
+        public String getModel() { return model; }
+        public void setModel(String model) { this.model = model; }
+
+        public Date getAnalyzedAt() { return analyzedAt; }
+        public void setAnalyzedAt(Date analyzedAt) { this.analyzedAt = analyzedAt; }
+    }
+}
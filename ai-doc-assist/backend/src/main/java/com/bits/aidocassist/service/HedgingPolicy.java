@@ -0,0 +1,359 @@
+package com.bits.aidocassist.service;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.bits.aidocassist.util.CallCancellation;
+import com.bits.aidocassist.util.LatencyWindow;
+
+/**
+ * Hedged Requests für LLM-Aufrufe: Antwortet ein Aufruf nicht innerhalb eines adaptiven
+ * Latenz-Perzentils, wird genau ein Duplikat gesendet und die schnellere Antwort verwendet.
+ */
+@Component
+public class HedgingPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(HedgingPolicy.class);
+
+    @Value("${ai.hedging.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ai.hedging.percentile:95}")
+    private double percentile;
+
+    @Value("${ai.hedging.min-delay-ms:500}")
+    private long minDelayMs;
+
+    @Value("${ai.hedging.default-delay-ms:3000}")
+    private long defaultDelayMs;
+
+    @Value("${ai.hedging.min-samples:20}")
+    private int minSamples;
+
+    @Value("${ai.hedging.max-hedges-per-minute:20}")
+    private int maxHedgesPerMinute;
+
+    private final LatencyWindow latencyWindow;
+
+    private final ExecutorService executor;
+
+    // Hedge-Budget pro Minute
+    private long budgetWindowStart = System.currentTimeMillis();
+    private int hedgesInWindow = 0;
+
+    private final AtomicLong totalCalls = new AtomicLong();
+    private final AtomicLong hedgesSent = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+    private final AtomicLong hedgesSkippedByBudget = new AtomicLong();
+    private final AtomicLong unfinishedLosers = new AtomicLong();
+
+    /**
+     * Ein Versuch (Primär oder Hedge). cancel(true) unterbricht keinen blockierenden Socket-Read;
+     * der Aufruf hinterlegt deshalb, wie sich sein Request abbrechen lässt (z.B. Verbindung schließen).
+     */
+    public static final class Attempt {
+        private Runnable abortAction;
+        private boolean aborted;
+
+        public void onAbort(Runnable action) {
+            boolean runNow;
+            synchronized (this) {
+                abortAction = action;
+                runNow = aborted;
+            }
+            if (runNow) {
+                action.run();
+            }
+        }
+
+        void abort() {
+            Runnable action;
+            synchronized (this) {
+                aborted = true;
+                action = abortAction;
+            }
+            if (action != null) {
+                action.run();
+            }
+        }
+    }
+
+    public HedgingPolicy(@Value("${ai.hedging.window-size:200}") int windowSize,
+                         @Qualifier("aiHedgeExecutor") ExecutorService executor) {
+        this.latencyWindow = new LatencyWindow(windowSize);
+        this.executor = executor;
+    }
+
+    /**
+     * Führt einen blockierenden LLM-Aufruf aus, bei Bedarf mit einem Hedge-Duplikat.
+     * Der Verlierer wird über {@link Attempt#onAbort} abgebrochen, sonst läuft er bis zur Antwort weiter;
+     * ebenso alle Versuche, wenn der umgebende {@link CallCancellation}-Bereich abgebrochen wird.
+     */
+    public <T> T execute(String type, Function<Attempt, T> call) {
+        totalCalls.incrementAndGet();
+        long start = System.currentTimeMillis();
+
+        if (!enabled) {
+            Attempt attempt = new Attempt();
+            Runnable unregister = CallCancellation.onCancel(attempt::abort);
+            try {
+                T result = call.apply(attempt);
+                latencyWindow.record(System.currentTimeMillis() - start);
+                return result;
+            } finally {
+                unregister.run();
+            }
+        }
+
+        ExecutorCompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        Attempt primaryAttempt = new Attempt();
+        Attempt hedgeAttempt = new Attempt();
+        // Ein noch nicht gesendeter Hedge bricht nach dem Abbruch sofort ab (Attempt merkt sich den Zustand)
+        Runnable unregister = CallCancellation.onCancel(() -> {
+            primaryAttempt.abort();
+            hedgeAttempt.abort();
+        });
+        Future<T> primary = completion.submit(() -> call.apply(primaryAttempt));
+        Future<T> hedge = null;
+
+        try {
+            Future<T> done = completion.poll(currentHedgeDelayMs(), TimeUnit.MILLISECONDS);
+            if (done == null) {
+                if (!tryAcquireHedgeBudget()) {
+                    hedgesSkippedByBudget.incrementAndGet();
+                    done = completion.take();
+                } else {
+                    hedgesSent.incrementAndGet();
+                    logger.debug("⏱️ Hedge für {} nach {}ms gesendet", type, System.currentTimeMillis() - start);
+                    hedge = completion.submit(() -> call.apply(hedgeAttempt));
+                    done = completion.take();
+
+                    // Ist der erste Aufruf fehlgeschlagen, auf den anderen warten
+                    if (isFailed(done)) {
+                        done = completion.take();
+                    }
+                }
+            }
+
+            T result = unwrap(done);
+            latencyWindow.record(System.currentTimeMillis() - start);
+            if (hedge != null && done == hedge) {
+                hedgeWins.incrementAndGet();
+            }
+            return result;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("LLM-Aufruf unterbrochen", e);
+        } finally {
+            unregister.run();
+            // Verlierer abbrechen
+            abortLoser(primary, primaryAttempt);
+            if (hedge != null) {
+                abortLoser(hedge, hedgeAttempt);
+            }
+        }
+    }
+
+    private void abortLoser(Future<?> future, Attempt attempt) {
+        if (future.isDone()) {
+            return;
+        }
+        unfinishedLosers.incrementAndGet();
+        future.cancel(true);
+        attempt.abort();
+    }
+
+    /**
+     * Nicht-blockierende Variante: der Hedge wird per Timer ausgelöst, kein Thread wartet auf die Antwort
+     */
+    public <T> CompletableFuture<T> executeAsync(String type, Supplier<CompletableFuture<T>> call) {
+        totalCalls.incrementAndGet();
+        long start = System.currentTimeMillis();
+
+        if (!enabled) {
+            CompletableFuture<T> attempt = call.get();
+            Runnable unregister = CallCancellation.onCancel(() -> attempt.cancel(true));
+            return attempt.whenComplete((result, error) -> {
+                unregister.run();
+                if (error == null) {
+                    latencyWindow.record(System.currentTimeMillis() - start);
+                }
+            });
+        }
+
+        AsyncHedge<T> hedge = new AsyncHedge<>(start);
+        // Abbruch des Ergebnisses bricht beide Versuche und damit deren HTTP-Austausch ab
+        Runnable unregister = CallCancellation.onCancel(() -> hedge.result.cancel(true));
+        hedge.result.whenComplete((result, error) -> unregister.run());
+        hedge.track(call.get(), false);
+        CompletableFuture.delayedExecutor(currentHedgeDelayMs(), TimeUnit.MILLISECONDS, executor).execute(() -> {
+            if (hedge.result.isDone()) {
+                return;
+            }
+            if (!tryAcquireHedgeBudget()) {
+                hedgesSkippedByBudget.incrementAndGet();
+                return;
+            }
+            hedgesSent.incrementAndGet();
+            logger.debug("⏱️ Hedge für {} nach {}ms gesendet", type, System.currentTimeMillis() - start);
+            hedge.track(call.get(), true);
+        });
+        return hedge.result;
+    }
+
+    /**
+     * Erste erfolgreiche Antwort gewinnt; ein Fehler zählt erst, wenn kein Versuch mehr offen ist
+     */
+    private final class AsyncHedge<T> {
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final long start;
+        private int pending;
+        private Throwable lastError;
+
+        AsyncHedge(long start) {
+            this.start = start;
+        }
+
+        synchronized void track(CompletableFuture<T> attempt, boolean isHedge) {
+            pending++;
+            attempt.whenComplete((value, error) -> settle(value, error, isHedge));
+            result.whenComplete((value, error) -> {
+                if (!attempt.isDone()) {
+                    unfinishedLosers.incrementAndGet();
+                    attempt.cancel(true);
+                }
+            });
+        }
+
+        private void settle(T value, Throwable error, boolean isHedge) {
+            synchronized (this) {
+                pending--;
+                if (error != null) {
+                    lastError = error;
+                    if (pending > 0) {
+                        return;
+                    }
+                }
+            }
+            if (error != null) {
+                result.completeExceptionally(lastError);
+            } else if (result.complete(value)) {
+                latencyWindow.record(System.currentTimeMillis() - start);
+                if (isHedge) {
+                    hedgeWins.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private boolean isFailed(Future<?> future) {
+        try {
+            future.get();
+            return false;
+        } catch (ExecutionException | CancellationException e) {
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return true;
+        }
+    }
+
+    private <T> T unwrap(Future<T> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private long currentHedgeDelayMs() {
+        if (latencyWindow.size() < minSamples) {
+            return defaultDelayMs;
+        }
+        return Math.max(minDelayMs, latencyWindow.percentile(percentile));
+    }
+
+    private synchronized boolean tryAcquireHedgeBudget() {
+        long now = System.currentTimeMillis();
+        if (now - budgetWindowStart >= 60_000) {
+            budgetWindowStart = now;
+            hedgesInWindow = 0;
+        }
+        if (hedgesInWindow >= maxHedgesPerMinute) {
+            return false;
+        }
+        hedgesInWindow++;
+        return true;
+    }
+
+    public HedgingStats getStats() {
+        HedgingStats stats = new HedgingStats();
+        stats.enabled = enabled;
+        stats.totalCalls = totalCalls.get();
+        stats.hedgesSent = hedgesSent.get();
+        stats.hedgeWins = hedgeWins.get();
+        stats.hedgesSkippedByBudget = hedgesSkippedByBudget.get();
+        stats.unfinishedLosers = unfinishedLosers.get();
+        stats.currentHedgeDelayMs = currentHedgeDelayMs();
+        stats.latencySamples = latencyWindow.size();
+        stats.p50LatencyMs = latencyWindow.percentile(50);
+        stats.p99LatencyMs = latencyWindow.percentile(99);
+        return stats;
+    }
+
+    /**
+     * Momentaufnahme für /api/monitoring/hedging: Zähler seit Start, aktuelle Hedge-Verzögerung und
+     * Latenz-Perzentile aus dem Fenster der letzten Aufrufe
+     */
+    public static class HedgingStats {
+        private boolean enabled;
+        private long totalCalls;
+        private long hedgesSent;
+        private long hedgeWins;
+        private long hedgesSkippedByBudget;
+        // Noch laufende Verlierer beim Abbruch (belegen bis dahin Verbindung und Thread)
+        private long unfinishedLosers;
+        private long currentHedgeDelayMs;
+        private int latencySamples;
+        private long p50LatencyMs;
+        private long p99LatencyMs;
+
+        public double getHedgeWinRate() {
+            return hedgesSent > 0 ? (double) hedgeWins / hedgesSent * 100 : 0;
+        }
+
+        public double getHedgeRate() {
+            return totalCalls > 0 ? (double) hedgesSent / totalCalls * 100 : 0;
+        }
+
+        public boolean isEnabled() { return enabled; }
+        public long getTotalCalls() { return totalCalls; }
+        public long getHedgesSent() { return hedgesSent; }
+        public long getHedgeWins() { return hedgeWins; }
+        public long getHedgesSkippedByBudget() { return hedgesSkippedByBudget; }
+        public long getUnfinishedLosers() { return unfinishedLosers; }
+        public long getCurrentHedgeDelayMs() { return currentHedgeDelayMs; }
+        public int getLatencySamples() { return latencySamples; }
+        public long getP50LatencyMs() { return p50LatencyMs; }
+        public long getP99LatencyMs() { return p99LatencyMs; }
+    }
+}
@@ -0,0 +1,297 @@
+package com.bits.aidocassist.service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.bits.aidocassist.util.LatencyWindow;
+
+/**
+ * Vergibt die begrenzten LLM-Slots (ai.lanes.max-concurrent) an drei Lanes mit gewichteten Anteilen
+ * (Stride-Scheduling). Innerhalb einer Lane kommt der kleinste Auftrag (geschätzte Tokens) zuerst;
+ * Aufträge, die länger als ai.lanes.max-wait-ms warten, werden vorgezogen, damit große nicht verhungern.
+ */
+@Service
+public class LaneScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LaneScheduler.class);
+
+    private static final long STRIDE = 1_000_000L;
+
+    public enum Lane {
+        INTERACTIVE, // Einzel-Upload, Text-Analyse
+        BULK,        // Batch-Upload, Re-Analyse
+        BACKGROUND   // Analyse-Jobs, Hintergrund-Analysen
+    }
+
+    @Value("${ai.lanes.max-concurrent:16}")
+    private int maxConcurrent;
+
+    // Gewichte je Lane, z.B. interactive:6,bulk:3,background:1
+    @Value("${ai.lanes.weights:interactive:6,bulk:3,background:1}")
+    private String weightsConfig;
+
+    @Value("${ai.lanes.max-wait-ms:30000}")
+    private long maxWaitMs;
+
+    private final Map<Lane, LaneQueue> lanes = new EnumMap<>(Lane.class);
+    private int running;
+    private long sequence;
+
+    @PostConstruct
+    void init() {
+        for (Lane lane : Lane.values()) {
+            lanes.put(lane, new LaneQueue(1));
+        }
+        if (weightsConfig == null || weightsConfig.isBlank()) {
+            return;
+        }
+        for (String entry : weightsConfig.split(",")) {
+            int separator = entry.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalStateException("Ungültiger Lane-Eintrag: '" + entry.trim() + "'");
+            }
+            setWeight(parseLane(entry.substring(0, separator)), Integer.parseInt(entry.substring(separator + 1).trim()));
+        }
+    }
+
+    public static Lane parseLane(String value) {
+        return Lane.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Führt den Aufruf aus, sobald die Lane einen Slot bekommt; wird das Future vorher abgebrochen,
+     * startet der Aufruf nicht mehr. Ein Abbruch während des Aufrufs wird an dessen Future weitergereicht
+     * und gibt den Slot sofort frei, statt auf die Antwort zu warten.
+     */
+    public <T> CompletableFuture<T> submit(Lane lane, long predictedTokens, Supplier<? extends CompletableFuture<T>> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Ticket ticket = new Ticket(lane, Math.max(0, predictedTokens), () -> {
+            CompletableFuture<T> inner = call.get();
+            inner.whenComplete((value, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+            result.whenComplete((value, error) -> {
+                if (result.isCancelled()) {
+                    inner.cancel(true);
+                }
+            });
+            return inner;
+        }, result);
+
+        boolean startNow;
+        synchronized (this) {
+            ticket.sequence = sequence++;
+            startNow = running < maxConcurrent && isIdle();
+            if (startNow) {
+                running++;
+            } else {
+                LaneQueue queue = lanes.get(lane);
+                if (queue.waiting.isEmpty()) {
+                    // Neu aktive Lane startet bei der aktuellen virtuellen Zeit, spart also keine Anteile an
+                    queue.pass = Math.max(queue.pass, minActivePass());
+                }
+                queue.waiting.add(ticket);
+            }
+        }
+        if (startNow) {
+            start(ticket);
+        }
+        return result;
+    }
+
+    public synchronized void setWeight(Lane lane, int weight) {
+        if (weight < 1) {
+            throw new IllegalArgumentException("Lane-Gewicht muss >= 1 sein");
+        }
+        lanes.get(lane).weight = weight;
+        logger.info("🚦 Lane {} Gewicht = {}", lane, weight);
+    }
+
+    private void start(Ticket ticket) {
+        LaneQueue queue = lanes.get(ticket.lane);
+        long startedAt = System.currentTimeMillis();
+        queue.waits.record(startedAt - ticket.enqueuedAt);
+        synchronized (this) {
+            queue.running++;
+        }
+        // Slot endet mit dem Ergebnis: mit der Antwort oder sofort beim Abbruch
+        ticket.result.whenComplete((value, error) -> finish(ticket, startedAt));
+        try {
+            ticket.start.get();
+        } catch (RuntimeException e) {
+            ticket.result.completeExceptionally(e);
+        }
+    }
+
+    private void finish(Ticket ticket, long startedAt) {
+        LaneQueue queue = lanes.get(ticket.lane);
+        queue.latencies.record(System.currentTimeMillis() - startedAt);
+        Ticket next;
+        synchronized (this) {
+            queue.running--;
+            queue.completed++;
+            next = pollNext();
+            if (next == null) {
+                running--;
+            }
+        }
+        // Slot direkt an den nächsten Auftrag weitergeben
+        if (next != null) {
+            start(next);
+        }
+    }
+
+    /**
+     * Lane mit der kleinsten virtuellen Zeit, darin der kleinste bzw. überfällige Auftrag
+     */
+    private Ticket pollNext() {
+        while (true) {
+            LaneQueue selected = null;
+            for (LaneQueue queue : lanes.values()) {
+                if (!queue.waiting.isEmpty() && (selected == null || queue.pass < selected.pass)) {
+                    selected = queue;
+                }
+            }
+            if (selected == null) {
+                return null;
+            }
+            Ticket ticket = selected.takeNext(System.currentTimeMillis() - maxWaitMs);
+            if (ticket.result.isDone()) {
+                // Abgebrochen (Timeout/Deadline) während er wartete
+                continue;
+            }
+            selected.pass += STRIDE / selected.weight;
+            return ticket;
+        }
+    }
+
+    private boolean isIdle() {
+        return lanes.values().stream().allMatch(queue -> queue.waiting.isEmpty());
+    }
+
+    private long minActivePass() {
+        return lanes.values().stream()
+            .filter(queue -> !queue.waiting.isEmpty())
+            .mapToLong(queue -> queue.pass)
+            .min()
+            .orElse(lanes.values().stream().mapToLong(queue -> queue.pass).max().orElse(0));
+    }
+
+    public synchronized List<LaneStats> getStats() {
+        List<LaneStats> stats = new ArrayList<>();
+        lanes.forEach((lane, queue) -> stats.add(new LaneStats(lane, queue)));
+        return stats;
+    }
+
+    public synchronized LaneStats getStats(Lane lane) {
+        return new LaneStats(lane, lanes.get(lane));
+    }
+
+    private static final class Ticket {
+        private final Lane lane;
+        private final long predictedTokens;
+        private final Supplier<CompletableFuture<?>> start;
+        private final CompletableFuture<?> result;
+        private final long enqueuedAt = System.currentTimeMillis();
+        private long sequence;
+
+        Ticket(Lane lane, long predictedTokens, Supplier<CompletableFuture<?>> start, CompletableFuture<?> result) {
+            this.lane = lane;
+            this.predictedTokens = predictedTokens;
+            this.start = start;
+            this.result = result;
+        }
+    }
+
+    private static final class LaneQueue {
+        private final List<Ticket> waiting = new ArrayList<>();
+        private final LatencyWindow waits = new LatencyWindow(500);
+        private final LatencyWindow latencies = new LatencyWindow(500);
+        private int weight;
+        private long pass;
+        private int running;
+        private long completed;
+
+        LaneQueue(int weight) {
+            this.weight = weight;
+        }
+
+        /**
+         * Shortest-Job-First, überfällige Aufträge (älter als overdueBefore) in Ankunftsreihenfolge zuerst
+         */
+        Ticket takeNext(long overdueBefore) {
+            int best = 0;
+            for (int i = 1; i < waiting.size(); i++) {
+                if (isBefore(waiting.get(i), waiting.get(best), overdueBefore)) {
+                    best = i;
+                }
+            }
+            return waiting.remove(best);
+        }
+
+        private static boolean isBefore(Ticket candidate, Ticket current, long overdueBefore) {
+            boolean candidateOverdue = candidate.enqueuedAt < overdueBefore;
+            boolean currentOverdue = current.enqueuedAt < overdueBefore;
+            if (candidateOverdue != currentOverdue) {
+                return candidateOverdue;
+            }
+            if (!candidateOverdue && candidate.predictedTokens != current.predictedTokens) {
+                return candidate.predictedTokens < current.predictedTokens;
+            }
+            return candidate.sequence < current.sequence;
+        }
+    }
+
+    /**
+     * Metriken je Lane
+     */
+    public static class LaneStats {
+        private final Lane lane;
+        private final int weight;
+        private final int queued;
+        private final long queuedTokens;
+        private final int running;
+        private final long completed;
+        private final long p50WaitMs;
+        private final long p95WaitMs;
+        private final long p95LatencyMs;
+
+        LaneStats(Lane lane, LaneQueue queue) {
+            this.lane = lane;
+            this.weight = queue.weight;
+            this.queued = queue.waiting.size();
+            this.queuedTokens = queue.waiting.stream().mapToLong(ticket -> ticket.predictedTokens).sum();
+            this.running = queue.running;
+            this.completed = queue.completed;
+            this.p50WaitMs = queue.waits.percentile(50);
+            this.p95WaitMs = queue.waits.percentile(95);
+            this.p95LatencyMs = queue.latencies.percentile(95);
+        }
+
+        public Lane getLane() { return lane; }
+        public int getWeight() { return weight; }
+        public int getQueued() { return queued; }
+        public long getQueuedTokens() { return queuedTokens; }
+        public int getRunning() { return running; }
+        public long getCompleted() { return completed; }
+        public long getP50WaitMs() { return p50WaitMs; }
+        public long getP95WaitMs() { return p95WaitMs; }
+        public long getP95LatencyMs() { return p95LatencyMs; }
+    }
+}
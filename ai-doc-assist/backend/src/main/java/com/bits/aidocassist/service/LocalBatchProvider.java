@@ -0,0 +1,328 @@
+package com.bits.aidocassist.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.bits.aidocassist.client.ChatCompletionClient;
+import com.bits.aidocassist.client.ChatCompletionCodec;
+import com.bits.aidocassist.client.ChatCompletionRequest;
+import com.bits.aidocassist.client.ChatCompletionResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Lokaler Stand-in für die Batch API: arbeitet die JSONL-Datei im Hintergrund über den
+ * normalen Chat-Endpoint ab (mit demo.mock.ai=true komplett offline) und schreibt
+ * die Ergebnisse im Ausgabeformat der OpenAI Batch API. Die Batch-ID verweist auf die Request-Datei im
+ * Arbeitsverzeichnis; nach einem Neustart wird ein unbekannter Batch daraus fortgesetzt, bereits
+ * beantwortete Zeilen der Ausgabedatei werden übernommen.
+ */
+@Component
+@ConditionalOnProperty(name = "ai.batch.provider", havingValue = "local", matchIfMissing = true)
+public class LocalBatchProvider implements BatchProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalBatchProvider.class);
+
+    private static final String BATCH_ID_PREFIX = "local-";
+
+    @Autowired
+    private ChatCompletionClient chatClient;
+
+    @Autowired
+    private ChatCompletionCodec codec;
+
+    @Value("${ai.batch.work-dir:${java.io.tmpdir}/ai-doc-batches}")
+    private String workDir;
+
+    private final Map<String, LocalBatch> batches = new ConcurrentHashMap<>();
+
+    // Ein Batch nach dem anderen, begrenzte Warteschlange (ExecutorConfig)
+    @Autowired
+    @Qualifier("batchExecutor")
+    private Executor executor;
+
+    @Override
+    public String getName() {
+        return "local";
+    }
+
+    @Override
+    public String submit(Path requestFile) throws IOException {
+        // batch-<job>.jsonl -> local-batch-<job>
+        String batchId = BATCH_ID_PREFIX + stripExtension(requestFile.getFileName().toString());
+        // Warteschlange voll: RejectedExecutionException an den Aufrufer weiterreichen statt unbegrenzt zu puffern
+        start(batchId, requestFile);
+        return batchId;
+    }
+
+    @Override
+    public BatchState getState(String batchId) throws IOException {
+        LocalBatch batch = batches.get(batchId);
+        if (batch == null) {
+            batch = resume(batchId);
+        }
+        if (batch == null) {
+            return new BatchState(Status.FAILED, 0, 0, 0);
+        }
+        return new BatchState(batch.status, batch.total, batch.completed.get(), batch.failed.get());
+    }
+
+    /**
+     * Entfernt Zustand und Ausgabedatei eines übernommenen oder verworfenen Batches
+     */
+    @Override
+    public void release(String batchId) throws IOException {
+        LocalBatch batch = batches.remove(batchId);
+        Files.deleteIfExists(batch != null ? batch.outputFile : outputFile(requestFile(batchId)));
+    }
+
+    private LocalBatch start(String batchId, Path requestFile) throws IOException {
+        LocalBatch batch = new LocalBatch(outputFile(requestFile), countLines(requestFile));
+        batches.put(batchId, batch);
+        try {
+            executor.execute(() -> process(batchId, requestFile, batch));
+        } catch (RejectedExecutionException e) {
+            batches.remove(batchId);
+            throw e;
+        }
+        return batch;
+    }
+
+    /**
+     * Batch aus einer früheren Laufzeit (Neustart): aus der Request-Datei erneut einreihen
+     */
+    private synchronized LocalBatch resume(String batchId) throws IOException {
+        LocalBatch batch = batches.get(batchId);
+        if (batch != null) {
+            return batch;
+        }
+        Path requestFile = requestFile(batchId);
+        if (requestFile == null || !Files.exists(requestFile)) {
+            return null;
+        }
+        try {
+            batch = start(batchId, requestFile);
+            logger.info("📦 Lokaler Batch {} nach Neustart fortgesetzt", batchId);
+            return batch;
+        } catch (RejectedExecutionException e) {
+            // Warteschlange voll - beim nächsten Poll erneut versuchen
+            return new LocalBatch(outputFile(requestFile), 0);
+        }
+    }
+
+    private Path requestFile(String batchId) {
+        if (!batchId.startsWith(BATCH_ID_PREFIX)) {
+            return null;
+        }
+        return Paths.get(workDir).resolve(batchId.substring(BATCH_ID_PREFIX.length()) + ".jsonl");
+    }
+
+    private static Path outputFile(Path requestFile) {
+        return requestFile.resolveSibling(stripExtension(requestFile.getFileName().toString()) + "-output.jsonl");
+    }
+
+    private static String stripExtension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+
+    @Override
+    public Path downloadResults(String batchId, Path targetDir) {
+        LocalBatch batch = batches.get(batchId);
+        if (batch == null || batch.status != Status.COMPLETED) {
+            throw new IllegalStateException("Batch nicht abgeschlossen: " + batchId);
+        }
+        return batch.outputFile;
+    }
+
+    private void process(String batchId, Path requestFile, LocalBatch batch) {
+        try {
+            // Vor einem Neustart beantwortete Zeilen übernehmen (abgebrochene letzte Zeile fällt dabei weg)
+            List<String> answeredLines = new ArrayList<>();
+            Set<String> answered = new HashSet<>();
+            if (Files.exists(batch.outputFile)) {
+                for (String line : Files.readAllLines(batch.outputFile, StandardCharsets.UTF_8)) {
+                    String customId = answeredId(line);
+                    if (customId != null && answered.add(customId)) {
+                        answeredLines.add(line);
+                    }
+                }
+                batch.completed.set(answered.size());
+            }
+            processRemaining(requestFile, batch, answeredLines, answered);
+            batch.status = Status.COMPLETED;
+            logger.info("📦 Lokaler Batch {} abgeschlossen: {} ok, {} fehlgeschlagen",
+                batchId, batch.completed.get(), batch.failed.get());
+
+        } catch (Exception e) {
+            logger.error("❌ Lokaler Batch {} fehlgeschlagen: {}", batchId, e.getMessage());
+            batch.status = Status.FAILED;
+        }
+    }
+
+    private void processRemaining(Path requestFile, LocalBatch batch, List<String> answeredLines,
+                                  Set<String> answered) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(requestFile, StandardCharsets.UTF_8);
+             BufferedWriter writer = Files.newBufferedWriter(batch.outputFile, StandardCharsets.UTF_8)) {
+            for (String line : answeredLines) {
+                writer.write(line);
+                writer.newLine();
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (executeLine(line, writer, batch, answered)) {
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    /**
+     * custom_id einer Ergebniszeile mit Antwort; null bei Fehlerzeilen oder unvollständigem JSON
+     */
+    private String answeredId(String line) {
+        String customId = null;
+        boolean answered = false;
+        try (JsonParser parser = codec.getJsonFactory().createParser(line)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("custom_id".equals(field)) {
+                    customId = parser.getValueAsString();
+                } else {
+                    answered |= "response".equals(field) && value == JsonToken.START_OBJECT;
+                    parser.skipChildren();
+                }
+            }
+            return answered && parser.currentToken() == JsonToken.END_OBJECT ? customId : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Liest eine Request-Zeile, führt sie aus und schreibt die Ergebniszeile im Batch-Ausgabeformat;
+     * false, wenn die Zeile schon beantwortet ist
+     */
+    private boolean executeLine(String line, BufferedWriter writer, LocalBatch batch, Set<String> answered) throws IOException {
+        String customId = null;
+        ChatCompletionRequest request = null;
+        try (JsonParser parser = codec.getJsonFactory().createParser(line)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("custom_id".equals(field)) {
+                    customId = parser.getValueAsString();
+                } else if ("body".equals(field) && value == JsonToken.START_OBJECT) {
+                    request = codec.readRequest(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        if (customId != null && answered.contains(customId)) {
+            return false;
+        }
+
+        ChatCompletionResponse response = null;
+        String error = null;
+        try {
+            if (request == null) {
+                throw new IllegalArgumentException("Zeile ohne Request-Body");
+            }
+            response = chatClient.complete(request, "batch");
+            batch.completed.incrementAndGet();
+        } catch (Exception e) {
+            error = String.valueOf(e.getMessage());
+            batch.failed.incrementAndGet();
+        }
+
+        JsonGenerator generator = codec.getJsonFactory().createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.writeStartObject();
+        generator.writeStringField("custom_id", customId);
+        if (response != null) {
+            generator.writeObjectFieldStart("response");
+            generator.writeNumberField("status_code", 200);
+            generator.writeObjectFieldStart("body");
+            generator.writeStringField("model", response.model());
+            generator.writeArrayFieldStart("choices");
+            generator.writeStartObject();
+            generator.writeNumberField("index", 0);
+            generator.writeObjectFieldStart("message");
+            generator.writeStringField("role", "assistant");
+            generator.writeStringField("content", response.content());
+            generator.writeEndObject();
+            generator.writeStringField("finish_reason", response.finishReason());
+            generator.writeEndObject();
+            generator.writeEndArray();
+            generator.writeObjectFieldStart("usage");
+            generator.writeNumberField("prompt_tokens", response.usage().promptTokens());
+            generator.writeNumberField("completion_tokens", response.usage().completionTokens());
+            generator.writeNumberField("total_tokens", response.usage().totalTokens());
+            generator.writeEndObject();
+            generator.writeEndObject();
+            generator.writeEndObject();
+            generator.writeNullField("error");
+        } else {
+            generator.writeNullField("response");
+            generator.writeObjectFieldStart("error");
+            generator.writeStringField("message", error);
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+        generator.close();
+        return true;
+    }
+
+    private int countLines(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return (int) reader.lines().filter(line -> !line.isBlank()).count();
+        }
+    }
+
+    private static class LocalBatch {
+        private final Path outputFile;
+        private final int total;
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile Status status = Status.IN_PROGRESS;
+
+        LocalBatch(Path outputFile, int total) {
+            this.outputFile = outputFile;
+            this.total = total;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.bits.aidocassist.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.bits.aidocassist.model.Document;
+import com.bits.aidocassist.repository.DocumentRepository;
+import com.bits.aidocassist.util.SimHash;
+
+/**
+ * Erkennt Beinahe-Duplikate (z.B. leicht überarbeitete Revisionen einer Spezifikation) über
+ * SimHash-Fingerprints und einen In-Memory-LSH-Index (Banding über die 64 Bits).
+ */
+@Service
+public class NearDuplicateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NearDuplicateService.class);
+
+    public enum Mode {
+        OFF,    // keine Prüfung
+        OFFER,  // Treffer nur melden, Wiederverwendung per analysisOptions.reuseAnalysis=true
+        AUTO    // Analyse des Treffers automatisch übernehmen (außer reuseAnalysis=false)
+    }
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Value("${ai.dedup.mode:offer}")
+    private String modeConfig;
+
+    @Value("${ai.dedup.max-distance:3}")
+    private int maxDistance;
+
+    private Mode mode;
+
+    // Bänder: bei maxDistance+1 Bändern teilt jedes Paar mit Distanz <= maxDistance mind. ein Band (Schubfachprinzip)
+    private int bandCount;
+    private int bandWidth;
+    private List<Map<Long, Set<Long>>> bands;
+
+    private final Map<Long, Long> fingerprints = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        mode = Mode.valueOf(modeConfig.trim().toUpperCase(Locale.ROOT));
+        bandCount = Math.min(16, Math.max(4, maxDistance + 1));
+        bandWidth = SimHash.BITS / bandCount;
+
+        bands = new ArrayList<>(bandCount);
+        for (int i = 0; i < bandCount; i++) {
+            bands.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Baut den Index beim Start aus den gespeicherten Fingerprints auf
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndex() {
+        if (mode == Mode.OFF) {
+            return;
+        }
+        int count = 0;
+        for (Object[] row : documentRepository.findAllSimHashes()) {
+            index((Long) row[0], (Long) row[1]);
+            count++;
+        }
+        logger.info("🔎 Near-Duplicate-Index aufgebaut: {} Dokumente, {} Bänder, max. Distanz {}",
+            count, bandCount, maxDistance);
+    }
+
+    public long fingerprint(String processedText) {
+        return SimHash.fingerprint(processedText);
+    }
+
+    public void index(Document document) {
+        if (mode != Mode.OFF && document.getId() != null && document.getSimHash() != null) {
+            index(document.getId(), document.getSimHash());
+        }
+    }
+
+    private void index(Long documentId, long fingerprint) {
+        Long previous = fingerprints.put(documentId, fingerprint);
+        if (previous != null && previous != fingerprint) {
+            for (int band = 0; band < bandCount; band++) {
+                Set<Long> ids = bands.get(band).get(bandKey(previous, band));
+                if (ids != null) {
+                    ids.remove(documentId);
+                }
+            }
+        }
+        for (int band = 0; band < bandCount; band++) {
+            bands.get(band).computeIfAbsent(bandKey(fingerprint, band), key -> ConcurrentHashMap.newKeySet())
+                .add(documentId);
+        }
+    }
+
+    public void remove(Long documentId) {
+        Long fingerprint = fingerprints.remove(documentId);
+        if (fingerprint == null) {
+            return;
+        }
+        for (int band = 0; band < bandCount; band++) {
+            Set<Long> ids = bands.get(band).get(bandKey(fingerprint, band));
+            if (ids != null) {
+                ids.remove(documentId);
+            }
+        }
+    }
+
+    /**
+     * Nächstgelegenes bereits analysiertes Dokument innerhalb der maximalen Distanz
+     * (nur mit gleicher Prompt-Version, sonst wäre die Analyse veraltet)
+     */
+    public Optional<Match> findNearDuplicate(long fingerprint, String promptVersion) {
+        if (mode == Mode.OFF) {
+            return Optional.empty();
+        }
+
+        // Alle Kandidaten innerhalb der Distanz; ein Paar kann sich mehrere Bänder teilen
+        Map<Long, Integer> distances = new HashMap<>();
+        for (int band = 0; band < bandCount; band++) {
+            Set<Long> candidates = bands.get(band).get(bandKey(fingerprint, band));
+            if (candidates == null) {
+                continue;
+            }
+            for (Long candidateId : candidates) {
+                Long candidate = fingerprints.get(candidateId);
+                if (candidate == null) {
+                    continue;
+                }
+                int distance = SimHash.distance(fingerprint, candidate);
+                if (distance <= maxDistance) {
+                    distances.put(candidateId, distance);
+                }
+            }
+        }
+        if (distances.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // Ein Lookup für alle Kandidaten; der nächste mit verwertbarer Analyse gewinnt
+        Map<Long, Document> documents = new HashMap<>();
+        documentRepository.findAllById(distances.keySet()).forEach(document -> documents.put(document.getId(), document));
+        Match best = null;
+        for (Map.Entry<Long, Integer> candidate : distances.entrySet()) {
+            Document document = documents.get(candidate.getKey());
+            if (document == null) {
+                remove(candidate.getKey());
+                continue;
+            }
+            if (document.getSummary() == null || !String.valueOf(promptVersion).equals(document.getPromptVersion())) {
+                continue;
+            }
+            if (best == null || candidate.getValue() < best.getDistance()) {
+                best = new Match(document, candidate.getValue());
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /**
+     * Entscheidet anhand Modus und Client-Wunsch (analysisOptions.reuseAnalysis), ob wiederverwendet wird
+     */
+    public boolean shouldReuse(Boolean reuseRequested) {
+        if (mode == Mode.OFF || Boolean.FALSE.equals(reuseRequested)) {
+            return false;
+        }
+        return mode == Mode.AUTO || Boolean.TRUE.equals(reuseRequested);
+    }
+
+    private long bandKey(long fingerprint, int band) {
+        int shift = band * bandWidth;
+        int width = band == bandCount - 1 ? SimHash.BITS - shift : bandWidth;
+        long mask = width == 64 ? -1L : (1L << width) - 1;
+        return (fingerprint >>> shift) & mask;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public static class Match {
+        private final Document document;
+        private final int distance;
+
+        Match(Document document, int distance) {
+            this.document = document;
+            this.distance = distance;
+        }
+
+        public Document getDocument() { return document; }
+        public int getDistance() { return distance; }
+
+        public double getSimilarity() {
+            return 1.0 - (double) distance / SimHash.BITS;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.bits.aidocassist.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * OpenAI Batch API: Upload der JSONL-Datei, Anlegen des Batches, Status-Abfrage und Download der Ergebnisse
+ */
+@Component
+@ConditionalOnProperty(name = "ai.batch.provider", havingValue = "openai")
+public class OpenAiBatchProvider implements BatchProvider {
+
+    @Value("${openai.api.key:}")
+    private String apiKey;
+
+    @Value("${ai.batch.openai.base-url:https://api.openai.com/v1}")
+    private String baseUrl;
+
+    @Value("${ai.batch.openai.completion-window:24h}")
+    private String completionWindow;
+
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    @Override
+    public String getName() {
+        return "openai";
+    }
+
+    @Override
+    public String submit(Path requestFile) {
+        // 1. JSONL-Datei hochladen
+        MultiValueMap<String, Object> form = new LinkedMultiValueMap<>();
+        form.add("purpose", "batch");
+        form.add("file", new FileSystemResource(requestFile));
+
+        HttpHeaders uploadHeaders = authHeaders();
+        uploadHeaders.setContentType(MediaType.MULTIPART_FORM_DATA);
+        Map<?, ?> file = restTemplate.postForObject(
+            baseUrl + "/files", new HttpEntity<>(form, uploadHeaders), Map.class);
+
+        // 2. Batch anlegen
+        Map<String, Object> batchRequest = Map.of(
+            "input_file_id", file.get("id"),
+            "endpoint", "/v1/chat/completions",
+            "completion_window", completionWindow);
+
+        HttpHeaders jsonHeaders = authHeaders();
+        jsonHeaders.setContentType(MediaType.APPLICATION_JSON);
+        Map<?, ?> batch = restTemplate.postForObject(
+            baseUrl + "/batches", new HttpEntity<>(batchRequest, jsonHeaders), Map.class);
+
+        return (String) batch.get("id");
+    }
+
+    @Override
+    public BatchState getState(String batchId) {
+        Map<?, ?> batch = fetchBatch(batchId);
+        Map<?, ?> counts = batch.get("request_counts") instanceof Map ? (Map<?, ?>) batch.get("request_counts") : Map.of();
+
+        return new BatchState(
+            mapStatus((String) batch.get("status")),
+            toInt(counts.get("total")),
+            toInt(counts.get("completed")),
+            toInt(counts.get("failed")));
+    }
+
+    @Override
+    public Path downloadResults(String batchId, Path targetDir) throws IOException {
+        String outputFileId = (String) fetchBatch(batchId).get("output_file_id");
+        if (outputFileId == null) {
+            throw new IllegalStateException("Batch ohne Ergebnisdatei: " + batchId);
+        }
+
+        Path target = targetDir.resolve(batchId + "-output.jsonl");
+        restTemplate.execute(baseUrl + "/files/" + outputFileId + "/content", HttpMethod.GET,
+            request -> request.getHeaders().setBearerAuth(apiKey),
+            response -> {
+                // Direkt in die Datei streamen statt den Inhalt in den Speicher zu laden
+                Files.copy(response.getBody(), target, StandardCopyOption.REPLACE_EXISTING);
+                return target;
+            });
+        return target;
+    }
+
+    private Map<?, ?> fetchBatch(String batchId) {
+        return restTemplate.exchange(baseUrl + "/batches/" + batchId, HttpMethod.GET,
+            new HttpEntity<>(authHeaders()), Map.class).getBody();
+    }
+
+    private Status mapStatus(String status) {
+        if (status == null) {
+            return Status.IN_PROGRESS;
+        }
+        switch (status) {
+            case "completed":
+                return Status.COMPLETED;
+            case "failed":
+            case "expired":
+            case "cancelling":
+            case "cancelled":
+                return Status.FAILED;
+            default:
+                // validating, in_progress, finalizing
+                return Status.IN_PROGRESS;
+        }
+    }
+
+    private HttpHeaders authHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(apiKey);
+        return headers;
+    }
+
+    private int toInt(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+}
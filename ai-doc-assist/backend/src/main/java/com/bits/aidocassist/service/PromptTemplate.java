@@ -0,0 +1,105 @@
+package com.bits.aidocassist.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Einmalig kompiliertes Prompt-Template mit benannten Platzhaltern ({{name}}).
+ * Die statischen Textblöcke werden beim Start zerlegt, das Rendern füllt nur noch
+ * einen passend vorab dimensionierten Puffer - kein String.format pro Aufruf.
+ */
+public final class PromptTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String id;
+    private final int version;
+
+    // segments[i] steht vor Platzhalter i, das letzte Segment nach dem letzten Platzhalter
+    private final String[] segments;
+    private final int[] slotParams;
+    private final List<String> paramNames;
+    private final int staticLength;
+
+    private PromptTemplate(String id, int version, String[] segments, int[] slotParams, List<String> paramNames) {
+        this.id = id;
+        this.version = version;
+        this.segments = segments;
+        this.slotParams = slotParams;
+        this.paramNames = paramNames;
+
+        int length = 0;
+        for (String segment : segments) {
+            length += segment.length();
+        }
+        this.staticLength = length;
+    }
+
+    public static PromptTemplate compile(String id, int version, String source) {
+        List<String> segments = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        List<String> paramNames = new ArrayList<>();
+
+        int position = 0;
+        while (true) {
+            int start = source.indexOf(OPEN, position);
+            if (start < 0) {
+                segments.add(source.substring(position));
+                break;
+            }
+            int end = source.indexOf(CLOSE, start);
+            if (end < 0) {
+                throw new IllegalArgumentException("Nicht geschlossener Platzhalter in Template " + id);
+            }
+            String name = source.substring(start + OPEN.length(), end).trim();
+            if (!paramNames.contains(name)) {
+                paramNames.add(name);
+            }
+            segments.add(source.substring(position, start));
+            slots.add(paramNames.indexOf(name));
+            position = end + CLOSE.length();
+        }
+
+        return new PromptTemplate(id, version,
+            segments.toArray(new String[0]),
+            slots.stream().mapToInt(Integer::intValue).toArray(),
+            List.copyOf(paramNames));
+    }
+
+    /**
+     * Rendert das Template; die Werte folgen der Reihenfolge von {@link #getParamNames()}
+     */
+    public String render(String... values) {
+        if (values.length != paramNames.size()) {
+            throw new IllegalArgumentException("Template " + getKey() + " erwartet Parameter " + paramNames
+                + ", erhalten: " + values.length);
+        }
+
+        int capacity = staticLength;
+        for (int slot : slotParams) {
+            capacity += values[slot] != null ? values[slot].length() : 0;
+        }
+
+        StringBuilder prompt = new StringBuilder(capacity);
+        for (int i = 0; i < slotParams.length; i++) {
+            prompt.append(segments[i]);
+            String value = values[slotParams[i]];
+            prompt.append(value != null ? value : "");
+        }
+        prompt.append(segments[segments.length - 1]);
+        return prompt.toString();
+    }
+
+    /**
+     * Statischer Anweisungsblock vor dem ersten Platzhalter (Provider-seitig cachebarer Prefix)
+     */
+    public String getStaticPrefix() {
+        return segments[0];
+    }
+
+    public String getId() { return id; }
+    public int getVersion() { return version; }
+    public String getKey() { return id + "@v" + version; }
+    public List<String> getParamNames() { return paramNames; }
+}
@@ -0,0 +1,372 @@
+package com.bits.aidocassist.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+import com.bits.aidocassist.util.HashUtils;
+
+/**
+ * Zentrale Registry aller versionierten Prompt-Templates.
+ * Aufbau immer "Anweisungen zuerst, Dokument zuletzt", damit der statische Teil
+ * über alle Aufrufe identisch bleibt und vom Provider als Prefix gecacht werden kann.
+ * Bei inhaltlichen Änderungen an einem Template dessen Version erhöhen.
+ */
+@Component
+public class PromptTemplateRegistry {
+
+    // AiService
+    public static final String SUMMARY = "summary";
+    public static final String CHUNK_SUMMARY = "summary-chunk";
+    public static final String INTERMEDIATE_REDUCE = "summary-reduce";
+    public static final String FINAL_REDUCE = "summary-final";
+    public static final String KEYWORDS = "keywords";
+    public static final String COMPONENTS = "components";
+
+    // OpenAIService
+    public static final String ANALYSIS_SUMMARY = "analysis-summary";
+    public static final String ANALYSIS_TECHNICAL_SUMMARY = "analysis-technical-summary";
+    public static final String ANALYSIS_KEYWORDS = "analysis-keywords";
+    public static final String ANALYSIS_RECOMMENDATIONS = "analysis-recommendations";
+    public static final String ANALYSIS_CLASSIFICATION = "analysis-classification";
+    public static final String ANALYSIS_SENTIMENT = "analysis-sentiment";
+
+    private static final String SUMMARY_FORMAT = """
+            FORMAT DER AUSGABE:
+            **Projektziel:** [Beschreibung]
+
+            **Technologien:** [Frontend], [Backend], [Datenbank], [DevOps]
+
+            **Hauptfunktionen:**
+            - [Funktion 1]
+            - [Funktion 2]
+            - [Funktion 3]
+
+            **Besonderheit:** [Was hebt das Projekt hervor]
+            """;
+
+    private final Map<String, PromptTemplate> templates = new TreeMap<>();
+    private final String versionTag;
+
+    public PromptTemplateRegistry() {
+        register(SUMMARY, 2, """
+            Analysiere das folgende technische Dokument und erstelle eine STRUKTURIERTE Zusammenfassung.
+
+            ANFORDERUNGEN:
+            1. **Hauptziel**: Beschreibe das Kernziel in 1-2 Sätzen
+            2. **Technologie-Stack**: Liste die wichtigsten verwendeten Technologien
+            3. **Kernfunktionen**: Die 3 wichtigsten Features/Komponenten
+            4. **Besonderheiten**: Was macht dieses Projekt einzigartig?
+
+            """ + SUMMARY_FORMAT + """
+
+            DOKUMENT:
+            {{text}}
+
+            ZUSAMMENFASSUNG:
+            """);
+
+        register(CHUNK_SUMMARY, 1, """
+            Fasse den folgenden Ausschnitt eines längeren technischen Dokuments zusammen.
+            Nenne Ziele, Technologien, Funktionen und Besonderheiten, die im Ausschnitt vorkommen.
+            Maximal 120 Wörter, Stichpunkte erlaubt, keine Einleitung.
+
+            AUSSCHNITT:
+            {{text}}
+
+            TEILZUSAMMENFASSUNG:
+            """);
+
+        register(INTERMEDIATE_REDUCE, 1, """
+            Die folgenden Teilzusammenfassungen stammen aus aufeinanderfolgenden Abschnitten desselben Dokuments.
+            Verdichte sie zu einer gemeinsamen Zusammenfassung ohne Wiederholungen.
+            Behalte Technologien, Funktionen und Besonderheiten bei. Maximal 200 Wörter.
+
+            TEILZUSAMMENFASSUNGEN:
+            {{partials}}
+
+            VERDICHTETE ZUSAMMENFASSUNG:
+            """);
+
+        register(FINAL_REDUCE, 1, """
+            Die folgenden Teilzusammenfassungen decken ein vollständiges technisches Dokument ab.
+            Erstelle daraus eine STRUKTURIERTE Gesamtzusammenfassung.
+
+            """ + SUMMARY_FORMAT + """
+
+            TEILZUSAMMENFASSUNGEN:
+            {{partials}}
+
+            ZUSAMMENFASSUNG:
+            """);
+
+        register(KEYWORDS, 2, """
+            Extrahiere und kategorisiere die wichtigsten Keywords aus diesem technischen Dokument.
+
+            AUSGABE ALS JSON:
+            {
+                "projekt": ["Projektname", "Firma"],
+                "technologien": {
+                    "frontend": ["Angular 16", "TypeScript"],
+                    "backend": ["Spring Boot", "Java 17"],
+                    "datenbank": ["PostgreSQL", "Elasticsearch"],
+                    "devops": ["Docker", "Kubernetes", "AWS"]
+                },
+                "konzepte": ["Cloud-Native", "Microservices", "REST API"],
+                "priorität_hoch": ["die 5 wichtigsten Keywords"]
+            }
+
+            REGELN:
+            - Behalte Versionsnummern bei (z.B. "Angular 16")
+            - Gruppiere nach technischen Kategorien
+            - Mindestens 15-20 Keywords insgesamt
+
+            TEXT:
+            {{text}}
+
+            JSON-OUTPUT:
+            """);
+
+        // v2: bereits verwendete Technologien stehen jetzt hinter dem Anweisungsblock
+        register(COMPONENTS, 2, """
+            Als Senior Solutions Architect, analysiere das Projekt und empfehle ERGÄNZENDE Technologien.
+
+            AUFGABE:
+            Empfehle NUR ERGÄNZENDE Tools und Services die den vorhandenen Stack VERBESSERN:
+            - Performance-Optimierung
+            - Monitoring & Observability
+            - Security-Erweiterungen
+            - Developer Experience Tools
+            - Testing-Frameworks
+
+            AUSGABE-FORMAT:
+            Monitoring: [Tool1], [Tool2]
+            Caching: [Tool3]
+            Security: [Tool4], [Tool5]
+            Testing: [Tool6]
+            DevTools: [Tool7], [Tool8]
+
+            WICHTIG:
+            - KEINE alternativen Frontend-Frameworks wenn Angular verwendet wird
+            - KEINE alternativen Datenbanken wenn PostgreSQL verwendet wird
+            - Nur ERGÄNZUNGEN zum bestehenden Stack
+
+            BEREITS VERWENDETE TECHNOLOGIEN (NICHT ersetzen):
+            {{existingTechs}}
+
+            PROJEKT:
+            {{text}}
+
+            EMPFEHLUNGEN:
+            """);
+
+        register(ANALYSIS_SUMMARY, 1, """
+            Analysiere den folgenden Text und erstelle eine präzise Zusammenfassung.
+
+            ANFORDERUNGEN:
+            1. Identifiziere die Hauptthemen und Kernaussagen
+            2. Strukturiere die Zusammenfassung in klare Abschnitte
+            3. Behalte wichtige Details und Fakten bei
+            4. Verwende eine klare, verständliche Sprache
+            5. Länge: 150-250 Wörter
+
+            FORMAT:
+            **Hauptthema:** [Kurze Beschreibung]
+
+            **Kernpunkte:**
+            - [Punkt 1]
+            - [Punkt 2]
+            - [Punkt 3]
+
+            **Zusammenfassung:**
+            [Detaillierte Zusammenfassung]
+
+            TEXT ZUR ANALYSE:
+            {{text}}
+            """);
+
+        // v2: Fokus-Anweisungen stehen vor dem Text statt dahinter
+        register(ANALYSIS_TECHNICAL_SUMMARY, 2, """
+            Analysiere den folgenden Text und erstelle eine technische Zusammenfassung.
+
+            FOKUS:
+            1. Verwendete Technologien und Frameworks
+            2. Architektur-Entscheidungen
+            3. Implementierungsdetails
+            4. Performance-Überlegungen
+            5. Sicherheitsaspekte
+
+            FORMAT:
+            **Hauptthema:** [Kurze Beschreibung]
+
+            **Kernpunkte:**
+            - [Punkt 1]
+            - [Punkt 2]
+            - [Punkt 3]
+
+            **Zusammenfassung:**
+            [Detaillierte Zusammenfassung]
+
+            TEXT ZUR ANALYSE:
+            {{text}}
+            """);
+
+        register(ANALYSIS_KEYWORDS, 2, """
+            Extrahiere die wichtigsten Keywords aus dem folgenden Text.
+
+            AUFGABE:
+            1. Identifiziere die 10-15 wichtigsten Schlüsselwörter
+            2. Kategorisiere sie nach Relevanz und Typ
+            3. Berücksichtige technische Begriffe, Konzepte und Hauptthemen
+            4. Gewichte nach Häufigkeit und Kontext-Wichtigkeit
+
+            AUSGABE-FORMAT (JSON):
+            {
+                "hauptkeywords": ["keyword1", "keyword2", "keyword3"],
+                "technische_begriffe": ["term1", "term2"],
+                "konzepte": ["konzept1", "konzept2"],
+                "entitäten": ["name1", "organization1"],
+                "relevanz_score": {
+                    "keyword1": 0.95,
+                    "keyword2": 0.87
+                }
+            }
+
+            Antworte NUR mit dem JSON-Objekt, keine zusätzliche Erklärung.
+
+            TEXT:
+            {{text}}
+            """);
+
+        // v2: Dokumenttyp aus der ersten Zeile in den variablen Teil verschoben
+        register(ANALYSIS_RECOMMENDATIONS, 2, """
+            Analysiere das folgende Dokument und erstelle technische Empfehlungen.
+
+            ANALYSE-KRITERIEN:
+            1. Identifiziere verwendete Technologien und Frameworks
+            2. Erkenne technische Herausforderungen und Problembereiche
+            3. Bewerte Best Practices und Standards
+            4. Identifiziere Optimierungspotentiale
+
+            EMPFEHLUNGS-STRUKTUR:
+            {
+                "aktuelle_technologien": {
+                    "frontend": [],
+                    "backend": [],
+                    "database": [],
+                    "devops": []
+                },
+                "empfehlungen": [
+                    {
+                        "kategorie": "Performance",
+                        "priorität": "HOCH",
+                        "empfehlung": "...",
+                        "begründung": "...",
+                        "tools": ["tool1", "tool2"]
+                    }
+                ],
+                "best_practices": [
+                    {
+                        "bereich": "Security",
+                        "empfehlung": "...",
+                        "referenz": "..."
+                    }
+                ],
+                "nächste_schritte": [
+                    "1. ...",
+                    "2. ...",
+                    "3. ..."
+                ]
+            }
+
+            Antworte mit strukturiertem JSON.
+
+            DOKUMENTTYP: {{documentType}}
+
+            TEXT:
+            {{text}}
+            """);
+
+        register(ANALYSIS_CLASSIFICATION, 1, """
+            Klassifiziere das folgende Dokument:
+
+            KLASSIFIZIERUNGS-KATEGORIEN:
+            - Dokumenttyp (Technische Dokumentation, Anforderungen, Design, Code, etc.)
+            - Fachbereich (Software, Hardware, Business, etc.)
+            - Komplexitätslevel (Einsteiger, Fortgeschritten, Experte)
+            - Sprache und Stil
+            - Zielgruppe
+
+            AUSGABE:
+            {
+                "typ": "...",
+                "fachbereich": "...",
+                "komplexität": "...",
+                "hauptthemen": [],
+                "zielgruppe": "...",
+                "confidence": 0.95
+            }
+
+            TEXT:
+            {{text}}
+            """);
+
+        // v2: Ausgabeformat vor den Text gezogen
+        register(ANALYSIS_SENTIMENT, 2, """
+            Führe eine detaillierte Sentiment- und Tonanalyse durch:
+
+            ANALYSE:
+            1. Gesamtstimmung (positiv/neutral/negativ)
+            2. Ton (formal/informal/technisch)
+            3. Emotionale Aspekte
+            4. Professionaliätsgrad
+
+            AUSGABE:
+            {
+                "sentiment": "...",
+                "score": 0.0,
+                "ton": "...",
+                "emotionen": [],
+                "professionalität": "..."
+            }
+
+            TEXT:
+            {{text}}
+            """);
+
+        // Sammel-Version über alle Templates - wird am Dokument gespeichert
+        String keys = templates.values().stream().map(PromptTemplate::getKey).collect(Collectors.joining(","));
+        this.versionTag = "pt-" + HashUtils.sha256Hex(keys).substring(0, 12);
+    }
+
+    private void register(String id, int version, String source) {
+        templates.put(id, PromptTemplate.compile(id, version, source));
+    }
+
+    public PromptTemplate get(String id) {
+        PromptTemplate template = templates.get(id);
+        if (template == null) {
+            throw new IllegalArgumentException("Unbekanntes Prompt-Template: " + id);
+        }
+        return template;
+    }
+
+    public String render(String id, String... values) {
+        return get(id).render(values);
+    }
+
+    /**
+     * Versionskennung der aktuellen Template-Generation (für Cache-Invalidierung)
+     */
+    public String getVersionTag() {
+        return versionTag;
+    }
+
+    public Collection<PromptTemplate> getTemplates() {
+        return Collections.unmodifiableCollection(templates.values());
+    }
+}
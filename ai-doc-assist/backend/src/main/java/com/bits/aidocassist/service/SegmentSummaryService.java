@@ -0,0 +1,101 @@
+package com.bits.aidocassist.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.bits.aidocassist.model.Document;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Inkrementelle Zusammenfassung von Revisionen: die Teilzusammenfassungen (Segmente und Reduce-Gruppen)
+ * werden am Dokument gespeichert. Verweist ein neuer Upload auf eine Vorgänger-Revision, kommen deren
+ * Teilergebnisse in den Chunk-Cache - neu zusammengefasst werden nur geänderte Segmente.
+ */
+@Service
+public class SegmentSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentSummaryService.class);
+
+    private static final TypeReference<LinkedHashMap<String, String>> SUMMARIES_TYPE = new TypeReference<>() {};
+
+    @Autowired
+    private AiService aiService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Teilergebnisse der Vorgänger-Revision bereitstellen und die Segmente beider Revisionen vergleichen
+     */
+    public RevisionDiff prepareRevision(Document previous, String content) {
+        Map<String, String> stored = prime(previous);
+
+        List<String> segmentKeys = aiService.summarySegmentKeys(content);
+        int unchanged = (int) segmentKeys.stream().filter(stored::containsKey).count();
+        RevisionDiff diff = new RevisionDiff(previous.getId(), segmentKeys.size(), unchanged);
+        logger.info("🧩 Revision von Dokument {}: {} von {} Segmenten unverändert",
+            previous.getId(), unchanged, segmentKeys.size());
+        return diff;
+    }
+
+    /**
+     * Gespeicherte Teilergebnisse eines Dokuments in den Chunk-Cache legen (z.B. vor einer Re-Analyse nach Neustart)
+     */
+    public Map<String, String> prime(Document document) {
+        Map<String, String> stored = read(document);
+        aiService.primeSegmentSummaries(stored);
+        return stored;
+    }
+
+    /**
+     * Nach einer erfolgreichen Zusammenfassung die Teilergebnisse am Dokument festhalten
+     */
+    public void capture(Document document) {
+        Map<String, String> summaries = aiService.cachedSegmentSummaries(document.getContent());
+        try {
+            document.setSegmentSummaries(summaries.isEmpty() ? null : objectMapper.writeValueAsString(summaries));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Segment-Zusammenfassungen nicht serialisierbar", e);
+        }
+    }
+
+    private Map<String, String> read(Document document) {
+        if (document.getSegmentSummaries() == null || document.getSegmentSummaries().isBlank()) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(document.getSegmentSummaries(), SUMMARIES_TYPE);
+        } catch (JsonProcessingException e) {
+            logger.warn("Segment-Zusammenfassungen von Dokument {} nicht lesbar: {}", document.getId(), e.getMessage());
+            return Map.of();
+        }
+    }
+
+    /**
+     * Segment-Vergleich einer Revision mit ihrem Vorgänger
+     */
+    public static class RevisionDiff {
+        private final Long revisionOf;
+        private final int segments;
+        private final int unchangedSegments;
+
+        RevisionDiff(Long revisionOf, int segments, int unchangedSegments) {
+            this.revisionOf = revisionOf;
+            this.segments = segments;
+            this.unchangedSegments = unchangedSegments;
+        }
+
+        public Long getRevisionOf() { return revisionOf; }
+        public int getSegments() { return segments; }
+        public int getUnchangedSegments() { return unchangedSegments; }
+        public int getChangedSegments() { return segments - unchangedSegments; }
+    }
+}
@@ -63,6 +63,11 @@ public class TextPreprocessingService {
     private static final Pattern CAMEL_CASE_PATTERN = 
         Pattern.compile("([a-z])([A-Z])");
 
+    // Segmentgrenze im Mittel nach jedem 4. Absatz (ab einem Viertel des Budgets), siehe splitIntoSegments
+    private static final int SEGMENT_BOUNDARY_DIVISOR = 4;
+
+    private static final Pattern SENTENCE_END_PATTERN = Pattern.compile("(?<=[.!?]|[.!?][\\])\"])\\s+");
+
     /**
      * Hauptmethode für Text-Preprocessing
      */
@@ -860,7 +865,8 @@ public class TextPreprocessingService {
         // Basis-Informationen
         result.originalLength = originalText.length();
         result.processedLength = processedText.length();
-        result.compressionRatio = (double) processedText.length() / originalText.length();
+        // Leerer Text: keine Kompression (statt NaN)
+        result.compressionRatio = originalText.isEmpty() ? 1.0 : (double) processedText.length() / originalText.length();
         
         // Erkannte Elemente
         result.detectedLanguage = detectLanguage(processedText);
@@ -889,6 +895,83 @@ public class TextPreprocessingService {
         return count;
     }
 
+    /**
+     * Grobe Token-Schätzung (~4 Zeichen pro Token)
+     */
+    public int estimateTokens(String text) {
+        return text == null ? 0 : (text.length() + 3) / 4;
+    }
+
+    /**
+     * Zerlegt vorverarbeiteten Text in Segmente mit Token-Budget. Schnitte erfolgen an Abschnitts- und
+     * Absatzgrenzen, in überlangen Absätzen an Satzgrenzen. Die Grenzen sind inhaltsabhängig: ein Segment endet
+     * nach einem Absatz bzw. Satz, dessen Hash die Grenzbedingung erfüllt (oder wenn das Budget voll ist). Eine
+     * Änderung verschiebt dadurch nur die Grenzen in ihrer Umgebung, die übrigen Segmente einer Revision bleiben
+     * identisch - auch bei vorverarbeitetem Text, der kaum noch Absätze enthält.
+     */
+    public List<String> splitIntoSegments(String text, int maxTokensPerSegment) {
+        List<String> segments = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return segments;
+        }
+
+        int maxChars = Math.max(maxTokensPerSegment, 1) * 4;
+        int minChars = maxChars / 4;
+        StringBuilder current = new StringBuilder(Math.min(text.length(), maxChars));
+
+        for (String paragraph : text.split("\n\n+|\n--- Abschnitt \\d+ ---\n")) {
+            String trimmed = paragraph.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+
+            // Überlange Absätze satzweise, damit die Grenzen auch innerhalb des Absatzes inhaltsabhängig sind
+            List<String> pieces = trimmed.length() > maxChars
+                ? splitSentences(trimmed, maxChars)
+                : List.of(trimmed);
+
+            String separator = "\n\n";
+            for (String piece : pieces) {
+                if (current.length() > 0 && current.length() + piece.length() + separator.length() > maxChars) {
+                    segments.add(current.toString());
+                    current.setLength(0);
+                }
+                if (current.length() > 0) {
+                    current.append(separator);
+                }
+                current.append(piece);
+                separator = " ";
+                if (current.length() >= minChars && Math.floorMod(piece.hashCode(), SEGMENT_BOUNDARY_DIVISOR) == 0) {
+                    segments.add(current.toString());
+                    current.setLength(0);
+                }
+            }
+        }
+
+        if (current.length() > 0) {
+            segments.add(current.toString());
+        }
+        return segments;
+    }
+
+    /**
+     * Sätze eines Absatzes; Satzende auch vor schließenden Annotationen ("[TERM:PostgreSQL.]")
+     */
+    private List<String> splitSentences(String paragraph, int maxChars) {
+        List<String> sentences = new ArrayList<>();
+        for (String sentence : SENTENCE_END_PATTERN.split(paragraph)) {
+            // Notfalls hart schneiden (z.B. Tabellen ohne Satzzeichen)
+            while (sentence.length() > maxChars) {
+                sentences.add(sentence.substring(0, maxChars));
+                sentence = sentence.substring(maxChars);
+            }
+            if (!sentence.isEmpty()) {
+                sentences.add(sentence);
+            }
+        }
+        return sentences;
+    }
+
     /**
      * Ergebnis-Klasse für Preprocessing
      */
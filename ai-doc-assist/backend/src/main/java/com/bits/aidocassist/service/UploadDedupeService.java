@@ -0,0 +1,63 @@
+package com.bits.aidocassist.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Service;
+
+import com.bits.aidocassist.model.Document;
+import com.bits.aidocassist.repository.DocumentRepository;
+import com.bits.aidocassist.util.HashUtils;
+
+/**
+ * Exakte Duplikate von Uploads (Retries, mehrere Teammitglieder, Re-Importe): der SHA-256 der Rohdatei
+ * wird am Dokument gespeichert. Liegt für dieselbe Datei bereits eine Analyse mit denselben Eingaben vor
+ * (Prompt-Version, Modell, siehe FacetMemoService), wird das vorhandene Dokument ohne Extraktion,
+ * Preprocessing und KI-Aufrufe zurückgegeben.
+ */
+@Service
+public class UploadDedupeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadDedupeService.class);
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private FacetMemoService facetMemoService;
+
+    @Value("${ai.dedup.exact.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * SHA-256 der Rohdatei, streamend über die (vom Container gespoolte) Upload-Datei
+     */
+    public String contentHash(InputStreamSource source) throws IOException {
+        try (InputStream in = source.getInputStream()) {
+            return HashUtils.sha256Hex(in);
+        }
+    }
+
+    /**
+     * Neuestes Dokument derselben Datei, dessen angeforderte Facetten alle noch gültig sind
+     */
+    public Optional<Document> findReusable(String contentHash, Collection<String> facets) {
+        if (!enabled || contentHash == null) {
+            return Optional.empty();
+        }
+        for (Document candidate : documentRepository.findByContentHashOrderByIdDesc(contentHash)) {
+            if (facetMemoService.findReusable(candidate, facets).size() == facets.size()) {
+                logger.info("♻️ Exaktes Duplikat von Dokument {} ({}...)", candidate.getId(), contentHash.substring(0, 12));
+                return Optional.of(candidate);
+            }
+        }
+        return Optional.empty();
+    }
+}
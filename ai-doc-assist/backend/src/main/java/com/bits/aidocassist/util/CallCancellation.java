@@ -0,0 +1,105 @@
+package com.bits.aidocassist.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Abbruch-Bereich eines Analyse-Knotens. LLM-Aufrufe, die innerhalb von {@link #call} gestartet werden,
+ * hinterlegen per {@link #onCancel}, wie sich ihr Request wirklich beenden lässt (Verbindung schließen,
+ * sendAsync abbrechen); {@link #cancel()} führt das aus. Ohne aktiven Bereich ist onCancel wirkungslos.
+ */
+public final class CallCancellation {
+
+    private static final ThreadLocal<CallCancellation> CURRENT = new ThreadLocal<>();
+
+    private final List<Runnable> actions = new ArrayList<>();
+    private boolean cancelled;
+
+    public static CallCancellation current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Registriert eine Abbruch-Aktion im aktuellen Bereich; die Rückgabe meldet sie wieder ab
+     * (nach Ende des Aufrufs). Ist der Bereich schon abgebrochen, läuft die Aktion sofort.
+     */
+    public static Runnable onCancel(Runnable action) {
+        CallCancellation scope = CURRENT.get();
+        if (scope == null) {
+            return () -> { };
+        }
+        return scope.register(action);
+    }
+
+    /**
+     * Führt den Block mit diesem Bereich als aktuellem aus (auch verschachtelt/auf fremden Threads)
+     */
+    public <T> T call(Supplier<T> body) {
+        CallCancellation previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return body.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Bindet den aktuellen Bereich an einen Block, der später auf einem anderen Thread läuft
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> body) {
+        CallCancellation scope = CURRENT.get();
+        return scope == null ? body : () -> scope.call(body);
+    }
+
+    public static <T, R> Function<T, R> propagate(Function<T, R> body) {
+        CallCancellation scope = CURRENT.get();
+        return scope == null ? body : value -> scope.call(() -> body.apply(value));
+    }
+
+    public void cancel() {
+        List<Runnable> toRun;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            toRun = new ArrayList<>(actions);
+            actions.clear();
+        }
+        toRun.forEach(CallCancellation::runQuietly);
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    private Runnable register(Runnable action) {
+        synchronized (this) {
+            if (!cancelled) {
+                actions.add(action);
+                return () -> {
+                    synchronized (this) {
+                        actions.remove(action);
+                    }
+                };
+            }
+        }
+        runQuietly(action);
+        return () -> { };
+    }
+
+    private static void runQuietly(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException ignored) {
+            // Abbruch ist best effort, der Aufruf endet dann spätestens mit seiner Antwort
+        }
+    }
+}
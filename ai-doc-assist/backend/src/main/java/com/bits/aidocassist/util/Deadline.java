@@ -0,0 +1,55 @@
+package com.bits.aidocassist.util;
+
+/**
+ * Absolute Frist einer Analyse-Anfrage (monotone Uhr). Wird vom Controller bis zu den
+ * einzelnen LLM-Aufrufen durchgereicht; {@link #none()} steht für "ohne Frist".
+ */
+public final class Deadline {
+
+    private static final Deadline NONE = new Deadline(Long.MAX_VALUE, 0);
+
+    private final long expiresAtNanos;
+    private final long budgetMs;
+
+    private Deadline(long expiresAtNanos, long budgetMs) {
+        this.expiresAtNanos = expiresAtNanos;
+        this.budgetMs = budgetMs;
+    }
+
+    public static Deadline after(long budgetMs) {
+        return new Deadline(System.nanoTime() + Math.max(0, budgetMs) * 1_000_000L, Math.max(0, budgetMs));
+    }
+
+    public static Deadline none() {
+        return NONE;
+    }
+
+    /**
+     * Frühere Frist, z.B. um Zeit für das Speichern zu reservieren
+     */
+    public Deadline minus(long reserveMs) {
+        if (!isBounded()) {
+            return this;
+        }
+        return new Deadline(expiresAtNanos - Math.max(0, reserveMs) * 1_000_000L, Math.max(0, budgetMs - reserveMs));
+    }
+
+    public boolean isBounded() {
+        return expiresAtNanos != Long.MAX_VALUE;
+    }
+
+    public long remainingMs() {
+        if (!isBounded()) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, (expiresAtNanos - System.nanoTime()) / 1_000_000L);
+    }
+
+    public boolean isExpired() {
+        return isBounded() && System.nanoTime() >= expiresAtNanos;
+    }
+
+    public long getBudgetMs() {
+        return budgetMs;
+    }
+}
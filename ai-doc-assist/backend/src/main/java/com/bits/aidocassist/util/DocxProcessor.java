@@ -0,0 +1,391 @@
+package com.bits.aidocassist.util;
+
+import org.apache.poi.ooxml.POIXMLException;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.NotOfficeXmlFileException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageRelationship;
+import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xwpf.usermodel.XWPFRelation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Text-Extraktion aus DOCX ohne XWPFDocument-Objektmodell: document.xml wird per StAX gestreamt,
+ * das Paket über die Datei geöffnet (ZipFile, nur Verzeichnis im Speicher). Überschriften werden zu
+ * Markdown-Markern (#, ##, ...), Listenabsätze zu "- " und Tabellen zu "| a | b |"-Zeilen, wie sie
+ * TextPreprocessingService.preserveStructure erkennt.
+ */
+@Component
+public class DocxProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocxProcessor.class);
+
+    private static final String W_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    private static final String MC_NS = "http://schemas.openxmlformats.org/markup-compatibility/2006";
+
+    // outlineLvl 9 = Textkörper
+    private static final int BODY_LEVEL = 9;
+    private static final int MAX_MARKDOWN_LEVEL = 6;
+
+    private static final Pattern HEADING_STYLE_NAME = Pattern.compile("heading\\s*(\\d)");
+
+    private final XMLInputFactory xmlInputFactory = XMLHelper.newXMLInputFactory();
+
+    @Value("${ai.office.scratch-dir:${java.io.tmpdir}}")
+    private String scratchDir;
+
+    public String extractText(InputStreamSource source) throws IOException {
+        return UploadFiles.withFile(source, scratchDir, ".docx", this::extractText);
+    }
+
+    public String extractText(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            if (FileMagic.valueOf(in) == FileMagic.OLE2) {
+                throw new IOException("Word 97-2003 (.doc) wird nicht unterstützt, bitte als .docx speichern");
+            }
+        }
+
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            PackagePart main = mainPart(pkg);
+            Map<String, StyleInfo> styles = readStyles(main);
+            try (InputStream in = main.getInputStream()) {
+                String text = new BodyReader(styles).read(in);
+                logger.debug("📝 DOCX extrahiert: {} Zeichen, {} Formatvorlagen", text.length(), styles.size());
+                return text;
+            }
+        } catch (InvalidFormatException | NotOfficeXmlFileException | POIXMLException e) {
+            throw new IOException("Kein gültiges DOCX: " + e.getMessage(), e);
+        } catch (XMLStreamException e) {
+            throw new IOException("DOCX nicht lesbar: " + e.getMessage(), e);
+        }
+    }
+
+    private static PackagePart mainPart(OPCPackage pkg) throws InvalidFormatException {
+        for (PackagePart part : pkg.getPartsByRelationshipType(PackageRelationshipTypes.CORE_DOCUMENT)) {
+            return part;
+        }
+        throw new InvalidFormatException("Kein Hauptdokument (word/document.xml) im Paket");
+    }
+
+    // ========================================
+    // FORMATVORLAGEN
+    // ========================================
+
+    /**
+     * Gliederungsebene und Listen-Eigenschaft je Absatz-Formatvorlage, inkl. Vererbung über basedOn
+     */
+    private Map<String, StyleInfo> readStyles(PackagePart main) throws InvalidFormatException, IOException,
+            XMLStreamException {
+        Map<String, StyleInfo> styles = new HashMap<>();
+        for (PackageRelationship relationship : main.getRelationshipsByType(XWPFRelation.STYLES.getRelation())) {
+            try (InputStream in = main.getRelatedPart(relationship).getInputStream()) {
+                parseStyles(in, styles);
+            }
+        }
+        styles.values().forEach(style -> style.resolve(styles, 0));
+        return styles;
+    }
+
+    private void parseStyles(InputStream in, Map<String, StyleInfo> styles) throws XMLStreamException {
+        XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(in);
+        try {
+            StyleInfo current = null;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT && W_NS.equals(reader.getNamespaceURI())) {
+                    String name = reader.getLocalName();
+                    if ("style".equals(name)) {
+                        current = "paragraph".equals(attribute(reader, "type")) ? new StyleInfo() : null;
+                        if (current != null) {
+                            styles.put(attribute(reader, "styleId"), current);
+                        }
+                    } else if (current != null) {
+                        switch (name) {
+                            case "name":
+                                Matcher heading = HEADING_STYLE_NAME.matcher(
+                                    String.valueOf(attribute(reader, "val")).toLowerCase(Locale.ROOT));
+                                if (heading.matches()) {
+                                    current.nameLevel = Integer.parseInt(heading.group(1)) - 1;
+                                } else if ("title".equalsIgnoreCase(attribute(reader, "val"))) {
+                                    current.nameLevel = 0;
+                                }
+                                break;
+                            case "basedOn":
+                                current.basedOn = attribute(reader, "val");
+                                break;
+                            case "outlineLvl":
+                                current.outlineLevel = parseLevel(attribute(reader, "val"));
+                                break;
+                            case "numPr":
+                                current.list = true;
+                                break;
+                            default:
+                                break;
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && "style".equals(reader.getLocalName())) {
+                    current = null;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static Integer parseLevel(String value) {
+        try {
+            return value == null ? null : Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String attribute(XMLStreamReader reader, String localName) {
+        String value = reader.getAttributeValue(W_NS, localName);
+        return value != null ? value : reader.getAttributeValue(null, localName);
+    }
+
+    private static final class StyleInfo {
+        private Integer outlineLevel;
+        private Integer nameLevel;
+        private String basedOn;
+        private boolean list;
+        private boolean resolved;
+
+        void resolve(Map<String, StyleInfo> styles, int depth) {
+            if (resolved) {
+                return;
+            }
+            resolved = true;
+            if (outlineLevel == null) {
+                outlineLevel = nameLevel;
+            }
+            StyleInfo parent = basedOn != null && depth < 20 ? styles.get(basedOn) : null;
+            if (parent != null) {
+                parent.resolve(styles, depth + 1);
+                if (outlineLevel == null) {
+                    outlineLevel = parent.outlineLevel;
+                }
+                list |= parent.list;
+            }
+        }
+    }
+
+    // ========================================
+    // DOKUMENTTEXT
+    // ========================================
+
+    /**
+     * Ein Durchlauf über document.xml; gepuffert wird nur der aktuelle Absatz bzw. die aktuelle Tabellenzeile
+     */
+    private final class BodyReader {
+        private final Map<String, StyleInfo> styles;
+        private final StringBuilder out = new StringBuilder();
+
+        private final StringBuilder paragraph = new StringBuilder();
+        private int paragraphDepth;
+        private String styleId;
+        private Integer outlineLevel;
+        private boolean listItem;
+        private boolean inText;
+
+        // Nur die äußerste Tabelle bildet Zeilen, verschachtelte landen in der Zelle
+        private int tableDepth;
+        private final List<String> row = new ArrayList<>();
+        private final StringBuilder cell = new StringBuilder();
+        private int rowsInTable;
+
+        // mc:Fallback wiederholt den Inhalt von mc:Choice (z.B. Textfelder)
+        private int skipDepth;
+
+        BodyReader(Map<String, StyleInfo> styles) {
+            this.styles = styles;
+        }
+
+        String read(InputStream in) throws XMLStreamException {
+            XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(in);
+            try {
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        start(reader);
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        end(reader);
+                    } else if (inText && skipDepth == 0
+                            && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)) {
+                        paragraph.append(reader.getText());
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+            return out.toString().trim();
+        }
+
+        private void start(XMLStreamReader reader) {
+            if (MC_NS.equals(reader.getNamespaceURI()) && "Fallback".equals(reader.getLocalName())) {
+                skipDepth++;
+                return;
+            }
+            if (skipDepth > 0 || !W_NS.equals(reader.getNamespaceURI())) {
+                return;
+            }
+            switch (reader.getLocalName()) {
+                case "p":
+                    if (paragraphDepth++ == 0) {
+                        paragraph.setLength(0);
+                        styleId = null;
+                        outlineLevel = null;
+                        listItem = false;
+                    } else {
+                        paragraph.append(' ');
+                    }
+                    break;
+                case "pStyle":
+                    if (paragraphDepth == 1) {
+                        styleId = attribute(reader, "val");
+                    }
+                    break;
+                case "outlineLvl":
+                    if (paragraphDepth == 1) {
+                        outlineLevel = parseLevel(attribute(reader, "val"));
+                    }
+                    break;
+                case "numPr":
+                    if (paragraphDepth == 1) {
+                        listItem = true;
+                    }
+                    break;
+                case "t":
+                    inText = true;
+                    break;
+                case "tab":
+                    if (paragraphDepth > 0) {
+                        paragraph.append(tableDepth > 0 ? ' ' : '\t');
+                    }
+                    break;
+                case "br":
+                case "cr":
+                    if (paragraphDepth > 0) {
+                        paragraph.append(tableDepth > 0 ? ' ' : '\n');
+                    }
+                    break;
+                case "tbl":
+                    if (tableDepth++ == 0) {
+                        rowsInTable = 0;
+                        out.append("\n");
+                    }
+                    break;
+                case "tr":
+                    if (tableDepth == 1) {
+                        row.clear();
+                    }
+                    break;
+                case "tc":
+                    if (tableDepth == 1) {
+                        cell.setLength(0);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void end(XMLStreamReader reader) {
+            if (MC_NS.equals(reader.getNamespaceURI()) && "Fallback".equals(reader.getLocalName())) {
+                skipDepth--;
+                return;
+            }
+            if (skipDepth > 0 || !W_NS.equals(reader.getNamespaceURI())) {
+                return;
+            }
+            switch (reader.getLocalName()) {
+                case "t":
+                    inText = false;
+                    break;
+                case "p":
+                    if (--paragraphDepth == 0) {
+                        endParagraph();
+                    }
+                    break;
+                case "tc":
+                    if (tableDepth == 1) {
+                        row.add(cell.toString().trim().replace("|", "/"));
+                    }
+                    break;
+                case "tr":
+                    if (tableDepth == 1) {
+                        endRow();
+                    }
+                    break;
+                case "tbl":
+                    if (--tableDepth == 0) {
+                        out.append("\n");
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void endParagraph() {
+            String text = paragraph.toString().trim();
+            if (text.isEmpty()) {
+                return;
+            }
+            if (tableDepth > 0) {
+                if (cell.length() > 0) {
+                    cell.append(' ');
+                }
+                cell.append(text);
+                return;
+            }
+
+            StyleInfo style = styleId != null ? styles.get(styleId) : null;
+            Integer level = outlineLevel != null ? outlineLevel : style != null ? style.outlineLevel : null;
+            if (level != null && level < BODY_LEVEL) {
+                out.append('\n').append("#".repeat(Math.min(level + 1, MAX_MARKDOWN_LEVEL)))
+                    .append(' ').append(text.replace('\n', ' ')).append("\n\n");
+            } else if (listItem || (style != null && style.list)) {
+                out.append("- ").append(text).append('\n');
+            } else {
+                out.append(text).append("\n\n");
+            }
+        }
+
+        private void endRow() {
+            if (row.stream().allMatch(String::isEmpty)) {
+                return;
+            }
+            out.append("| ").append(String.join(" | ", row)).append(" |\n");
+            if (rowsInTable++ == 0) {
+                out.append("|").append(" --- |".repeat(row.size())).append('\n');
+            }
+        }
+    }
+}
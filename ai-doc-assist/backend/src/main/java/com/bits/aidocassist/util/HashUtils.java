@@ -0,0 +1,60 @@
+package com.bits.aidocassist.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+public final class HashUtils {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int STREAM_BUFFER_BYTES = 64 * 1024;
+
+    private HashUtils() {
+    }
+
+    /**
+     * SHA-256 eines Textes als Hex-String (z.B. als Cache-Schlüssel)
+     */
+    public static String sha256Hex(String text) {
+        return sha256Hex(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String sha256Hex(byte[] data) {
+        return toHex(newSha256().digest(data));
+    }
+
+    /**
+     * SHA-256 eines Streams in einem Durchlauf, ohne den Inhalt im Heap zu halten
+     */
+    public static String sha256Hex(InputStream in) throws IOException {
+        MessageDigest digest = newSha256();
+        try (DigestInputStream digesting = new DigestInputStream(in, digest)) {
+            byte[] buffer = new byte[STREAM_BUFFER_BYTES];
+            while (digesting.read(buffer) != -1) {
+                // nur lesen, der Digest rechnet mit
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    public static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 nicht verfügbar", e);
+        }
+    }
+
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int v = bytes[i] & 0xFF;
+            chars[i * 2] = HEX[v >>> 4];
+            chars[i * 2 + 1] = HEX[v & 0x0F];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,193 @@
+package com.bits.aidocassist.util;
+
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Benannter, begrenzter Thread-Pool mit Metriken (Queue-Tiefe, aktive Threads, Warte- und Laufzeiten, Ablehnungen).
+ * Ersetzt ungebundene Pools und den ForkJoin-Common-Pool für blockierende Aufgaben.
+ */
+public class InstrumentedExecutor extends ThreadPoolExecutor {
+
+    public enum RejectionPolicy {
+        ABORT,       // RejectedExecutionException an den Aufrufer
+        CALLER_RUNS  // Gegendruck: der aufrufende Thread führt die Aufgabe selbst aus
+    }
+
+    private final String name;
+    private final int queueCapacity;
+    private final RejectionPolicy rejectionPolicy;
+    private final boolean virtualThreads;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalWaitMs = new LongAdder();
+    private final LatencyWindow waitWindow = new LatencyWindow(500);
+    private final LatencyWindow runWindow = new LatencyWindow(500);
+
+    private final ThreadLocal<Long> runStart = new ThreadLocal<>();
+
+    public InstrumentedExecutor(String name, int threads, int queueCapacity, RejectionPolicy rejectionPolicy) {
+        this(name, threads, queueCapacity, rejectionPolicy, namedDaemonThreads(name), false);
+    }
+
+    /**
+     * Mit eigener ThreadFactory, z.B. für virtuelle Threads (siehe {@link VirtualThreads});
+     * threads begrenzt dann nur noch die gleichzeitig laufenden Aufgaben
+     */
+    public InstrumentedExecutor(String name, int threads, int queueCapacity, RejectionPolicy rejectionPolicy,
+                                ThreadFactory threadFactory, boolean virtualThreads) {
+        super(Math.max(1, threads), Math.max(1, threads), 60L, TimeUnit.SECONDS,
+            createQueue(queueCapacity), threadFactory);
+        this.name = name;
+        this.queueCapacity = Math.max(0, queueCapacity);
+        this.rejectionPolicy = rejectionPolicy;
+        this.virtualThreads = virtualThreads;
+        allowCoreThreadTimeOut(true);
+        setRejectedExecutionHandler(new CountingRejectionHandler());
+    }
+
+    public static RejectionPolicy parsePolicy(String value) {
+        return RejectionPolicy.valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    private static BlockingQueue<Runnable> createQueue(int capacity) {
+        return capacity <= 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(capacity);
+    }
+
+    private static ThreadFactory namedDaemonThreads(String name) {
+        AtomicInteger threadCounter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        submitted.increment();
+        super.execute(new TimedTask(command));
+    }
+
+    @Override
+    protected void beforeExecute(Thread thread, Runnable task) {
+        super.beforeExecute(thread, task);
+        long now = System.currentTimeMillis();
+        if (task instanceof TimedTask) {
+            long waitMs = now - ((TimedTask) task).enqueuedAt;
+            started.increment();
+            totalWaitMs.add(waitMs);
+            waitWindow.record(waitMs);
+        }
+        runStart.set(now);
+    }
+
+    @Override
+    protected void afterExecute(Runnable task, Throwable error) {
+        super.afterExecute(task, error);
+        Long start = runStart.get();
+        if (start != null) {
+            runWindow.record(System.currentTimeMillis() - start);
+            runStart.remove();
+        }
+        completed.increment();
+    }
+
+    public ExecutorStats getStats() {
+        ExecutorStats stats = new ExecutorStats();
+        stats.name = name;
+        stats.maxThreads = getMaximumPoolSize();
+        stats.poolSize = getPoolSize();
+        stats.activeThreads = getActiveCount();
+        stats.queueDepth = getQueue().size();
+        stats.queueCapacity = queueCapacity;
+        stats.rejectionPolicy = rejectionPolicy.name();
+        stats.virtualThreads = virtualThreads;
+        stats.submitted = submitted.sum();
+        stats.completed = completed.sum();
+        stats.rejected = rejected.sum();
+        long startedTasks = started.sum();
+        stats.avgWaitMs = startedTasks == 0 ? 0.0 : (double) totalWaitMs.sum() / startedTasks;
+        stats.p95WaitMs = waitWindow.percentile(95);
+        stats.p95RunMs = runWindow.percentile(95);
+        return stats;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Merkt sich den Einreihungszeitpunkt für die Wartezeit-Messung
+     */
+    private static final class TimedTask implements Runnable {
+        private final Runnable delegate;
+        private final long enqueuedAt = System.currentTimeMillis();
+
+        TimedTask(Runnable delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void run() {
+            delegate.run();
+        }
+    }
+
+    private final class CountingRejectionHandler implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            rejected.increment();
+            if (rejectionPolicy == RejectionPolicy.CALLER_RUNS && !executor.isShutdown()) {
+                task.run();
+                return;
+            }
+            throw new RejectedExecutionException("Executor '" + name + "' ausgelastet ("
+                + getActiveCount() + " aktiv, Queue " + getQueue().size() + "/" + queueCapacity + ")");
+        }
+    }
+
+    public static class ExecutorStats {
+        private String name;
+        private int maxThreads;
+        private int poolSize;
+        private int activeThreads;
+        private int queueDepth;
+        private int queueCapacity;
+        private String rejectionPolicy;
+        private boolean virtualThreads;
+        private long submitted;
+        private long completed;
+        private long rejected;
+        private double avgWaitMs;
+        private long p95WaitMs;
+        private long p95RunMs;
+
+        public String getName() { return name; }
+        public int getMaxThreads() { return maxThreads; }
+        public int getPoolSize() { return poolSize; }
+        public int getActiveThreads() { return activeThreads; }
+        public int getQueueDepth() { return queueDepth; }
+        public int getQueueCapacity() { return queueCapacity; }
+        public String getRejectionPolicy() { return rejectionPolicy; }
+        public boolean isVirtualThreads() { return virtualThreads; }
+        public long getSubmitted() { return submitted; }
+        public long getCompleted() { return completed; }
+        public long getRejected() { return rejected; }
+        public double getAvgWaitMs() { return avgWaitMs; }
+        public long getP95WaitMs() { return p95WaitMs; }
+        public long getP95RunMs() { return p95RunMs; }
+    }
+}
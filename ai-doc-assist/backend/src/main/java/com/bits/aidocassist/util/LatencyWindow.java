@@ -0,0 +1,37 @@
+package com.bits.aidocassist.util;
+
+import java.util.Arrays;
+
+/**
+ * Ringpuffer der letzten N Latenzen für Perzentil-Berechnungen
+ */
+public final class LatencyWindow {
+
+    private final long[] samples;
+    private int next = 0;
+    private int count = 0;
+
+    public LatencyWindow(int size) {
+        this.samples = new long[Math.max(size, 1)];
+    }
+
+    public synchronized void record(long latencyMs) {
+        samples[next] = latencyMs;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    public synchronized long percentile(double p) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(p / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(index, count - 1))];
+    }
+}
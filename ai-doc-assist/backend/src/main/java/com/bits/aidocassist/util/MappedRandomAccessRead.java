@@ -0,0 +1,139 @@
+package com.bits.aidocassist.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.pdfbox.io.RandomAccessRead;
+
+/**
+ * PDFBox-Quelle über eine per mmap eingeblendete Datei: der Parser liest direkt aus dem Page-Cache,
+ * ohne die Datei in den Heap zu kopieren oder eigene Puffer anzulegen.
+ */
+public class MappedRandomAccessRead implements RandomAccessRead {
+
+    private final ByteBuffer buffer;
+    private boolean closed;
+
+    public MappedRandomAccessRead(ByteBuffer buffer) {
+        this.buffer = buffer.duplicate();
+        this.buffer.position(0);
+    }
+
+    public static MappedRandomAccessRead map(Path file) throws IOException {
+        return new MappedRandomAccessRead(mapFile(file));
+    }
+
+    /**
+     * Blendet die Datei schreibgeschützt ein; der Kanal wird sofort geschlossen, das Mapping bleibt gültig.
+     * Mehrere Leser über demselben Buffer haben je eine eigene Position.
+     */
+    public static ByteBuffer mapFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Datei zu groß für mmap: " + channel.size() + " Bytes");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkClosed();
+        return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b) throws IOException {
+        return read(b, 0, b.length);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        checkClosed();
+        if (len == 0) {
+            return 0;
+        }
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+        int count = Math.min(len, buffer.remaining());
+        buffer.get(b, off, count);
+        return count;
+    }
+
+    @Override
+    public long getPosition() throws IOException {
+        checkClosed();
+        return buffer.position();
+    }
+
+    @Override
+    public void seek(long position) throws IOException {
+        checkClosed();
+        if (position < 0) {
+            throw new IOException("Ungültige Position: " + position);
+        }
+        buffer.position((int) Math.min(position, buffer.limit()));
+    }
+
+    @Override
+    public long length() throws IOException {
+        checkClosed();
+        return buffer.limit();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public int peek() throws IOException {
+        checkClosed();
+        return buffer.hasRemaining() ? buffer.get(buffer.position()) & 0xff : -1;
+    }
+
+    @Override
+    public void rewind(int bytes) throws IOException {
+        seek(getPosition() - bytes);
+    }
+
+    @Override
+    public byte[] readFully(int length) throws IOException {
+        checkClosed();
+        if (buffer.remaining() < length) {
+            throw new EOFException("Dateiende vor " + length + " Bytes erreicht");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public boolean isEOF() throws IOException {
+        checkClosed();
+        return !buffer.hasRemaining();
+    }
+
+    @Override
+    public int available() throws IOException {
+        checkClosed();
+        return buffer.remaining();
+    }
+
+    @Override
+    public void close() {
+        // Mapping wird mit dem Buffer vom GC freigegeben
+        closed = true;
+    }
+
+    private void checkClosed() throws IOException {
+        if (closed) {
+            throw new IOException("Quelle bereits geschlossen");
+        }
+    }
+}
@@ -1,19 +1,397 @@
 package com.bits.aidocassist.util;
 
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.ScratchFile;
+import org.apache.pdfbox.pdfparser.PDFParser;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
+
+/**
+ * Einziger Einstiegspunkt für PDF-Uploads: liest direkt aus der Upload-Quelle statt über eine eigene Kopie.
+ * Dateien werden per mmap geparst, Uploads im Speicher ohne weitere Byte-Kopie. Vom Container auf Platte
+ * gespoolte Uploads liest PDFBox aus deren Stream in seine Puffer (ab ai.pdf.main-memory-threshold-bytes
+ * gemischt mit bzw. nur in einer Scratch-Datei). Der Upload selbst wird nie verbraucht und bleibt für
+ * weitere Leser gültig. Lange PDFs aus Dateien oder dem Speicher werden seitenweise parallel extrahiert
+ * (ai.pdf.parallel.*); ein Zeichen-Budget begrenzt nur den Prompt-Auszug, nie den gespeicherten Text.
+ */
 @Component
 public class PdfProcessor {
 
-    public static String extractTextFromPdf(File pdfFile) throws IOException {
-        try (PDDocument document = PDDocument.load(pdfFile)) {
-            PDFTextStripper pdfTextStripper = new PDFTextStripper();
-            return pdfTextStripper.getText(document);
+    private static final Logger logger = LoggerFactory.getLogger(PdfProcessor.class);
+
+    private static final int HELPER_PENDING = 0;
+    private static final int HELPER_RUNNING = 1;
+    private static final int HELPER_CANCELLED = 2;
+
+    private static final Pattern DIGITS = Pattern.compile("\\d+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    @FunctionalInterface
+    public interface PdfFunction<T> {
+        T apply(PDDocument document) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface SourceFunction<T> {
+        T apply(PdfSource pdf) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface DocumentOpener {
+        PDDocument open(MemoryUsageSetting memoryUsage) throws IOException;
+    }
+
+    /**
+     * Geöffnete Upload-Quelle; reopenable = weitere Dokumente darüber kosten keine erneute Kopie
+     * (nur dann lohnt die seitenparallele Extraktion mit einem Dokument je Worker)
+     */
+    private static final class PdfSource {
+        private final long size;
+        private final boolean reopenable;
+        private final DocumentOpener opener;
+
+        PdfSource(long size, boolean reopenable, DocumentOpener opener) {
+            this.size = size;
+            this.reopenable = reopenable;
+            this.opener = opener;
+        }
+
+        PDDocument open(MemoryUsageSetting memoryUsage) throws IOException {
+            return opener.open(memoryUsage);
+        }
+    }
+
+    @Autowired
+    @Qualifier("cpuExecutor")
+    private Executor pageExecutor;
+
+    // Bis zu dieser Dateigröße hält PDFBox alles im Heap
+    @Value("${ai.pdf.main-memory-threshold-bytes:4194304}")
+    private long mainMemoryThresholdBytes;
+
+    // Darüber: Heap-Anteil der PDFBox-Puffer, Rest in der Scratch-Datei (0 = nur Scratch-Datei)
+    @Value("${ai.pdf.max-main-memory-bytes:8388608}")
+    private long maxMainMemoryBytes;
+
+    @Value("${ai.pdf.scratch-dir:${java.io.tmpdir}}")
+    private String scratchDir;
+
+    // Worker je PDF (0 = CPU-Kerne), 1 = sequenziell
+    @Value("${ai.pdf.parallel.threads:0}")
+    private int parallelThreads;
+
+    // Kleinere PDFs lohnen den zusätzlichen Parse je Worker nicht
+    @Value("${ai.pdf.parallel.min-pages:32}")
+    private int parallelMinPages;
+
+    @Value("${ai.pdf.parallel.pages-per-task:16}")
+    private int pagesPerTask;
+
+    private int parallelism;
+
+    // Uploads über dieser Größe liegen bereits als Datei auf Platte (Servlet-Container)
+    @Value("${spring.servlet.multipart.file-size-threshold:0B}")
+    private String multipartSpoolThreshold;
+
+    @PostConstruct
+    void init() {
+        parallelism = parallelThreads > 0 ? parallelThreads : Runtime.getRuntime().availableProcessors();
+        pagesPerTask = Math.max(1, pagesPerTask);
+    }
+
+    public String extractText(InputStreamSource source) throws IOException {
+        return extractText(source, false);
+    }
+
+    /**
+     * Text aller Seiten; ab ai.pdf.parallel.min-pages Seiten werden Seitenbereiche parallel extrahiert
+     */
+    public String extractText(InputStreamSource source, boolean sortByPosition) throws IOException {
+        return String.join("", extractPages(source, sortByPosition));
+    }
+
+    /**
+     * Text je Seite (Index 0 = Seite 1)
+     */
+    public String[] extractPages(InputStreamSource source, boolean sortByPosition) throws IOException {
+        return withSource(source, pdf -> {
+            try (PDDocument document = pdf.open(memoryUsage(pdf.size))) {
+                int pages = document.getNumberOfPages();
+                if (!pdf.reopenable || parallelism <= 1 || pages < parallelMinPages) {
+                    String[] texts = new String[pages];
+                    stripRanges(document, new AtomicInteger(), texts, pages, sortByPosition);
+                    return texts;
+                }
+                return extractParallel(pdf, document, pages, sortByPosition);
+            }
+        });
+    }
+
+    /**
+     * Öffnet das PDF aus Upload, Datei oder Byte-Array, wendet die Funktion an und gibt alle Ressourcen frei
+     */
+    public <T> T withDocument(InputStreamSource source, PdfFunction<T> function) throws IOException {
+        return withSource(source, pdf -> {
+            try (PDDocument document = pdf.open(memoryUsage(pdf.size))) {
+                return function.apply(document);
+            }
+        });
+    }
+
+    // ========================================
+    // PROMPT-AUSZUG MIT BUDGET
+    // ========================================
+
+    /**
+     * Vollständiger Text plus Prompt-Auszug: Seiten in Reihenfolge, bis maxChars Zeichen beisammen sind
+     * (maxChars <= 0: alle Seiten). Leere Seiten und Wiederholungen einer bereits übernommenen Seite
+     * (Deckblatt-/Rechtshinweise, Vorlagen) zählen nicht zum Budget und fehlen im Auszug.
+     * Der vollständige Text bleibt die Grundlage für Speicherung und Fingerprints.
+     */
+    public PdfText extractText(InputStreamSource source, boolean sortByPosition, int maxChars) throws IOException {
+        String[] pages = extractPages(source, sortByPosition);
+        String text = String.join("", pages);
+        if (maxChars <= 0) {
+            return new PdfText(text, text, pages.length, pages.length, 0);
+        }
+        StringBuilder prompt = new StringBuilder(Math.min(maxChars + 4096, text.length()));
+        Set<String> seenPages = new HashSet<>();
+        int promptPages = 0;
+        int skipped = 0;
+        for (int i = 0; i < pages.length && prompt.length() < maxChars; i++) {
+            promptPages++;
+            String key = boilerplateKey(pages[i]);
+            if (key.isEmpty() || !seenPages.add(key)) {
+                skipped++;
+                continue;
+            }
+            prompt.append(pages[i]);
+        }
+        return new PdfText(text, prompt.toString(), pages.length, promptPages, skipped);
+    }
+
+    /**
+     * Seitentext ohne Leerraum- und Groß-/Klein-Unterschiede; in der ersten und letzten Zeile (Kopf-/Fußzeile)
+     * zusätzlich ohne Ziffern, damit Seitenzahlen und Datumsangaben eine Wiederholung nicht verdecken
+     */
+    static String boilerplateKey(String page) {
+        List<String> lines = page.lines()
+            .map(line -> WHITESPACE.matcher(line.toLowerCase(Locale.ROOT)).replaceAll(" ").trim())
+            .filter(line -> !line.isEmpty())
+            .collect(Collectors.toCollection(ArrayList::new));
+        if (lines.size() >= 3) {
+            lines.set(0, DIGITS.matcher(lines.get(0)).replaceAll("#"));
+            lines.set(lines.size() - 1, DIGITS.matcher(lines.get(lines.size() - 1)).replaceAll("#"));
+        }
+        return String.join("\n", lines);
+    }
+
+    // ========================================
+    // SEITEN-PARALLELE EXTRAKTION
+    // ========================================
+
+    /**
+     * PDDocument ist nicht thread-sicher: jeder Worker öffnet ein eigenes Dokument über derselben Quelle
+     * (mmap bzw. Byte-Array, ohne Kopie) und holt sich Seitenbereiche, bis keine mehr übrig sind.
+     * Der Aufrufer arbeitet mit dem bereits geöffneten Dokument mit; noch nicht gestartete Helfer werden
+     * am Ende verworfen statt abgewartet, damit ein ausgelasteter Pool nicht blockiert.
+     */
+    private String[] extractParallel(PdfSource pdf, PDDocument callerDocument, int pages, boolean sortByPosition)
+            throws IOException {
+        int ranges = (pages + pagesPerTask - 1) / pagesPerTask;
+        int workers = Math.min(parallelism, ranges);
+        String[] texts = new String[pages];
+        AtomicInteger nextRange = new AtomicInteger();
+        MemoryUsageSetting workerMemory = memoryUsage(pdf.size).getPartitionedCopy(workers);
+        long start = System.currentTimeMillis();
+
+        List<AtomicInteger> helperStates = new ArrayList<>();
+        List<CompletableFuture<Void>> helpers = new ArrayList<>();
+        for (int i = 1; i < workers; i++) {
+            AtomicInteger state = new AtomicInteger(HELPER_PENDING);
+            helperStates.add(state);
+            helpers.add(CompletableFuture.runAsync(() -> {
+                if (!state.compareAndSet(HELPER_PENDING, HELPER_RUNNING) || nextRange.get() >= ranges) {
+                    return;
+                }
+                try (PDDocument document = pdf.open(workerMemory)) {
+                    stripRanges(document, nextRange, texts, pages, sortByPosition);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, pageExecutor));
+        }
+
+        stripRanges(callerDocument, nextRange, texts, pages, sortByPosition);
+
+        for (int i = 0; i < helpers.size(); i++) {
+            if (helperStates.get(i).compareAndSet(HELPER_PENDING, HELPER_CANCELLED)) {
+                continue;
+            }
+            try {
+                helpers.get(i).join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof UncheckedIOException
+                    ? ((UncheckedIOException) e.getCause()).getCause()
+                    : new IOException("Seitenextraktion fehlgeschlagen", e.getCause());
+            }
+        }
+
+        logger.debug("📄 {} Seiten in {} Bereichen mit {} Workern extrahiert ({}ms)",
+            pages, ranges, workers, System.currentTimeMillis() - start);
+        return texts;
+    }
+
+    /**
+     * Holt Bereiche von pagesPerTask Seiten, bis keine mehr übrig sind; ein Stripper je Worker, Text je Seite
+     */
+    private void stripRanges(PDDocument document, AtomicInteger nextRange, String[] texts, int pages,
+                             boolean sortByPosition) throws IOException {
+        PDFTextStripper stripper = new PDFTextStripper();
+        stripper.setSortByPosition(sortByPosition);
+        int range;
+        while ((range = nextRange.getAndIncrement()) * pagesPerTask < pages) {
+            int startPage = range * pagesPerTask + 1;
+            for (int page = startPage; page <= Math.min(pages, startPage + pagesPerTask - 1); page++) {
+                stripper.setStartPage(page);
+                stripper.setEndPage(page);
+                texts[page - 1] = stripper.getText(document);
+            }
+        }
+    }
+
+    // ========================================
+    // QUELLEN
+    // ========================================
+
+    private <T> T withSource(InputStreamSource source, SourceFunction<T> function) throws IOException {
+        if (source instanceof MultipartFile && isSpooled((MultipartFile) source)) {
+            // Stream der Spool-Datei statt Kopie oder transferTo(File): transferTo verschiebt die Datei,
+            // danach wäre der Upload für Hash, Dedupe oder einen zweiten Extraktionsversuch nicht mehr lesbar.
+            // Bekannte Größe: große Uploads landen über memoryUsage() in der Scratch-Datei statt im Heap.
+            return function.apply(streamed(source, ((MultipartFile) source).getSize()));
+        }
+        if (source instanceof Resource && ((Resource) source).isFile()) {
+            return function.apply(mapped(((Resource) source).getFile().toPath()));
+        }
+
+        byte[] bytes = null;
+        if (source instanceof ByteArrayResource) {
+            bytes = ((ByteArrayResource) source).getByteArray();
+        } else if (source instanceof MultipartFile) {
+            // Nicht gespoolt: der Container liefert den vorhandenen Puffer
+            bytes = ((MultipartFile) source).getBytes();
         }
+        if (bytes != null) {
+            byte[] content = bytes;
+            // RandomAccessBuffer übernimmt das Array ohne Kopie
+            return function.apply(new PdfSource(content.length, true,
+                memoryUsage -> PDDocument.load(content, "", null, null, memoryUsage)));
+        }
+        return function.apply(streamed(source, -1));
+    }
+
+    private static PdfSource streamed(InputStreamSource source, long size) {
+        return new PdfSource(size, false, memoryUsage -> {
+            try (InputStream in = source.getInputStream()) {
+                return PDDocument.load(in, memoryUsage);
+            }
+        });
+    }
+
+    private static PdfSource mapped(Path file) throws IOException {
+        ByteBuffer buffer = MappedRandomAccessRead.mapFile(file);
+        return new PdfSource(buffer.limit(), true, memoryUsage -> parse(new MappedRandomAccessRead(buffer), memoryUsage));
+    }
+
+    private static PDDocument parse(MappedRandomAccessRead source, MemoryUsageSetting memoryUsage) throws IOException {
+        ScratchFile scratchFile = new ScratchFile(memoryUsage);
+        try {
+            PDFParser parser = new PDFParser(source, "", scratchFile);
+            parser.parse();
+            // Das Dokument schließt Quelle und Scratch-Datei
+            return parser.getPDDocument();
+        } catch (IOException | RuntimeException e) {
+            scratchFile.close();
+            source.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Heap-only für kleine PDFs, darüber gemischt bzw. nur Scratch-Datei; unbekannte Größe gilt als groß
+     */
+    MemoryUsageSetting memoryUsage(long sizeBytes) {
+        if (sizeBytes >= 0 && sizeBytes <= mainMemoryThresholdBytes) {
+            return MemoryUsageSetting.setupMainMemoryOnly();
+        }
+        MemoryUsageSetting setting = maxMainMemoryBytes > 0
+            ? MemoryUsageSetting.setupMixed(maxMainMemoryBytes)
+            : MemoryUsageSetting.setupTempFileOnly();
+        logger.debug("PDF mit {} Bytes: PDFBox-Puffer {}", sizeBytes, setting);
+        return setting.setTempDir(new File(scratchDir));
+    }
+
+    private boolean isSpooled(MultipartFile file) {
+        return file.getSize() > DataSize.parse(multipartSpoolThreshold).toBytes();
+    }
+
+    /**
+     * Vollständiger Text plus Prompt-Auszug; promptPages = Seiten bis zum Budget (inkl. ausgelassener)
+     */
+    public static class PdfText {
+        private final String text;
+        private final String promptText;
+        private final int pageCount;
+        private final int promptPages;
+        private final int skippedPages;
+
+        PdfText(String text, String promptText, int pageCount, int promptPages, int skippedPages) {
+            this.text = text;
+            this.promptText = promptText;
+            this.pageCount = pageCount;
+            this.promptPages = promptPages;
+            this.skippedPages = skippedPages;
+        }
+
+        public String getText() { return text; }
+        public String getPromptText() { return promptText; }
+        public int getPageCount() { return pageCount; }
+        public int getPromptPages() { return promptPages; }
+        public int getSkippedPages() { return skippedPages; }
+
+        // Budget erreicht, bevor alle Seiten im Auszug waren
+        public boolean isPromptTruncated() { return promptPages < pageCount; }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,168 @@
+package com.bits.aidocassist.util;
+
+import org.apache.poi.ooxml.POIXMLException;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.NotOfficeXmlFileException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageRelationship;
+import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
+import org.apache.poi.util.XMLHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PPTX-Extraktion ohne XMLSlideShow: Folien werden in der Reihenfolge aus presentation.xml einzeln
+ * per StAX gelesen. Titel-Platzhalter werden zu "## Folie N: Titel", übrige Absätze zu Listenpunkten.
+ */
+@Component
+public class PptxProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PptxProcessor.class);
+
+    private static final String P_NS = "http://schemas.openxmlformats.org/presentationml/2006/main";
+    private static final String A_NS = "http://schemas.openxmlformats.org/drawingml/2006/main";
+    private static final String R_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String MC_NS = "http://schemas.openxmlformats.org/markup-compatibility/2006";
+
+    private final XMLInputFactory xmlInputFactory = XMLHelper.newXMLInputFactory();
+
+    @Value("${ai.office.scratch-dir:${java.io.tmpdir}}")
+    private String scratchDir;
+
+    public String extractText(InputStreamSource source) throws IOException {
+        return UploadFiles.withFile(source, scratchDir, ".pptx", this::extractText);
+    }
+
+    public String extractText(Path file) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            PackagePart presentation = pkg.getPartsByRelationshipType(PackageRelationshipTypes.CORE_DOCUMENT).stream()
+                .findFirst()
+                .orElseThrow(() -> new InvalidFormatException("Keine Präsentation (ppt/presentation.xml) im Paket"));
+
+            StringBuilder out = new StringBuilder();
+            int number = 0;
+            for (String relationshipId : slideIds(presentation)) {
+                PackageRelationship relationship = presentation.getRelationship(relationshipId);
+                PackagePart slide = relationship != null ? presentation.getRelatedPart(relationship) : null;
+                if (slide == null) {
+                    continue;
+                }
+                number++;
+                try (InputStream in = slide.getInputStream()) {
+                    appendSlide(out, number, in);
+                }
+            }
+            logger.debug("📽️ PPTX extrahiert: {} Folien, {} Zeichen", number, out.length());
+            return out.toString().trim();
+        } catch (InvalidFormatException | NotOfficeXmlFileException | POIXMLException e) {
+            throw new IOException("Kein gültiges PPTX: " + e.getMessage(), e);
+        } catch (XMLStreamException e) {
+            throw new IOException("PPTX nicht lesbar: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Relationship-IDs der Folien in Präsentationsreihenfolge (p:sldIdLst)
+     */
+    private List<String> slideIds(PackagePart presentation) throws IOException, XMLStreamException {
+        List<String> ids = new ArrayList<>();
+        try (InputStream in = presentation.getInputStream()) {
+            XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(in);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT && P_NS.equals(reader.getNamespaceURI())
+                            && "sldId".equals(reader.getLocalName())) {
+                        ids.add(reader.getAttributeValue(R_NS, "id"));
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return ids;
+    }
+
+    private void appendSlide(StringBuilder out, int number, InputStream in) throws XMLStreamException {
+        XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(in);
+        String title = null;
+        List<String> lines = new ArrayList<>();
+        StringBuilder paragraph = new StringBuilder();
+        boolean titleShape = false;
+        boolean inText = false;
+        int skipDepth = 0;
+        try {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String ns = reader.getNamespaceURI();
+                    String name = reader.getLocalName();
+                    if (MC_NS.equals(ns) && "Fallback".equals(name)) {
+                        skipDepth++;
+                    } else if (skipDepth > 0) {
+                        continue;
+                    } else if (P_NS.equals(ns) && "sp".equals(name)) {
+                        titleShape = false;
+                    } else if (P_NS.equals(ns) && "ph".equals(name)) {
+                        String type = reader.getAttributeValue(null, "type");
+                        titleShape = "title".equals(type) || "ctrTitle".equals(type);
+                    } else if (A_NS.equals(ns) && "p".equals(name)) {
+                        paragraph.setLength(0);
+                    } else if (A_NS.equals(ns) && "t".equals(name)) {
+                        inText = true;
+                    } else if (A_NS.equals(ns) && "br".equals(name)) {
+                        paragraph.append(' ');
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    String ns = reader.getNamespaceURI();
+                    String name = reader.getLocalName();
+                    if (MC_NS.equals(ns) && "Fallback".equals(name)) {
+                        skipDepth--;
+                    } else if (skipDepth > 0) {
+                        continue;
+                    } else if (A_NS.equals(ns) && "t".equals(name)) {
+                        inText = false;
+                    } else if (A_NS.equals(ns) && "p".equals(name)) {
+                        String text = paragraph.toString().trim();
+                        if (text.isEmpty()) {
+                            continue;
+                        }
+                        if (titleShape) {
+                            title = title == null ? text : title + " " + text;
+                        } else {
+                            lines.add(text);
+                        }
+                    }
+                } else if (inText && skipDepth == 0 && event == XMLStreamConstants.CHARACTERS) {
+                    paragraph.append(reader.getText());
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        out.append("## Folie ").append(number);
+        if (title != null) {
+            out.append(": ").append(title);
+        }
+        out.append("\n\n");
+        for (String line : lines) {
+            out.append("- ").append(line).append('\n');
+        }
+        out.append('\n');
+    }
+}
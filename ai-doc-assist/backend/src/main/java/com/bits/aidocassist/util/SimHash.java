@@ -0,0 +1,84 @@
+package com.bits.aidocassist.util;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 64-Bit-SimHash über Wort-Shingles. Ähnliche Texte ergeben Fingerprints mit kleiner
+ * Hamming-Distanz - wenige geänderte Zeilen kippen nur wenige Bits.
+ */
+public final class SimHash {
+
+    public static final int BITS = 64;
+
+    private static final Pattern WORD_PATTERN = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final int SHINGLE_SIZE = 3;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private SimHash() {
+    }
+
+    public static long fingerprint(String text) {
+        int[] weights = new int[BITS];
+
+        // Ringpuffer der letzten Wort-Hashes für 3-Wort-Shingles
+        long[] window = new long[SHINGLE_SIZE];
+        int words = 0;
+
+        Matcher matcher = WORD_PATTERN.matcher(text);
+        while (matcher.find()) {
+            window[words % SHINGLE_SIZE] = fnv1a(matcher.group().toLowerCase(Locale.ROOT));
+            words++;
+            if (words >= SHINGLE_SIZE) {
+                long shingle = FNV_OFFSET;
+                for (int i = words - SHINGLE_SIZE; i < words; i++) {
+                    shingle = (shingle ^ window[i % SHINGLE_SIZE]) * FNV_PRIME;
+                }
+                addToWeights(weights, mix(shingle));
+            }
+        }
+
+        // Sehr kurze Texte: einzelne Wörter als Merkmale
+        if (words > 0 && words < SHINGLE_SIZE) {
+            for (int i = 0; i < words; i++) {
+                addToWeights(weights, mix(window[i]));
+            }
+        }
+
+        long fingerprint = 0L;
+        for (int bit = 0; bit < BITS; bit++) {
+            if (weights[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    private static void addToWeights(int[] weights, long hash) {
+        for (int bit = 0; bit < BITS; bit++) {
+            weights[bit] += ((hash >>> bit) & 1L) != 0 ? 1 : -1;
+        }
+    }
+
+    private static long fnv1a(String word) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < word.length(); i++) {
+            hash = (hash ^ word.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    // Finalizer (SplitMix64) für gleichmäßig verteilte Bits
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
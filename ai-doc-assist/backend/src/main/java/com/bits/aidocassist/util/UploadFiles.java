@@ -0,0 +1,42 @@
+package com.bits.aidocassist.util;
+
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Upload-Quelle als Datei für Formate mit wahlfreiem Zugriff (OOXML-Pakete): Dateien direkt, alles andere
+ * als Kopie in einer temporären Datei. Uploads werden über getInputStream() gelesen, nie per transferTo
+ * verschoben, damit sie für Hash, Dedupe und weitere Extraktionen lesbar bleiben.
+ */
+public final class UploadFiles {
+
+    @FunctionalInterface
+    public interface FileFunction<T> {
+        T apply(Path file) throws IOException;
+    }
+
+    private UploadFiles() {
+    }
+
+    public static <T> T withFile(InputStreamSource source, String scratchDir, String suffix,
+                                 FileFunction<T> function) throws IOException {
+        if (source instanceof Resource && ((Resource) source).isFile()) {
+            return function.apply(((Resource) source).getFile().toPath());
+        }
+        Path copy = Files.createTempFile(Path.of(scratchDir), "upload", suffix);
+        try {
+            try (InputStream in = source.getInputStream()) {
+                Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return function.apply(copy);
+        } finally {
+            Files.deleteIfExists(copy);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.bits.aidocassist.util;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Zugriff auf virtuelle Threads (Java 21+) per Reflection, damit der Code weiterhin
+ * für Java 17 kompiliert. Auf älteren Laufzeiten liefern alle Methoden Optional.empty().
+ */
+public final class VirtualThreads {
+
+    private static final boolean SUPPORTED = detect();
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    /**
+     * ThreadFactory für benannte virtuelle Threads (prefix-0, prefix-1, ...)
+     */
+    public static Optional<ThreadFactory> threadFactory(String prefix) {
+        if (!SUPPORTED) {
+            return Optional.empty();
+        }
+        try {
+            // Methoden über das öffentliche Interface Thread.Builder aufrufen, nicht über die interne Implementierung
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Method name = builderType.getMethod("name", String.class, long.class);
+            Method factory = builderType.getMethod("factory");
+            Object builder = name.invoke(Thread.class.getMethod("ofVirtual").invoke(null), prefix + "-", 0L);
+            return Optional.of((ThreadFactory) factory.invoke(builder));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Executor mit einem neuen virtuellen Thread pro Aufgabe (z.B. für Tomcat-Handler)
+     */
+    public static Optional<ExecutorService> newPerTaskExecutor() {
+        if (!SUPPORTED) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of((ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static boolean detect() {
+        try {
+            // Auf Java 19/20 existiert die Methode, wirft ohne --enable-preview aber eine Exception
+            Thread.class.getMethod("ofVirtual").invoke(null);
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package com.bits.aidocassist.util;
+
+import org.apache.poi.ooxml.POIXMLException;
+import org.apache.poi.openxml4j.exceptions.NotOfficeXmlFileException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Component;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * XLSX-Extraktion über das XSSF-Event-Modell: Zeilen werden per SAX gelesen und nicht gehalten.
+ * Kleine Tabellen erscheinen vollständig als Markdown-Tabelle, große als Spaltenprofil (Kopfzeile, Typ,
+ * Füllgrad, Kardinalität, Wertebereich) plus Stichprobe - Prompt und Speicher hängen nicht von der Zeilenzahl ab.
+ */
+@Component
+public class XlsxProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(XlsxProcessor.class);
+
+    private static final Pattern NUMBER = Pattern.compile("^[-+]?[\\d.,' ]*\\d%?$");
+    private static final Pattern DATE = Pattern.compile("^\\d{1,4}[./-]\\d{1,2}[./-]\\d{1,4}([ T].*)?$");
+
+    private static final int MAX_CELL_CHARS = 60;
+    private static final int EXAMPLE_VALUES = 3;
+
+    // Fester Seed: gleiche Datei, gleiche Stichprobe (Analyse-Cache, Facetten-Provenienz)
+    private static final long SAMPLE_SEED = 42L;
+
+    @Value("${ai.office.scratch-dir:${java.io.tmpdir}}")
+    private String scratchDir;
+
+    // Bis zu so vielen Datenzeilen wird ein Blatt vollständig ausgegeben, darüber profiliert
+    @Value("${ai.xlsx.full-rows-max:50}")
+    private int fullRowsMax;
+
+    @Value("${ai.xlsx.sample-rows:10}")
+    private int sampleRows;
+
+    @Value("${ai.xlsx.max-columns:40}")
+    private int maxColumns;
+
+    // Obergrenze der exakt gezählten eindeutigen Werte je Spalte
+    @Value("${ai.xlsx.max-distinct:1000}")
+    private int maxDistinct;
+
+    public String extractText(InputStreamSource source) throws IOException {
+        return UploadFiles.withFile(source, scratchDir, ".xlsx", this::extractText);
+    }
+
+    public String extractText(Path file) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+            DataFormatter formatter = new DataFormatter(Locale.GERMANY);
+
+            StringBuilder out = new StringBuilder();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream in = sheets.next()) {
+                    SheetProfile profile = new SheetProfile(sheets.getSheetName());
+                    XMLReader xml = XMLHelper.newXMLReader();
+                    xml.setContentHandler(new XSSFSheetXMLHandler(styles, strings, profile, formatter, false));
+                    xml.parse(new InputSource(in));
+                    profile.render(out);
+                    logger.debug("📊 Blatt '{}': {} Datenzeilen, {} Spalten",
+                        profile.name, profile.dataRows, profile.headers.size());
+                }
+            }
+            return out.toString().trim();
+        } catch (OpenXML4JException | NotOfficeXmlFileException | POIXMLException e) {
+            throw new IOException("Kein gültiges XLSX: " + e.getMessage(), e);
+        } catch (SAXException | ParserConfigurationException e) {
+            throw new IOException("XLSX nicht lesbar: " + e.getMessage(), e);
+        }
+    }
+
+    static String valueType(String value) {
+        if ("TRUE".equalsIgnoreCase(value) || "FALSE".equalsIgnoreCase(value)
+                || "WAHR".equalsIgnoreCase(value) || "FALSCH".equalsIgnoreCase(value)) {
+            return "Bool";
+        }
+        if (DATE.matcher(value).matches()) {
+            return "Datum";
+        }
+        if (NUMBER.matcher(value).matches()) {
+            return "Zahl";
+        }
+        return "Text";
+    }
+
+    private static String clip(String value) {
+        String flat = value.replace('\n', ' ').replace('|', '/').trim();
+        return flat.length() > MAX_CELL_CHARS ? flat.substring(0, MAX_CELL_CHARS - 1) + "…" : flat;
+    }
+
+    private static void appendRow(StringBuilder out, List<String> cells) {
+        out.append("| ");
+        for (int i = 0; i < cells.size(); i++) {
+            out.append(i > 0 ? " | " : "").append(clip(cells.get(i)));
+        }
+        out.append(" |\n");
+    }
+
+    // ========================================
+    // BLATT-PROFIL
+    // ========================================
+
+    /**
+     * Sammelt je Blatt nur Spaltenstatistiken, die ersten Zeilen und eine Reservoir-Stichprobe fester Größe
+     */
+    private final class SheetProfile implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final String name;
+        private final List<String> headers = new ArrayList<>();
+        private final List<ColumnStats> columns = new ArrayList<>();
+        private final List<String[]> firstRows = new ArrayList<>();
+        private final List<String[]> sample = new ArrayList<>();
+        private final Random random = new Random(SAMPLE_SEED);
+
+        private String[] row;
+        private int nextColumn;
+        private boolean rowHasValue;
+        private boolean headerDone;
+        private int dataRows;
+        private int widestRow;
+
+        SheetProfile(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            row = new String[maxColumns];
+            nextColumn = 0;
+            rowHasValue = false;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : nextColumn;
+            nextColumn = column + 1;
+            if (formattedValue == null || formattedValue.isBlank()) {
+                return;
+            }
+            widestRow = Math.max(widestRow, column + 1);
+            if (column < maxColumns) {
+                row[column] = formattedValue.trim();
+                rowHasValue = true;
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (!rowHasValue) {
+                return;
+            }
+            if (!headerDone) {
+                headerDone = true;
+                int width = lastFilled(row) + 1;
+                for (int i = 0; i < width; i++) {
+                    headers.add(row[i] != null ? row[i] : "Spalte " + CellReference.convertNumToColString(i));
+                    columns.add(new ColumnStats());
+                }
+                return;
+            }
+            String[] values = Arrays.copyOf(row, Math.max(headers.size(), lastFilled(row) + 1));
+            while (headers.size() < values.length) {
+                headers.add("Spalte " + CellReference.convertNumToColString(headers.size()));
+                ColumnStats stats = new ColumnStats();
+                stats.empty = dataRows;
+                columns.add(stats);
+            }
+            for (int i = 0; i < columns.size(); i++) {
+                columns.get(i).add(i < values.length ? values[i] : null);
+            }
+
+            dataRows++;
+            if (firstRows.size() <= fullRowsMax) {
+                firstRows.add(values);
+            }
+            // Reservoir-Sampling (Algorithmus R)
+            if (sample.size() < sampleRows) {
+                sample.add(values);
+            } else {
+                int slot = random.nextInt(dataRows);
+                if (slot < sampleRows) {
+                    sample.set(slot, values);
+                }
+            }
+        }
+
+        private int lastFilled(String[] values) {
+            for (int i = values.length - 1; i >= 0; i--) {
+                if (values[i] != null) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void render(StringBuilder out) {
+            if (!headerDone) {
+                return;
+            }
+            boolean profiled = dataRows > fullRowsMax;
+            out.append("## Tabelle: ").append(name);
+            if (profiled) {
+                out.append(" (").append(dataRows).append(" Zeilen, ").append(headers.size()).append(" Spalten)");
+            }
+            out.append("\n\n");
+            if (widestRow > maxColumns) {
+                out.append("Hinweis: nur die ersten ").append(maxColumns).append(" von ").append(widestRow)
+                    .append(" Spalten berücksichtigt\n\n");
+            }
+
+            if (profiled) {
+                out.append("| Spalte | Typ | Gefüllt | Eindeutig | Werte |\n| --- | --- | --- | --- | --- |\n");
+                for (int i = 0; i < headers.size(); i++) {
+                    ColumnStats stats = columns.get(i);
+                    appendRow(out, List.of(headers.get(i), stats.type(), (dataRows - stats.empty) + "/" + dataRows,
+                        stats.distinctLabel(), stats.valuesLabel()));
+                }
+                out.append("\nStichprobe (").append(sample.size()).append(" Zeilen):\n\n");
+            }
+
+            appendRow(out, headers);
+            out.append("|").append(" --- |".repeat(headers.size())).append('\n');
+            for (String[] values : profiled ? sample : firstRows) {
+                List<String> cells = new ArrayList<>(headers.size());
+                for (int i = 0; i < headers.size(); i++) {
+                    cells.add(i < values.length && values[i] != null ? values[i] : "");
+                }
+                appendRow(out, cells);
+            }
+            out.append('\n');
+        }
+    }
+
+    private final class ColumnStats {
+        private int empty;
+        private final int[] typeCounts = new int[4];
+        private final Set<String> distinct = new HashSet<>();
+        private boolean distinctOverflow;
+        private final Set<String> examples = new LinkedHashSet<>();
+        private Double min;
+        private Double max;
+
+        void add(String value) {
+            if (value == null) {
+                empty++;
+                return;
+            }
+            String type = valueType(value);
+            typeCounts[typeIndex(type)]++;
+            if (!distinctOverflow) {
+                distinct.add(value);
+                if (distinct.size() > maxDistinct) {
+                    distinctOverflow = true;
+                    distinct.clear();
+                }
+            }
+            if ("Zahl".equals(type)) {
+                Double number = parseNumber(value);
+                if (number != null) {
+                    min = min == null ? number : Math.min(min, number);
+                    max = max == null ? number : Math.max(max, number);
+                }
+            }
+            if (examples.size() < EXAMPLE_VALUES) {
+                examples.add(value);
+            }
+        }
+
+        String type() {
+            String[] names = {"Bool", "Datum", "Zahl", "Text"};
+            int filled = Arrays.stream(typeCounts).sum();
+            if (filled == 0) {
+                return "leer";
+            }
+            int best = 0;
+            for (int i = 1; i < typeCounts.length; i++) {
+                if (typeCounts[i] > typeCounts[best]) {
+                    best = i;
+                }
+            }
+            return typeCounts[best] == filled ? names[best] : names[best] + " (gemischt)";
+        }
+
+        String distinctLabel() {
+            return distinctOverflow ? ">" + maxDistinct : String.valueOf(distinct.size());
+        }
+
+        String valuesLabel() {
+            if (min != null && "Zahl".equals(type())) {
+                return format(min) + " … " + format(max);
+            }
+            StringBuilder label = new StringBuilder();
+            Iterator<String> values = examples.iterator();
+            while (values.hasNext()) {
+                label.append(clip(values.next()));
+                if (values.hasNext()) {
+                    label.append(", ");
+                }
+            }
+            return label.toString();
+        }
+
+        private int typeIndex(String type) {
+            switch (type) {
+                case "Bool":
+                    return 0;
+                case "Datum":
+                    return 1;
+                case "Zahl":
+                    return 2;
+                default:
+                    return 3;
+            }
+        }
+    }
+
+    /**
+     * Zahl im deutschen Format des DataFormatter (1.234,5) oder mit Punkt als Dezimaltrenner
+     */
+    private static Double parseNumber(String value) {
+        String plain = value.replace("%", "").replace(" ", "").replace("'", "");
+        if (plain.contains(",")) {
+            plain = plain.replace(".", "").replace(',', '.');
+        } else if (plain.indexOf('.') != plain.lastIndexOf('.')) {
+            plain = plain.replace(".", "");
+        }
+        try {
+            return Double.parseDouble(plain);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15
+            ? String.valueOf((long) value)
+            : String.format(Locale.ROOT, "%.2f", value);
+    }
+}
@@ -0,0 +1,206 @@
+package com.bits.aidocassist.test;
+
+import com.bits.aidocassist.model.AnalysisJob;
+import com.bits.aidocassist.repository.AnalysisJobRepository;
+import com.bits.aidocassist.service.AnalysisJobService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AnalysisJobServiceTest {
+
+    @Autowired
+    private AnalysisJobService analysisJobService;
+
+    @Autowired
+    private AnalysisJobRepository jobRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private Object processor;
+    private final List<Long> createdJobs = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        // Ohne Processor verteilt dispatch() nichts, die Tests steuern Claim und Requeue selbst
+        processor = ReflectionTestUtils.getField(analysisJobService, "processor");
+        ReflectionTestUtils.setField(analysisJobService, "processor", null);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        createdJobs.forEach(jobRepository::deleteById);
+        ReflectionTestUtils.setField(analysisJobService, "processor", processor);
+    }
+
+    @Test
+    public void testFullQueueReturns429WithRetryAfter() throws Exception {
+        int capacity = (int) ReflectionTestUtils.getField(analysisJobService, "queueCapacity");
+        ReflectionTestUtils.setField(analysisJobService, "queueCapacity", 0);
+        try {
+            long queuedBefore = jobRepository.countByStatus(AnalysisJob.Status.QUEUED);
+            MvcResult result = mockMvc.perform(multipart("/api/documents/jobs")
+                    .file(new MockMultipartFile("file", "lastenheft.txt", "text/plain",
+                        "REST-API mit Spring Boot".getBytes(StandardCharsets.UTF_8))))
+                .andExpect(status().isTooManyRequests())
+                .andReturn();
+
+            long retryAfter = Long.parseLong(result.getResponse().getHeader(HttpHeaders.RETRY_AFTER));
+            assertTrue(retryAfter >= 1 && retryAfter <= 3600, "Retry-After: " + retryAfter);
+            assertEquals(queuedBefore, jobRepository.countByStatus(AnalysisJob.Status.QUEUED));
+        } finally {
+            ReflectionTestUtils.setField(analysisJobService, "queueCapacity", capacity);
+        }
+    }
+
+    @Test
+    public void testConcurrentClaimHasSingleWinner() throws Exception {
+        AnalysisJob job = saveJob(AnalysisJob.Status.QUEUED, null, null);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> claims = new ArrayList<>();
+            for (String owner : List.of("instance-a", "instance-b")) {
+                claims.add(executor.submit(() -> {
+                    start.await();
+                    return jobRepository.claim(job.getId(), new Date(), owner);
+                }));
+            }
+            start.countDown();
+
+            int won = 0;
+            for (Future<Integer> claim : claims) {
+                won += claim.get(10, TimeUnit.SECONDS);
+            }
+            assertEquals(1, won);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        AnalysisJob claimed = jobRepository.findById(job.getId()).orElseThrow();
+        assertEquals(AnalysisJob.Status.RUNNING, claimed.getStatus());
+        assertEquals(1, claimed.getAttempts());
+        assertTrue(List.of("instance-a", "instance-b").contains(claimed.getOwner()));
+    }
+
+    @Test
+    public void testRequeueRespectsLeaseOfOtherInstances() {
+        Date now = new Date();
+        Date expired = new Date(now.getTime() - TimeUnit.HOURS.toMillis(2));
+        AnalysisJob own = saveJob(AnalysisJob.Status.RUNNING, analysisJobService.getInstanceId(), now);
+        AnalysisJob foreignActive = saveJob(AnalysisJob.Status.RUNNING, "other-host:8080", now);
+        AnalysisJob foreignExpired = saveJob(AnalysisJob.Status.RUNNING, "other-host:8080", expired);
+
+        // Laufend: nur der fremde Job mit abgelaufenem Lease
+        analysisJobService.requeueExpiredLeases();
+        assertEquals(AnalysisJob.Status.RUNNING, statusOf(own));
+        assertEquals(AnalysisJob.Status.RUNNING, statusOf(foreignActive));
+        assertEquals(AnalysisJob.Status.QUEUED, statusOf(foreignExpired));
+
+        // Neustart: zusätzlich die eigenen, der fremde aktive Job bleibt bei seiner Instanz
+        ReflectionTestUtils.invokeMethod(analysisJobService, "recoverOrphanedJobs", true);
+        assertEquals(AnalysisJob.Status.QUEUED, statusOf(own));
+        assertEquals(AnalysisJob.Status.RUNNING, statusOf(foreignActive));
+    }
+
+    @Test
+    public void testHeartbeatKeepsLongRunningJobLeased() {
+        Date longAgo = new Date(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2));
+        AnalysisJob running = saveJob(AnalysisJob.Status.RUNNING, "other-host:8080", longAgo);
+
+        // Gestartet vor zwei Stunden, aber der Heartbeat der anderen Instanz ist frisch
+        assertEquals(1, jobRepository.renewLeases(List.of(running.getId()), "other-host:8080", new Date()));
+        analysisJobService.requeueExpiredLeases();
+        assertEquals(AnalysisJob.Status.RUNNING, statusOf(running));
+
+        // Heartbeats fremder Instanzen verlängern nichts
+        assertEquals(0, jobRepository.renewLeases(List.of(running.getId()), analysisJobService.getInstanceId(), new Date()));
+    }
+
+    @Test
+    public void testOrphanFailsAfterMaxAttempts() {
+        int maxAttempts = (int) ReflectionTestUtils.getField(analysisJobService, "maxAttempts");
+        Date expired = new Date(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2));
+        AnalysisJob exhausted = saveJob(AnalysisJob.Status.RUNNING, "other-host:8080", expired, maxAttempts);
+        AnalysisJob retryable = saveJob(AnalysisJob.Status.RUNNING, "other-host:8080", expired, maxAttempts - 1);
+
+        analysisJobService.requeueExpiredLeases();
+
+        AnalysisJob failed = jobRepository.findById(exhausted.getId()).orElseThrow();
+        assertEquals(AnalysisJob.Status.FAILED, failed.getStatus());
+        assertNull(failed.getOwner());
+        assertNotNull(failed.getError());
+        assertNotNull(failed.getFinishedAt());
+        assertEquals(AnalysisJob.Status.QUEUED, statusOf(retryable));
+    }
+
+    @Test
+    public void testFinishRequiresOwnership() {
+        AnalysisJob job = saveJob(AnalysisJob.Status.QUEUED, null, null);
+        assertEquals(1, jobRepository.claim(job.getId(), new Date(), "instance-a"));
+
+        // Lease abgelaufen, instance-b hat übernommen: das späte Ergebnis von instance-a überschreibt nichts
+        jobRepository.requeueOrphaned("instance-b", false, new Date(System.currentTimeMillis() + 1000), 3);
+        assertEquals(1, jobRepository.claim(job.getId(), new Date(), "instance-b"));
+
+        assertEquals(0, jobRepository.finish(job.getId(), "instance-a", AnalysisJob.Status.FAILED, null, "zu spät", new Date()));
+        assertEquals(AnalysisJob.Status.RUNNING, statusOf(job));
+
+        assertEquals(1, jobRepository.finish(job.getId(), "instance-b", AnalysisJob.Status.COMPLETED, 42L, null, new Date()));
+        AnalysisJob finished = jobRepository.findById(job.getId()).orElseThrow();
+        assertEquals(AnalysisJob.Status.COMPLETED, finished.getStatus());
+        assertEquals(42L, finished.getDocumentId());
+        assertNull(finished.getOwner());
+    }
+
+    private AnalysisJob saveJob(AnalysisJob.Status status, String owner, Date startedAt) {
+        return saveJob(status, owner, startedAt, 0);
+    }
+
+    private AnalysisJob saveJob(AnalysisJob.Status status, String owner, Date startedAt, int attempts) {
+        AnalysisJob job = new AnalysisJob();
+        job.setFilename("lease-test.txt");
+        job.setFileType("text/plain");
+        job.setStatus(status);
+        job.setOwner(owner);
+        job.setStartedAt(startedAt);
+        job.setLeaseRenewedAt(startedAt);
+        job.setAttempts(attempts);
+        job = jobRepository.save(job);
+        createdJobs.add(job.getId());
+        return job;
+    }
+
+    private AnalysisJob.Status statusOf(AnalysisJob job) {
+        return jobRepository.findById(job.getId()).orElseThrow().getStatus();
+    }
+}
@@ -0,0 +1,149 @@
+package com.bits.aidocassist.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bits.aidocassist.service.AnalysisOrchestrator;
+import com.bits.aidocassist.service.LaneScheduler;
+import com.bits.aidocassist.util.CallCancellation;
+import com.bits.aidocassist.util.Deadline;
+
+public class AnalysisOrchestratorTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private LaneScheduler laneScheduler;
+    private AnalysisOrchestrator orchestrator;
+
+    @BeforeEach
+    public void setUp() {
+        laneScheduler = new LaneScheduler();
+        ReflectionTestUtils.setField(laneScheduler, "maxConcurrent", 16);
+        ReflectionTestUtils.invokeMethod(laneScheduler, "init");
+        orchestrator = new AnalysisOrchestrator();
+        ReflectionTestUtils.setField(orchestrator, "laneScheduler", laneScheduler);
+        ReflectionTestUtils.setField(orchestrator, "aiIoExecutor", executor);
+        ReflectionTestUtils.setField(orchestrator, "defaultTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(orchestrator, "nodeTimeoutsConfig", "slow:200");
+        ReflectionTestUtils.setField(orchestrator, "completeInBackground", true);
+        ReflectionTestUtils.invokeMethod(orchestrator, "init");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testDependentNodeStartsAfterItsInput() {
+        long start = System.currentTimeMillis();
+        AnalysisOrchestrator.AnalysisPlan plan = orchestrator.plan()
+            .node("classification", List.of(), inputs -> sleepAndReturn(300, "Technische Dokumentation"))
+            .node("keywords", List.of(), inputs -> sleepAndReturn(300, "Spring, Angular"))
+            .node("summary", List.of("classification"), inputs -> "Zusammenfassung für " + inputs.get("classification"));
+
+        AnalysisOrchestrator.AnalysisResult result = orchestrator.run(plan).join();
+
+        assertEquals("Zusammenfassung für Technische Dokumentation", result.get("summary"));
+        assertEquals("Spring, Angular", result.get("keywords"));
+        // classification und keywords laufen parallel
+        assertTrue(System.currentTimeMillis() - start < 550);
+        assertEquals(AnalysisOrchestrator.NodeStatus.OK, result.getReports().get("summary").getStatus());
+    }
+
+    @Test
+    public void testTimedOutNodeUsesFallback() {
+        AnalysisOrchestrator.AnalysisPlan plan = orchestrator.plan()
+            .asyncNode("slow", List.of(), inputs -> new CompletableFuture<String>())
+            .fallback("slow", inputs -> "lokaler Fallback")
+            .node("after", List.of("slow"), inputs -> inputs.get("slow") + " übernommen");
+
+        AnalysisOrchestrator.AnalysisResult result = orchestrator.run(plan).join();
+
+        assertEquals(AnalysisOrchestrator.NodeStatus.TIMED_OUT, result.getReports().get("slow").getStatus());
+        assertEquals("lokaler Fallback übernommen", result.get("after"));
+    }
+
+    @Test
+    public void testDeadlineReturnsPartialResultAndKeepsSlowNodeRunning() {
+        CompletableFuture<String> llmCall = new CompletableFuture<>();
+        AnalysisOrchestrator.AnalysisPlan plan = orchestrator.plan()
+            .node("keywords", List.of(), inputs -> "Spring, Angular")
+            .asyncNode("summary", List.of(), inputs -> llmCall)
+            .fallback("summary", inputs -> "lokaler Fallback");
+
+        long start = System.currentTimeMillis();
+        AnalysisOrchestrator.AnalysisResult result = orchestrator.run(plan, Deadline.after(300)).join();
+
+        assertTrue(System.currentTimeMillis() - start < 1000);
+        assertEquals("Spring, Angular", result.get("keywords"));
+        assertEquals("lokaler Fallback", result.get("summary"));
+        assertEquals(AnalysisOrchestrator.NodeStatus.DEADLINE_EXCEEDED, result.getReports().get("summary").getStatus());
+        assertEquals(List.of("summary"), result.getDegraded());
+
+        // Der eigentliche Aufruf läuft weiter und liefert sein Ergebnis nach
+        llmCall.complete("KI-Zusammenfassung");
+        assertEquals("KI-Zusammenfassung", result.getPending().get("summary").join());
+    }
+
+    @Test
+    public void testTimedOutNodeAbortsCallAndFreesSlot() throws InterruptedException {
+        ReflectionTestUtils.setField(laneScheduler, "maxConcurrent", 1);
+        CountDownLatch aborted = new CountDownLatch(1);
+        AnalysisOrchestrator.AnalysisPlan plan = orchestrator.plan()
+            .node("slow", List.of(), inputs -> blockUntilAborted(aborted))
+            .fallback("slow", inputs -> "lokaler Fallback");
+
+        AnalysisOrchestrator.AnalysisResult result = orchestrator.run(plan).join();
+
+        assertEquals(AnalysisOrchestrator.NodeStatus.TIMED_OUT, result.getReports().get("slow").getStatus());
+        assertTrue(aborted.await(1, TimeUnit.SECONDS), "Laufender Aufruf nicht abgebrochen");
+        assertEquals(0, laneScheduler.getStats(LaneScheduler.Lane.INTERACTIVE).getRunning());
+
+        // Einziger Slot ist wieder frei: der nächste Knoten startet sofort statt nach der hängenden Antwort
+        long start = System.currentTimeMillis();
+        AnalysisOrchestrator.AnalysisResult next = orchestrator.run(orchestrator.plan()
+            .node("keywords", List.of(), inputs -> "Spring, Angular")).join();
+        assertEquals(AnalysisOrchestrator.NodeStatus.OK, next.getReports().get("keywords").getStatus());
+        assertTrue(System.currentTimeMillis() - start < 500);
+    }
+
+    /**
+     * Wie ein blockierender Socket-Read: endet erst, wenn der Aufruf über seinen Abbruch-Bereich beendet wird
+     */
+    private static String blockUntilAborted(CountDownLatch aborted) {
+        CountDownLatch abort = new CountDownLatch(1);
+        Runnable unregister = CallCancellation.onCancel(() -> {
+            abort.countDown();
+            aborted.countDown();
+        });
+        try {
+            abort.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            unregister.run();
+        }
+        return "zu spät";
+    }
+
+    private static String sleepAndReturn(long millis, String value) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+}
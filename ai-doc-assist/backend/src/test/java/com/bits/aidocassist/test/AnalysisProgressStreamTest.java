@@ -0,0 +1,109 @@
+package com.bits.aidocassist.test;
+
+import com.bits.aidocassist.model.AnalysisJob;
+import com.bits.aidocassist.repository.AnalysisJobRepository;
+import com.bits.aidocassist.service.AnalysisProgressService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AnalysisProgressStreamTest {
+
+    private static final Pattern EVENT_NAME = Pattern.compile("(?m)^event:(\\S+)$");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AnalysisProgressService progressService;
+
+    @Autowired
+    private AnalysisJobRepository jobRepository;
+
+    private final List<Long> createdJobs = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        createdJobs.forEach(jobRepository::deleteById);
+    }
+
+    @Test
+    public void testSubscriberGetsHistoryThenLiveEventsUntilCompleted() throws Exception {
+        // Fertig gespeichert, damit der Worker-Pool den Job nicht selbst verarbeitet
+        Long jobId = saveJob(AnalysisJob.Status.COMPLETED).getId();
+        progressService.publish(jobId, AnalysisProgressService.EVENT_QUEUED, Map.of("queuePosition", 0));
+        progressService.publish(jobId, AnalysisProgressService.EVENT_STARTED, Map.of("attempt", 1));
+
+        MvcResult stream = mockMvc.perform(get("/api/documents/jobs/" + jobId + "/events"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        assertEquals(List.of("queued", "started"), eventNames(stream));
+
+        progressService.publish(jobId, AnalysisProgressService.EVENT_FACET, Map.of("facet", "summary"));
+        progressService.publish(jobId, AnalysisProgressService.EVENT_COMPLETED, Map.of("documentId", 7));
+
+        assertEquals(List.of("queued", "started", "facet", "completed"), eventNames(stream));
+        assertTrue(stream.getResponse().getContentAsString().contains("\"documentId\":7"));
+
+        // Nach dem Abschluss verbunden: kompletter Verlauf, Stream endet sofort
+        MvcResult late = mockMvc.perform(get("/api/documents/jobs/" + jobId + "/events")).andReturn();
+        assertEquals(List.of("queued", "started", "facet", "completed"), eventNames(late));
+    }
+
+    @Test
+    public void testFinishedJobWithoutHistoryReportsStoredStatus() throws Exception {
+        // Verlauf nicht mehr im Speicher (z.B. nach Neustart): Endstatus aus der Tabelle
+        AnalysisJob job = saveJob(AnalysisJob.Status.FAILED);
+
+        MvcResult stream = mockMvc.perform(get("/api/documents/jobs/" + job.getId() + "/events")).andReturn();
+
+        assertEquals(List.of("failed"), eventNames(stream));
+        assertTrue(stream.getResponse().getContentAsString().contains("Extraktion fehlgeschlagen"));
+    }
+
+    @Test
+    public void testUnknownJobReturns404() throws Exception {
+        mockMvc.perform(get("/api/documents/jobs/" + Long.MAX_VALUE + "/events"))
+            .andExpect(status().isNotFound());
+    }
+
+    private AnalysisJob saveJob(AnalysisJob.Status status) {
+        AnalysisJob job = new AnalysisJob();
+        job.setFilename("progress-test.txt");
+        job.setFileType("text/plain");
+        job.setStatus(status);
+        job.setError(status == AnalysisJob.Status.FAILED ? "Extraktion fehlgeschlagen" : null);
+        job.setFinishedAt(new Date());
+        job = jobRepository.save(job);
+        createdJobs.add(job.getId());
+        return job;
+    }
+
+    private static List<String> eventNames(MvcResult result) throws Exception {
+        List<String> names = new ArrayList<>();
+        Matcher matcher = EVENT_NAME.matcher(result.getResponse().getContentAsString());
+        while (matcher.find()) {
+            names.add(matcher.group(1));
+        }
+        return names;
+    }
+}
@@ -0,0 +1,132 @@
+package com.bits.aidocassist.test;
+
+import com.bits.aidocassist.client.AsyncChatCompletionClient;
+import com.bits.aidocassist.client.ChatCompletionClient;
+import com.bits.aidocassist.client.ChatCompletionCodec;
+import com.bits.aidocassist.client.ChatCompletionRequest;
+import com.bits.aidocassist.client.ChatCompletionResponse;
+import com.bits.aidocassist.demo.MockLlmServer;
+import com.bits.aidocassist.service.HedgingPolicy;
+import com.bits.aidocassist.util.CallCancellation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncChatCompletionClientTest {
+
+    private static final ChatCompletionRequest REQUEST = ChatCompletionRequest.of("gpt-4o-mini",
+        "Du bist ein Experte.", "Extrahiere Keywords.\nTEXT:\nAngular und Spring Boot mit PostgreSQL.\nJSON-OUTPUT:", 100, 0.2);
+
+    private ExecutorService executor;
+    private MockLlmServer server;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (server != null) {
+            server.stop();
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * Client gegen den Mock-Server (oder ohne Mock gegen apiUrl), Hedging aus
+     */
+    private AsyncChatCompletionClient client(MockLlmServer mock, String apiUrl) {
+        ChatCompletionCodec codec = new ChatCompletionCodec(new ObjectMapper());
+        HedgingPolicy hedgingPolicy = new HedgingPolicy(200, executor);
+        ReflectionTestUtils.setField(hedgingPolicy, "enabled", false);
+
+        ChatCompletionClient blockingClient = new ChatCompletionClient();
+        ReflectionTestUtils.setField(blockingClient, "apiKey", "");
+        ReflectionTestUtils.setField(blockingClient, "apiUrl", apiUrl);
+        ReflectionTestUtils.setField(blockingClient, "codec", codec);
+        ReflectionTestUtils.setField(blockingClient, "hedgingPolicy", hedgingPolicy);
+        StaticListableBeanFactory beans = mock != null
+            ? new StaticListableBeanFactory(Map.of("mockLlmServer", mock))
+            : new StaticListableBeanFactory();
+        ReflectionTestUtils.setField(blockingClient, "mockLlmServer", beans.getBeanProvider(MockLlmServer.class));
+
+        AsyncChatCompletionClient client = new AsyncChatCompletionClient();
+        ReflectionTestUtils.setField(client, "connectTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(client, "requestTimeoutMs", 10000L);
+        ReflectionTestUtils.setField(client, "blockingClient", blockingClient);
+        ReflectionTestUtils.setField(client, "codec", codec);
+        ReflectionTestUtils.setField(client, "hedgingPolicy", hedgingPolicy);
+        ReflectionTestUtils.setField(client, "httpExecutor", executor);
+        ReflectionTestUtils.invokeMethod(client, "init");
+        return client;
+    }
+
+    private AsyncChatCompletionClient startMock(long latencyMs, double rate429, double rate5xx) throws Exception {
+        server = new MockLlmServer(0, latencyMs, latencyMs, rate429, rate5xx, 24, 0, 42);
+        server.start();
+        return client(server, "http://unused");
+    }
+
+    @Test
+    public void testSuccessfulCall() throws Exception {
+        ChatCompletionResponse response = startMock(0, 0.0, 0.0).completeAsync(REQUEST, "keywords").get(10, TimeUnit.SECONDS);
+
+        assertEquals("gpt-4o-mini", response.model());
+        assertTrue(response.content().startsWith("{\"projekt\""), response.content());
+    }
+
+    @Test
+    public void testHttpErrorsMapLikeRestTemplate() throws Exception {
+        HttpClientErrorException rateLimited = assertThrows(HttpClientErrorException.class,
+            () -> startMock(0, 1.0, 0.0).complete(REQUEST, "keywords"));
+        assertEquals(429, rateLimited.getRawStatusCode());
+        server.stop();
+
+        HttpServerErrorException serverError = assertThrows(HttpServerErrorException.class,
+            () -> startMock(0, 0.0, 1.0).complete(REQUEST, "keywords"));
+        assertTrue(serverError.getRawStatusCode() >= 500);
+
+        // Keine Verbindung: wie beim RestTemplate eine ResourceAccessException
+        AsyncChatCompletionClient unreachable = client(null, "http://127.0.0.1:1/v1/chat/completions");
+        CompletionException error = assertThrows(CompletionException.class,
+            () -> unreachable.completeAsync(REQUEST, "keywords").join());
+        assertTrue(error.getCause() instanceof ResourceAccessException, String.valueOf(error.getCause()));
+    }
+
+    @Test
+    public void testCancellationAbortsPendingCall() throws Exception {
+        AsyncChatCompletionClient client = startMock(5000, 0.0, 0.0);
+
+        CallCancellation cancellation = new CallCancellation();
+        CompletableFuture<ChatCompletionResponse> response = cancellation.call(() -> client.completeAsync(REQUEST, "keywords"));
+        TimeUnit.MILLISECONDS.sleep(200);
+        assertFalse(response.isDone());
+
+        long start = System.currentTimeMillis();
+        cancellation.cancel();
+        CompletionException error = assertThrows(CompletionException.class, response::join);
+
+        assertTrue(error.getCause() instanceof CancellationException, String.valueOf(error.getCause()));
+        assertTrue(System.currentTimeMillis() - start < 1000);
+    }
+}
@@ -0,0 +1,169 @@
+package com.bits.aidocassist.test;
+
+import com.bits.aidocassist.client.ChatCompletionClient;
+import com.bits.aidocassist.client.ChatCompletionRequest;
+import com.bits.aidocassist.client.ChatCompletionResponse;
+import com.bits.aidocassist.client.ChatUsage;
+import com.bits.aidocassist.model.BatchImportJob;
+import com.bits.aidocassist.model.Document;
+import com.bits.aidocassist.repository.BatchImportJobRepository;
+import com.bits.aidocassist.repository.DocumentRepository;
+import com.bits.aidocassist.service.AiService;
+import com.bits.aidocassist.service.BatchImportService;
+import com.bits.aidocassist.service.BatchProvider;
+import com.bits.aidocassist.service.DocumentService;
+import com.bits.aidocassist.service.LocalBatchProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class BatchImportServiceTest {
+
+    private static final String SUMMARY = "**Zusammenfassung:** REST-API mit Spring Boot aus dem Offline-Batch";
+
+    @Autowired
+    private BatchImportService batchImportService;
+
+    @Autowired
+    private BatchImportJobRepository batchImportJobRepository;
+
+    @Autowired
+    private LocalBatchProvider localBatchProvider;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Value("${ai.batch.work-dir}")
+    private String workDir;
+
+    private Object originalChatClient;
+    private final AtomicInteger llmCalls = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        // Lokaler Provider antwortet ohne Netz: jede Batch-Zeile bekommt dieselbe Zusammenfassung
+        originalChatClient = ReflectionTestUtils.getField(localBatchProvider, "chatClient");
+        ReflectionTestUtils.setField(localBatchProvider, "chatClient", new ChatCompletionClient() {
+            @Override
+            public ChatCompletionResponse complete(ChatCompletionRequest request, String type) {
+                llmCalls.incrementAndGet();
+                return new ChatCompletionResponse("batch-stub", SUMMARY, "stop", ChatUsage.EMPTY);
+            }
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ReflectionTestUtils.setField(localBatchProvider, "chatClient", originalChatClient);
+    }
+
+    @Test
+    public void testLocalBatchIsPersistedAppliedAndEvicted() throws Exception {
+        Document document = new Document();
+        document.setTitle("Lastenheft Offline");
+        document.setContent("REST-API mit Spring Boot und PostgreSQL für die Angebotsverwaltung");
+        document = documentService.saveDocument(document);
+
+        BatchImportJob submitted = batchImportService.submitImport(List.of(document), Set.of(AiService.FACET_SUMMARY));
+        assertEquals(BatchImportJob.Status.SUBMITTED, submitted.getStatus());
+        assertEquals(1, submitted.getRequestCount());
+
+        // Steht in der Tabelle, nicht nur im Speicher des Services
+        BatchImportJob stored = batchImportJobRepository.findById(submitted.getId()).orElseThrow();
+        assertEquals(submitted.getProviderBatchId(), stored.getProviderBatchId());
+        assertEquals(List.of(document.getId()), stored.getDocumentIds());
+        assertEquals(Set.of(AiService.FACET_SUMMARY), stored.getFacets());
+
+        BatchImportJob job = awaitFinished(submitted);
+
+        assertEquals(BatchImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(1, job.getCompletedRequests());
+        assertEquals(0, job.getFailedRequests());
+        assertNotNull(job.getCompletedAt());
+        assertEquals(SUMMARY, documentRepository.findById(document.getId()).orElseThrow().getSummary());
+
+        // Request-Datei (voller Dokumenttext) und Ergebnisdatei sind nach der Übernahme weg
+        assertFalse(Files.exists(requestFile(job)));
+        assertFalse(Files.exists(outputFile(job)));
+
+        // Innerhalb der Aufbewahrung bleibt der Job abrufbar, danach wird er entfernt
+        batchImportService.evictFinishedJobs();
+        assertNotNull(batchImportService.getJob(job.getId()));
+
+        job.setCompletedAt(new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(30)));
+        batchImportJobRepository.save(job);
+        assertTrue(batchImportService.evictFinishedJobs() >= 1);
+        assertNull(batchImportService.getJob(job.getId()));
+    }
+
+    @Test
+    public void testLocalBatchResumesAfterRestart() throws Exception {
+        Document document = new Document();
+        document.setTitle("Lastenheft Neustart");
+        document.setContent("Angular-Frontend mit Spring Boot Backend und Keycloak-Anmeldung");
+        document = documentService.saveDocument(document);
+
+        BatchImportJob submitted = batchImportService.submitImport(List.of(document), Set.of(AiService.FACET_SUMMARY));
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (localBatchProvider.getState(submitted.getProviderBatchId()).getStatus() != BatchProvider.Status.COMPLETED
+                && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        assertEquals(1, llmCalls.get());
+
+        // Neustart: der Provider kennt den Batch nicht mehr, Request- und Ausgabedatei liegen noch im Arbeitsverzeichnis
+        ((Map<?, ?>) ReflectionTestUtils.getField(localBatchProvider, "batches")).clear();
+
+        BatchImportJob job = awaitFinished(submitted);
+
+        assertEquals(BatchImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(1, job.getCompletedRequests());
+        // Bereits beantwortete Zeile wird übernommen, nicht erneut angefragt
+        assertEquals(1, llmCalls.get());
+        assertEquals(SUMMARY, documentRepository.findById(document.getId()).orElseThrow().getSummary());
+        assertFalse(Files.exists(requestFile(job)));
+    }
+
+    private BatchImportJob awaitFinished(BatchImportJob submitted) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        BatchImportJob job = batchImportService.getJob(submitted.getId());
+        while (job.getStatus() == BatchImportJob.Status.SUBMITTED && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(50);
+            batchImportService.pollPendingJobs();
+            job = batchImportService.getJob(submitted.getId());
+        }
+        return job;
+    }
+
+    private Path requestFile(BatchImportJob job) {
+        return Paths.get(workDir).resolve("batch-" + job.getId() + ".jsonl");
+    }
+
+    private Path outputFile(BatchImportJob job) {
+        return Paths.get(workDir).resolve("batch-" + job.getId() + "-output.jsonl");
+    }
+}
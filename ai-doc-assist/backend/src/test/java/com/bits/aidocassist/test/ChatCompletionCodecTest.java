@@ -0,0 +1,49 @@
+package com.bits.aidocassist.test;
+
+import com.bits.aidocassist.client.ChatCompletionCodec;
+import com.bits.aidocassist.client.ChatCompletionRequest;
+import com.bits.aidocassist.client.ChatCompletionResponse;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ChatCompletionCodecTest {
+
+    private final ChatCompletionCodec codec = new ChatCompletionCodec(new ObjectMapper());
+
+    @Test
+    public void testReadResponseSkipsUnknownFields() throws Exception {
+        String json = "{\"id\":\"x\",\"object\":\"chat.completion\",\"model\":\"gpt-4o-mini\","
+            + "\"choices\":[{\"index\":0,\"logprobs\":{\"content\":[]},"
+            + "\"message\":{\"role\":\"assistant\",\"content\":\"Hallo \\\"Welt\\\"\"},\"finish_reason\":\"stop\"},"
+            + "{\"index\":1,\"message\":{\"content\":\"zweite\"}}],"
+            + "\"usage\":{\"prompt_tokens\":12,\"completion_tokens\":3,\"total_tokens\":15,"
+            + "\"prompt_tokens_details\":{\"cached_tokens\":0}}}";
+
+        ChatCompletionResponse response = codec.readResponse(
+            new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("gpt-4o-mini", response.model());
+        assertEquals("Hallo \"Welt\"", response.content());
+        assertEquals("stop", response.finishReason());
+        assertEquals(12, response.usage().promptTokens());
+        assertEquals(3, response.usage().completionTokens());
+        assertEquals(15, response.usage().totalTokens());
+    }
+
+    @Test
+    public void testRequestRoundTrip() throws Exception {
+        ChatCompletionRequest request = ChatCompletionRequest.of("gpt-4", "System", "Prompt\nmit Umbruch", 300, 0.2);
+
+        byte[] bytes = codec.toBytes(request);
+        try (JsonParser parser = codec.getJsonFactory().createParser(bytes)) {
+            parser.nextToken();
+            assertEquals(request, codec.readRequest(parser));
+        }
+    }
+}
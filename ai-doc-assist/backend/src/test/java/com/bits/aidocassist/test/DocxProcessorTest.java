@@ -0,0 +1,130 @@
+package com.bits.aidocassist.test;
+
+import com.bits.aidocassist.util.DocxProcessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DocxProcessorTest {
+
+    private static final String W = "xmlns:w=\"http://schemas.openxmlformats.org/wordprocessingml/2006/main\" "
+        + "xmlns:mc=\"http://schemas.openxmlformats.org/markup-compatibility/2006\"";
+
+    @TempDir
+    Path tempDir;
+
+    private DocxProcessor docxProcessor;
+
+    @BeforeEach
+    public void setUp() {
+        docxProcessor = new DocxProcessor();
+        ReflectionTestUtils.setField(docxProcessor, "scratchDir", tempDir.toString());
+    }
+
+    private static String paragraph(String style, String text) {
+        String pPr = style == null ? "" : "<w:pPr><w:pStyle w:val=\"" + style + "\"/></w:pPr>";
+        return "<w:p>" + pPr + "<w:r><w:t>" + text + "</w:t></w:r></w:p>";
+    }
+
+    private static String cell(String text) {
+        return "<w:tc>" + paragraph(null, text) + "</w:tc>";
+    }
+
+    /**
+     * Minimales DOCX-Paket; Formatvorlagen-IDs wie in einem deutschen Word
+     */
+    private static byte[] createDocx() throws IOException {
+        String styles = "<w:styles " + W + ">"
+            + "<w:style w:type=\"paragraph\" w:styleId=\"berschrift1\"><w:name w:val=\"heading 1\"/></w:style>"
+            + "<w:style w:type=\"paragraph\" w:styleId=\"berschrift2\"><w:name w:val=\"heading 2\"/>"
+            + "<w:basedOn w:val=\"berschrift1\"/></w:style>"
+            + "<w:style w:type=\"paragraph\" w:styleId=\"Anhang\"><w:name w:val=\"Anhang\"/>"
+            + "<w:basedOn w:val=\"berschrift2\"/></w:style>"
+            + "<w:style w:type=\"paragraph\" w:styleId=\"Aufzaehlung\"><w:name w:val=\"Aufzählung\"/>"
+            + "<w:pPr><w:numPr><w:numId w:val=\"1\"/></w:numPr></w:pPr></w:style>"
+            + "</w:styles>";
+        String body = "<w:document " + W + "><w:body>"
+            + paragraph("berschrift1", "Architektur")
+            + paragraph(null, "Das Backend nutzt Spring Boot.")
+            + paragraph("berschrift2", "Datenhaltung")
+            + paragraph("Aufzaehlung", "PostgreSQL")
+            + paragraph("Aufzaehlung", "Redis")
+            + "<w:tbl><w:tr>" + cell("Dienst") + cell("Port") + "</w:tr>"
+            + "<w:tr>" + cell("api") + cell("8080") + "</w:tr></w:tbl>"
+            + "<w:p><w:r><mc:AlternateContent><mc:Choice><w:t>Textfeld</w:t></mc:Choice>"
+            + "<mc:Fallback><w:t>Textfeld</w:t></mc:Fallback></mc:AlternateContent></w:r>"
+            + "<w:r><w:delText>Gelöscht</w:delText></w:r></w:p>"
+            + paragraph("Anhang", "Glossar")
+            + "</w:body></w:document>";
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            put(zip, "[Content_Types].xml", "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                + "<Override PartName=\"/word/document.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.wordprocessingml.document.main+xml\"/>"
+                + "<Override PartName=\"/word/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.wordprocessingml.styles+xml\"/>"
+                + "</Types>");
+            put(zip, "_rels/.rels", "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"word/document.xml\"/>"
+                + "</Relationships>");
+            put(zip, "word/_rels/document.xml.rels", "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles\" Target=\"styles.xml\"/>"
+                + "</Relationships>");
+            put(zip, "word/document.xml", body);
+            put(zip, "word/styles.xml", styles);
+        }
+        return out.toByteArray();
+    }
+
+    private static void put(ZipOutputStream zip, String name, String xml) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(xml.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    @Test
+    public void testStructureAsMarkdown() throws IOException {
+        String text = docxProcessor.extractText(new ByteArrayResource(createDocx()));
+
+        assertTrue(text.startsWith("# Architektur\n"), text);
+        assertTrue(text.contains("\n## Datenhaltung\n"), text);
+        assertTrue(text.contains("- PostgreSQL\n- Redis\n"), text);
+        assertTrue(text.contains("| Dienst | Port |\n| --- | --- |\n| api | 8080 |"), text);
+        assertTrue(text.contains("\n## Glossar"), text);
+        assertEquals(1, text.split("Textfeld", -1).length - 1, text);
+        assertFalse(text.contains("Gelöscht"), text);
+    }
+
+    @Test
+    public void testSourcesAndLegacyFormat() throws IOException {
+        byte[] docx = createDocx();
+        String expected = docxProcessor.extractText(new ByteArrayResource(docx));
+
+        Path file = Files.write(tempDir.resolve("spec.docx"), docx);
+        assertEquals(expected, docxProcessor.extractText(new FileSystemResource(file)));
+        assertEquals(expected, docxProcessor.extractText(new MockMultipartFile("file", "spec.docx",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.document", docx)));
+
+        byte[] ole2 = {(byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0, (byte) 0xA1, (byte) 0xB1, 0x1A, (byte) 0xE1};
+        assertThrows(IOException.class, () -> docxProcessor.extractText(new ByteArrayResource(ole2)));
+        assertTrue(Files.list(tempDir).allMatch(path -> path.equals(file)));
+    }
+}
@@ -0,0 +1,62 @@
+package com.bits.aidocassist.test;
+
+import com.bits.aidocassist.extraction.DocumentFormat;
+import com.bits.aidocassist.extraction.FormatDetector;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FormatDetectorTest {
+
+    private static DocumentFormat detect(String filename, String contentType, byte[] content) throws IOException {
+        return FormatDetector.detect(filename, contentType, new ByteArrayResource(content));
+    }
+
+    private static byte[] zip(String entry) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("[Content_Types].xml"));
+            zip.write("<Types/>".getBytes(StandardCharsets.UTF_8));
+            zip.putNextEntry(new ZipEntry(entry));
+            zip.write("<x/>".getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testMagicBytesWinOverClientContentType() throws IOException {
+        byte[] pdf = "%PDF-1.7\n%âãÏÓ\n".getBytes(StandardCharsets.ISO_8859_1);
+        byte[] ole2 = {(byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0, (byte) 0xA1, (byte) 0xB1, 0x1A, (byte) 0xE1};
+
+        assertEquals(DocumentFormat.PDF, detect("scan.bin", "application/octet-stream", pdf));
+        assertEquals(DocumentFormat.PDF, detect("spec.docx", "text/plain", pdf));
+        assertEquals(DocumentFormat.LEGACY_OFFICE, detect("alt.doc", "application/msword", ole2));
+        assertEquals(DocumentFormat.UNKNOWN, detect("bild.txt", "text/plain", new byte[] {(byte) 0x89, 'P', 'N', 'G', 0, 0}));
+    }
+
+    @Test
+    public void testOoxmlByExtensionOrEntries() throws IOException {
+        assertEquals(DocumentFormat.XLSX, detect("zahlen.xlsx", null, zip("xl/workbook.xml")));
+        assertEquals(DocumentFormat.DOCX, detect("upload", "application/octet-stream", zip("word/document.xml")));
+        assertEquals(DocumentFormat.PPTX, detect(null, null, zip("ppt/presentation.xml")));
+        assertEquals(DocumentFormat.UNKNOWN, detect("archiv.zip", "application/zip", zip("daten/liste.csv")));
+    }
+
+    @Test
+    public void testTextVariants() throws IOException {
+        byte[] json = "\uFEFF  {\"name\": \"api\"}".getBytes(StandardCharsets.UTF_8);
+        byte[] text = "Architektur: Spring Boot".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(DocumentFormat.JSON, detect("export", "application/octet-stream", json));
+        assertEquals(DocumentFormat.MARKDOWN, detect("README.md", "text/plain", text));
+        assertEquals(DocumentFormat.CSV, detect("liste", "text/csv", text));
+        assertEquals(DocumentFormat.TEXT, detect("notiz", null, text));
+    }
+}
@@ -0,0 +1,139 @@
+package com.bits.aidocassist.test;
+
+import com.bits.aidocassist.service.HedgingPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HedgingPolicyTest {
+
+    private static final long HEDGE_DELAY_MS = 100;
+
+    private ExecutorService executor;
+    private HedgingPolicy hedgingPolicy;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+        hedgingPolicy = new HedgingPolicy(200, executor);
+        ReflectionTestUtils.setField(hedgingPolicy, "enabled", true);
+        ReflectionTestUtils.setField(hedgingPolicy, "percentile", 95.0);
+        ReflectionTestUtils.setField(hedgingPolicy, "minDelayMs", 50L);
+        ReflectionTestUtils.setField(hedgingPolicy, "defaultDelayMs", HEDGE_DELAY_MS);
+        ReflectionTestUtils.setField(hedgingPolicy, "minSamples", 1000);
+        ReflectionTestUtils.setField(hedgingPolicy, "maxHedgesPerMinute", 20);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Erster Aufruf hängt, bis er abgebrochen wird (wie ein blockierender Socket-Read), spätere antworten sofort
+     */
+    private String slowFirstCall(HedgingPolicy.Attempt attempt, AtomicInteger calls, CountDownLatch aborted) {
+        if (calls.getAndIncrement() > 0) {
+            return "hedge";
+        }
+        CountDownLatch abort = new CountDownLatch(1);
+        attempt.onAbort(() -> {
+            abort.countDown();
+            aborted.countDown();
+        });
+        long deadline = System.currentTimeMillis() + 5000;
+        while (abort.getCount() > 0 && System.currentTimeMillis() < deadline) {
+            try {
+                abort.await(50, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ignored) {
+                // Wie ein Socket-Read: cancel(true) allein beendet den Aufruf nicht
+            }
+        }
+        return "primary";
+    }
+
+    @Test
+    public void testHedgeAfterDelayWinsAndAbortsLoser() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch aborted = new CountDownLatch(1);
+
+        long start = System.currentTimeMillis();
+        String result = hedgingPolicy.execute("summarization", attempt -> slowFirstCall(attempt, calls, aborted));
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals("hedge", result);
+        assertTrue(elapsed >= HEDGE_DELAY_MS && elapsed < 2000, "Dauer: " + elapsed);
+        assertTrue(aborted.await(1, TimeUnit.SECONDS), "Verlierer nicht abgebrochen");
+
+        HedgingPolicy.HedgingStats stats = hedgingPolicy.getStats();
+        assertEquals(1, stats.getHedgesSent());
+        assertEquals(1, stats.getHedgeWins());
+        assertEquals(1, stats.getUnfinishedLosers());
+        assertEquals(100.0, stats.getHedgeWinRate(), 0.001);
+    }
+
+    @Test
+    public void testFastCallSendsNoHedgeAndDelayAdapts() {
+        ReflectionTestUtils.setField(hedgingPolicy, "minSamples", 5);
+        for (int i = 0; i < 5; i++) {
+            assertEquals("ok", hedgingPolicy.execute("keywords", attempt -> "ok"));
+        }
+
+        HedgingPolicy.HedgingStats stats = hedgingPolicy.getStats();
+        assertEquals(5, stats.getTotalCalls());
+        assertEquals(0, stats.getHedgesSent());
+        assertEquals(0, stats.getUnfinishedLosers());
+        // Genug Stichproben: Perzentil der (schnellen) Latenzen, nach unten durch min-delay-ms begrenzt
+        assertEquals(50, stats.getCurrentHedgeDelayMs());
+    }
+
+    @Test
+    public void testPerMinuteCapAndWinRate() throws InterruptedException {
+        ReflectionTestUtils.setField(hedgingPolicy, "maxHedgesPerMinute", 2);
+
+        // 1. Hedge gewinnt
+        AtomicInteger firstCalls = new AtomicInteger();
+        CountDownLatch aborted = new CountDownLatch(1);
+        assertEquals("hedge", hedgingPolicy.execute("summarization",
+            attempt -> slowFirstCall(attempt, firstCalls, aborted)));
+
+        // 2. Primär antwortet nach dem Hedge-Start, aber vor dem Hedge
+        AtomicInteger secondCalls = new AtomicInteger();
+        assertEquals("primary", hedgingPolicy.execute("summarization", attempt -> {
+            boolean isHedge = secondCalls.getAndIncrement() > 0;
+            sleep(isHedge ? 2000 : HEDGE_DELAY_MS * 2);
+            return isHedge ? "hedge" : "primary";
+        }));
+
+        // 3. Budget erschöpft: kein Hedge, der langsame Aufruf wird abgewartet
+        assertEquals("primary", hedgingPolicy.execute("summarization", attempt -> {
+            sleep(HEDGE_DELAY_MS * 2);
+            return "primary";
+        }));
+
+        HedgingPolicy.HedgingStats stats = hedgingPolicy.getStats();
+        assertEquals(3, stats.getTotalCalls());
+        assertEquals(2, stats.getHedgesSent());
+        assertEquals(1, stats.getHedgeWins());
+        assertEquals(1, stats.getHedgesSkippedByBudget());
+        assertEquals(50.0, stats.getHedgeWinRate(), 0.001);
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.bits.aidocassist.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bits.aidocassist.service.LaneScheduler;
+
+public class LaneSchedulerTest {
+
+    private LaneScheduler scheduler;
+    private final List<String> started = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    public void setUp() {
+        scheduler = new LaneScheduler();
+        ReflectionTestUtils.setField(scheduler, "maxConcurrent", 1);
+        ReflectionTestUtils.setField(scheduler, "weightsConfig", "interactive:3,bulk:1,background:1");
+        ReflectionTestUtils.setField(scheduler, "maxWaitMs", 60000L);
+        ReflectionTestUtils.invokeMethod(scheduler, "init");
+    }
+
+    @Test
+    public void testWeightedSharesBetweenLanes() {
+        CompletableFuture<String> blocker = new CompletableFuture<>();
+        scheduler.submit(LaneScheduler.Lane.BULK, 0, () -> blocker);
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            calls.add(submit(LaneScheduler.Lane.BULK, "bulk-" + i, 100));
+            calls.add(submit(LaneScheduler.Lane.INTERACTIVE, "interactive-" + i, 100));
+        }
+
+        blocker.complete("fertig");
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).join();
+
+        // Gewicht 3:1 - von den ersten vier Slots gehen drei an interactive
+        assertEquals(List.of("interactive-0", "bulk-0", "interactive-1", "interactive-2",
+            "interactive-3", "bulk-1", "bulk-2", "bulk-3"), started);
+    }
+
+    @Test
+    public void testShortestJobFirstWithinLane() {
+        CompletableFuture<String> blocker = new CompletableFuture<>();
+        scheduler.submit(LaneScheduler.Lane.BULK, 0, () -> blocker);
+        CompletableFuture<String> large = submit(LaneScheduler.Lane.BULK, "large", 8000);
+        CompletableFuture<String> small = submit(LaneScheduler.Lane.BULK, "small", 200);
+        CompletableFuture<String> medium = submit(LaneScheduler.Lane.BULK, "medium", 1500);
+
+        blocker.complete("fertig");
+        CompletableFuture.allOf(large, small, medium).join();
+
+        assertEquals(List.of("small", "medium", "large"), started);
+        assertEquals(4, scheduler.getStats(LaneScheduler.Lane.BULK).getCompleted());
+    }
+
+    private CompletableFuture<String> submit(LaneScheduler.Lane lane, String name, long tokens) {
+        return scheduler.submit(lane, tokens, () -> {
+            started.add(name);
+            return CompletableFuture.completedFuture(name);
+        });
+    }
+}
@@ -0,0 +1,126 @@
+package com.bits.aidocassist.test;
+
+import com.bits.aidocassist.client.AiClient;
+import com.bits.aidocassist.client.ChatCompletionRequest;
+import com.bits.aidocassist.client.ChatCompletionResponse;
+import com.bits.aidocassist.client.ChatUsage;
+import com.bits.aidocassist.service.AiService;
+import com.bits.aidocassist.service.TextPreprocessingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class LongDocumentSummaryTest {
+
+    private static final String FINAL_SUMMARY = "**Zusammenfassung:** Angebotsverwaltung in 200 Abschnitten";
+
+    @Autowired
+    private AiService aiService;
+
+    @Autowired
+    private TextPreprocessingService preprocessingService;
+
+    private Object originalChatClient;
+    private int originalChunkTokens;
+    private final Map<String, AtomicInteger> llmCalls = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    public void setUp() {
+        originalChatClient = ReflectionTestUtils.getField(aiService, "chatClient");
+        originalChunkTokens = (int) ReflectionTestUtils.getField(aiService, "chunkTokens");
+        // Kleine Chunks, damit die Teilzusammenfassungen eine Reduce-Stufe brauchen
+        ReflectionTestUtils.setField(aiService, "chunkTokens", 300);
+        ((Map<?, ?>) ReflectionTestUtils.getField(aiService, "chunkSummaryCache")).clear();
+
+        ReflectionTestUtils.setField(aiService, "chatClient", new AiClient() {
+            @Override
+            public ChatCompletionResponse complete(ChatCompletionRequest request, String type) {
+                int call = llmCalls.computeIfAbsent(type, key -> new AtomicInteger()).incrementAndGet();
+                String content = "summarization".equals(type) ? FINAL_SUMMARY
+                    : type + " " + call + ": " + "Modul mit REST API und PostgreSQL-Anbindung. ".repeat(6);
+                return new ChatCompletionResponse(request.model(), content, "stop", ChatUsage.EMPTY);
+            }
+
+            @Override
+            public CompletableFuture<ChatCompletionResponse> completeAsync(ChatCompletionRequest request, String type) {
+                return CompletableFuture.supplyAsync(() -> complete(request, type));
+            }
+
+            @Override
+            public boolean isAvailable() {
+                return true;
+            }
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ReflectionTestUtils.setField(aiService, "chatClient", originalChatClient);
+        ReflectionTestUtils.setField(aiService, "chunkTokens", originalChunkTokens);
+    }
+
+    @Test
+    public void testMapReduceSummarizesEverySegmentOnce() {
+        String text = spec(null);
+        int segments = preprocessingService.splitIntoSegments(preprocessingService.preprocessText(text), 300).size();
+        assertTrue(segments > 10, "Segmente: " + segments);
+
+        String summary = aiService.summarizeTextAsync(text, false).join();
+
+        assertTrue(summary.startsWith(FINAL_SUMMARY), summary);
+        assertEquals(segments, calls("summarization-map"));
+        assertTrue(calls("summarization-reduce") >= 1);
+        assertTrue(calls("summarization-reduce") < segments);
+        assertEquals(1, calls("summarization"));
+    }
+
+    @Test
+    public void testRevisionOnlyResummarizesChangedSegments() {
+        aiService.summarizeTextAsync(spec(null), false).join();
+        llmCalls.clear();
+
+        // Unveränderter Text: alle Teilergebnisse aus dem Chunk-Cache, nur die finale Reduktion läuft
+        aiService.summarizeTextAsync(spec(null), false).join();
+        assertEquals(0, calls("summarization-map"));
+        assertEquals(0, calls("summarization-reduce"));
+        assertEquals(1, calls("summarization"));
+
+        // Eingefügter Absatz: nur die Segmente um die Änderung laufen erneut
+        llmCalls.clear();
+        String revision = spec("Neu: Authentifizierung per OAuth2 und Keycloak.");
+        aiService.summarizeTextAsync(revision, false).join();
+        int segments = preprocessingService.splitIntoSegments(preprocessingService.preprocessText(revision), 300).size();
+        assertTrue(calls("summarization-map") >= 1);
+        assertTrue(calls("summarization-map") * 4 <= segments, "Map-Aufrufe: " + calls("summarization-map"));
+    }
+
+    private int calls(String type) {
+        AtomicInteger count = llmCalls.get(type);
+        return count != null ? count.get() : 0;
+    }
+
+    private static String spec(String insertedParagraph) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            text.append("Abschnitt ").append(i)
+                .append(": Das Backend stellt für Modul ").append(i % 23)
+                .append(" eine REST API bereit, validiert Eingaben und speichert Ergebnisse in PostgreSQL.\n\n");
+            if (i == 20 && insertedParagraph != null) {
+                text.append(insertedParagraph).append("\n\n");
+            }
+        }
+        return text.toString();
+    }
+}
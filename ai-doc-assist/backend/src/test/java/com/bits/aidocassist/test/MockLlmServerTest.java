@@ -0,0 +1,61 @@
+package com.bits.aidocassist.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import com.bits.aidocassist.demo.MockLlmServer;
+
+public class MockLlmServerTest {
+
+    private final RestTemplate restTemplate = new RestTemplate();
+    private MockLlmServer server;
+
+    @AfterEach
+    public void stopServer() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testDeterministicJsonForKeywordPrompt() throws Exception {
+        server = new MockLlmServer(0, 0, 0, 0.0, 0.0, 24, 0, 42);
+        server.start();
+
+        Map<String, Object> request = Map.of(
+            "model", "gpt-3.5-turbo",
+            "messages", List.of(Map.of("role", "user",
+                "content", "Extrahiere Keywords.\nTEXT:\nAngular und Spring Boot mit PostgreSQL.\nJSON-OUTPUT:")));
+
+        Map<?, ?> first = restTemplate.postForObject(server.getChatCompletionsUrl(), request, Map.class);
+        Map<?, ?> second = restTemplate.postForObject(server.getChatCompletionsUrl(), request, Map.class);
+
+        String content = (String) ((Map<?, ?>) ((Map<?, ?>) ((List<?>) first.get("choices")).get(0)).get("message")).get("content");
+        assertTrue(content.startsWith("{\"projekt\""));
+        assertEquals(first.get("choices"), second.get("choices"));
+        assertTrue(((Map<?, ?>) first.get("usage")).containsKey("total_tokens"));
+    }
+
+    @Test
+    public void testRateLimitInjection() throws Exception {
+        server = new MockLlmServer(0, 0, 0, 1.0, 0.0, 24, 0, 42);
+        server.start();
+
+        Map<String, Object> request = Map.of("messages", List.of(Map.of("role", "user", "content", "Hallo")));
+        try {
+            restTemplate.postForObject(server.getChatCompletionsUrl(), request, Map.class);
+        } catch (HttpClientErrorException e) {
+            assertEquals(429, e.getRawStatusCode());
+            return;
+        }
+        throw new AssertionError("429 erwartet");
+    }
+}
@@ -0,0 +1,61 @@
+package com.bits.aidocassist.test;
+
+import com.bits.aidocassist.client.ModelRouter;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ModelRouterTest {
+
+    // ~1000 Tokens: weder Hoch- noch Herabstufung
+    private static final String MEDIUM_PROMPT = "x".repeat(4000);
+    private static final String SHORT_PROMPT = "x".repeat(400);
+    private static final String LONG_PROMPT = "x".repeat(16000);
+
+    private ModelRouter router(String tiers, String rules) {
+        ModelRouter router = new ModelRouter();
+        ReflectionTestUtils.setField(router, "enabled", true);
+        ReflectionTestUtils.setField(router, "defaultModel", "gpt-3.5-turbo");
+        ReflectionTestUtils.setField(router, "tiersConfig", tiers);
+        ReflectionTestUtils.setField(router, "rulesConfig", rules);
+        ReflectionTestUtils.setField(router, "upgradeAboveTokens", 3000);
+        ReflectionTestUtils.setField(router, "downgradeBelowTokens", 250);
+        ReflectionTestUtils.invokeMethod(router, "init");
+        return router;
+    }
+
+    @Test
+    public void testTierByTaskAndInputSize() {
+        ModelRouter router = router("small:gpt-4o-mini,large:gpt-4o", "classification:small,summarization:large");
+
+        assertEquals("gpt-4o-mini", router.selectModel("classification", MEDIUM_PROMPT));
+        assertEquals("gpt-4o", router.selectModel("summarization", MEDIUM_PROMPT));
+        // Aufgabe ohne Regel läuft auf dem Standardmodell
+        assertEquals("gpt-3.5-turbo", router.selectModel("keywords", MEDIUM_PROMPT));
+
+        // Große Eingabe oder hohe Komplexität: eine Stufe hoch, kleine Eingabe: eine Stufe herunter
+        assertEquals(ModelRouter.TIER_DEFAULT, router.selectTier("classification", LONG_PROMPT, null));
+        assertEquals(ModelRouter.TIER_DEFAULT, router.selectTier("classification", MEDIUM_PROMPT, "Experte"));
+        assertEquals(ModelRouter.TIER_DEFAULT, router.selectTier("summarization", SHORT_PROMPT, null));
+        assertEquals(ModelRouter.TIER_SMALL, router.selectTier("keywords", SHORT_PROMPT, null));
+
+        // Am Rand der Tier-Liste bleibt es beim kleinsten bzw. größten Tier
+        assertEquals(ModelRouter.TIER_LARGE, router.selectTier("summarization", LONG_PROMPT, null));
+        assertEquals(ModelRouter.TIER_SMALL, router.selectTier("classification", SHORT_PROMPT, null));
+    }
+
+    @Test
+    public void testMissingTierFallsBackToDefault() {
+        // Kein großes Modell konfiguriert: Hochstufung landet auf dem Standardmodell
+        ModelRouter router = router("small:gpt-4o-mini", "summarization:large");
+        assertEquals("gpt-3.5-turbo", router.selectModel("summarization", MEDIUM_PROMPT));
+
+        ReflectionTestUtils.setField(router, "enabled", false);
+        assertEquals("gpt-3.5-turbo", router.selectModel("classification", SHORT_PROMPT));
+
+        assertThrows(IllegalStateException.class, () -> router("small:gpt-4o-mini", "summarization:huge"));
+        assertThrows(IllegalStateException.class, () -> router("small", "summarization:large"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.bits.aidocassist.test;
+
+import com.bits.aidocassist.model.Document;
+import com.bits.aidocassist.repository.DocumentRepository;
+import com.bits.aidocassist.service.DocumentService;
+import com.bits.aidocassist.service.NearDuplicateService;
+import com.bits.aidocassist.service.PromptTemplateRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class NearDuplicateServiceTest {
+
+    private static final long FINGERPRINT = 0x5A3C_96E1_0F0F_C3A5L;
+
+    @Autowired
+    private NearDuplicateService nearDuplicateService;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private PromptTemplateRegistry promptTemplates;
+
+    private final List<Long> createdDocuments = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        createdDocuments.forEach(id -> {
+            nearDuplicateService.remove(id);
+            documentRepository.deleteById(id);
+        });
+    }
+
+    @Test
+    public void testSkipsNearerCandidatesWithoutUsableAnalysis() {
+        String currentVersion = promptTemplates.getVersionTag();
+        saveDocument(FINGERPRINT ^ 0b1L, null, currentVersion);
+        saveDocument(FINGERPRINT ^ 0b11L, "Veraltete Zusammenfassung", "v0-alt");
+        Document usable = saveDocument(FINGERPRINT ^ 0b111L, "Aktuelle Zusammenfassung", currentVersion);
+
+        NearDuplicateService.Match match = nearDuplicateService.findNearDuplicate(FINGERPRINT, currentVersion).orElseThrow();
+
+        assertEquals(usable.getId(), match.getDocument().getId());
+        assertEquals(3, match.getDistance());
+        assertTrue(nearDuplicateService.findNearDuplicate(FINGERPRINT, "v0-alt").isPresent());
+    }
+
+    private Document saveDocument(long simHash, String summary, String promptVersion) {
+        Document document = new Document();
+        document.setTitle("Spezifikation Revision");
+        document.setContent("Spezifikation " + simHash);
+        document.setSimHash(simHash);
+        document.setSummary(summary);
+        document.setPromptVersion(promptVersion);
+        document = documentService.saveDocument(document);
+        createdDocuments.add(document.getId());
+        return document;
+    }
+}
@@ -0,0 +1,115 @@
+package com.bits.aidocassist.test;
+
+import com.bits.aidocassist.util.PptxProcessor;
+import com.bits.aidocassist.util.XlsxProcessor;
+import org.apache.poi.xslf.usermodel.SlideLayout;
+import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.apache.poi.xslf.usermodel.XSLFSlide;
+import org.apache.poi.xslf.usermodel.XSLFSlideLayout;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OfficeExtractionTest {
+
+    @TempDir
+    Path tempDir;
+
+    private XlsxProcessor xlsxProcessor;
+    private PptxProcessor pptxProcessor;
+
+    @BeforeEach
+    public void setUp() {
+        xlsxProcessor = new XlsxProcessor();
+        ReflectionTestUtils.setField(xlsxProcessor, "scratchDir", tempDir.toString());
+        ReflectionTestUtils.setField(xlsxProcessor, "fullRowsMax", 50);
+        ReflectionTestUtils.setField(xlsxProcessor, "sampleRows", 5);
+        ReflectionTestUtils.setField(xlsxProcessor, "maxColumns", 40);
+        ReflectionTestUtils.setField(xlsxProcessor, "maxDistinct", 100);
+
+        pptxProcessor = new PptxProcessor();
+        ReflectionTestUtils.setField(pptxProcessor, "scratchDir", tempDir.toString());
+    }
+
+    private static byte[] createXlsx(int rows) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet("Dienste");
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("Dienst");
+            header.createCell(1).setCellValue("Port");
+            header.createCell(2).setCellValue("Team");
+            for (int i = 1; i <= rows; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue("service-" + i);
+                row.createCell(1).setCellValue(8000 + i);
+                row.createCell(2).setCellValue(i % 2 == 0 ? "Plattform" : "Checkout");
+            }
+            workbook.write(out);
+            return out.toByteArray();
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    @Test
+    public void testSmallSheetAsTable() throws IOException {
+        String text = xlsxProcessor.extractText(new ByteArrayResource(createXlsx(3)));
+
+        assertTrue(text.startsWith("## Tabelle: Dienste\n"), text);
+        assertTrue(text.contains("| Dienst | Port | Team |\n| --- | --- | --- |\n| service-1 | 8001 | Checkout |"), text);
+        assertTrue(text.contains("| service-3 | 8003 | Checkout |"), text);
+    }
+
+    @Test
+    public void testLargeSheetAsProfileOfConstantSize() throws IOException {
+        String large = xlsxProcessor.extractText(new ByteArrayResource(createXlsx(5_000)));
+        String larger = xlsxProcessor.extractText(new ByteArrayResource(createXlsx(10_000)));
+
+        assertTrue(large.contains("(5000 Zeilen, 3 Spalten)"), large);
+        assertTrue(large.contains("| Dienst | Text | 5000/5000 | >100 |"), large);
+        assertTrue(large.contains("| Port | Zahl | 5000/5000 | >100 | 8001 … 13000 |"), large);
+        assertTrue(large.contains("| Team | Text | 5000/5000 | 2 |"), large);
+        assertTrue(large.contains("Stichprobe (5 Zeilen)"), large);
+        assertFalse(large.contains("service-4999\n"), large);
+        // Profil statt Zellen-Dump: Größe unabhängig von der Zeilenzahl
+        assertTrue(large.length() < 2000, "Zeichen: " + large.length());
+        assertTrue(Math.abs(larger.length() - large.length()) < 100);
+    }
+
+    @Test
+    public void testSlidesInPresentationOrder() throws IOException {
+        byte[] pptx;
+        try (XMLSlideShow show = new XMLSlideShow(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            XSLFSlideLayout layout = show.getSlideMasters().get(0).getLayout(SlideLayout.TITLE_AND_CONTENT);
+            for (String[] content : new String[][] {{"Zielbild", "Microservices auf Kubernetes"},
+                                                    {"Risiken", "Latenz zwischen Diensten"}}) {
+                XSLFSlide slide = show.createSlide(layout);
+                slide.getPlaceholder(0).setText(content[0]);
+                slide.getPlaceholder(1).setText(content[1]);
+            }
+            show.setSlideOrder(show.getSlides().get(1), 0);
+            show.write(out);
+            pptx = out.toByteArray();
+        }
+
+        String text = pptxProcessor.extractText(new ByteArrayResource(pptx));
+
+        assertEquals("## Folie 1: Risiken\n\n- Latenz zwischen Diensten\n\n"
+            + "## Folie 2: Zielbild\n\n- Microservices auf Kubernetes", text);
+    }
+}
@@ -0,0 +1,141 @@
+package com.bits.aidocassist.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bits.aidocassist.util.PdfProcessor;
+
+/**
+ * Durchsatz der PDF-Extraktion: sequenziell (ein Stripper über alle Seiten) vs. seitenparallel.
+ * Nur mit -Dbenchmark=true, z.B. mvn test -Dtest=PdfExtractionBenchmarkTest -Dbenchmark=true;
+ * eigener Korpus über -Dbenchmark.pdf-dir=/pfad/zu/pdfs, sonst werden große PDFs erzeugt.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class PdfExtractionBenchmarkTest {
+
+    private static final int GENERATED_PDFS = Integer.getInteger("benchmark.pdfs", 3);
+    private static final int PAGES_PER_PDF = Integer.getInteger("benchmark.pages", 400);
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 3);
+    private static final int THREADS = Integer.getInteger("benchmark.threads", Runtime.getRuntime().availableProcessors());
+
+    @TempDir
+    Path tempDir;
+
+    private final ExecutorService pageExecutor = Executors.newFixedThreadPool(THREADS);
+
+    @AfterEach
+    public void shutdown() {
+        pageExecutor.shutdownNow();
+    }
+
+    @Test
+    public void benchmarkSequentialVsParallel() throws Exception {
+        List<Path> corpus = corpus();
+
+        PdfProcessor sequential = processor(1);
+        PdfProcessor parallel = processor(THREADS);
+
+        // Aufwärmen und gleiche Ausgabe sicherstellen
+        for (Path pdf : corpus) {
+            assertEquals(sequential.extractText(new FileSystemResource(pdf), true),
+                parallel.extractText(new FileSystemResource(pdf), true), "Abweichender Text: " + pdf);
+        }
+
+        long pages = 0;
+        for (Path pdf : corpus) {
+            try (PDDocument document = PDDocument.load(pdf.toFile())) {
+                pages += document.getNumberOfPages();
+            }
+        }
+        long sequentialMs = run(sequential, corpus);
+        long parallelMs = run(parallel, corpus);
+
+        System.out.printf("📄 PDF-Extraktion: %d PDFs, %d Seiten, %d Runden%n", corpus.size(), pages, ROUNDS);
+        System.out.printf("   sequenziell: %6d ms  (%.0f Seiten/s)%n", sequentialMs, pages * ROUNDS * 1000.0 / sequentialMs);
+        System.out.printf("   parallel/%d: %6d ms  (%.0f Seiten/s, Faktor %.2f)%n",
+            THREADS, parallelMs, pages * ROUNDS * 1000.0 / parallelMs, (double) sequentialMs / parallelMs);
+    }
+
+    private long run(PdfProcessor processor, List<Path> corpus) throws IOException {
+        long start = System.currentTimeMillis();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (Path pdf : corpus) {
+                processor.extractText(new FileSystemResource(pdf), true);
+            }
+        }
+        return System.currentTimeMillis() - start;
+    }
+
+    private PdfProcessor processor(int threads) {
+        PdfProcessor processor = new PdfProcessor();
+        ReflectionTestUtils.setField(processor, "mainMemoryThresholdBytes", 4_194_304L);
+        ReflectionTestUtils.setField(processor, "maxMainMemoryBytes", 8_388_608L);
+        ReflectionTestUtils.setField(processor, "scratchDir", tempDir.toString());
+        ReflectionTestUtils.setField(processor, "multipartSpoolThreshold", "0B");
+        ReflectionTestUtils.setField(processor, "pageExecutor", pageExecutor);
+        ReflectionTestUtils.setField(processor, "parallelThreads", threads);
+        ReflectionTestUtils.setField(processor, "parallelMinPages", 32);
+        ReflectionTestUtils.setField(processor, "pagesPerTask", 16);
+        ReflectionTestUtils.invokeMethod(processor, "init");
+        return processor;
+    }
+
+    private List<Path> corpus() throws IOException {
+        String dir = System.getProperty("benchmark.pdf-dir");
+        if (dir != null) {
+            try (Stream<Path> files = Files.list(Path.of(dir))) {
+                return files.filter(file -> file.toString().toLowerCase().endsWith(".pdf")).sorted().collect(Collectors.toList());
+            }
+        }
+        List<Path> corpus = new ArrayList<>();
+        for (int i = 0; i < GENERATED_PDFS; i++) {
+            corpus.add(generate(tempDir.resolve("corpus-" + i + ".pdf"), i));
+        }
+        return corpus;
+    }
+
+    /**
+     * Textlastige Seiten (40 Zeilen) in zwei Schriften, ähnlich einer technischen Spezifikation
+     */
+    private static Path generate(Path file, int seed) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            for (int page = 0; page < PAGES_PER_PDF; page++) {
+                PDPage pdPage = new PDPage();
+                document.addPage(pdPage);
+                try (PDPageContentStream content = new PDPageContentStream(document, pdPage)) {
+                    content.beginText();
+                    content.newLineAtOffset(40, 750);
+                    for (int line = 0; line < 40; line++) {
+                        content.setFont(line % 10 == 0 ? PDType1Font.HELVETICA_BOLD : PDType1Font.TIMES_ROMAN, 10);
+                        content.showText("Dokument " + seed + ", Seite " + page + ", Zeile " + line
+                            + ": Der Service validiert Anfragen, speichert Ergebnisse in PostgreSQL und publiziert Events.");
+                        content.newLineAtOffset(0, -17);
+                    }
+                    content.endText();
+                }
+            }
+            document.save(file.toFile());
+        }
+        return file;
+    }
+}
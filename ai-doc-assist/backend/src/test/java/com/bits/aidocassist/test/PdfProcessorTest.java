@@ -0,0 +1,171 @@
+package com.bits.aidocassist.test;
+
+import com.bits.aidocassist.util.PdfProcessor;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PdfProcessorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private PdfProcessor pdfProcessor;
+    private ExecutorService pageExecutor;
+    private byte[] pdf;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        pdfProcessor = new PdfProcessor();
+        ReflectionTestUtils.setField(pdfProcessor, "mainMemoryThresholdBytes", 4_194_304L);
+        ReflectionTestUtils.setField(pdfProcessor, "maxMainMemoryBytes", 8_388_608L);
+        ReflectionTestUtils.setField(pdfProcessor, "scratchDir", tempDir.toString());
+        ReflectionTestUtils.setField(pdfProcessor, "multipartSpoolThreshold", "0B");
+        pageExecutor = Executors.newFixedThreadPool(3);
+        ReflectionTestUtils.setField(pdfProcessor, "pageExecutor", pageExecutor);
+        ReflectionTestUtils.setField(pdfProcessor, "parallelThreads", 4);
+        ReflectionTestUtils.setField(pdfProcessor, "parallelMinPages", 8);
+        ReflectionTestUtils.setField(pdfProcessor, "pagesPerTask", 3);
+        ReflectionTestUtils.invokeMethod(pdfProcessor, "init");
+        pdf = createPdf("Architektur mit Spring Boot und PostgreSQL", "Seite zwei: Deployment auf Kubernetes");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pageExecutor.shutdownNow();
+    }
+
+    public static byte[] createPdf(String... pages) throws IOException {
+        return createPdf(Arrays.stream(pages).map(text -> new String[] {text}).toArray(String[][]::new));
+    }
+
+    /**
+     * Ein Eintrag je Seite, je Zeile ein String
+     */
+    public static byte[] createPdf(String[][] pages) throws IOException {
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            for (String[] lines : pages) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(PDType1Font.HELVETICA, 12);
+                    content.newLineAtOffset(50, 700);
+                    for (String line : lines) {
+                        content.showText(line);
+                        content.newLineAtOffset(0, -20);
+                    }
+                    content.endText();
+                }
+            }
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    private static void assertBothPages(String text) {
+        assertTrue(text.contains("Spring Boot"), text);
+        assertTrue(text.contains("Kubernetes"), text);
+    }
+
+    @Test
+    public void testExtractsFromEverySource() throws IOException {
+        Path file = Files.write(tempDir.resolve("spec.pdf"), pdf);
+
+        assertBothPages(pdfProcessor.extractText(new ByteArrayResource(pdf)));
+        assertBothPages(pdfProcessor.extractText(new FileSystemResource(file)));
+        assertBothPages(pdfProcessor.extractText(new MockMultipartFile("file", "spec.pdf", "application/pdf", pdf)));
+    }
+
+    @Test
+    public void testUploadStaysReadableAfterExtraction() throws IOException {
+        // Gespoolter Upload wird gestreamt: keine eigene Kopie im (hier nicht vorhandenen) Scratch-Verzeichnis
+        ReflectionTestUtils.setField(pdfProcessor, "scratchDir", tempDir.resolve("fehlt").toString());
+        // transferTo würde die Spool-Datei des Containers verschieben und den Upload verbrauchen
+        MockMultipartFile upload = new MockMultipartFile("file", "spec.pdf", "application/pdf", pdf) {
+            @Override
+            public void transferTo(File dest) {
+                throw new IllegalStateException("Upload verschoben");
+            }
+        };
+
+        assertBothPages(pdfProcessor.extractText(upload));
+        assertBothPages(pdfProcessor.extractText(upload, true));
+        assertArrayEquals(pdf, upload.getInputStream().readAllBytes());
+    }
+
+    @Test
+    public void testScratchFileOnly() throws IOException {
+        // Jede Größe gilt als groß, kein Heap-Anteil
+        ReflectionTestUtils.setField(pdfProcessor, "mainMemoryThresholdBytes", 0L);
+        ReflectionTestUtils.setField(pdfProcessor, "maxMainMemoryBytes", 0L);
+
+        assertBothPages(pdfProcessor.extractText(new ByteArrayResource(pdf)));
+        assertBothPages(pdfProcessor.extractText(new FileSystemResource(Files.write(tempDir.resolve("scan.pdf"), pdf))));
+    }
+
+    @Test
+    public void testParallelExtractionKeepsPageOrder() throws IOException {
+        byte[] longPdf = createPdf(IntStream.range(0, 40)
+            .mapToObj(i -> "Seite " + i + ": Modul " + i + " nutzt Kafka")
+            .toArray(String[]::new));
+        Path file = Files.write(tempDir.resolve("long.pdf"), longPdf);
+
+        String parallel = pdfProcessor.extractText(new FileSystemResource(file), true);
+        String parallelFromBytes = pdfProcessor.extractText(new ByteArrayResource(longPdf), true);
+
+        ReflectionTestUtils.setField(pdfProcessor, "parallelThreads", 1);
+        ReflectionTestUtils.invokeMethod(pdfProcessor, "init");
+        String sequential = pdfProcessor.extractText(new FileSystemResource(file), true);
+
+        assertEquals(sequential, parallel);
+        assertEquals(sequential, parallelFromBytes);
+        assertTrue(sequential.indexOf("Seite 9:") < sequential.indexOf("Seite 10:"));
+    }
+
+    @Test
+    public void testBudgetLimitsPromptAndSkipsBoilerplate() throws IOException {
+        String notice = "Vertraulich - nur fuer den internen Gebrauch";
+        byte[] manual = createPdf(IntStream.range(0, 60)
+            .mapToObj(i -> i % 2 == 1
+                ? new String[] {"Handbuch Version 1." + i, notice, "Seite " + i}
+                : new String[] {"Kapitel " + i + ": Datenmodell und Schnittstellen"})
+            .toArray(String[][]::new));
+
+        PdfProcessor.PdfText text = pdfProcessor.extractText(new ByteArrayResource(manual), false, 200);
+
+        assertTrue(text.isPromptTruncated());
+        assertTrue(text.getPromptPages() < 20, "im Auszug: " + text.getPromptPages());
+        assertTrue(text.getSkippedPages() > 0);
+        assertEquals(1, text.getPromptText().split(notice, -1).length - 1);
+        assertTrue(!text.getPromptText().contains("Kapitel 58"));
+
+        // Gespeichert und gehasht wird der vollständige Text, unabhängig vom Budget
+        assertTrue(text.getText().contains("Kapitel 58"));
+        assertEquals(30, text.getText().split(notice, -1).length - 1);
+        assertEquals(pdfProcessor.extractText(new ByteArrayResource(manual), false), text.getText());
+    }
+}
@@ -0,0 +1,33 @@
+package com.bits.aidocassist.test;
+
+import com.bits.aidocassist.service.PromptTemplate;
+import com.bits.aidocassist.service.PromptTemplateRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PromptTemplateTest {
+
+    @Test
+    public void testRenderNamedPlaceholders() {
+        PromptTemplate template = PromptTemplate.compile("test", 1, "A {{x}} B {{y}} C {{x}}");
+
+        assertEquals("A 1 B 2 C 1", template.render("1", "2"));
+        assertEquals("test@v1", template.getKey());
+        assertThrows(IllegalArgumentException.class, () -> template.render("1"));
+    }
+
+    @Test
+    public void testDocumentFollowsStaticPrefix() {
+        PromptTemplateRegistry registry = new PromptTemplateRegistry();
+
+        for (PromptTemplate template : registry.getTemplates()) {
+            String prompt = template.render(template.getParamNames().stream()
+                .map(name -> "<" + name + ">").toArray(String[]::new));
+            assertTrue(prompt.startsWith(template.getStaticPrefix()));
+            assertTrue(template.getStaticPrefix().length() > prompt.length() / 2, template.getKey());
+        }
+    }
+}
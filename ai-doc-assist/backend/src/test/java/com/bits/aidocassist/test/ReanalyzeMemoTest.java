@@ -0,0 +1,172 @@
+package com.bits.aidocassist.test;
+
+import com.bits.aidocassist.client.AiClient;
+import com.bits.aidocassist.client.ChatCompletionRequest;
+import com.bits.aidocassist.client.ChatCompletionResponse;
+import com.bits.aidocassist.client.ChatUsage;
+import com.bits.aidocassist.model.Document;
+import com.bits.aidocassist.repository.DocumentRepository;
+import com.bits.aidocassist.service.AiService;
+import com.bits.aidocassist.service.DocumentService;
+import com.bits.aidocassist.service.PromptTemplate;
+import com.bits.aidocassist.service.PromptTemplateRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ReanalyzeMemoTest {
+
+    private static final String CONTENT = "Lastenheft Angebotsverwaltung: REST-API mit Spring Boot und PostgreSQL, "
+        + "Angular-Frontend mit Keycloak-Anmeldung, Export der Angebote als PDF und Anbindung an das ERP-System.";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AiService aiService;
+
+    @Autowired
+    private PromptTemplateRegistry promptTemplates;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    private Object originalChatClient;
+    private final Map<String, AtomicInteger> llmCalls = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    public void setUp() {
+        // Antwortet ohne Netz und zählt die Aufrufe je Aufgabe
+        originalChatClient = ReflectionTestUtils.getField(aiService, "chatClient");
+        ReflectionTestUtils.setField(aiService, "chatClient", new AiClient() {
+            @Override
+            public ChatCompletionResponse complete(ChatCompletionRequest request, String type) {
+                llmCalls.computeIfAbsent(type, key -> new AtomicInteger()).incrementAndGet();
+                return new ChatCompletionResponse(request.model(), answer(type), "stop", ChatUsage.EMPTY);
+            }
+
+            @Override
+            public CompletableFuture<ChatCompletionResponse> completeAsync(ChatCompletionRequest request, String type) {
+                return CompletableFuture.completedFuture(complete(request, type));
+            }
+
+            @Override
+            public boolean isAvailable() {
+                return true;
+            }
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ReflectionTestUtils.setField(aiService, "chatClient", originalChatClient);
+    }
+
+    @Test
+    public void testSecondReanalyzeReusesAllFacets() throws Exception {
+        Document document = saveDocument(CONTENT);
+
+        reanalyze(document, false).andExpect(jsonPath("$.reusedFacets", empty()));
+        assertEquals(3, totalCalls());
+
+        llmCalls.clear();
+        reanalyze(document, false).andExpect(jsonPath("$.reusedFacets", containsInAnyOrder(
+            AiService.FACET_SUMMARY, AiService.FACET_KEYWORDS, AiService.FACET_COMPONENTS)));
+        assertEquals(0, totalCalls());
+    }
+
+    @Test
+    public void testChangedInputsOrForceRerunFacets() throws Exception {
+        Document document = saveDocument(CONTENT);
+        reanalyze(document, false);
+
+        // Neues Keyword-Template: nur diese Facette läuft erneut
+        @SuppressWarnings("unchecked")
+        Map<String, PromptTemplate> templates = (Map<String, PromptTemplate>) ReflectionTestUtils.getField(promptTemplates, "templates");
+        PromptTemplate keywords = templates.get(PromptTemplateRegistry.KEYWORDS);
+        String source = "Extrahiere Keywords (neue Fassung).\n" + keywords.getParamNames().stream()
+            .map(name -> "{{" + name + "}}")
+            .collect(Collectors.joining("\n"));
+        templates.put(PromptTemplateRegistry.KEYWORDS,
+            PromptTemplate.compile(PromptTemplateRegistry.KEYWORDS, keywords.getVersion() + 1, source));
+        try {
+            llmCalls.clear();
+            reanalyze(document, false).andExpect(jsonPath("$.reusedFacets", containsInAnyOrder(
+                AiService.FACET_SUMMARY, AiService.FACET_COMPONENTS)));
+            assertEquals(Map.of("keywords", 1), callsByType());
+        } finally {
+            templates.put(PromptTemplateRegistry.KEYWORDS, keywords);
+        }
+
+        // force=true ignoriert die gespeicherte Herkunft
+        llmCalls.clear();
+        reanalyze(document, true).andExpect(jsonPath("$.reusedFacets", empty()));
+        assertEquals(3, totalCalls());
+
+        // Geänderter Inhalt: alle Facetten neu
+        Document changed = documentRepository.findById(document.getId()).orElseThrow();
+        changed.setContent(CONTENT + " Zusätzlich: Reporting mit Grafana.");
+        documentRepository.save(changed);
+        llmCalls.clear();
+        reanalyze(document, false).andExpect(jsonPath("$.reusedFacets", empty()));
+        assertEquals(3, totalCalls());
+    }
+
+    private Document saveDocument(String content) {
+        Document document = new Document();
+        document.setTitle("Lastenheft Memo");
+        document.setContent(content);
+        return documentService.saveDocument(document);
+    }
+
+    private ResultActions reanalyze(Document document, boolean force) throws Exception {
+        return mockMvc.perform(post("/api/documents/" + document.getId() + "/reanalyze")
+                .param("force", String.valueOf(force)))
+            .andExpect(status().isOk());
+    }
+
+    private int totalCalls() {
+        return llmCalls.values().stream().mapToInt(AtomicInteger::get).sum();
+    }
+
+    private Map<String, Integer> callsByType() {
+        return llmCalls.entrySet().stream()
+            .filter(entry -> entry.getValue().get() > 0)
+            .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().get()));
+    }
+
+    private static String answer(String type) {
+        switch (type) {
+            case "keywords":
+                return "{\"projekt\": [\"Angebotsverwaltung\"], \"konzepte\": [\"REST\", \"Export\"]}";
+            case "components":
+                return "Spring Security, Flyway, Swagger/OpenAPI";
+            default:
+                return "**Zusammenfassung:** Angebotsverwaltung mit Spring Boot und Angular. **Details:** PDF-Export.";
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.bits.aidocassist.test;
+
+import com.bits.aidocassist.service.TextPreprocessingService;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SegmentSplitTest {
+
+    private final TextPreprocessingService preprocessingService = new TextPreprocessingService();
+
+    private static String spec(String insertedParagraph) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            text.append("Abschnitt ").append(i)
+                .append(": Das Backend stellt für Modul ").append(i % 23)
+                .append(" eine REST API bereit, validiert Eingaben und speichert Ergebnisse in PostgreSQL.\n\n");
+            if (i == 20 && insertedParagraph != null) {
+                text.append(insertedParagraph).append("\n\n");
+            }
+        }
+        return text.toString();
+    }
+
+    @Test
+    public void testInsertOnlyChangesNearbySegments() {
+        List<String> original = preprocessingService.splitIntoSegments(spec(null), 300);
+        List<String> revision = preprocessingService.splitIntoSegments(spec("Neu: Authentifizierung per OAuth2."), 300);
+
+        Set<String> known = new HashSet<>(original);
+        long changed = revision.stream().filter(segment -> !known.contains(segment)).count();
+
+        // Greedy-Chunking würde ab der Einfügung jede Grenze verschieben
+        assertTrue(original.size() > 10);
+        assertTrue(changed <= 2, "geänderte Segmente: " + changed);
+    }
+
+    @Test
+    public void testInsertInPreprocessedTextOnlyChangesNearbySegments() {
+        // Die Vorverarbeitung fasst Absätze zusammen und annotiert Satzenden ("[TERM:PostgreSQL.]")
+        List<String> original = preprocessingService.splitIntoSegments(preprocessingService.preprocessText(spec(null)), 300);
+        List<String> revision = preprocessingService.splitIntoSegments(
+            preprocessingService.preprocessText(spec("Neu: Authentifizierung per OAuth2.")), 300);
+
+        Set<String> known = new HashSet<>(original);
+        long changed = revision.stream().filter(segment -> !known.contains(segment)).count();
+
+        // Budget-Schnitte verschieben die Grenzen etwas länger als bei Absätzen, der Rest bleibt identisch
+        assertTrue(original.size() > 10);
+        assertTrue(changed * 4 <= revision.size(), "geänderte Segmente: " + changed + " von " + revision.size());
+    }
+
+    @Test
+    public void testSegmentsKeepTextAndBudget() {
+        String text = spec(null);
+        List<String> segments = preprocessingService.splitIntoSegments(text, 300);
+
+        assertTrue(segments.stream().allMatch(segment -> segment.length() <= 1200));
+        assertEquals(text.trim(), String.join("\n\n", segments));
+    }
+}
@@ -0,0 +1,41 @@
+package com.bits.aidocassist.test;
+
+import com.bits.aidocassist.util.SimHash;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SimHashTest {
+
+    private static String spec(String changedLine) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 120; i++) {
+            text.append("Anforderung ").append(i)
+                .append(": Das Backend mit Spring Boot stellt eine REST API für Modul ").append(i % 17)
+                .append(" bereit und speichert Daten in PostgreSQL.\n");
+            if (i == 60) {
+                text.append(changedLine).append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    @Test
+    public void testRevisionIsNearDuplicate() {
+        long original = SimHash.fingerprint(spec("Deployment erfolgt mit Docker."));
+        long revision = SimHash.fingerprint(spec("Deployment erfolgt mit Kubernetes auf AWS."));
+
+        assertEquals(0, SimHash.distance(original, original));
+        assertTrue(SimHash.distance(original, revision) <= 3);
+    }
+
+    @Test
+    public void testUnrelatedTextsAreFarApart() {
+        long spec = SimHash.fingerprint(spec("Deployment erfolgt mit Docker."));
+        long other = SimHash.fingerprint("Quartalsbericht: Umsatz und Marketing-Kennzahlen für das Vertriebsteam, "
+            + "inklusive Kampagnen, Budgetplanung und Personalentwicklung im kommenden Geschäftsjahr.");
+
+        assertTrue(SimHash.distance(spec, other) > 10);
+    }
+}
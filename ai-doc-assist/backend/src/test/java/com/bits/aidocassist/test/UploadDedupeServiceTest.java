@@ -0,0 +1,103 @@
+package com.bits.aidocassist.test;
+
+import com.bits.aidocassist.model.Document;
+import com.bits.aidocassist.service.AiService;
+import com.bits.aidocassist.service.DocumentService;
+import com.bits.aidocassist.service.FacetMemoService;
+import com.bits.aidocassist.service.UploadDedupeService;
+import com.bits.aidocassist.util.HashUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class UploadDedupeServiceTest {
+
+    private static final Set<String> FACETS = Set.of(
+        AiService.FACET_SUMMARY, AiService.FACET_KEYWORDS, AiService.FACET_COMPONENTS);
+
+    @Autowired
+    private UploadDedupeService uploadDedupeService;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private FacetMemoService facetMemoService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private byte[] upload;
+    private String contentHash;
+    private Document analyzed;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        // Eindeutig je Testlauf, damit Dokumente anderer Tests nicht als Duplikat zählen
+        upload = ("Lastenheft " + System.nanoTime() + ": REST-API mit Spring Boot und PostgreSQL")
+            .getBytes(StandardCharsets.UTF_8);
+        contentHash = uploadDedupeService.contentHash(new MockMultipartFile("file", upload));
+
+        analyzed = new Document();
+        analyzed.setTitle("Lastenheft");
+        analyzed.setContent("REST-API mit Spring Boot und PostgreSQL");
+        analyzed.setSummary("REST-API für Lastenheft");
+        analyzed.setKeywords("rest, spring boot, postgresql");
+        analyzed.setSuggestedComponents("Spring Boot, PostgreSQL");
+        analyzed.setContentHash(contentHash);
+        FACETS.forEach(facet -> facetMemoService.record(analyzed, facet));
+        analyzed = documentService.saveDocument(analyzed);
+
+        // Neuere Zeile derselben Datei ohne gültige Analyse (z.B. abgebrochen) wird übersprungen
+        Document incomplete = new Document();
+        incomplete.setTitle("Lastenheft");
+        incomplete.setContent("REST-API mit Spring Boot und PostgreSQL");
+        incomplete.setContentHash(contentHash);
+        documentService.saveDocument(incomplete);
+    }
+
+    @Test
+    public void testFindsNewestDocumentWithValidFacets() throws Exception {
+        assertEquals(HashUtils.sha256Hex(new String(upload, StandardCharsets.UTF_8)), contentHash);
+
+        Optional<Document> reusable = uploadDedupeService.findReusable(contentHash, FACETS);
+        assertTrue(reusable.isPresent());
+        assertEquals(analyzed.getId(), reusable.get().getId());
+
+        assertTrue(uploadDedupeService.findReusable(HashUtils.sha256Hex("anderer Inhalt"), FACETS).isEmpty());
+        assertTrue(uploadDedupeService.findReusable(contentHash, List.of("sentiment")).isEmpty());
+    }
+
+    @Test
+    public void testUploadAndOfflineBatchShortCircuit() throws Exception {
+        mockMvc.perform(multipart("/api/documents")
+                .file(new MockMultipartFile("file", "lastenheft.txt", "text/plain", upload)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.document.id").value(analyzed.getId()))
+            .andExpect(jsonPath("$.metadata.exactDuplicateOf").value(analyzed.getId()));
+
+        mockMvc.perform(multipart("/api/documents/batch/offline")
+                .file(new MockMultipartFile("files", "lastenheft.txt", "text/plain", upload)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.job").doesNotExist())
+            .andExpect(jsonPath("$.errors").isEmpty())
+            .andExpect(jsonPath("$.reusedDocuments[0].id").value(analyzed.getId()));
+    }
+}
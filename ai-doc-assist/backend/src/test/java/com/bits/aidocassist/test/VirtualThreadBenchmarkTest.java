@@ -0,0 +1,147 @@
+package com.bits.aidocassist.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.web.client.RestTemplate;
+
+import com.bits.aidocassist.demo.MockLlmServer;
+import com.bits.aidocassist.util.InstrumentedExecutor;
+import com.bits.aidocassist.util.VirtualThreads;
+
+/**
+ * Vergleich Plattform- vs. virtuelle Threads für blockierende Uploads (3 LLM-Aufrufe je Upload).
+ * Nur mit -Dbenchmark=true, z.B. mvn test -Dtest=VirtualThreadBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class VirtualThreadBenchmarkTest {
+
+    private static final int CONCURRENT_UPLOADS = Integer.getInteger("benchmark.concurrency", 200);
+    private static final int TOTAL_UPLOADS = Integer.getInteger("benchmark.uploads", 600);
+    private static final int FACETS_PER_UPLOAD = 3;
+
+    private final RestTemplate restTemplate = new RestTemplate();
+    private MockLlmServer server;
+
+    @BeforeEach
+    public void startServer() throws Exception {
+        server = new MockLlmServer(0, 200, 600, 0.0, 0.0, 24, 0, 42);
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop();
+    }
+
+    @Test
+    public void benchmarkPlatformThreads() throws Exception {
+        // Wie im Standardbetrieb: Tomcat-Pool (200) + ai-io-Pool (32 Threads, Queue 256)
+        ExecutorService requestThreads = Executors.newFixedThreadPool(CONCURRENT_UPLOADS);
+        InstrumentedExecutor aiIo = new InstrumentedExecutor("bench-ai-io", 32, 256,
+            InstrumentedExecutor.RejectionPolicy.CALLER_RUNS);
+        run("platform", requestThreads, aiIo);
+    }
+
+    @Test
+    public void benchmarkVirtualThreads() throws Exception {
+        assumeTrue(VirtualThreads.isSupported(), "Virtuelle Threads erst ab Java 21");
+        ExecutorService requestThreads = VirtualThreads.newPerTaskExecutor().orElseThrow();
+        InstrumentedExecutor aiIo = new InstrumentedExecutor("bench-ai-io", 1000, 0,
+            InstrumentedExecutor.RejectionPolicy.CALLER_RUNS, VirtualThreads.threadFactory("bench-ai-io").orElseThrow(), true);
+        run("virtual", requestThreads, aiIo);
+    }
+
+    private void run(String mode, ExecutorService requestThreads, InstrumentedExecutor aiIo) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long baselineHeap = runtime.totalMemory() - runtime.freeMemory();
+        int baselineThreads = threads.getThreadCount();
+
+        // Peak-Werte während der Last abtasten (Thread-Zahl inkl. der Threads des Mock-Servers)
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger peakThreads = new AtomicInteger();
+        AtomicLong peakHeap = new AtomicLong();
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+                peakHeap.accumulateAndGet(runtime.totalMemory() - runtime.freeMemory(), Math::max);
+                sleep(10);
+            }
+        }, "bench-sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+
+        // Gleiche Anzahl gleichzeitiger Uploads in beiden Modi
+        Semaphore inFlight = new Semaphore(CONCURRENT_UPLOADS);
+        AtomicInteger completed = new AtomicInteger();
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> uploads = new ArrayList<>(TOTAL_UPLOADS);
+        for (int i = 0; i < TOTAL_UPLOADS; i++) {
+            int upload = i;
+            inFlight.acquire();
+            uploads.add(CompletableFuture.runAsync(() -> {
+                List<CompletableFuture<Map<?, ?>>> facets = new ArrayList<>(FACETS_PER_UPLOAD);
+                for (int facet = 0; facet < FACETS_PER_UPLOAD; facet++) {
+                    String prompt = "Fasse zusammen.\nTEXT:\nDokument " + upload + " Facette " + facet;
+                    facets.add(CompletableFuture.supplyAsync(() -> call(prompt), aiIo));
+                }
+                // Wie der Controller: der Request-Thread blockiert bis alle Facetten fertig sind
+                CompletableFuture.allOf(facets.toArray(new CompletableFuture[0])).join();
+                completed.incrementAndGet();
+            }, requestThreads).whenComplete((result, error) -> inFlight.release()));
+        }
+        CompletableFuture.allOf(uploads.toArray(new CompletableFuture[0])).join();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        running.set(false);
+        sampler.join();
+        requestThreads.shutdown();
+        aiIo.shutdown();
+        requestThreads.awaitTermination(10, TimeUnit.SECONDS);
+
+        InstrumentedExecutor.ExecutorStats stats = aiIo.getStats();
+        System.out.printf("[benchmark] %-8s uploads=%d concurrency=%d throughput=%.1f uploads/s "
+                + "platformThreads(peak)=%d (+%d) heap/in-flight=%.1f KB aiIo p95 wait=%dms%n",
+            mode, TOTAL_UPLOADS, CONCURRENT_UPLOADS, TOTAL_UPLOADS / seconds,
+            peakThreads.get(), peakThreads.get() - baselineThreads,
+            Math.max(0, peakHeap.get() - baselineHeap) / 1024.0 / CONCURRENT_UPLOADS,
+            stats.getP95WaitMs());
+
+        assertEquals(TOTAL_UPLOADS, completed.get());
+    }
+
+    private Map<?, ?> call(String prompt) {
+        Map<String, Object> request = Map.of(
+            "model", "gpt-4o-mini",
+            "messages", List.of(Map.of("role", "user", "content", prompt)));
+        return restTemplate.postForObject(server.getChatCompletionsUrl(), request, Map.class);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}